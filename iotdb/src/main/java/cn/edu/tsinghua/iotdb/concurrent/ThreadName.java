@@ -14,7 +14,10 @@ public enum ThreadName {
     FORCE_FLUSH_ALL_POLICY("IoTDB-ForceFlushAllPolicy-Thread"),
     STAT_MONITOR("StatMonitor-ServerServiceImpl"),
     FLUSH_SERVICE("Flush-ServerServiceImpl"),
+    AGGREGATE_SERVICE("Aggregate-ServerServiceImpl"),
     WAL_DAEMON("IoTDB-MultiFileLogNodeManager-Sync-Thread"),
+    WAL_GROUP_COMMIT("IoTDB-WAL-GroupCommit-Thread"),
+    WAL_RECOVER("WAL-Recover"),
     INDEX_SERVICE("Index-ServerServiceImpl");
     
     private String name;
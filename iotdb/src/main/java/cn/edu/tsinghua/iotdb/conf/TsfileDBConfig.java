@@ -37,6 +37,55 @@ public class TsfileDBConfig {
 	 * operations
 	 */
 	public long flushWalPeriodInMs = 10000;
+
+	/**
+	 * If set true, write ahead logs of all storage groups are committed by a shared
+	 * commit thread, which forces each log file at most once per commit window
+	 * instead of forcing per log node whenever flush_wal_threshold is reached.
+	 */
+	public boolean enableWalGroupCommit = false;
+
+	/**
+	 * The time window (in milliseconds) during which the group commit thread
+	 * collects logs before forcing them to disk. The latency of a synchronous
+	 * insert is bounded by this window plus the time of a fsync.
+	 */
+	public long walGroupCommitWindowInMs = 10;
+
+	/**
+	 * When group commit is enabled, if set true, an insert returns only after its
+	 * log is forced to disk. Otherwise it returns as soon as the log is queued.
+	 */
+	public boolean walGroupCommitSync = true;
+
+	/**
+	 * Size (in bytes) of the buffer of each write ahead log node into which logs
+	 * are encoded before being written to the log file.
+	 */
+	public int walBufferSize = 2 * 1024 * 1024;
+
+	/**
+	 * If set true, the buffer of each write ahead log node is allocated outside
+	 * of the heap so that writing it to the log file does not need a copy.
+	 */
+	public boolean walBufferDirect = false;
+
+	/**
+	 * If set true, write ahead logs are written into preallocated segment files
+	 * through memory mapping instead of being appended to a single file.
+	 */
+	public boolean enableWalSegment = false;
+
+	/**
+	 * Size (in bytes) of each write ahead log segment file.
+	 */
+	public long walSegmentSize = 64 * 1024 * 1024;
+
+	/**
+	 * How many storage groups can replay their write ahead logs concurrently
+	 * when recovering. When <= 0, use CPU core number.
+	 */
+	public int walRecoverParallelism = Runtime.getRuntime().availableProcessors();
 	/**
 	 * Data directory
 	 */
@@ -100,6 +149,13 @@ public class TsfileDBConfig {
 	 */
 	public int mergeConcurrentThreads = Runtime.getRuntime().availableProcessors();
 
+	/**
+	 * The maximum rate in MB per second at which all the merge threads write
+	 * the merged tsfiles, the data read by merge is about the same. When the
+	 * value<=0, the merge is not throttled.
+	 */
+	public int mergeThroughputInMBPerSec = 0;
+
 	/**
 	 * Maximum number of folders open at the same time
 	 */
@@ -138,6 +194,36 @@ public class TsfileDBConfig {
 	 */
 	public int concurrentFlushThread = Runtime.getRuntime().availableProcessors();
 
+	/**
+	 * How many memtables a bufferwrite processor can use. One of them receives writes while the others are being
+	 * flushed, writes are blocked only when all of them are in use. Should be at least 2.
+	 */
+	public int memtableNumber = 2;
+
+	/**
+	 * Whether to read sealed TsFiles through memory mapping in queries, so that the pages are decoded from the
+	 * mapped file without being copied to the heap.
+	 */
+	public boolean enableMMapForSealedFile = true;
+
+	/**
+	 * The total size in byte of the sealed TsFiles which stay mapped while no query reads them, so that the next
+	 * queries reuse their mappings. Beyond it the least recently released mappings are unmapped. When 0, a file is
+	 * unmapped as soon as no query reads it.
+	 */
+	public long sealedFileMappingCacheSize = 1024 * 1024 * 1024L;
+
+	/**
+	 * How many threads of all the queries can concurrently aggregate series. When <= 0, use CPU core number.
+	 */
+	public int concurrentAggregateThread = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * How many series of one aggregation query can be aggregated concurrently, so that a query over many series
+	 * doesn't take all the aggregate threads. When <= 0 or > concurrentAggregateThread, use concurrentAggregateThread.
+	 */
+	public int aggregateParallelismPerQuery = Runtime.getRuntime().availableProcessors();
+
 	public DateTimeZone timeZone = DateTimeZone.getDefault();
 	
 	/**
@@ -232,6 +318,56 @@ public class TsfileDBConfig {
 	 */
 	public int mManagerCacheSize = 400000;
 
+	/**
+	 * Capacity (in bytes) of {@link cn.edu.tsinghua.iotdb.engine.cache.TsFileMetaDataCache}. The size of a
+	 * cached TsFileMetaData is estimated from its delta objects and time series.
+	 */
+	public long fileMetadataCacheSizeInByte = 64L * 1024 * 1024;
+
+	/**
+	 * Capacity (in bytes) of {@link cn.edu.tsinghua.iotdb.engine.cache.RowGroupBlockMetaDataCache}. The size of a
+	 * cached TsRowGroupBlockMetaData is estimated from its row groups and time series chunks.
+	 */
+	public long rowGroupMetadataCacheSizeInByte = 128L * 1024 * 1024;
+
+	/**
+	 * Capacity (in bytes) of {@link cn.edu.tsinghua.iotdb.engine.cache.SeriesChunkCache}, which keeps the series
+	 * chunks of sealed TsFiles uncompressed for the queries reading them again. The cache is disabled if it is 0,
+	 * which is the default since the scans of large ranges would only churn it.
+	 */
+	public long seriesChunkCacheSizeInByte = 0;
+
+	/**
+	 * The intervals (in ms) of the rollups, which pre-aggregate the points of the numeric series in the buckets of the
+	 * intervals when they are flushed, see {@link cn.edu.tsinghua.iotdb.engine.rollup.RollupSeries}. The group by
+	 * queries whose unit is a multiple of an interval read the rollups instead of the points. No rollup is kept if it
+	 * is empty.
+	 */
+	public long[] rollupIntervals = {};
+
+	/**
+	 * The storage groups whose rollups are kept. The rollups of all the storage groups are kept if it is empty.
+	 */
+	public String[] rollupStorageGroups = {};
+
+	/**
+	 * Capacity (in bytes) of the cache of the rollups of sealed TsFiles read by the group by queries, which are cached
+	 * per series. A quarter of it caches the indexes of the series in the rollup files.
+	 */
+	public long rollupCacheSizeInByte = 64L * 1024 * 1024;
+
+	/**
+	 * Whether to keep the last point of each series in memory, see
+	 * {@link cn.edu.tsinghua.iotdb.engine.cache.LastValueCache}, so that the queries of the latest values, i.e. the last
+	 * aggregations and the previous fills, don't read the files again.
+	 */
+	public boolean enableLastValueCache = true;
+
+	/**
+	 * The maximum number of series whose last points are cached, the least recently used ones are evicted.
+	 */
+	public int lastValueCacheSize = 100000;
+
 	/**
 	 * The maximum size of a single log in byte. If a log exceeds this size, it cannot be written to WAL file.
 	 */
@@ -5,6 +5,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Properties;
 
 import cn.edu.tsinghua.iotdb.engine.memcontrol.BasicMemController;
@@ -90,6 +91,18 @@ public class TsfileDBDescriptor {
 
 			conf.flushWalThreshold = Integer.parseInt(properties.getProperty("flush_wal_threshold", conf.flushWalThreshold+""));
 			conf.flushWalPeriodInMs = Integer.parseInt(properties.getProperty("flush_wal_period_in_ms", conf.flushWalPeriodInMs+""));
+			conf.enableWalGroupCommit = Boolean.parseBoolean(properties.getProperty("enable_wal_group_commit", conf.enableWalGroupCommit+""));
+			conf.walGroupCommitWindowInMs = Long.parseLong(properties.getProperty("wal_group_commit_window_in_ms", conf.walGroupCommitWindowInMs+"").trim());
+			conf.walGroupCommitSync = Boolean.parseBoolean(properties.getProperty("wal_group_commit_sync", conf.walGroupCommitSync+""));
+			int walBufferSize = Integer.parseInt(properties.getProperty("wal_buffer_size", conf.walBufferSize+"").trim());
+			conf.walBufferSize = walBufferSize > 0 ? walBufferSize : conf.walBufferSize;
+			conf.walBufferDirect = Boolean.parseBoolean(properties.getProperty("wal_buffer_direct", conf.walBufferDirect+""));
+			conf.enableWalSegment = Boolean.parseBoolean(properties.getProperty("enable_wal_segment", conf.enableWalSegment+""));
+			long walSegmentSize = Long.parseLong(properties.getProperty("wal_segment_size", conf.walSegmentSize+"").trim());
+			conf.walSegmentSize = walSegmentSize > 0 ? walSegmentSize : conf.walSegmentSize;
+			conf.walRecoverParallelism = Integer.parseInt(properties.getProperty("wal_recover_parallelism", conf.walRecoverParallelism+"").trim());
+			if (conf.walRecoverParallelism <= 0)
+				conf.walRecoverParallelism = Runtime.getRuntime().availableProcessors();
 			
 			conf.dataDir = properties.getProperty("data_dir", conf.dataDir);
 			conf.bufferWriteDirs = properties.getProperty("tsfile_dir", conf.default_tsfile_dir).split(",");
@@ -103,6 +116,7 @@ public class TsfileDBDescriptor {
 			if (conf.mergeConcurrentThreads <= 0
 					|| conf.mergeConcurrentThreads > Runtime.getRuntime().availableProcessors())
 				conf.mergeConcurrentThreads = Runtime.getRuntime().availableProcessors();
+			conf.mergeThroughputInMBPerSec = Integer.parseInt(properties.getProperty("merge_throughput_in_mb_per_sec", conf.mergeThroughputInMBPerSec + "").trim());
 			
 			conf.fetchSize = Integer.parseInt(properties.getProperty("fetch_size", conf.fetchSize + ""));
 			
@@ -140,11 +154,45 @@ public class TsfileDBDescriptor {
 			if (conf.concurrentFlushThread <= 0)
 				conf.concurrentFlushThread = Runtime.getRuntime().availableProcessors();
 
+			conf.memtableNumber = Integer.parseInt(properties.getProperty("memtable_number", conf.memtableNumber + "").trim());
+			if (conf.memtableNumber < 2)
+				conf.memtableNumber = 2;
+			conf.enableMMapForSealedFile = Boolean.parseBoolean(properties.getProperty("enable_mmap_for_sealed_file", conf.enableMMapForSealedFile + "").trim());
+			conf.sealedFileMappingCacheSize = Long.parseLong(properties.getProperty("sealed_file_mapping_cache_size", conf.sealedFileMappingCacheSize + "").trim());
+			if (conf.sealedFileMappingCacheSize < 0)
+				conf.sealedFileMappingCacheSize = 0;
+
+			conf.concurrentAggregateThread = Integer
+					.parseInt(properties.getProperty("concurrent_aggregate_thread", conf.concurrentAggregateThread + "").trim());
+			if (conf.concurrentAggregateThread <= 0)
+				conf.concurrentAggregateThread = Runtime.getRuntime().availableProcessors();
+			conf.aggregateParallelismPerQuery = Integer.parseInt(
+					properties.getProperty("aggregate_parallelism_per_query", conf.aggregateParallelismPerQuery + "").trim());
+			if (conf.aggregateParallelismPerQuery <= 0 || conf.aggregateParallelismPerQuery > conf.concurrentAggregateThread)
+				conf.aggregateParallelismPerQuery = conf.concurrentAggregateThread;
+
 			conf.enableMemMonitor = Boolean.parseBoolean(properties.getProperty("enable_mem_monitor", conf.enableMemMonitor + "").trim());
 			conf.enableSmallFlush = Boolean.parseBoolean(properties.getProperty("enable_small_flush", conf.enableSmallFlush + "").trim());
 			conf.smallFlushInterval = Long.parseLong(properties.getProperty("small_flush_interval", conf.smallFlushInterval + "").trim());
 			conf.externalSortThreshold = Integer.parseInt(properties.getProperty("external_sort_threshold", conf.externalSortThreshold + "").trim());
 			conf.mManagerCacheSize = Integer.parseInt(properties.getProperty("schema_manager_cache_size", conf.mManagerCacheSize + "").trim());
+			conf.fileMetadataCacheSizeInByte = Long.parseLong(properties.getProperty("file_metadata_cache_size_in_byte", conf.fileMetadataCacheSizeInByte + "").trim());
+			conf.rowGroupMetadataCacheSizeInByte = Long.parseLong(properties.getProperty("row_group_metadata_cache_size_in_byte", conf.rowGroupMetadataCacheSizeInByte + "").trim());
+			conf.seriesChunkCacheSizeInByte = Long.parseLong(properties.getProperty("series_chunk_cache_size_in_byte", conf.seriesChunkCacheSizeInByte + "").trim());
+
+			String rollupIntervals = properties.getProperty("rollup_intervals", "").trim();
+			if (!rollupIntervals.isEmpty()) {
+				conf.rollupIntervals = Arrays.stream(rollupIntervals.split(",")).map(String::trim)
+						.mapToLong(Long::parseLong).filter(interval -> interval > 0).distinct().toArray();
+			}
+			String rollupStorageGroups = properties.getProperty("rollup_storage_groups", "").trim();
+			if (!rollupStorageGroups.isEmpty()) {
+				conf.rollupStorageGroups = Arrays.stream(rollupStorageGroups.split(",")).map(String::trim)
+						.filter(storageGroup -> !storageGroup.isEmpty()).toArray(String[]::new);
+			}
+			conf.rollupCacheSizeInByte = Long.parseLong(properties.getProperty("rollup_cache_size_in_byte", conf.rollupCacheSizeInByte + "").trim());
+			conf.enableLastValueCache = Boolean.parseBoolean(properties.getProperty("enable_last_value_cache", conf.enableLastValueCache + "").trim());
+			conf.lastValueCacheSize = Integer.parseInt(properties.getProperty("last_value_cache_size", conf.lastValueCacheSize + "").trim());
 
 			int maxLogEntrySize = Integer.parseInt(properties.getProperty("max_log_entry_size", conf.maxLogEntrySize + "").trim());
 			conf.maxLogEntrySize = maxLogEntrySize > 0 ? maxLogEntrySize : conf.maxLogEntrySize;
@@ -2,6 +2,7 @@ package cn.edu.tsinghua.iotdb.engine.bufferwrite;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Future;
@@ -22,10 +23,11 @@ import cn.edu.tsinghua.iotdb.engine.Processor;
 import cn.edu.tsinghua.iotdb.engine.memcontrol.BasicMemController;
 import cn.edu.tsinghua.iotdb.engine.memtable.IMemTable;
 import cn.edu.tsinghua.iotdb.engine.memtable.MemSeriesLazyMerger;
-import cn.edu.tsinghua.iotdb.engine.memtable.PrimitiveMemTable;
+import cn.edu.tsinghua.iotdb.engine.memtable.MemTablePool;
 import cn.edu.tsinghua.iotdb.engine.pool.FlushManager;
 import cn.edu.tsinghua.iotdb.engine.querycontext.RawSeriesChunk;
 import cn.edu.tsinghua.iotdb.engine.querycontext.RawSeriesChunkLazyLoadImpl;
+import cn.edu.tsinghua.iotdb.engine.querycontext.UnsealedTsFile;
 import cn.edu.tsinghua.iotdb.engine.utils.FlushStatus;
 import cn.edu.tsinghua.iotdb.exception.BufferWriteProcessorException;
 import cn.edu.tsinghua.iotdb.utils.MemUtils;
@@ -43,14 +45,25 @@ public class BufferWriteProcessor extends Processor {
     private FileSchema fileSchema;
     private BufferWriteRestoreManager bufferWriteRestoreManager;
 
+    /**
+     * Flushing means that a flush task of this processor is running or submitted, the task flushes the memtables
+     * in flushMemTables one by one until none is left.
+     */
     private volatile FlushStatus flushStatus = new FlushStatus();
-    private volatile boolean isFlush;
     private ReentrantLock flushQueryLock = new ReentrantLock();
     private AtomicLong memSize = new AtomicLong();
     private long memThreshold = TSFileDescriptor.getInstance().getConfig().groupSizeInByte;
 
+    private MemTablePool memTablePool;
     private IMemTable workMemTable;
-    private IMemTable flushMemTable;
+    /**
+     * Memtables waiting to be flushed in the order of switching, the first one is being flushed.
+     */
+    private LinkedList<IMemTable> flushMemTables = new LinkedList<>();
+    /**
+     * The memory reported for each memtable in flushMemTables, which is freed when the memtable is flushed.
+     */
+    private LinkedList<Long> flushMemSizes = new LinkedList<>();
 
     private Action bufferwriteFlushAction = null;
     private Action bufferwriteCloseAction = null;
@@ -95,7 +108,8 @@ public class BufferWriteProcessor extends Processor {
         bufferwriteFlushAction = (Action) parameters.get(FileNodeConstants.BUFFERWRITE_FLUSH_ACTION);
         bufferwriteCloseAction = (Action) parameters.get(FileNodeConstants.BUFFERWRITE_CLOSE_ACTION);
         filenodeFlushAction = (Action) parameters.get(FileNodeConstants.FILENODE_PROCESSOR_FLUSH_ACTION);
-        workMemTable = new PrimitiveMemTable();
+        memTablePool = new MemTablePool(processorName, TsfileDBDescriptor.getInstance().getConfig().memtableNumber);
+        workMemTable = memTablePool.getAvailableMemTable();
 
         if (TsfileDBDescriptor.getInstance().getConfig().enableWal) {
             try {
@@ -181,45 +195,91 @@ public class BufferWriteProcessor extends Processor {
                                                                                     String measurementId, TSDataType dataType) {
         flushQueryLock.lock();
         try {
-            MemSeriesLazyMerger memSeriesLazyMerger = new MemSeriesLazyMerger();
-            if (isFlush) {
-                memSeriesLazyMerger.addMemSeries(flushMemTable.query(deltaObjectId, measurementId, dataType));
-            }
-            memSeriesLazyMerger.addMemSeries(workMemTable.query(deltaObjectId, measurementId, dataType));
-            RawSeriesChunk rawSeriesChunk = new RawSeriesChunkLazyLoadImpl(dataType, memSeriesLazyMerger);
-            return new Pair<>(rawSeriesChunk,
+            return new Pair<>(queryMemTables(deltaObjectId, measurementId, dataType),
                     bufferWriteRestoreManager.getInsertMetadatas(deltaObjectId, measurementId, dataType));
         } finally {
             flushQueryLock.unlock();
         }
     }
 
-    private void switchWorkToFlush() {
+    /**
+     * Query the data in memory, and set the metadata and the rollups of the flushed data of the unsealed tsfile, which
+     * are got at the same time as the data in memory.
+     */
+    public RawSeriesChunk queryBufferWriteData(String deltaObjectId, String measurementId, TSDataType dataType,
+                                               UnsealedTsFile unsealedTsFile) {
         flushQueryLock.lock();
         try {
-            if (flushMemTable == null) {
-                flushMemTable = workMemTable;
-                workMemTable = new PrimitiveMemTable();
-            }
+            unsealedTsFile.setTimeSeriesChunkMetaDatas(
+                    bufferWriteRestoreManager.getInsertMetadatas(deltaObjectId, measurementId, dataType));
+            unsealedTsFile.setRollup(bufferWriteRestoreManager.getInsertRollup(deltaObjectId, measurementId));
+            return queryMemTables(deltaObjectId, measurementId, dataType);
+        } finally {
+            flushQueryLock.unlock();
+        }
+    }
+
+    private RawSeriesChunk queryMemTables(String deltaObjectId, String measurementId, TSDataType dataType) {
+        MemSeriesLazyMerger memSeriesLazyMerger = new MemSeriesLazyMerger();
+        // memtables are reset and reused after being flushed, so the points are copied before the lock is released,
+        // and they are sorted by the reader outside the lock
+        for (IMemTable flushMemTable : flushMemTables) {
+            memSeriesLazyMerger.addMemSeries(flushMemTable.query(deltaObjectId, measurementId, dataType).snapshot());
+        }
+        memSeriesLazyMerger.addMemSeries(workMemTable.query(deltaObjectId, measurementId, dataType).snapshot());
+        return new RawSeriesChunkLazyLoadImpl(dataType, memSeriesLazyMerger);
+    }
+
+    private void switchWorkToFlush(IMemTable newMemTable) {
+        flushQueryLock.lock();
+        try {
+            flushMemTables.addLast(workMemTable);
+            flushMemSizes.addLast(memSize.getAndSet(0));
+            workMemTable = newMemTable;
         } finally {
-            isFlush = true;
             flushQueryLock.unlock();
         }
     }
 
-    private void switchFlushToWork() {
+    private void switchFlushToWork(IMemTable flushMemTable) {
+        long flushMemSize;
         flushQueryLock.lock();
         try {
-            flushMemTable.clear();
-            flushMemTable = null;
+            int index = flushMemTables.indexOf(flushMemTable);
+            flushMemTables.remove(index);
+            flushMemSize = flushMemSizes.remove(index);
             bufferWriteRestoreManager.appendMetadata();
         } finally {
-            isFlush = false;
             flushQueryLock.unlock();
         }
+        memTablePool.putBack(flushMemTable);
+        BasicMemController.getInstance().reportFree(this, flushMemSize);
     }
 
+    /**
+     * Flush the memtables waiting to be flushed one by one, and end the flush task when none is left.
+     */
     private void flushOperation(String flushFunction) {
+        while (true) {
+            IMemTable flushMemTable;
+            synchronized (flushStatus) {
+                flushQueryLock.lock();
+                try {
+                    flushMemTable = flushMemTables.peekFirst();
+                } finally {
+                    flushQueryLock.unlock();
+                }
+                if (flushMemTable == null) {
+                    flushStatus.setUnFlushing();
+                    flushStatus.notifyAll();
+                    return;
+                }
+            }
+            flushOneMemTable(flushMemTable, flushFunction);
+        }
+    }
+
+    private void flushOneMemTable(IMemTable flushMemTable, String flushFunction) {
         long flushStartTime = System.currentTimeMillis();
         LOGGER.info("The bufferwrite processor {} starts flushing {}.", getProcessorName(), flushFunction);
         try {
@@ -234,12 +294,8 @@ public class BufferWriteProcessor extends Processor {
             LOGGER.error("The bufferwrite processor {} failed to flush {}, when calling the filenodeFlushAction.",
                     getProcessorName(), flushFunction, e);
         } finally {
-            synchronized (flushStatus) {
-                flushStatus.setUnFlushing();
-                switchFlushToWork();
-                flushStatus.notify();
-                LOGGER.info("The bufferwrite processor {} ends flushing {}.", getProcessorName(), flushFunction);
-            }
+            switchFlushToWork(flushMemTable);
+            LOGGER.info("The bufferwrite processor {} ends flushing {}.", getProcessorName(), flushFunction);
         }
         long flushEndTime = System.currentTimeMillis();
         long flushInterval = flushEndTime - flushStartTime;
@@ -264,22 +320,13 @@ public class BufferWriteProcessor extends Processor {
         lastFlushTime = System.currentTimeMillis();
         // check value count
         if (valueCount > 0) {
-            // waiting for the end of last flush operation.
-            synchronized (flushStatus) {
-                while (flushStatus.isFlushing()) {
-                    try {
-                        flushStatus.wait();
-                    } catch (InterruptedException e) {
-                        LOGGER.error(
-                                "Encounter an interrupt error when waitting for the flushing, the bufferwrite processor is {}.",
-                                getProcessorName(), e);
-                    }
-                }
-            }
+            // waiting for an available memtable if all of them are being flushed
+            IMemTable newMemTable = memTablePool.getAvailableMemTable();
             // update the lastUpdatetime, prepare for flush
             try {
                 bufferwriteFlushAction.act();
             } catch (Exception e) {
+                memTablePool.putBack(newMemTable);
                 LOGGER.error("Failed to flush bufferwrite row group when calling the action function.");
                 throw new IOException(e);
             }
@@ -287,24 +334,46 @@ public class BufferWriteProcessor extends Processor {
                 logNode.notifyStartFlush();
             }
             valueCount = 0;
-            flushStatus.setFlushing();
-            switchWorkToFlush();
-            BasicMemController.getInstance().reportFree(this, memSize.get());
-            memSize.set(0);
-            // switch
-            if (synchronization) {
-                flushOperation("synchronously");
-            } else {
-                FlushManager.getInstance().submit(new Runnable() {
-                    public void run() {
-                        flushOperation("asynchronously");
-                    }
-                });
+            // the memory of the memtable is still used until it is flushed
+            switchWorkToFlush(newMemTable);
+            boolean startFlushTask;
+            synchronized (flushStatus) {
+                startFlushTask = !flushStatus.isFlushing();
+                flushStatus.setFlushing();
             }
+            // a running flush task also flushes the new memtable
+            if (startFlushTask) {
+                if (synchronization) {
+                    flushOperation("synchronously");
+                } else {
+                    FlushManager.getInstance().submit(new Runnable() {
+                        public void run() {
+                            flushOperation("asynchronously");
+                        }
+                    });
+                }
+            }
+        }
+        if (synchronization) {
+            waitForFlushEnd();
         }
         return null;
     }
 
+    private void waitForFlushEnd() {
+        synchronized (flushStatus) {
+            while (flushStatus.isFlushing()) {
+                try {
+                    flushStatus.wait();
+                } catch (InterruptedException e) {
+                    LOGGER.error(
+                            "Encounter an interrupt error when waitting for the flushing, the bufferwrite processor is {}.",
+                            getProcessorName(), e);
+                }
+            }
+        }
+    }
+
     public boolean isFlush() {
         synchronized (flushStatus) {
             return flushStatus.isFlushing();
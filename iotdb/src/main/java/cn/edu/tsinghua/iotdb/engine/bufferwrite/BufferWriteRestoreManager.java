@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +18,8 @@ import org.slf4j.LoggerFactory;
 
 import cn.edu.tsinghua.iotdb.engine.memtable.IMemTable;
 import cn.edu.tsinghua.iotdb.engine.memtable.MemTableFlushUtil;
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupManager;
+import cn.edu.tsinghua.iotdb.engine.rollup.TsFileRollup;
 import cn.edu.tsinghua.iotdb.utils.MemUtils;
 import cn.edu.tsinghua.tsfile.common.utils.BytesUtils;
 import cn.edu.tsinghua.tsfile.common.utils.Pair;
@@ -43,6 +46,13 @@ public class BufferWriteRestoreManager {
     private String insertFilePath;
     private String restoreFilePath;
     private String processorName;
+    /**
+     * the intervals of the rollups kept in the rollup file of the tsfile, or null if the tsfile keeps no rollup
+     */
+    private long[] rollupIntervals;
+    private String rollupFilePath;
+    private TsFileRollup rollup;
+    private List<TsFileRollup> appendRollups;
 
     private boolean isNewResource = false;
 
@@ -52,6 +62,8 @@ public class BufferWriteRestoreManager {
         this.processorName = processorName;
         this.metadatas = new HashMap<>();
         this.appendRowGroupMetadatas = new ArrayList<>();
+        this.rollupFilePath = TsFileRollup.getRollupFilePath(insertFilePath);
+        this.appendRollups = new ArrayList<>();
         recover();
     }
 
@@ -71,6 +83,7 @@ public class BufferWriteRestoreManager {
             bufferWriteIO = new BufferIO(new TsRandomAccessFileWriter(insertFile), position, metadatas);
 
             recoverMetadata(metadatas);
+            recoverRollup(position, metadatas.isEmpty());
             LOGGER.info(
                     "Recover the bufferwrite processor {}, the tsfile path is {}, the position of last flush is {}, the size of rowGroupMetadata is {}",
                     processorName, insertFilePath, position, metadatas.size());
@@ -78,6 +91,7 @@ public class BufferWriteRestoreManager {
         } else {
             insertFile.delete();
             restoreFile.delete();
+            recoverRollup(0, true);
             bufferWriteIO = new BufferIO(new TsRandomAccessFileWriter(insertFile), 0, new ArrayList<>());
             isNewResource = true;
             writeRestoreInfo();
@@ -100,6 +114,31 @@ public class BufferWriteRestoreManager {
         }
     }
 
+    /**
+     * Cut off the rollups of the data cut off from the tsfile. The tsfile keeps no rollup any more if the storage
+     * group doesn't keep rollups, or its rollups are missing or in other intervals, unless it has no data yet.
+     */
+    private void recoverRollup(long position, boolean isEmpty) throws IOException {
+        long[] intervals = RollupManager.getInstance().getIntervals(processorName);
+        TsFileRollup recoveredRollup = intervals == null ? null : TsFileRollup.recoverFromFile(rollupFilePath, position);
+        if (recoveredRollup != null && Arrays.equals(recoveredRollup.getIntervals(), intervals)) {
+            rollupIntervals = intervals;
+            rollup = recoveredRollup;
+            return;
+        }
+        new File(rollupFilePath).delete();
+        if (intervals != null && isEmpty) {
+            rollupIntervals = intervals;
+            rollup = new TsFileRollup(intervals);
+        } else {
+            if (intervals != null) {
+                LOGGER.warn("The rollups of the tsfile {} of the bufferwrite processor {} can't be recovered, "
+                        + "it keeps no rollup", insertFilePath, processorName);
+            }
+            rollupIntervals = null;
+            rollup = null;
+        }
+    }
 
     private void writeRestoreInfo() throws IOException {
         long lastPosition;
@@ -180,6 +219,13 @@ public class BufferWriteRestoreManager {
         return chunkMetaDatas;
     }
 
+    /**
+     * @return the rollups of the series in the flushed data, or null if the tsfile keeps no rollup
+     */
+    public TsFileRollup getInsertRollup(String deltaObjectId, String measurementId) {
+        return rollup == null ? null : rollup.getSeriesRollup(deltaObjectId, measurementId);
+    }
+
     public String getInsertFilePath() {
         return insertFilePath;
     }
@@ -201,7 +247,13 @@ public class BufferWriteRestoreManager {
             long startPos = bufferWriteIO.getPos();
             long startTime = System.currentTimeMillis();
             // flush data
-            MemTableFlushUtil.flushMemTable(fileSchema, bufferWriteIO, iMemTable);
+            TsFileRollup flushedRollup = MemTableFlushUtil.flushMemTable(fileSchema, bufferWriteIO, iMemTable,
+                    rollupIntervals);
+            // write the rollups before the restore information, so that they are cut off with the data by recovery
+            if (flushedRollup != null) {
+                flushedRollup.appendToFile(rollupFilePath, bufferWriteIO.getPos());
+                appendRollups.add(flushedRollup);
+            }
             // write restore information
             writeRestoreInfo();
             long timeInterval = System.currentTimeMillis() - startTime;
@@ -225,6 +277,12 @@ public class BufferWriteRestoreManager {
             }
             appendRowGroupMetadatas.clear();
         }
+        if (!appendRollups.isEmpty()) {
+            for (TsFileRollup appendRollup : appendRollups) {
+                rollup.append(appendRollup);
+            }
+            appendRollups.clear();
+        }
     }
 
     private void addInsertMetadata(String deltaObjectId, String measurementId, TimeSeriesChunkMetaData chunkMetaData) {
@@ -0,0 +1,280 @@
+package cn.edu.tsinghua.iotdb.engine.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.DataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.TSRecord;
+
+/**
+ * This class is used to cache the last point of each series, so that the
+ * queries of the latest values, e.g. the dashboards polling the latest value
+ * of every sensor, don't walk back through the files and the memory again. It
+ * is enabled by {@link TsfileDBConfig#enableLastValueCache}.
+ * <p>
+ * Only the series queried are cached. A query registers the series by
+ * {@link #getVersion(String, String)} before it reads the data, the insertions
+ * after that are applied to the registered entry by {@link #update(TSRecord)},
+ * and the last point computed by the query is combined with them by
+ * {@link #put(String, String, TimeValuePair, long)}. The insertions of the
+ * series not registered are ignored. The updates and the deletions may change
+ * the last point to an unknown one, so the series is removed by
+ * {@link #invalidate(String, String)} after they are applied, and so is the
+ * version of its entry, which drops the point computed by a query registered
+ * before. The insertions, the updates and the deletions of a storage group are
+ * applied under the write lock of its filenode processor, and so is the cache.
+ * <p>
+ * The series are spread over segments, each of which is an access ordered
+ * {@link LinkedHashMap} guarded by its own lock and evicts its least recently
+ * used series when it exceeds its share of {@link TsfileDBConfig#lastValueCacheSize}.
+ */
+public class LastValueCache {
+
+	private static final int SEGMENT_NUM = 16;
+
+	private final TsfileDBConfig config;
+	private final Segment[] segments;
+	/** false if no series has been registered since the last clearing */
+	private volatile boolean registered;
+
+	/**
+	 * The last point of a series, which is null if the series has no point.
+	 */
+	public static class LastPoint {
+		private final TimeValuePair timeValuePair;
+		private final boolean complete;
+		/** the version of the entry, which is kept by the inserted points */
+		private final long version;
+
+		private LastPoint(TimeValuePair timeValuePair, boolean complete, long version) {
+			this.timeValuePair = timeValuePair;
+			this.complete = complete;
+			this.version = version;
+		}
+
+		public TimeValuePair getTimeValuePair() {
+			return timeValuePair;
+		}
+
+		public boolean hasPoint() {
+			return timeValuePair != null;
+		}
+	}
+
+	private static class LastValueCacheHolder {
+		private static final LastValueCache INSTANCE = new LastValueCache();
+	}
+
+	public static LastValueCache getInstance() {
+		return LastValueCacheHolder.INSTANCE;
+	}
+
+	private LastValueCache() {
+		config = TsfileDBDescriptor.getInstance().getConfig();
+		segments = new Segment[SEGMENT_NUM];
+		for (int i = 0; i < SEGMENT_NUM; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	public boolean isEnabled() {
+		return config.enableLastValueCache;
+	}
+
+	private static String getKey(String deltaObjectId, String measurementId) {
+		return deltaObjectId + "." + measurementId;
+	}
+
+	private Segment segmentFor(String key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return segments[hash & (SEGMENT_NUM - 1)];
+	}
+
+	/**
+	 * @return the complete last point of the series, or null if it is not
+	 *         cached
+	 */
+	public LastPoint get(String deltaObjectId, String measurementId) {
+		if (!isEnabled()) {
+			return null;
+		}
+		String key = getKey(deltaObjectId, measurementId);
+		LastPoint lastPoint = segmentFor(key).get(key);
+		return lastPoint != null && lastPoint.complete ? lastPoint : null;
+	}
+
+	/**
+	 * Register the series, so that the points inserted from now on are kept.
+	 *
+	 * @return the version to be passed to
+	 *         {@link #put(String, String, TimeValuePair, long)}, which must be
+	 *         got before the data of the query is got
+	 */
+	public long getVersion(String deltaObjectId, String measurementId) {
+		registered = true;
+		String key = getKey(deltaObjectId, measurementId);
+		return segmentFor(key).register(key);
+	}
+
+	/**
+	 * Cache the last point computed by a query, combined with the points
+	 * inserted after the data of the query is got. It is dropped if the series
+	 * is invalidated or evicted since the version was got.
+	 *
+	 * @param timeValuePair
+	 *            the last point computed, or null if the series has no point
+	 * @return the last point of the series
+	 */
+	public LastPoint put(String deltaObjectId, String measurementId, TimeValuePair timeValuePair, long version) {
+		LastPoint computed = new LastPoint(timeValuePair, true, version);
+		if (!isEnabled()) {
+			return computed;
+		}
+		String key = getKey(deltaObjectId, measurementId);
+		LastPoint lastPoint = segmentFor(key).complete(key, computed);
+		return lastPoint != null ? lastPoint : computed;
+	}
+
+	/**
+	 * Update the last points of the registered series by the inserted record,
+	 * it must be called after the record is written.
+	 */
+	public void update(TSRecord tsRecord) {
+		if (!isEnabled()) {
+			if (registered) {
+				clear();
+			}
+			return;
+		}
+		if (!registered) {
+			return;
+		}
+		for (DataPoint dataPoint : tsRecord.dataPointList) {
+			String key = getKey(tsRecord.deltaObjectId, dataPoint.getMeasurementId());
+			segmentFor(key).update(key, tsRecord.time, dataPoint);
+		}
+	}
+
+	/**
+	 * Remove the last point of the series, it must be called after the update
+	 * or the deletion is applied.
+	 */
+	public void invalidate(String deltaObjectId, String measurementId) {
+		String key = getKey(deltaObjectId, measurementId);
+		segmentFor(key).remove(key);
+	}
+
+	/**
+	 * Remove the last points of the series of the record, whose insertion
+	 * failed and may be written partly.
+	 */
+	public void invalidate(TSRecord tsRecord) {
+		for (DataPoint dataPoint : tsRecord.dataPointList) {
+			invalidate(tsRecord.deltaObjectId, dataPoint.getMeasurementId());
+		}
+	}
+
+	/**
+	 * Remove the last points of all the series of the storage group, whose
+	 * data is deleted or appended by other files.
+	 */
+	public void invalidateStorageGroup(String storageGroup) {
+		String prefix = storageGroup + ".";
+		for (Segment segment : segments) {
+			segment.removeIf(key -> key.startsWith(prefix));
+		}
+	}
+
+	public void clear() {
+		registered = false;
+		for (Segment segment : segments) {
+			segment.removeIf(key -> true);
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	private class Segment {
+		private final LinkedHashMap<String, LastPoint> map = new LinkedHashMap<>(16, 0.75f, true);
+		/**
+		 * the version of the next registered series, the versions of the
+		 * removed series are never reused
+		 */
+		private long nextVersion;
+
+		private synchronized LastPoint get(String key) {
+			return map.get(key);
+		}
+
+		private synchronized long register(String key) {
+			LastPoint lastPoint = map.get(key);
+			if (lastPoint != null) {
+				return lastPoint.version;
+			}
+			long version = nextVersion++;
+			map.put(key, new LastPoint(null, false, version));
+			int capacity = Math.max(config.lastValueCacheSize / SEGMENT_NUM, 1);
+			Iterator<Map.Entry<String, LastPoint>> iterator = map.entrySet().iterator();
+			while (map.size() > capacity && iterator.hasNext()) {
+				iterator.next();
+				iterator.remove();
+			}
+			return version;
+		}
+
+		/**
+		 * @return the complete last point of the series, or null if the
+		 *         computed one is dropped
+		 */
+		private synchronized LastPoint complete(String key, LastPoint computed) {
+			LastPoint inserted = map.get(key);
+			if (inserted == null || inserted.version != computed.version) {
+				return null;
+			}
+			LastPoint lastPoint;
+			if (!inserted.hasPoint() || (computed.hasPoint()
+					&& computed.timeValuePair.getTimestamp() > inserted.timeValuePair.getTimestamp())) {
+				lastPoint = computed;
+			} else {
+				lastPoint = inserted.complete ? inserted : new LastPoint(inserted.timeValuePair, true, inserted.version);
+			}
+			map.put(key, lastPoint);
+			return lastPoint;
+		}
+
+		private synchronized void update(String key, long time, DataPoint dataPoint) {
+			LastPoint lastPoint = map.get(key);
+			if (lastPoint == null || (lastPoint.hasPoint() && lastPoint.timeValuePair.getTimestamp() > time)) {
+				return;
+			}
+			TimeValuePair timeValuePair = new TimeValuePair(time,
+					TsPrimitiveType.getByType(dataPoint.getType(), dataPoint.getValue()));
+			map.put(key, new LastPoint(timeValuePair, lastPoint.complete, lastPoint.version));
+		}
+
+		private synchronized void remove(String key) {
+			map.remove(key);
+		}
+
+		private synchronized void removeIf(Predicate<String> keyFilter) {
+			map.keySet().removeIf(keyFilter);
+		}
+
+		private synchronized int size() {
+			return map.size();
+		}
+	}
+}
@@ -1,108 +1,96 @@
 package cn.edu.tsinghua.iotdb.engine.cache;
 
 import java.io.IOException;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.monitor.MonitorConstants;
 import cn.edu.tsinghua.tsfile.file.metadata.TsFileMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.TsRowGroupBlockMetaData;
 
 /**
  * This class is used to cache <code>RowGroupBlockMetaDataCache</code> of tsfile
- * in IoTDB.
+ * in IoTDB. The caching strategy is LRU bounded by the estimated size of the
+ * cached metadata, see {@link TsfileDBConfig#rowGroupMetadataCacheSizeInByte}.
  * 
  * @author liukun
  *
  */
 public class RowGroupBlockMetaDataCache {
 
-	private static Logger LOGGER = LoggerFactory.getLogger(RowGroupBlockMetaDataCache.class);
-	private static final int cacheSize = 100;
 	/** key: the file path + DeltaObjectId */
-	private LinkedHashMap<String, TsRowGroupBlockMetaData> LRUCache;
-	private AtomicLong cacheHintNum = new AtomicLong();
-	private AtomicLong cacheRequestNum = new AtomicLong();
+	private WeightedLRUCache<BlockKey, TsRowGroupBlockMetaData> cache;
 
 	/**
-	 * This class is a map used to cache the <code>RowGroupBlockMetaData</code>.
-	 * The caching strategy is LRU.
-	 * 
-	 * @author liukun
-	 *
+	 * The key of the cache, which is the tsfile path and the deltaObjectId.
 	 */
-	private class LRULinkedHashMap extends LinkedHashMap<String, TsRowGroupBlockMetaData> {
+	private static class BlockKey {
+		private final String filePath;
+		private final String deltaObjectId;
+
+		private BlockKey(String filePath, String deltaObjectId) {
+			this.filePath = filePath;
+			this.deltaObjectId = deltaObjectId;
+		}
 
-		private static final long serialVersionUID = 1290160928914532649L;
-		private static final float loadFactor = 0.75f;
-		private int maxCapacity;
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof BlockKey)) {
+				return false;
+			}
+			BlockKey that = (BlockKey) o;
+			return filePath.equals(that.filePath) && deltaObjectId.equals(that.deltaObjectId);
+		}
 
-		public LRULinkedHashMap(int maxCapacity, boolean isLRU) {
-			super(maxCapacity, loadFactor, isLRU);
-			this.maxCapacity = maxCapacity;
+		@Override
+		public int hashCode() {
+			return 31 * filePath.hashCode() + deltaObjectId.hashCode();
 		}
 
 		@Override
-		protected boolean removeEldestEntry(Map.Entry<String, TsRowGroupBlockMetaData> eldest) {
-			return size() > maxCapacity;
+		public String toString() {
+			return filePath + ":" + deltaObjectId;
 		}
 	}
 
 	/*
-	 * the default LRU cache size is 100. The singleton pattern.
+	 * The singleton pattern.
 	 */
 	private static class RowGroupBlockMetaDataCacheSingleton {
-		private static final RowGroupBlockMetaDataCache INSTANCE = new RowGroupBlockMetaDataCache(cacheSize);
+		private static final RowGroupBlockMetaDataCache INSTANCE = new RowGroupBlockMetaDataCache();
 	}
 
 	public static RowGroupBlockMetaDataCache getInstance() {
 		return RowGroupBlockMetaDataCacheSingleton.INSTANCE;
 	}
 
-	private RowGroupBlockMetaDataCache(int cacheSize) {
-		LRUCache = new LRULinkedHashMap(cacheSize, true);
+	private RowGroupBlockMetaDataCache() {
+		TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+		cache = new WeightedLRUCache<BlockKey, TsRowGroupBlockMetaData>(config.rowGroupMetadataCacheSizeInByte) {
+			@Override
+			protected long weigh(BlockKey key, TsRowGroupBlockMetaData blockMetaData) {
+				return TsFileMetadataUtils.estimateSize(key.filePath) + TsFileMetadataUtils.estimateSize(key.deltaObjectId)
+						+ TsFileMetadataUtils.estimateSize(blockMetaData);
+			}
+		};
+		if (config.enableStatMonitor) {
+			cache.registStatistics(MonitorConstants.rowGroupMetadataCachePath);
+		}
 	}
 
 	public TsRowGroupBlockMetaData get(String filePath, String deltaObjectId, TsFileMetaData fileMetaData) throws IOException {
-		/** The key(the tsfile path and deltaObjectId) for the LRUCahe */
-		String jointPath = filePath + deltaObjectId;
-		jointPath = jointPath.intern();
-		synchronized (LRUCache) {
-			cacheRequestNum.incrementAndGet();
-			if (LRUCache.containsKey(jointPath)) {
-				cacheHintNum.incrementAndGet();
-				if (LOGGER.isDebugEnabled()) {
-					LOGGER.debug(
-							"Cache hint: the number of requests for cache is {}, the number of hints for cache is {}",
-							cacheRequestNum.get(), cacheHintNum.get());
-				}
-				return LRUCache.get(jointPath);
-			}
-		}
-		synchronized (jointPath) {
-			synchronized (LRUCache) {
-				if (LRUCache.containsKey(jointPath)) {
-					return LRUCache.get(jointPath);
-				}
-			}
-			if (LOGGER.isDebugEnabled()) {
-				LOGGER.debug("Cache didn't hint: the number of requests for cache is {}", cacheRequestNum.get());
-			}
-			TsRowGroupBlockMetaData blockMetaData = TsFileMetadataUtils.getTsRowGroupBlockMetaData(filePath,
-					deltaObjectId, fileMetaData);
-			synchronized (LRUCache) {
-				LRUCache.put(jointPath, blockMetaData);
-				return LRUCache.get(jointPath);
-			}
-		}
+		return cache.get(new BlockKey(filePath, deltaObjectId),
+				() -> TsFileMetadataUtils.getTsRowGroupBlockMetaData(filePath, deltaObjectId, fileMetaData));
 	}
 
 	public void clear() {
-		synchronized (LRUCache) {
-			LRUCache.clear();
-		}
+		cache.clear();
+	}
+
+	public WeightedLRUCache<?, TsRowGroupBlockMetaData> getCache() {
+		return cache;
 	}
 }
@@ -0,0 +1,200 @@
+package cn.edu.tsinghua.iotdb.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.engine.memcontrol.BasicMemController;
+import cn.edu.tsinghua.iotdb.engine.memcontrol.RecordMemController;
+import cn.edu.tsinghua.iotdb.monitor.MonitorConstants;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.common.MemSeriesChunk;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.common.UncompressedSeriesChunk;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoader;
+
+/**
+ * This class is used to cache the uncompressed series chunks of sealed tsfiles
+ * shared by all the queries, so that the chunks read again, e.g. the recent
+ * data polled by dashboards, are neither read from the file nor uncompressed
+ * again. The caching strategy is LRU bounded by the size of the uncompressed
+ * chunks, see {@link TsfileDBConfig#seriesChunkCacheSizeInByte}.
+ * <p>
+ * The cached chunks are reported to {@link RecordMemController}, and a chunk
+ * is not cached if the memory usage would reach the warning threshold. The
+ * {@link cn.edu.tsinghua.iotdb.engine.memcontrol.JVMMemController} measures
+ * them in the heap already. A missed chunk which can't be cached, because it
+ * is larger than a segment of the cache or the memory usage is not safe, is
+ * read from the file as is rather than copied to the heap. The chunks of a file must be removed by
+ * {@link #removeFile(String)} when the file is deleted, since another file may
+ * be created with the same path.
+ */
+public class SeriesChunkCache {
+
+	/** key: the file path + the offset and length of the chunk in the file */
+	private WeightedLRUCache<ChunkKey, UncompressedSeriesChunk> cache;
+	private boolean enabled;
+	private boolean reportMemory;
+
+	/**
+	 * The key of the cache. A series chunk is identified by its offset in the
+	 * file, the length distinguishes it from the chunks written at the same
+	 * offset by another file with the same path.
+	 */
+	private static class ChunkKey {
+		private final String filePath;
+		private final long offset;
+		private final long length;
+
+		private ChunkKey(String filePath, long offset, long length) {
+			this.filePath = filePath;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof ChunkKey)) {
+				return false;
+			}
+			ChunkKey that = (ChunkKey) o;
+			return offset == that.offset && length == that.length && filePath.equals(that.filePath);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * filePath.hashCode() + Long.hashCode(offset)) + Long.hashCode(length);
+		}
+
+		@Override
+		public String toString() {
+			return filePath + ":" + offset + ":" + length;
+		}
+	}
+
+	private static class SeriesChunkCacheHolder {
+		private static final SeriesChunkCache INSTANCE = new SeriesChunkCache();
+	}
+
+	public static SeriesChunkCache getInstance() {
+		return SeriesChunkCacheHolder.INSTANCE;
+	}
+
+	private SeriesChunkCache() {
+		this(TsfileDBDescriptor.getInstance().getConfig().seriesChunkCacheSizeInByte);
+		TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+		if (enabled && config.enableStatMonitor) {
+			cache.registStatistics(MonitorConstants.seriesChunkCachePath);
+		}
+	}
+
+	/**
+	 * Construct a cache of the given capacity, whose statistics are not registered.
+	 */
+	SeriesChunkCache(long capacityInByte) {
+		enabled = capacityInByte > 0;
+		reportMemory = BasicMemController.getInstance() instanceof RecordMemController;
+		cache = new WeightedLRUCache<ChunkKey, UncompressedSeriesChunk>(capacityInByte) {
+			@Override
+			protected long weigh(ChunkKey key, UncompressedSeriesChunk seriesChunk) {
+				return seriesChunk.getSizeInBytes();
+			}
+
+			@Override
+			protected boolean admit(ChunkKey key, UncompressedSeriesChunk seriesChunk, long weight) {
+				if (!reportMemory) {
+					return true;
+				}
+				BasicMemController memController = BasicMemController.getInstance();
+				BasicMemController.UsageLevel level = memController.reportUse(SeriesChunkCache.this, weight);
+				switch (level) {
+				case SAFE:
+					return true;
+				case WARNING:
+					// the memory is better used by writing
+					memController.reportFree(SeriesChunkCache.this, weight);
+					return false;
+				case DANGEROUS:
+				default:
+					return false;
+				}
+			}
+
+			@Override
+			protected void onRemoval(ChunkKey key, UncompressedSeriesChunk seriesChunk, long weight) {
+				if (reportMemory) {
+					BasicMemController.getInstance().reportFree(SeriesChunkCache.this, weight);
+				}
+			}
+		};
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param filePath
+	 *            the path of the sealed tsfile of the chunk
+	 * @param seriesChunkLoader
+	 *            the loader reading the chunk from the file if it is not cached
+	 * @return the uncompressed series chunk, whose descriptor is the given one
+	 *         with no compression
+	 */
+	public MemSeriesChunk get(String filePath, EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor,
+			SeriesChunkLoader seriesChunkLoader) throws IOException {
+		if (!enabled) {
+			return seriesChunkLoader.getMemSeriesChunk(encodedSeriesChunkDescriptor);
+		}
+		ChunkKey key = new ChunkKey(filePath, encodedSeriesChunkDescriptor.getOffsetInFile(),
+				encodedSeriesChunkDescriptor.getLengthOfBytes());
+		UncompressedSeriesChunk seriesChunk = cache.getIfPresent(key);
+		if (seriesChunk == null) {
+			if (!mayAdmit(encodedSeriesChunkDescriptor)) {
+				// read from the mapped or streamed file, so the chunk isn't copied to the heap for nothing
+				return seriesChunkLoader.getMemSeriesChunk(encodedSeriesChunkDescriptor);
+			}
+			seriesChunk = cache.get(key,
+					() -> UncompressedSeriesChunk.uncompress(encodedSeriesChunkDescriptor,
+							seriesChunkLoader.getMemSeriesChunk(encodedSeriesChunkDescriptor).getSeriesChunkBodyStream()));
+		}
+		return seriesChunk.getMemSeriesChunk(encodedSeriesChunkDescriptor);
+	}
+
+	/**
+	 * Check whether a missed chunk may be cached before it is uncompressed,
+	 * the uncompressed chunk is at least as large as the compressed one.
+	 */
+	private boolean mayAdmit(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor) {
+		if (encodedSeriesChunkDescriptor.getLengthOfBytes() > cache.getSegmentCapacityInByte()) {
+			return false;
+		}
+		return !reportMemory || BasicMemController.getInstance().getCurrLevel() == BasicMemController.UsageLevel.SAFE;
+	}
+
+	/**
+	 * Remove the chunks of the file, which is merged or deleted.
+	 */
+	public void removeFile(String filePath) {
+		cache.removeIf(key -> key.filePath.equals(filePath));
+	}
+
+	/**
+	 * Remove the chunks of all the files in the directory, which is deleted.
+	 */
+	public void removeDirectory(String dirPath) {
+		String prefix = dirPath.endsWith(File.separator) ? dirPath : dirPath + File.separator;
+		cache.removeIf(key -> key.filePath.startsWith(prefix));
+	}
+
+	public void clear() {
+		cache.clear();
+	}
+
+	public WeightedLRUCache<?, UncompressedSeriesChunk> getCache() {
+		return cache;
+	}
+}
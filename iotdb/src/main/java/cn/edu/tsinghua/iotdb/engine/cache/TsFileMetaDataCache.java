@@ -1,30 +1,36 @@
 package cn.edu.tsinghua.iotdb.engine.cache;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.monitor.MonitorConstants;
 import cn.edu.tsinghua.tsfile.file.metadata.TsFileMetaData;
 
 /**
  * This class is used to cache <code>TsFileMetaData</code> of tsfile in IoTDB.
+ * The caching strategy is LRU bounded by the estimated size of the cached
+ * metadata, see {@link TsfileDBConfig#fileMetadataCacheSizeInByte}.
  * 
  * @author liukun
  *
  */
 public class TsFileMetaDataCache {
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(TsFileMetaDataCache.class);
 	/** key: The file path of tsfile */
-	private ConcurrentHashMap<String, TsFileMetaData> cache;
-	private AtomicLong cacheHintNum = new AtomicLong();
-	private AtomicLong cacheRequestNum = new AtomicLong();
+	private WeightedLRUCache<String, TsFileMetaData> cache;
 
 	private TsFileMetaDataCache() {
-		cache = new ConcurrentHashMap<>();
+		TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+		cache = new WeightedLRUCache<String, TsFileMetaData>(config.fileMetadataCacheSizeInByte) {
+			@Override
+			protected long weigh(String path, TsFileMetaData fileMetaData) {
+				return TsFileMetadataUtils.estimateSize(path) + TsFileMetadataUtils.estimateSize(fileMetaData);
+			}
+		};
+		if (config.enableStatMonitor) {
+			cache.registStatistics(MonitorConstants.fileMetadataCachePath);
+		}
 	}
 
 	/*
@@ -39,28 +45,8 @@ public class TsFileMetaDataCache {
 	}
 
 	public TsFileMetaData get(String path) throws IOException {
-
-		path = path.intern();
-		synchronized (path) {
-			cacheRequestNum.incrementAndGet();
-			if (!cache.containsKey(path)) {
-				// read value from tsfile
-				TsFileMetaData fileMetaData = TsFileMetadataUtils.getTsFileMetaData(path);
-				cache.put(path, fileMetaData);
-				if (LOGGER.isDebugEnabled()) {
-					LOGGER.debug("Cache didn't hint: the number of requests for cache is {}", cacheRequestNum.get());
-				}
-				return cache.get(path);
-			} else {
-				cacheHintNum.incrementAndGet();
-				if (LOGGER.isDebugEnabled()) {
-					LOGGER.debug(
-							"Cache hint: the number of requests for cache is {}, the number of hints for cache is {}",
-							cacheRequestNum.get(), cacheHintNum.get());
-				}
-				return cache.get(path);
-			}
-		}
+		// read value from tsfile if it is not cached
+		return cache.get(path, () -> TsFileMetadataUtils.getTsFileMetaData(path));
 	}
 
 	public void remove(String path) {
@@ -70,4 +56,8 @@ public class TsFileMetaDataCache {
 	public void clear() {
 		cache.clear();
 	}
+
+	public WeightedLRUCache<String, TsFileMetaData> getCache() {
+		return cache;
+	}
 }
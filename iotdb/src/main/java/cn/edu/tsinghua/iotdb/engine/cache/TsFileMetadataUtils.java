@@ -3,11 +3,19 @@ package cn.edu.tsinghua.iotdb.engine.cache;
 import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileReader;
+import cn.edu.tsinghua.tsfile.file.metadata.PageIndex;
+import cn.edu.tsinghua.tsfile.file.metadata.RowGroupMetaData;
+import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkMetaData;
+import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesMetadata;
+import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.TsFileMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.TsRowGroupBlockMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.converter.TsFileMetaDataConverter;
@@ -28,6 +36,21 @@ public class TsFileMetadataUtils {
 	private static final int FOOTER_LENGTH = 4;
 	private static final int MAGIC_LENGTH = TsFileIOWriter.magicStringBytes.length;
 
+	/*
+	 * Rough sizes in bytes of the objects on a 64-bit JVM with compressed
+	 * references, including their headers and the entries referring to them.
+	 */
+	private static final int OBJECT_SIZE = 16;
+	private static final int REFERENCE_SIZE = 4;
+	private static final int STRING_SIZE = 40;
+	private static final int MAP_ENTRY_SIZE = 36;
+	private static final int DELTA_OBJECT_SIZE = 40;
+	private static final int TIMESERIES_METADATA_SIZE = 40;
+	private static final int ROW_GROUP_METADATA_SIZE = 64;
+	/** including its properties and its time and value metadata */
+	private static final int TIMESERIES_CHUNK_METADATA_SIZE = 200;
+	private static final int BYTE_BUFFER_SIZE = 64;
+
 	public static TsFileMetaData getTsFileMetaData(String filePath) throws IOException {
 		ITsRandomAccessFileReader randomAccessFileReader = null;
 		try {
@@ -90,4 +113,100 @@ public class TsFileMetadataUtils {
 			}
 		}
 	}
+
+	/**
+	 * @return the estimated size in bytes of the fileMetaData on heap
+	 */
+	public static long estimateSize(TsFileMetaData fileMetaData) {
+		long size = OBJECT_SIZE + estimateSize(fileMetaData.getCreatedBy())
+				+ estimateStringListSize(fileMetaData.getJsonMetaData());
+		if (fileMetaData.getDeltaObjectMap() != null) {
+			for (String deltaObjectId : fileMetaData.getDeltaObjectMap().keySet()) {
+				size += MAP_ENTRY_SIZE + estimateSize(deltaObjectId) + DELTA_OBJECT_SIZE;
+			}
+		}
+		if (fileMetaData.getTimeSeriesList() != null) {
+			for (TimeSeriesMetadata timeSeriesMetadata : fileMetaData.getTimeSeriesList()) {
+				size += REFERENCE_SIZE + TIMESERIES_METADATA_SIZE
+						+ estimateSize(timeSeriesMetadata.getMeasurementUID())
+						+ estimateStringListSize(timeSeriesMetadata.getEnumValues());
+			}
+		}
+		if (fileMetaData.getProps() != null) {
+			for (Map.Entry<String, String> entry : fileMetaData.getProps().entrySet()) {
+				size += MAP_ENTRY_SIZE + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return the estimated size in bytes of the blockMetaData on heap, 0 if
+	 *         it is null
+	 */
+	public static long estimateSize(TsRowGroupBlockMetaData blockMetaData) {
+		if (blockMetaData == null) {
+			return 0;
+		}
+		long size = OBJECT_SIZE + estimateSize(blockMetaData.getDeltaObjectID());
+		if (blockMetaData.getRowGroups() == null) {
+			return size;
+		}
+		for (RowGroupMetaData rowGroupMetaData : blockMetaData.getRowGroups()) {
+			size += REFERENCE_SIZE + ROW_GROUP_METADATA_SIZE + estimateSize(rowGroupMetaData.getDeltaObjectID())
+					+ estimateSize(rowGroupMetaData.getPath()) + estimateSize(rowGroupMetaData.getDeltaObjectType());
+			if (rowGroupMetaData.getTimeSeriesChunkMetaDataList() == null) {
+				continue;
+			}
+			for (TimeSeriesChunkMetaData chunkMetaData : rowGroupMetaData.getTimeSeriesChunkMetaDataList()) {
+				size += REFERENCE_SIZE + estimateSize(chunkMetaData);
+			}
+		}
+		return size;
+	}
+
+	private static long estimateSize(TimeSeriesChunkMetaData chunkMetaData) {
+		long size = TIMESERIES_CHUNK_METADATA_SIZE + estimateStringListSize(chunkMetaData.getJsonMetaData());
+		if (chunkMetaData.getProperties() != null) {
+			size += estimateSize(chunkMetaData.getProperties().getMeasurementUID());
+		}
+		if (chunkMetaData.getTInTimeSeriesChunkMetaData() != null) {
+			size += estimateStringListSize(chunkMetaData.getTInTimeSeriesChunkMetaData().getEnumValues());
+		}
+		if (chunkMetaData.getVInTimeSeriesChunkMetaData() != null) {
+			size += estimateStringListSize(chunkMetaData.getVInTimeSeriesChunkMetaData().getEnumValues());
+			TsDigest digest = chunkMetaData.getVInTimeSeriesChunkMetaData().getDigest();
+			if (digest != null && digest.getStatistics() != null) {
+				for (Map.Entry<String, ByteBuffer> entry : digest.getStatistics().entrySet()) {
+					size += MAP_ENTRY_SIZE + estimateSize(entry.getKey()) + BYTE_BUFFER_SIZE
+							+ entry.getValue().capacity();
+				}
+			}
+		}
+		PageIndex pageIndex = chunkMetaData.getPageIndex();
+		if (pageIndex != null) {
+			// three arrays of longs
+			size += OBJECT_SIZE + 3 * (OBJECT_SIZE + 8L * pageIndex.size());
+		}
+		return size;
+	}
+
+	/**
+	 * @return the estimated size in bytes of the string on heap, 0 if it is
+	 *         null
+	 */
+	public static long estimateSize(String string) {
+		return string == null ? 0 : STRING_SIZE + 2L * string.length();
+	}
+
+	private static long estimateStringListSize(List<String> strings) {
+		if (strings == null) {
+			return 0;
+		}
+		long size = OBJECT_SIZE;
+		for (String string : strings) {
+			size += REFERENCE_SIZE + estimateSize(string);
+		}
+		return size;
+	}
 }
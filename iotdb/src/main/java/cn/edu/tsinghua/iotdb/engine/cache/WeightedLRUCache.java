@@ -0,0 +1,340 @@
+package cn.edu.tsinghua.iotdb.engine.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cn.edu.tsinghua.iotdb.monitor.IStatistic;
+import cn.edu.tsinghua.iotdb.monitor.MonitorConstants;
+import cn.edu.tsinghua.iotdb.monitor.StatMonitor;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.TSRecord;
+
+/**
+ * A concurrent LRU cache bounded by the total weight (an estimated size in bytes) of its values rather than by the
+ * number of them. The keys are spread over segments, each of which is an access ordered {@link LinkedHashMap}
+ * guarded by its own lock and evicts its least recently used values when it exceeds its share of the capacity.
+ * Concurrent misses of the same key load the value only once, the other threads wait for the loading one.
+ * <p>
+ * The numbers of hits, misses and evictions and the total weight are kept as statistics, which are registered in
+ * {@link StatMonitor} by {@link #registStatistics(String)}.
+ *
+ * @param <K> the key, which must implement {@code equals} and {@code hashCode}
+ * @param <V> the value. Null values are returned by {@link #get(Object, Loader)} but never cached.
+ */
+public abstract class WeightedLRUCache<K, V> implements IStatistic {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WeightedLRUCache.class);
+	private static final int SEGMENT_NUM = 16;
+
+	/**
+	 * Loads the value of a key when it is missed.
+	 */
+	public interface Loader<V> {
+		V load() throws IOException;
+	}
+
+	private final Segment[] segments;
+	private final long capacityInByte;
+	/** the values being loaded, so that a key missed by several threads is loaded only once */
+	private final ConcurrentHashMap<K, FutureTask<V>> loadingMap = new ConcurrentHashMap<>();
+
+	private final HashMap<String, AtomicLong> statParamsHashMap = MonitorConstants
+			.initValues(MonitorConstants.CACHE_CONST);
+	private final AtomicLong hitNum = statParamsHashMap.get(MonitorConstants.CacheStatConstants.HIT.name());
+	private final AtomicLong missNum = statParamsHashMap.get(MonitorConstants.CacheStatConstants.MISS.name());
+	private final AtomicLong evictionNum = statParamsHashMap
+			.get(MonitorConstants.CacheStatConstants.EVICTION.name());
+	private final AtomicLong usedWeight = statParamsHashMap
+			.get(MonitorConstants.CacheStatConstants.WEIGHT_IN_BYTE.name());
+	private String statStorageDeltaName;
+
+	protected WeightedLRUCache(long capacityInByte) {
+		this.capacityInByte = capacityInByte;
+		segments = new WeightedLRUCache.Segment[SEGMENT_NUM];
+		for (int i = 0; i < SEGMENT_NUM; i++) {
+			segments[i] = new Segment(capacityInByte / SEGMENT_NUM);
+		}
+	}
+
+	/**
+	 * @return the estimated size in bytes of the value, which must not change while it is cached
+	 */
+	protected abstract long weigh(K key, V value);
+
+	/**
+	 * Called before caching a loaded value, subclasses may override it to
+	 * reserve the memory of the value.
+	 * 
+	 * @return false if the value should not be cached
+	 */
+	protected boolean admit(K key, V value, long weight) {
+		return true;
+	}
+
+	/**
+	 * Called after a value admitted by {@link #admit(Object, Object, long)} is
+	 * evicted, removed or replaced. It is called while holding the lock of a
+	 * segment, so it should be fast.
+	 */
+	protected void onRemoval(K key, V value, long weight) {
+	}
+
+	/**
+	 * Get the cached value of the key, or load it by the loader and cache it if it is missed.
+	 */
+	public V get(K key, Loader<V> loader) throws IOException {
+		Segment segment = segmentFor(key);
+		V value = segment.get(key);
+		if (value != null) {
+			hitNum.incrementAndGet();
+			return value;
+		}
+		FutureTask<V> task = new FutureTask<>(loader::load);
+		FutureTask<V> loadingTask = loadingMap.putIfAbsent(key, task);
+		if (loadingTask == null) {
+			try {
+				// the value may have been cached between the first check and the registration of the task
+				value = segment.get(key);
+				if (value != null) {
+					hitNum.incrementAndGet();
+					return value;
+				}
+				missNum.incrementAndGet();
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Cache didn't hit {}, the number of hits is {}, the number of misses is {}", key,
+							hitNum.get(), missNum.get());
+				}
+				task.run();
+				value = waitFor(task);
+				if (value != null) {
+					long weight = weigh(key, value);
+					if (weight > segment.capacity) {
+						// caching it would evict everything else in the segment
+						LOGGER.debug("Don't cache {} because its size {} exceeds the capacity {} of a segment", key,
+								weight, segment.capacity);
+					} else if (admit(key, value, weight)) {
+						segment.put(key, value, weight);
+					}
+				}
+				return value;
+			} finally {
+				loadingMap.remove(key, task);
+			}
+		}
+		hitNum.incrementAndGet();
+		return waitFor(loadingTask);
+	}
+
+	/**
+	 * @return the cached value of the key, or null if it is not cached. A
+	 *         hit is counted but a miss is not, the caller is expected to
+	 *         call {@link #get(Object, Loader)} or to skip the cache.
+	 */
+	public V getIfPresent(K key) {
+		V value = segmentFor(key).get(key);
+		if (value != null) {
+			hitNum.incrementAndGet();
+		}
+		return value;
+	}
+
+	private V waitFor(FutureTask<V> task) throws IOException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	public void remove(K key) {
+		segmentFor(key).remove(key);
+	}
+
+	/**
+	 * Remove all the values whose keys match the filter.
+	 */
+	public void removeIf(Predicate<K> keyFilter) {
+		for (Segment segment : segments) {
+			segment.removeIf(keyFilter);
+		}
+	}
+
+	public void clear() {
+		removeIf(key -> true);
+	}
+
+	public long getCapacityInByte() {
+		return capacityInByte;
+	}
+
+	/**
+	 * @return the capacity of a segment, a value heavier than it is never
+	 *         cached
+	 */
+	public long getSegmentCapacityInByte() {
+		return capacityInByte / SEGMENT_NUM;
+	}
+
+	public long getUsedWeight() {
+		return usedWeight.get();
+	}
+
+	public long getHitCount() {
+		return hitNum.get();
+	}
+
+	public long getMissCount() {
+		return missNum.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionNum.get();
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	private Segment segmentFor(K key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return segments[hash & (SEGMENT_NUM - 1)];
+	}
+
+	/**
+	 * Register the statistics of this cache in {@link StatMonitor} under the given path, which is relative to
+	 * {@link MonitorConstants#statStorageGroupPrefix}.
+	 */
+	protected void registStatistics(String path) {
+		statStorageDeltaName = MonitorConstants.statStorageGroupPrefix + MonitorConstants.MONITOR_PATH_SEPERATOR
+				+ path;
+		registStatMetadata();
+		StatMonitor.getInstance().registStatistics(statStorageDeltaName, this);
+	}
+
+	@Override
+	public HashMap<String, TSRecord> getAllStatisticsValue() {
+		HashMap<String, TSRecord> hashMap = new HashMap<>();
+		hashMap.put(statStorageDeltaName,
+				StatMonitor.convertToTSRecord(getStatParamsHashMap(), statStorageDeltaName, System.currentTimeMillis()));
+		return hashMap;
+	}
+
+	@Override
+	public void registStatMetadata() {
+		HashMap<String, String> hashMap = new HashMap<>();
+		for (String path : getAllPathForStatistic()) {
+			hashMap.put(path, MonitorConstants.DataType);
+		}
+		StatMonitor.getInstance().registStatStorageGroup(hashMap);
+	}
+
+	@Override
+	public List<String> getAllPathForStatistic() {
+		List<String> list = new ArrayList<>();
+		for (MonitorConstants.CacheStatConstants statConstant : MonitorConstants.CacheStatConstants
+				.values()) {
+			list.add(statStorageDeltaName + MonitorConstants.MONITOR_PATH_SEPERATOR + statConstant.name());
+		}
+		return list;
+	}
+
+	@Override
+	public HashMap<String, AtomicLong> getStatParamsHashMap() {
+		return statParamsHashMap;
+	}
+
+	private class WeightedValue {
+		private final V value;
+		private final long weight;
+
+		private WeightedValue(V value, long weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	private class Segment {
+		private final long capacity;
+		private final LinkedHashMap<K, WeightedValue> map = new LinkedHashMap<>(16, 0.75f, true);
+		private long weight;
+
+		private Segment(long capacity) {
+			this.capacity = capacity;
+		}
+
+		private synchronized V get(K key) {
+			WeightedValue weightedValue = map.get(key);
+			return weightedValue == null ? null : weightedValue.value;
+		}
+
+		private synchronized void put(K key, V value, long valueWeight) {
+			WeightedValue old = map.put(key, new WeightedValue(value, valueWeight));
+			if (old != null) {
+				removed(key, old);
+			}
+			addWeight(valueWeight);
+			Iterator<Map.Entry<K, WeightedValue>> iterator = map.entrySet().iterator();
+			while (weight > capacity && iterator.hasNext()) {
+				Map.Entry<K, WeightedValue> eldest = iterator.next();
+				iterator.remove();
+				removed(eldest.getKey(), eldest.getValue());
+				evictionNum.incrementAndGet();
+			}
+		}
+
+		private synchronized void remove(K key) {
+			WeightedValue old = map.remove(key);
+			if (old != null) {
+				removed(key, old);
+			}
+		}
+
+		private synchronized void removeIf(Predicate<K> keyFilter) {
+			Iterator<Map.Entry<K, WeightedValue>> iterator = map.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<K, WeightedValue> entry = iterator.next();
+				if (keyFilter.test(entry.getKey())) {
+					iterator.remove();
+					removed(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+
+		private void removed(K key, WeightedValue weightedValue) {
+			addWeight(-weightedValue.weight);
+			onRemoval(key, weightedValue.value, weightedValue.weight);
+		}
+
+		private synchronized int size() {
+			return map.size();
+		}
+
+		private void addWeight(long delta) {
+			weight += delta;
+			usedWeight.addAndGet(delta);
+		}
+	}
+}
@@ -7,7 +7,9 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
@@ -18,6 +20,8 @@ import cn.edu.tsinghua.iotdb.conf.directories.Directories;
 import cn.edu.tsinghua.iotdb.conf.TsFileDBConstant;
 import cn.edu.tsinghua.iotdb.qp.physical.crud.InsertPlan;
 import cn.edu.tsinghua.iotdb.writelog.manager.MultiFileLogNodeManager;
+import cn.edu.tsinghua.iotdb.writelog.node.LogDurability;
+import cn.edu.tsinghua.iotdb.writelog.node.WriteLogNode;
 import cn.edu.tsinghua.tsfile.timeseries.write.record.DataPoint;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
@@ -27,10 +31,13 @@ import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
 import cn.edu.tsinghua.iotdb.engine.Processor;
 import cn.edu.tsinghua.iotdb.engine.bufferwrite.BufferWriteProcessor;
+import cn.edu.tsinghua.iotdb.engine.cache.LastValueCache;
+import cn.edu.tsinghua.iotdb.engine.cache.SeriesChunkCache;
 import cn.edu.tsinghua.iotdb.engine.memcontrol.BasicMemController;
 import cn.edu.tsinghua.iotdb.engine.overflow.ioV2.OverflowProcessor;
 import cn.edu.tsinghua.iotdb.engine.pool.FlushManager;
 import cn.edu.tsinghua.iotdb.engine.querycontext.QueryDataSource;
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupManager;
 import cn.edu.tsinghua.iotdb.exception.BufferWriteProcessorException;
 import cn.edu.tsinghua.iotdb.exception.FileNodeManagerException;
 import cn.edu.tsinghua.iotdb.exception.FileNodeProcessorException;
@@ -41,6 +48,7 @@ import cn.edu.tsinghua.iotdb.metadata.MManager;
 import cn.edu.tsinghua.iotdb.monitor.IStatistic;
 import cn.edu.tsinghua.iotdb.monitor.MonitorConstants;
 import cn.edu.tsinghua.iotdb.monitor.StatMonitor;
+import cn.edu.tsinghua.iotdb.queryV2.engine.control.OverflowFileStreamManager;
 import cn.edu.tsinghua.iotdb.qp.physical.crud.DeletePlan;
 import cn.edu.tsinghua.iotdb.qp.physical.crud.UpdatePlan;
 import cn.edu.tsinghua.iotdb.service.IService;
@@ -186,7 +194,7 @@ public class FileNodeManager implements IStatistic, IService {
 		}
 	}
 
-	private FileNodeProcessor getProcessor(String path, boolean isWriteLock) throws FileNodeManagerException {
+	FileNodeProcessor getProcessor(String path, boolean isWriteLock) throws FileNodeManagerException {
 		String filenodeName;
 		try {
 			filenodeName = MManager.getInstance().getFileNameByPath(path);
@@ -194,31 +202,47 @@ public class FileNodeManager implements IStatistic, IService {
 			LOGGER.error("MManager get filenode name error, path is {}", path);
 			throw new FileNodeManagerException(e);
 		}
-		FileNodeProcessor processor = null;
-		processor = processorMap.get(filenodeName);
-		if (processor != null) {
-			processor.lock(isWriteLock);
-		} else {
-			filenodeName = filenodeName.intern();
-			// calculate the value with same key synchronously
-			synchronized (filenodeName) {
-				processor = processorMap.get(filenodeName);
-				if (processor != null) {
-					processor.lock(isWriteLock);
-				} else {
-					// calculate the value with the key monitor
-					LOGGER.debug("Calcuate the processor, the filenode is {}, Thread is {}", filenodeName,
+		FileNodeProcessor processor = processorMap.get(filenodeName);
+		if (processor == null) {
+			// only one thread constructs the processor of a new filenode, the
+			// processors already constructed are found without any lock
+			try {
+				processor = processorMap.computeIfAbsent(filenodeName, name -> {
+					LOGGER.debug("Calcuate the processor, the filenode is {}, Thread is {}", name,
 							Thread.currentThread().getId());
-					processor = constructNewProcessor(filenodeName);
-					processor.lock(isWriteLock);
-					processorMap.put(filenodeName, processor);
-				}
+					try {
+						return constructNewProcessor(name);
+					} catch (FileNodeManagerException e) {
+						throw new ProcessorConstructionException(e);
+					}
+				});
+			} catch (ProcessorConstructionException e) {
+				throw e.getCause();
 			}
 		}
+		processor.lock(isWriteLock);
 		// processorMap.putIfAbsent(path, processor);
 		return processor;
 	}
 
+	/**
+	 * Carries the exception of constructing a processor out of
+	 * {@link ConcurrentHashMap#computeIfAbsent}.
+	 */
+	private static class ProcessorConstructionException extends RuntimeException {
+
+		private static final long serialVersionUID = 2936286924525834751L;
+
+		ProcessorConstructionException(FileNodeManagerException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized FileNodeManagerException getCause() {
+			return (FileNodeManagerException) super.getCause();
+		}
+	}
+
 	public void recovery() {
 
 		try {
@@ -253,19 +277,144 @@ public class FileNodeManager implements IStatistic, IService {
 	 * @throws FileNodeManagerException
 	 */
 	public int insert(TSRecord tsRecord, boolean isMonitor) throws FileNodeManagerException {
-		long timestamp = tsRecord.time;
-		if (timestamp < 0) {
-			LOGGER.error("The insert time lt 0, {}.", tsRecord);
-			throw new FileNodeManagerException("The insert time lt 0, the tsrecord is " + tsRecord);
-		}
-		String deltaObjectId = tsRecord.deltaObjectId;
-
+		checkInsertTime(tsRecord);
 		if (!isMonitor) {
 			statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_POINTS.name())
 					.addAndGet(tsRecord.dataPointList.size());
 		}
 
+		FileNodeProcessor fileNodeProcessor = getProcessor(tsRecord.deltaObjectId, true);
+		InsertLogs insertLogs = new InsertLogs(false);
+		int insertType;
+		try {
+			insertType = insertRecord(fileNodeProcessor, tsRecord, isMonitor, insertLogs);
+		} finally {
+			fileNodeProcessor.writeUnlock();
+		}
+		// wait for the wal outside the lock, so that other inserts of the filenode join the same group commit
+		try {
+			insertLogs.await();
+		} catch (IOException e) {
+			LOGGER.error("The wal of the insert is not durable, the tsrecord is {}", tsRecord, e);
+			if (!isMonitor) {
+				updateStatHashMapWhenFail(tsRecord);
+			}
+			throw new FileNodeManagerException(e);
+		}
+		if (!isMonitor) {
+			updateStatHashMapWhenSuccess(fileNodeProcessor, tsRecord);
+		}
+		return insertType;
+	}
+
+	/**
+	 * insert the TsRecords of one deltaObject into its storage group. Unlike
+	 * calling insert for each record, the filenode processor is locked once and
+	 * the wal of the records is written once per log node, then the lock is
+	 * released before the wal is waited on.
+	 *
+	 * @param deltaObjectId:
+	 *            the deltaObject of all the records
+	 * @param tsRecords:
+	 *            input Data
+	 * @param isMonitor:
+	 *            the same as insert
+	 * @return the exception of each record which fails to be inserted, or null
+	 *         for the records inserted
+	 * @throws FileNodeManagerException
+	 *             if the processor can not be got or the wal of the batch is
+	 *             not durable
+	 */
+	public FileNodeManagerException[] insertBatch(String deltaObjectId, List<TSRecord> tsRecords, boolean isMonitor)
+			throws FileNodeManagerException {
+		FileNodeManagerException[] exceptions = new FileNodeManagerException[tsRecords.size()];
+		if (tsRecords.isEmpty()) {
+			return exceptions;
+		}
+		if (!isMonitor) {
+			long points = 0;
+			for (TSRecord tsRecord : tsRecords) {
+				points += tsRecord.dataPointList.size();
+			}
+			statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_POINTS.name()).addAndGet(points);
+		}
+
 		FileNodeProcessor fileNodeProcessor = getProcessor(deltaObjectId, true);
+		InsertLogs insertLogs = new InsertLogs(true);
+		try {
+			for (int i = 0; i < tsRecords.size(); i++) {
+				TSRecord tsRecord = tsRecords.get(i);
+				try {
+					checkInsertTime(tsRecord);
+					insertRecord(fileNodeProcessor, tsRecord, isMonitor, insertLogs);
+				} catch (FileNodeManagerException e) {
+					exceptions[i] = e;
+				}
+			}
+			insertLogs.write();
+		} catch (IOException e) {
+			LOGGER.error("Can't write the wal of the batch of {}", deltaObjectId, e);
+			failBatch(tsRecords, exceptions, isMonitor);
+			throw new FileNodeManagerException(e);
+		} finally {
+			fileNodeProcessor.writeUnlock();
+		}
+		try {
+			insertLogs.await();
+		} catch (IOException e) {
+			LOGGER.error("The wal of the batch of {} is not durable", deltaObjectId, e);
+			failBatch(tsRecords, exceptions, isMonitor);
+			throw new FileNodeManagerException(e);
+		}
+		if (!isMonitor) {
+			for (int i = 0; i < tsRecords.size(); i++) {
+				if (exceptions[i] == null) {
+					updateStatHashMapWhenSuccess(fileNodeProcessor, tsRecords.get(i));
+				}
+			}
+		}
+		return exceptions;
+	}
+
+	private void failBatch(List<TSRecord> tsRecords, FileNodeManagerException[] exceptions, boolean isMonitor) {
+		if (isMonitor) {
+			return;
+		}
+		for (int i = 0; i < tsRecords.size(); i++) {
+			if (exceptions[i] == null) {
+				updateStatHashMapWhenFail(tsRecords.get(i));
+			}
+		}
+	}
+
+	private void checkInsertTime(TSRecord tsRecord) throws FileNodeManagerException {
+		if (tsRecord.time < 0) {
+			LOGGER.error("The insert time lt 0, {}.", tsRecord);
+			throw new FileNodeManagerException("The insert time lt 0, the tsrecord is " + tsRecord);
+		}
+	}
+
+	private void updateStatHashMapWhenSuccess(FileNodeProcessor fileNodeProcessor, TSRecord tsRecord) {
+		fileNodeProcessor.getStatParamsHashMap()
+				.get(MonitorConstants.FileNodeProcessorStatConstants.TOTAL_POINTS_SUCCESS.name())
+				.addAndGet(tsRecord.dataPointList.size());
+		fileNodeProcessor.getStatParamsHashMap()
+				.get(MonitorConstants.FileNodeProcessorStatConstants.TOTAL_REQ_SUCCESS.name()).incrementAndGet();
+		statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_REQ_SUCCESS.name())
+				.incrementAndGet();
+		statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_POINTS_SUCCESS.name())
+				.addAndGet(tsRecord.dataPointList.size());
+	}
+
+	/**
+	 * insert the record into the overflow or the bufferwrite processor and put
+	 * its wal into insertLogs. The caller must hold the write lock of the
+	 * filenode processor.
+	 */
+	private int insertRecord(FileNodeProcessor fileNodeProcessor, TSRecord tsRecord, boolean isMonitor,
+			InsertLogs insertLogs) throws FileNodeManagerException {
+		long timestamp = tsRecord.time;
+		String deltaObjectId = tsRecord.deltaObjectId;
 		int insertType = 0;
 
 		try {
@@ -287,14 +436,7 @@ public class FileNodeManager implements IStatistic, IService {
 				// write wal
 				try {
 					if (TsfileDBDescriptor.getInstance().getConfig().enableWal) {
-						List<String> measurementList = new ArrayList<>();
-						List<String> insertValues = new ArrayList<>();
-						for (DataPoint dp : tsRecord.dataPointList) {
-							measurementList.add(dp.getMeasurementId());
-							insertValues.add(dp.getValue().toString());
-						}
-						overflowProcessor.getLogNode().write(new InsertPlan(2, tsRecord.deltaObjectId, tsRecord.time,
-								measurementList, insertValues));
+						insertLogs.add(overflowProcessor.getLogNode(), toInsertPlan(tsRecord));
 					}
 				} catch (IOException e) {
 					if (!isMonitor) {
@@ -307,6 +449,7 @@ public class FileNodeManager implements IStatistic, IService {
 					overflowProcessor.insert(tsRecord);
 					fileNodeProcessor.changeTypeToChanged(deltaObjectId, timestamp);
 					fileNodeProcessor.setOverflowed(true);
+					LastValueCache.getInstance().update(tsRecord);
 					// if (shouldMerge) {
 					// LOGGER.info(
 					// "The overflow file or metadata reaches the threshold,
@@ -316,6 +459,7 @@ public class FileNodeManager implements IStatistic, IService {
 					// }
 				} catch (IOException e) {
 					LOGGER.error("Insert into overflow error, the reason is {}", e.getMessage());
+					LastValueCache.getInstance().invalidate(tsRecord);
 					if (!isMonitor) {
 						updateStatHashMapWhenFail(tsRecord);
 					}
@@ -354,14 +498,7 @@ public class FileNodeManager implements IStatistic, IService {
 				// write wal
 				try {
 					if (TsfileDBDescriptor.getInstance().getConfig().enableWal) {
-						List<String> measurementList = new ArrayList<>();
-						List<String> insertValues = new ArrayList<>();
-						for (DataPoint dp : tsRecord.dataPointList) {
-							measurementList.add(dp.getMeasurementId());
-							insertValues.add(dp.getValue().toString());
-						}
-						bufferWriteProcessor.getLogNode().write(new InsertPlan(2, tsRecord.deltaObjectId, tsRecord.time,
-								measurementList, insertValues));
+						insertLogs.add(bufferWriteProcessor.getLogNode(), toInsertPlan(tsRecord));
 					}
 				} catch (IOException e) {
 					if (!isMonitor) {
@@ -375,11 +512,13 @@ public class FileNodeManager implements IStatistic, IService {
 				try {
 					bufferWriteProcessor.write(tsRecord);
 				} catch (BufferWriteProcessorException e) {
+					LastValueCache.getInstance().invalidate(tsRecord);
 					if (!isMonitor) {
 						updateStatHashMapWhenFail(tsRecord);
 					}
 					throw new FileNodeManagerException(e);
 				}
+				LastValueCache.getInstance().update(tsRecord);
 				insertType = 2;
 				if (bufferWriteProcessor
 						.getFileSize() > TsfileDBDescriptor.getInstance().getConfig().bufferwriteFileSizeThreshold) {
@@ -395,24 +534,61 @@ public class FileNodeManager implements IStatistic, IService {
 			LOGGER.error(String.format("Encounter an error when closing the buffer write processor %s.",
 					fileNodeProcessor.getProcessorName()), e);
 			throw new FileNodeManagerException(e);
-		} finally {
-			fileNodeProcessor.writeUnlock();
-		}
-		// Modify the insert
-		if (!isMonitor) {
-			fileNodeProcessor.getStatParamsHashMap()
-					.get(MonitorConstants.FileNodeProcessorStatConstants.TOTAL_POINTS_SUCCESS.name())
-					.addAndGet(tsRecord.dataPointList.size());
-			fileNodeProcessor.getStatParamsHashMap()
-					.get(MonitorConstants.FileNodeProcessorStatConstants.TOTAL_REQ_SUCCESS.name()).incrementAndGet();
-			statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_REQ_SUCCESS.name())
-					.incrementAndGet();
-			statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_POINTS_SUCCESS.name())
-					.addAndGet(tsRecord.dataPointList.size());
 		}
 		return insertType;
 	}
 
+	private InsertPlan toInsertPlan(TSRecord tsRecord) {
+		List<String> measurementList = new ArrayList<>(tsRecord.dataPointList.size());
+		List<String> insertValues = new ArrayList<>(tsRecord.dataPointList.size());
+		for (DataPoint dp : tsRecord.dataPointList) {
+			measurementList.add(dp.getMeasurementId());
+			insertValues.add(dp.getValue().toString());
+		}
+		return new InsertPlan(2, tsRecord.deltaObjectId, tsRecord.time, measurementList, insertValues);
+	}
+
+	/**
+	 * The wal of the records inserted under one lock of a filenode processor.
+	 * The log of a single insert is written before its data. The logs of a
+	 * batch are buffered and written once per log node after the records are
+	 * inserted, so a flush started within the batch only keeps them to be
+	 * replayed again, it never discards them.
+	 */
+	private static class InsertLogs {
+
+		private final boolean buffered;
+
+		private Map<WriteLogNode, List<InsertPlan>> plans = new LinkedHashMap<>();
+
+		private List<LogDurability> durabilities = new ArrayList<>();
+
+		private InsertLogs(boolean buffered) {
+			this.buffered = buffered;
+		}
+
+		private void add(WriteLogNode logNode, InsertPlan plan) throws IOException {
+			if (buffered) {
+				plans.computeIfAbsent(logNode, k -> new ArrayList<>()).add(plan);
+			} else {
+				durabilities.add(logNode.writeWithoutWait(Collections.singletonList(plan)));
+			}
+		}
+
+		private void write() throws IOException {
+			for (Entry<WriteLogNode, List<InsertPlan>> entry : plans.entrySet()) {
+				durabilities.add(entry.getKey().writeWithoutWait(entry.getValue()));
+			}
+			plans.clear();
+		}
+
+		private void await() throws IOException {
+			for (LogDurability durability : durabilities) {
+				durability.await();
+			}
+		}
+	}
+
 	public void update(String deltaObjectId, String measurementId, long startTime, long endTime, TSDataType type,
 			String v) throws FileNodeManagerException {
 
@@ -440,6 +616,7 @@ public class FileNodeManager implements IStatistic, IService {
 				throw new FileNodeManagerException(e);
 			}
 			overflowProcessor.update(deltaObjectId, measurementId, startTime, endTime, type, v);
+			LastValueCache.getInstance().invalidate(deltaObjectId, measurementId);
 			// change the type of tsfile to overflowed
 			fileNodeProcessor.changeTypeToChanged(deltaObjectId, startTime, endTime);
 			fileNodeProcessor.setOverflowed(true);
@@ -489,6 +666,7 @@ public class FileNodeManager implements IStatistic, IService {
 					throw new FileNodeManagerException(e);
 				}
 				overflowProcessor.delete(deltaObjectId, measurementId, timestamp, type);
+				LastValueCache.getInstance().invalidate(deltaObjectId, measurementId);
 				// change the type of tsfile to overflowed
 				fileNodeProcessor.changeTypeToChangedForDelete(deltaObjectId, timestamp);
 				fileNodeProcessor.setOverflowed(true);
@@ -518,14 +696,16 @@ public class FileNodeManager implements IStatistic, IService {
 	}
 
 	public int beginQuery(String deltaObjectId) throws FileNodeManagerException {
-		FileNodeProcessor fileNodeProcessor = getProcessor(deltaObjectId, true);
+		// the multiple pass token is kept by the processor itself, the read
+		// lock only keeps the processor from merging or closing meanwhile
+		FileNodeProcessor fileNodeProcessor = getProcessor(deltaObjectId, false);
 		try {
 			LOGGER.debug("Get the FileNodeProcessor: filenode is {}, begin query.",
 					fileNodeProcessor.getProcessorName());
 			int token = fileNodeProcessor.addMultiPassLock();
 			return token;
 		} finally {
-			fileNodeProcessor.writeUnlock();
+			fileNodeProcessor.readUnlock();
 		}
 	}
 
@@ -583,13 +763,13 @@ public class FileNodeManager implements IStatistic, IService {
 
 	public void endQuery(String deltaObjectId, int token) throws FileNodeManagerException {
 
-		FileNodeProcessor fileNodeProcessor = getProcessor(deltaObjectId, true);
+		FileNodeProcessor fileNodeProcessor = getProcessor(deltaObjectId, false);
 		try {
 			LOGGER.debug("Get the FileNodeProcessor: {}, filenode is {}, end query.",
 					fileNodeProcessor.getProcessorName());
 			fileNodeProcessor.removeMultiPassLock(token);
 		} finally {
-			fileNodeProcessor.writeUnlock();
+			fileNodeProcessor.readUnlock();
 		}
 	}
 
@@ -618,6 +798,7 @@ public class FileNodeManager implements IStatistic, IService {
 			fileNodeProcessor.closeBufferWrite();
 			// append file to storage group.
 			fileNodeProcessor.appendFile(appendFile, appendFilePath);
+			LastValueCache.getInstance().invalidateStorageGroup(fileNodeName);
 		} catch (FileNodeProcessorException e) {
 			e.printStackTrace();
 			throw new FileNodeManagerException(e);
@@ -774,6 +955,7 @@ public class FileNodeManager implements IStatistic, IService {
 						}
 					}
 				}
+				LastValueCache.getInstance().invalidateStorageGroup(processorName);
 				String fileNodePath = TsFileDBConf.fileNodeDir;
 				fileNodePath = standardizeDir(fileNodePath) + processorName;
 				FileUtils.deleteDirectory(new File(fileNodePath));
@@ -782,6 +964,9 @@ public class FileNodeManager implements IStatistic, IService {
 				for(String bufferwritePath : bufferwritePathList) {
 					bufferwritePath = standardizeDir(bufferwritePath) + processorName;
 					FileUtils.deleteDirectory(new File(bufferwritePath));
+					SeriesChunkCache.getInstance().removeDirectory(bufferwritePath);
+					OverflowFileStreamManager.getInstance().removeSealedDirectory(bufferwritePath);
+					RollupManager.getInstance().removeDirectory(bufferwritePath);
 				}
 
 				String overflowPath = TsFileDBConf.overflowDataDir;
@@ -937,6 +1122,7 @@ public class FileNodeManager implements IStatistic, IService {
 			} catch (FileNodeManagerException e) {
 				throw new FileNodeManagerException(e);
 			} finally {
+				LastValueCache.getInstance().clear();
 				LOGGER.info("Delete all filenode processor successfully");
 				fileNodeManagerStatus = FileNodeManagerStatus.NONE;
 			}
@@ -967,6 +1153,8 @@ public class FileNodeManager implements IStatistic, IService {
 						throw e;
 					}
 				}
+				// the sealed files are mapped again by the next queries
+				OverflowFileStreamManager.getInstance().removeAllSealedFiles();
 			} catch (FileNodeManagerException e) {
 				throw new FileNodeManagerException(e);
 			} finally {
@@ -30,15 +30,22 @@ import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
 import cn.edu.tsinghua.iotdb.conf.directories.Directories;
 import cn.edu.tsinghua.iotdb.engine.Processor;
 import cn.edu.tsinghua.iotdb.engine.bufferwrite.Action;
+import cn.edu.tsinghua.iotdb.engine.cache.SeriesChunkCache;
 import cn.edu.tsinghua.iotdb.engine.bufferwrite.BufferWriteProcessor;
 import cn.edu.tsinghua.iotdb.engine.bufferwrite.FileNodeConstants;
 import cn.edu.tsinghua.iotdb.engine.overflow.ioV2.OverflowProcessor;
 import cn.edu.tsinghua.iotdb.engine.pool.MergeManager;
+import cn.edu.tsinghua.iotdb.engine.pool.MergeThrottle;
 import cn.edu.tsinghua.iotdb.engine.querycontext.GlobalSortedSeriesDataSource;
+import cn.edu.tsinghua.iotdb.engine.querycontext.OverflowInsertFile;
 import cn.edu.tsinghua.iotdb.engine.querycontext.OverflowSeriesDataSource;
+import cn.edu.tsinghua.iotdb.engine.querycontext.OverflowUpdateDeleteFile;
 import cn.edu.tsinghua.iotdb.engine.querycontext.QueryDataSource;
 import cn.edu.tsinghua.iotdb.engine.querycontext.RawSeriesChunk;
 import cn.edu.tsinghua.iotdb.engine.querycontext.UnsealedTsFile;
+import cn.edu.tsinghua.iotdb.engine.querycontext.UpdateDeleteInfoOfOneSeries;
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupManager;
+import cn.edu.tsinghua.iotdb.engine.rollup.TsFileRollup;
 import cn.edu.tsinghua.iotdb.exception.BufferWriteProcessorException;
 import cn.edu.tsinghua.iotdb.exception.ErrorDebugException;
 import cn.edu.tsinghua.iotdb.exception.FileNodeProcessorException;
@@ -54,12 +61,14 @@ import cn.edu.tsinghua.iotdb.monitor.IStatistic;
 import cn.edu.tsinghua.iotdb.monitor.MonitorConstants;
 import cn.edu.tsinghua.iotdb.monitor.StatMonitor;
 import cn.edu.tsinghua.iotdb.queryV2.factory.SeriesReaderFactory;
+import cn.edu.tsinghua.iotdb.queryV2.factory.SimpleMetadataQuerierForMerge;
 import cn.edu.tsinghua.iotdb.utils.MemUtils;
 import cn.edu.tsinghua.tsfile.common.conf.TSFileConfig;
 import cn.edu.tsinghua.tsfile.common.conf.TSFileDescriptor;
 import cn.edu.tsinghua.tsfile.common.constant.JsonFormatConstant;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
-import cn.edu.tsinghua.tsfile.common.utils.Pair;
+import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileReader;
+import cn.edu.tsinghua.tsfile.file.metadata.TInTimeSeriesChunkMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSEncoding;
@@ -67,6 +76,7 @@ import cn.edu.tsinghua.tsfile.timeseries.filterV2.TimeFilter;
 import cn.edu.tsinghua.tsfile.timeseries.filterV2.basic.Filter;
 import cn.edu.tsinghua.tsfile.timeseries.filterV2.expression.impl.SeriesFilter;
 import cn.edu.tsinghua.tsfile.timeseries.filterV2.factory.FilterFactory;
+import cn.edu.tsinghua.tsfile.timeseries.read.TsRandomAccessLocalFileReader;
 import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.SeriesReader;
@@ -629,7 +639,12 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 	// Token for query which used to
 	private int multiPassLockToken = 0;
 
-	public int addMultiPassLock() {
+	/*
+	 * The queries of the filenode add and remove their tokens concurrently
+	 * under the read lock of the processor, the tokens are only switched to the
+	 * old set under the write lock.
+	 */
+	public synchronized int addMultiPassLock() {
 		LOGGER.debug("Add MultiPassLock: read lock newMultiPassLock.");
 		newMultiPassLock.readLock().lock();
 		while (newMultiPassTokenSet.contains(multiPassLockToken)) {
@@ -640,7 +655,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 		return multiPassLockToken;
 	}
 
-	public boolean removeMultiPassLock(int token) {
+	public synchronized boolean removeMultiPassLock(int token) {
 		if (newMultiPassTokenSet.contains(token)) {
 			newMultiPassLock.readLock().unlock();
 			newMultiPassTokenSet.remove(token);
@@ -685,8 +700,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 				bufferwriteDataInFiles.add(intervalFileNode.backUp());
 			}
 		}
-		Pair<RawSeriesChunk, List<TimeSeriesChunkMetaData>> bufferwritedata = new Pair<RawSeriesChunk, List<TimeSeriesChunkMetaData>>(
-				null, null);
+		RawSeriesChunk bufferwritedata = null;
 		// bufferwrite data
 		UnsealedTsFile unsealedTsFile = null;
 
@@ -702,12 +716,12 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 						"The last of tsfile %s in filenode processor %s is not closed, but the bufferwrite processor is null.",
 						newFileNodes.get(newFileNodes.size() - 1).getRelativePath(), getProcessorName()));
 			}
-			bufferwritedata = bufferWriteProcessor.queryBufferWriteData(deltaObjectId, measurementId, dataType);
-			unsealedTsFile.setTimeSeriesChunkMetaDatas(bufferwritedata.right);
+			bufferwritedata = bufferWriteProcessor.queryBufferWriteData(deltaObjectId, measurementId, dataType,
+					unsealedTsFile);
 		}
 		GlobalSortedSeriesDataSource globalSortedSeriesDataSource = new GlobalSortedSeriesDataSource(
 				new Path(deltaObjectId + "." + measurementId), bufferwriteDataInFiles, unsealedTsFile,
-				bufferwritedata.left);
+				bufferwritedata);
 		return new QueryDataSource(globalSortedSeriesDataSource, overflowSeriesDataSource);
 
 	}
@@ -915,7 +929,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 					LOGGER.info(
 							"The filenode processor {} prepares for merge, the overflow {} can't be closed, wait 100ms,",
 							getProcessorName(), getProcessorName());
-					TimeUnit.MICROSECONDS.sleep(100);
+					TimeUnit.MILLISECONDS.sleep(100);
 				} catch (InterruptedException e) {
 					e.printStackTrace();
 				}
@@ -1333,6 +1347,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 					String bufferFilePath = bufferFileNode.getFilePath();
 					if (bufferFilePath != null) {
 						bufferFiles.add(bufferFilePath);
+						bufferFiles.add(TsFileRollup.getRollupFilePath(bufferFilePath));
 					}
 				}
 				// add the restore file, if the last file is not closed
@@ -1345,6 +1360,9 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 					for (File file : bufferwriteDir.listFiles()) {
 						if (!bufferFiles.contains(file.getPath())) {
 							file.delete();
+							SeriesChunkCache.getInstance().removeFile(file.getPath());
+							OverflowFileStreamManager.getInstance().removeSealedFile(file.getPath());
+							RollupManager.getInstance().removeFile(file.getPath());
 						}
 					}
 				}
@@ -1391,96 +1409,248 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 		return record;
 	}
 
+	/**
+	 * The tsfile written by merge, which is created when the first data is
+	 * written, and named by the timestamp of the data.
+	 */
+	private class MergeOutputFile {
+		private TsFileIOWriter fileIOWriter;
+		private String baseDir;
+		private String fileName;
+
+		private TsFileIOWriter getFileIOWriter(long firstTimestamp) throws IOException {
+			if (fileIOWriter == null) {
+				baseDir = directories.getNextFolderForTsfile();
+				fileName = String.valueOf(firstTimestamp + FileNodeConstants.BUFFERWRITE_FILE_SEPARATOR
+						+ System.currentTimeMillis());
+				String outputPath = constructOutputFilePath(baseDir, getProcessorName(), fileName);
+				fileName = getProcessorName() + File.separatorChar + fileName;
+				fileIOWriter = new TsFileIOWriter(new File(outputPath));
+			}
+			return fileIOWriter;
+		}
+	}
+
 	private String queryAndWriteDataForMerge(IntervalFileNode backupIntervalFile)
 			throws IOException, WriteProcessException, FileNodeProcessorException, PathErrorException {
 		Map<String, Long> startTimeMap = new HashMap<>();
 		Map<String, Long> endTimeMap = new HashMap<>();
 
-		TsFileIOWriter fileIOWriter = null;
-		String outputPath = null;
-		String baseDir = null;
-		String fileName = null;
-		for (String deltaObjectId : backupIntervalFile.getStartTimeMap().keySet()) {
-			// query one deltaObjectId
-			List<Path> pathList = new ArrayList<>();
-			boolean isRowGroupHasData = false;
-			long startPos = -1;
-			int recordCount = 0;
-			try {
-				List<String> pathStrings = mManager.getLeafNodePathInNextLevel(deltaObjectId);
-				for (String string : pathStrings) {
-					pathList.add(new Path(string));
-				}
-			} catch (PathErrorException e) {
-				LOGGER.error("Can't get all the paths from MManager, the deltaObjectId is {}", deltaObjectId);
-				throw new FileNodeProcessorException(e);
-			}
-			if (pathList.isEmpty()) {
-				continue;
-			}
-			for (Path path : pathList) {
-				// query one measurenment in the special deltaObjectId
-				String measurementId = path.getMeasurementToString();
-				TSDataType dataType = mManager.getSeriesType(path.getFullPath());
-				OverflowSeriesDataSource overflowSeriesDataSource = overflowProcessor.queryMerge(deltaObjectId,
-						measurementId, dataType, true);
-				Filter<Long> timeFilter = FilterFactory.and(
-						TimeFilter.gtEq(backupIntervalFile.getStartTime(deltaObjectId)),
-						TimeFilter.ltEq(backupIntervalFile.getEndTime(deltaObjectId)));
-				SeriesFilter<Long> seriesFilter = new SeriesFilter<>(path, timeFilter);
-				SeriesReader seriesReader = SeriesReaderFactory.getInstance()
-						.createSeriesReaderForMerge(backupIntervalFile, overflowSeriesDataSource, seriesFilter);
+		MergeOutputFile outputFile = new MergeOutputFile();
+		// the series which are not changed by overflow are copied from the
+		// old file without decoding them
+		SimpleMetadataQuerierForMerge metadataQuerier = null;
+		ITsRandomAccessFileReader fileReader = null;
+		if (backupIntervalFile.getFilePath() != null) {
+			metadataQuerier = new SimpleMetadataQuerierForMerge(backupIntervalFile.getFilePath());
+			fileReader = new TsRandomAccessLocalFileReader(backupIntervalFile.getFilePath());
+		}
+		int copiedSeriesNum = 0;
+		int mergedSeriesNum = 0;
+		try {
+			for (String deltaObjectId : backupIntervalFile.getStartTimeMap().keySet()) {
+				// query one deltaObjectId
+				List<Path> pathList = new ArrayList<>();
+				boolean isRowGroupHasData = false;
+				long startPos = -1;
+				int recordCount = 0;
 				try {
-					if (!seriesReader.hasNext()) {
-						LOGGER.debug("The time-series {} has no data with the filter {} in the filenode processor {}",
-								path, seriesFilter, getProcessorName());
-					} else {
-						TimeValuePair timeValuePair = seriesReader.next();
-						if (fileIOWriter == null) {
-							baseDir = directories.getNextFolderForTsfile();
-							fileName = String.valueOf(timeValuePair.getTimestamp()
-									+ FileNodeConstants.BUFFERWRITE_FILE_SEPARATOR + System.currentTimeMillis());
-							outputPath = constructOutputFilePath(baseDir, getProcessorName(), fileName);
-							fileName = getProcessorName() + File.separatorChar + fileName;
-							fileIOWriter = new TsFileIOWriter(new File(outputPath));
+					List<String> pathStrings = mManager.getLeafNodePathInNextLevel(deltaObjectId);
+					for (String string : pathStrings) {
+						pathList.add(new Path(string));
+					}
+				} catch (PathErrorException e) {
+					LOGGER.error("Can't get all the paths from MManager, the deltaObjectId is {}", deltaObjectId);
+					throw new FileNodeProcessorException(e);
+				}
+				if (pathList.isEmpty()) {
+					continue;
+				}
+				long startTime = backupIntervalFile.getStartTime(deltaObjectId);
+				long endTime = backupIntervalFile.getEndTime(deltaObjectId);
+				for (Path path : pathList) {
+					// query one measurenment in the special deltaObjectId
+					String measurementId = path.getMeasurementToString();
+					TSDataType dataType = mManager.getSeriesType(path.getFullPath());
+					OverflowSeriesDataSource overflowSeriesDataSource = overflowProcessor.queryMerge(deltaObjectId,
+							measurementId, dataType, true);
+					if (metadataQuerier != null
+							&& !isOverlappedByOverflow(overflowSeriesDataSource, startTime, endTime)) {
+						List<TimeSeriesChunkMetaData> chunkMetaDataList = metadataQuerier
+								.getSeriesChunkMetaDataList(path);
+						if (canBeCopied(chunkMetaDataList, dataType)) {
+							if (!chunkMetaDataList.isEmpty()) {
+								TsFileIOWriter fileIOWriter = outputFile.getFileIOWriter(
+										chunkMetaDataList.get(0).getTInTimeSeriesChunkMetaData().getStartTime());
+								if (!isRowGroupHasData) {
+									// start a new rowGroupMetadata
+									isRowGroupHasData = true;
+									fileIOWriter.startRowGroup(deltaObjectId);
+									startPos = fileIOWriter.getPos();
+								}
+								recordCount += copyOneSeries(deltaObjectId, chunkMetaDataList, fileReader,
+										fileIOWriter, startTimeMap, endTimeMap);
+								copiedSeriesNum++;
+							}
+							continue;
 						}
-						if (!isRowGroupHasData) {
-							// start a new rowGroupMetadata
-							isRowGroupHasData = true;
-							fileIOWriter.startRowGroup(deltaObjectId);
-							startPos = fileIOWriter.getPos();
+					}
+					Filter<Long> timeFilter = FilterFactory.and(TimeFilter.gtEq(startTime), TimeFilter.ltEq(endTime));
+					SeriesFilter<Long> seriesFilter = new SeriesFilter<>(path, timeFilter);
+					SeriesReader seriesReader = SeriesReaderFactory.getInstance()
+							.createSeriesReaderForMerge(backupIntervalFile, overflowSeriesDataSource, seriesFilter);
+					try {
+						if (!seriesReader.hasNext()) {
+							LOGGER.debug(
+									"The time-series {} has no data with the filter {} in the filenode processor {}",
+									path, seriesFilter, getProcessorName());
+						} else {
+							TimeValuePair timeValuePair = seriesReader.next();
+							TsFileIOWriter fileIOWriter = outputFile.getFileIOWriter(timeValuePair.getTimestamp());
+							if (!isRowGroupHasData) {
+								// start a new rowGroupMetadata
+								isRowGroupHasData = true;
+								fileIOWriter.startRowGroup(deltaObjectId);
+								startPos = fileIOWriter.getPos();
+							}
+							long seriesStartPos = fileIOWriter.getPos();
+							// init the serieswWriteImpl
+							MeasurementDescriptor desc = fileSchema.getMeasurementDescriptor(measurementId);
+							IPageWriter pageWriter = new PageWriterImpl(desc);
+							int pageSizeThreshold = TsFileConf.pageSizeInByte;
+							SeriesWriterImpl seriesWriterImpl = new SeriesWriterImpl(deltaObjectId, desc, pageWriter,
+									pageSizeThreshold);
+							// write the series data
+							recordCount += writeOneSeries(deltaObjectId, measurementId, seriesWriterImpl, dataType,
+									seriesReader, startTimeMap, endTimeMap, timeValuePair);
+							// flush the series data
+							seriesWriterImpl.writeToFileWriter(fileIOWriter);
+							mergedSeriesNum++;
+							MergeThrottle.getInstance().acquire(fileIOWriter.getPos() - seriesStartPos);
 						}
-						// init the serieswWriteImpl
-						MeasurementDescriptor desc = fileSchema.getMeasurementDescriptor(measurementId);
-						IPageWriter pageWriter = new PageWriterImpl(desc);
-						int pageSizeThreshold = TsFileConf.pageSizeInByte;
-						SeriesWriterImpl seriesWriterImpl = new SeriesWriterImpl(deltaObjectId, desc, pageWriter,
-								pageSizeThreshold);
-						// write the series data
-						recordCount += writeOneSeries(deltaObjectId, measurementId, seriesWriterImpl, dataType,
-								seriesReader, startTimeMap, endTimeMap, timeValuePair);
-						// flush the series data
-						seriesWriterImpl.writeToFileWriter(fileIOWriter);
+					} finally {
+						seriesReader.close();
 					}
-				} finally {
-					seriesReader.close();
+				}
+				if (isRowGroupHasData) {
+					// end the new rowGroupMetadata
+					long memSize = outputFile.fileIOWriter.getPos() - startPos;
+					outputFile.fileIOWriter.endRowGroup(memSize, recordCount);
 				}
 			}
-			if (isRowGroupHasData) {
-				// end the new rowGroupMetadata
-				long memSize = fileIOWriter.getPos() - startPos;
-				fileIOWriter.endRowGroup(memSize, recordCount);
+		} finally {
+			if (fileReader != null) {
+				fileReader.close();
 			}
 		}
-		if (fileIOWriter != null) {
-			fileIOWriter.endFile(fileSchema);
+		if (outputFile.fileIOWriter != null) {
+			outputFile.fileIOWriter.endFile(fileSchema);
 		}
-		backupIntervalFile.setBaseDirIndex(directories.getTsFileFolderIndex(baseDir));
-		backupIntervalFile.setRelativePath(fileName);
+		LOGGER.info("The filenode processor {} merged {} series and copied {} series of the tsfile {}",
+				getProcessorName(), mergedSeriesNum, copiedSeriesNum, backupIntervalFile.getRelativePath());
+		backupIntervalFile.setBaseDirIndex(directories.getTsFileFolderIndex(outputFile.baseDir));
+		backupIntervalFile.setRelativePath(outputFile.fileName);
 		backupIntervalFile.overflowChangeType = OverflowChangeType.NO_CHANGE;
 		backupIntervalFile.setStartTimeMap(startTimeMap);
 		backupIntervalFile.setEndTimeMap(endTimeMap);
-		return fileName;
+		return outputFile.fileName;
+	}
+
+	/**
+	 * Check whether the overflow data of one series may change its data in the
+	 * time range [startTime, endTime] of a tsfile. The update and delete
+	 * operations are stored without their time ranges in the metadata, so any
+	 * of them overlaps the file.
+	 */
+	private boolean isOverlappedByOverflow(OverflowSeriesDataSource overflowSeriesDataSource, long startTime,
+			long endTime) {
+		if (overflowSeriesDataSource.hasRawSeriesChunk()) {
+			return true;
+		}
+		if (overflowSeriesDataSource.getOverflowInsertFileList() != null) {
+			for (OverflowInsertFile overflowInsertFile : overflowSeriesDataSource.getOverflowInsertFileList()) {
+				if (overflowInsertFile.getTimeSeriesChunkMetaDatas() == null) {
+					continue;
+				}
+				for (TimeSeriesChunkMetaData chunkMetaData : overflowInsertFile.getTimeSeriesChunkMetaDatas()) {
+					TInTimeSeriesChunkMetaData tInTimeSeriesChunkMetaData = chunkMetaData
+							.getTInTimeSeriesChunkMetaData();
+					if (tInTimeSeriesChunkMetaData == null || (tInTimeSeriesChunkMetaData.getStartTime() <= endTime
+							&& tInTimeSeriesChunkMetaData.getEndTime() >= startTime)) {
+						return true;
+					}
+				}
+			}
+		}
+		UpdateDeleteInfoOfOneSeries updateDeleteInfoOfOneSeries = overflowSeriesDataSource
+				.getUpdateDeleteInfoOfOneSeries();
+		if (updateDeleteInfoOfOneSeries != null) {
+			if (updateDeleteInfoOfOneSeries.getOverflowUpdateInMem() != null
+					&& updateDeleteInfoOfOneSeries.getOverflowUpdateInMem().valueLength > 0) {
+				return true;
+			}
+			if (updateDeleteInfoOfOneSeries.getOverflowUpdateFileList() != null) {
+				for (OverflowUpdateDeleteFile overflowUpdateDeleteFile : updateDeleteInfoOfOneSeries
+						.getOverflowUpdateFileList()) {
+					if (overflowUpdateDeleteFile.getTimeSeriesChunkMetaDataList() != null
+							&& !overflowUpdateDeleteFile.getTimeSeriesChunkMetaDataList().isEmpty()) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The chunks can be copied if they know their time ranges and are of the
+	 * current type of the series.
+	 */
+	private boolean canBeCopied(List<TimeSeriesChunkMetaData> chunkMetaDataList, TSDataType dataType) {
+		for (TimeSeriesChunkMetaData chunkMetaData : chunkMetaDataList) {
+			if (chunkMetaData.getTInTimeSeriesChunkMetaData() == null
+					|| chunkMetaData.getVInTimeSeriesChunkMetaData() == null
+					|| chunkMetaData.getVInTimeSeriesChunkMetaData().getDataType() != dataType) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Copy the chunks of one series from the old tsfile to the merged tsfile
+	 * without decoding them.
+	 *
+	 * @return the number of the points copied
+	 */
+	private long copyOneSeries(String deltaObjectId, List<TimeSeriesChunkMetaData> chunkMetaDataList,
+			ITsRandomAccessFileReader fileReader, TsFileIOWriter fileIOWriter, Map<String, Long> startTimeMap,
+			Map<String, Long> endTimeMap) throws IOException {
+		long count = 0;
+		for (TimeSeriesChunkMetaData chunkMetaData : chunkMetaDataList) {
+			int length = (int) chunkMetaData.getTotalByteSize();
+			byte[] chunkBytes = new byte[length];
+			fileReader.seek(chunkMetaData.getProperties().getFileOffset());
+			int readLength = fileReader.read(chunkBytes, 0, length);
+			if (readLength != length) {
+				throw new IOException(String.format(
+						"The length of the series chunk read from the tsfile is not right, expected %d, actual %d",
+						length, readLength));
+			}
+			fileIOWriter.appendSeriesChunk(chunkMetaData, chunkBytes);
+			count += chunkMetaData.getNumRows();
+
+			long startTime = chunkMetaData.getTInTimeSeriesChunkMetaData().getStartTime();
+			long endTime = chunkMetaData.getTInTimeSeriesChunkMetaData().getEndTime();
+			if (!startTimeMap.containsKey(deltaObjectId) || startTimeMap.get(deltaObjectId) > startTime) {
+				startTimeMap.put(deltaObjectId, startTime);
+			}
+			if (!endTimeMap.containsKey(deltaObjectId) || endTimeMap.get(deltaObjectId) < endTime) {
+				endTimeMap.put(deltaObjectId, endTime);
+			}
+			MergeThrottle.getInstance().acquire(length);
+		}
+		return count;
 	}
 
 	private int writeOneSeries(String deltaObjectId, String measurement, SeriesWriterImpl seriesWriterImpl,
@@ -1729,7 +1899,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 					try {
 						LOGGER.info("The bufferwrite {} can't be closed, wait 100ms",
 								bufferWriteProcessor.getProcessorName());
-						TimeUnit.MICROSECONDS.sleep(100);
+						TimeUnit.MILLISECONDS.sleep(100);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -1779,7 +1949,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 					try {
 						LOGGER.info("The overflow {} can't be closed, wait 100ms",
 								overflowProcessor.getProcessorName());
-						TimeUnit.MICROSECONDS.sleep(100);
+						TimeUnit.MILLISECONDS.sleep(100);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -6,8 +6,8 @@ import cn.edu.tsinghua.iotdb.utils.MemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -17,7 +17,8 @@ public class RecordMemController extends BasicMemController{
 
     private static Logger logger = LoggerFactory.getLogger(RecordMemController.class);
 
-    // the key is the reference of the memory user, while the value is its memory usage in byte
+    // the key is the reference of the memory user, while the value is its memory usage in byte. The memory of a user
+    // may be freed by a flush thread while the user is writing, so the usage of a user is updated atomically.
     private Map<Object, Long> memMap;
     private AtomicLong totalMemUsed;
 
@@ -27,7 +28,7 @@ public class RecordMemController extends BasicMemController{
 
     private RecordMemController(TsfileDBConfig config) {
         super(config);
-        memMap = new HashMap<>();
+        memMap = new ConcurrentHashMap<>();
         totalMemUsed = new AtomicLong(0);
     }
 
@@ -60,9 +61,6 @@ public class RecordMemController extends BasicMemController{
     }
 
     public UsageLevel reportUse(Object user, long usage) {
-        Long oldUsage = memMap.get(user);
-        if (oldUsage == null)
-            oldUsage = 0L;
         long newTotUsage = totalMemUsed.get() + usage;
         // check if the new usage will reach dangerous threshold
         if (newTotUsage < dangerouseThreshold) {
@@ -70,19 +68,19 @@ public class RecordMemController extends BasicMemController{
             // double check if updating will reach dangerous threshold
             if (newTotUsage < warningThreshold) {
                 // still safe, action taken
-                memMap.put(user, oldUsage + usage);
+                long userUsage = memMap.merge(user, usage, Long::sum);
                 logger.debug("Safe Threshold : {} allocated to {}, it is using {}, total usage {}",
                         MemUtils.bytesCntToStr(usage),
                         user.getClass(),
-                        MemUtils.bytesCntToStr(oldUsage + usage), MemUtils.bytesCntToStr(newTotUsage));
+                        MemUtils.bytesCntToStr(userUsage), MemUtils.bytesCntToStr(newTotUsage));
                 return UsageLevel.SAFE;
             } else if (newTotUsage < dangerouseThreshold) {
                 // become warning because competition with other threads, still take the action
-                memMap.put(user, oldUsage + usage);
+                long userUsage = memMap.merge(user, usage, Long::sum);
                 logger.debug("Warning Threshold : {} allocated to {}, it is using {}, total usage {}",
                         MemUtils.bytesCntToStr(usage),
                         user.getClass(),
-                        MemUtils.bytesCntToStr(oldUsage + usage), MemUtils.bytesCntToStr(newTotUsage));
+                        MemUtils.bytesCntToStr(userUsage), MemUtils.bytesCntToStr(newTotUsage));
                 return UsageLevel.WARNING;
             } else {
                 logger.warn("Memory request from {} is denied, memory usage : {}", user.getClass(), MemUtils.bytesCntToStr(newTotUsage));
@@ -97,19 +95,19 @@ public class RecordMemController extends BasicMemController{
     }
 
     public void reportFree(Object user, long freeSize) {
-        Long usage = memMap.get(user);
-        if (usage == null)
+        long[] registered = {-1};
+        memMap.computeIfPresent(user, (u, usage) -> {
+            registered[0] = usage;
+            return usage > freeSize ? usage - freeSize : null;
+        });
+        long usage = registered[0];
+        if (usage < 0)
             logger.error("Unregistered memory usage from {}", user.getClass());
         else if (freeSize > usage) {
             logger.error("Request to free {} bytes while it only registered {} bytes", freeSize, usage);
             totalMemUsed.addAndGet(-usage);
-            memMap.remove(user);
         } else {
             long newTotalMemUsage = totalMemUsed.addAndGet(-freeSize);
-            if(usage - freeSize > 0)
-                memMap.put(user, usage - freeSize);
-            else
-                memMap.remove(user);
             logger.info("{} freed from {}, it is using {}, total usage {}", MemUtils.bytesCntToStr(freeSize)
                     ,user.getClass()
                     , MemUtils.bytesCntToStr(usage - freeSize)
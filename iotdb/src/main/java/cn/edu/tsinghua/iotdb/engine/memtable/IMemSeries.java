@@ -25,7 +25,24 @@ public interface IMemSeries extends TimeValuePairSorter{
 
     void write(long insertTime, String insertValue);
 
+    /**
+     * Remove all points of this series, the memory of them is reused by the following writes.
+     * The caller must make sure that nobody is reading this series.
+     */
     void reset();
 
     int count();
+
+    /**
+     * @return all distinct points in ascending order by timestamp, if several points have the same timestamp,
+     * the one written last is kept.
+     */
+    TimeValueArray getSortedTimeValueArray();
+
+    /**
+     * Copy the points in the order of writing, which costs no more than copying the arrays, so that the lock
+     * guarding this series can be released before the points are sorted.
+     * @return a sorter which sorts the copied points when it is called.
+     */
+    TimeValuePairSorter snapshot();
 }
@@ -11,7 +11,7 @@ import java.util.List;
  */
 public class MemSeriesLazyMerger implements TimeValuePairSorter{
 
-    private List<IMemSeries> memSeriesList;
+    private List<TimeValuePairSorter> memSeriesList;
 
     public MemSeriesLazyMerger() {
         memSeriesList = new ArrayList<>();
@@ -25,9 +25,9 @@ public class MemSeriesLazyMerger implements TimeValuePairSorter{
     /**
      * IMPORTANT: Please ensure that the minimum timestamp of added {@link IMemSeries} is larger than
      * any timestamps of the IMemSeries already added in.
-     * @param series
+     * @param series an {@link IMemSeries} or its {@link IMemSeries#snapshot()}
      */
-    public void addMemSeries(IMemSeries series) {
+    public void addMemSeries(TimeValuePairSorter series) {
         memSeriesList.add(series);
     }
 
@@ -1,14 +1,14 @@
 package cn.edu.tsinghua.iotdb.engine.memtable;
 
 import java.io.IOException;
-import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupSeries;
+import cn.edu.tsinghua.iotdb.engine.rollup.TsFileRollup;
 import cn.edu.tsinghua.tsfile.common.conf.TSFileDescriptor;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
-import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
 import cn.edu.tsinghua.tsfile.timeseries.write.desc.MeasurementDescriptor;
 import cn.edu.tsinghua.tsfile.timeseries.write.io.TsFileIOWriter;
 import cn.edu.tsinghua.tsfile.timeseries.write.page.IPageWriter;
@@ -20,55 +20,98 @@ public class MemTableFlushUtil {
 	private static final Logger logger = LoggerFactory.getLogger(MemTableFlushUtil.class);
 	private static final int pageSizeThreshold = TSFileDescriptor.getInstance().getConfig().pageSizeInByte;
 
-	private static int writeOneSeries(List<TimeValuePair> tvPairs, SeriesWriterImpl seriesWriterImpl,
+	private static int writeOneSeries(TimeValueArray tvArray, SeriesWriterImpl seriesWriterImpl,
 			TSDataType dataType) throws IOException {
-		int count = 0;
+		int count = tvArray.size();
 		switch (dataType) {
 		case BOOLEAN:
-			for (TimeValuePair timeValuePair : tvPairs) {
-				count++;
-				seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getBoolean());
+			for (int i = 0; i < count; i++) {
+				seriesWriterImpl.write(tvArray.getTimestamp(i), tvArray.getBoolean(i));
 			}
 			break;
 		case INT32:
-			for (TimeValuePair timeValuePair : tvPairs) {
-				count++;
-				seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getInt());
+			for (int i = 0; i < count; i++) {
+				seriesWriterImpl.write(tvArray.getTimestamp(i), tvArray.getInt(i));
 			}
 			break;
 		case INT64:
-			for (TimeValuePair timeValuePair : tvPairs) {
-				count++;
-				seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getLong());
+			for (int i = 0; i < count; i++) {
+				seriesWriterImpl.write(tvArray.getTimestamp(i), tvArray.getLong(i));
 			}
 			break;
 		case FLOAT:
-			for (TimeValuePair timeValuePair : tvPairs) {
-				count++;
-				seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getFloat());
+			for (int i = 0; i < count; i++) {
+				seriesWriterImpl.write(tvArray.getTimestamp(i), tvArray.getFloat(i));
 			}
 			break;
 		case DOUBLE:
-			for (TimeValuePair timeValuePair : tvPairs) {
-				count++;
-				seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getDouble());
+			for (int i = 0; i < count; i++) {
+				seriesWriterImpl.write(tvArray.getTimestamp(i), tvArray.getDouble(i));
 			}
 			break;
 		case TEXT:
-			for (TimeValuePair timeValuePair : tvPairs) {
-				count++;
-				seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getBinary());
+			for (int i = 0; i < count; i++) {
+				seriesWriterImpl.write(tvArray.getTimestamp(i), tvArray.getBinary(i));
 			}
 			break;
 		default:
 			logger.error("don't support data type: {}", dataType);
-			break;
+			return 0;
 		}
 		return count;
 	}
 
+	private static RollupSeries[] rollUpOneSeries(TimeValueArray tvArray, TSDataType dataType, long[] intervals) {
+		RollupSeries[] rollupSeries = new RollupSeries[intervals.length];
+		int count = tvArray.size();
+		for (int j = 0; j < intervals.length; j++) {
+			RollupSeries series = new RollupSeries(dataType, intervals[j]);
+			switch (dataType) {
+			case INT32:
+				for (int i = 0; i < count; i++) {
+					series.add(tvArray.getTimestamp(i), tvArray.getInt(i));
+				}
+				break;
+			case INT64:
+				for (int i = 0; i < count; i++) {
+					series.add(tvArray.getTimestamp(i), tvArray.getLong(i));
+				}
+				break;
+			case FLOAT:
+				for (int i = 0; i < count; i++) {
+					series.add(tvArray.getTimestamp(i), tvArray.getFloat(i));
+				}
+				break;
+			case DOUBLE:
+				for (int i = 0; i < count; i++) {
+					series.add(tvArray.getTimestamp(i), tvArray.getDouble(i));
+				}
+				break;
+			default:
+				logger.error("don't support data type: {}", dataType);
+				return null;
+			}
+			rollupSeries[j] = series;
+		}
+		return rollupSeries;
+	}
+
 	public static void flushMemTable(FileSchema fileSchema, TsFileIOWriter tsFileIOWriter, IMemTable iMemTable)
 			throws IOException {
+		flushMemTable(fileSchema, tsFileIOWriter, iMemTable, null);
+	}
+
+	/**
+	 * Flush the memtable, and roll up its numeric series in the intervals at the
+	 * same time, see {@link RollupSeries}.
+	 *
+	 * @param rollupIntervals
+	 *            the intervals of the rollups, or null if no rollup is needed
+	 * @return the rollups of the memtable, or null if no rollup is needed
+	 */
+	public static TsFileRollup flushMemTable(FileSchema fileSchema, TsFileIOWriter tsFileIOWriter,
+			IMemTable iMemTable, long[] rollupIntervals) throws IOException {
+		TsFileRollup rollup = rollupIntervals == null ? null : new TsFileRollup(rollupIntervals);
 		for (String deltaObjectId : iMemTable.getMemTableMap().keySet()) {
 			long startPos = tsFileIOWriter.getPos();
 			long recordCount = 0;
@@ -79,11 +122,16 @@ public class MemTableFlushUtil {
 				IPageWriter pageWriter = new PageWriterImpl(desc);
 				SeriesWriterImpl seriesWriter = new SeriesWriterImpl(deltaObjectId, desc, pageWriter,
 						pageSizeThreshold);
-				recordCount += writeOneSeries(series.getSortedTimeValuePairList(), seriesWriter, desc.getType());
+				TimeValueArray tvArray = series.getSortedTimeValueArray();
+				recordCount += writeOneSeries(tvArray, seriesWriter, desc.getType());
 				seriesWriter.writeToFileWriter(tsFileIOWriter);
+				if (rollup != null && RollupSeries.isSupported(desc.getType())) {
+					rollup.put(deltaObjectId, measurementId, rollUpOneSeries(tvArray, desc.getType(), rollupIntervals));
+				}
 			}
 			long memSize = tsFileIOWriter.getPos() - startPos;
 			tsFileIOWriter.endRowGroup(memSize, recordCount);
 		}
+		return rollup;
 	}
 }
@@ -0,0 +1,81 @@
+package cn.edu.tsinghua.iotdb.engine.memtable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+
+/**
+ * MemTablePool holds a fixed number of memtables of one bufferwrite processor. A memtable is borrowed when it
+ * starts to receive writes and is returned after it has been flushed, then it is reset and reused by the
+ * following writes. Borrowing blocks when all memtables are in use, which is the backpressure of the writes
+ * when flushes cannot keep up with them.
+ */
+public class MemTablePool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemTablePool.class);
+
+    private final String name;
+    private final int capacity;
+    private final ArrayDeque<IMemTable> availableMemTables = new ArrayDeque<>();
+    /**
+     * Number of memtables created by this pool, it never exceeds capacity.
+     */
+    private int size = 0;
+
+    public MemTablePool(String name, int capacity) {
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get an empty memtable, wait until a memtable is returned if all of them are in use.
+     */
+    public synchronized IMemTable getAvailableMemTable() {
+        while (availableMemTables.isEmpty() && size >= capacity) {
+            LOGGER.info("All {} memtables of {} are in use, waiting for a flush to end.", capacity, name);
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                LOGGER.error("Interrupted while waiting for an available memtable of {}.", name, e);
+                Thread.currentThread().interrupt();
+                // do not lose the writes, go beyond the capacity instead
+                break;
+            }
+        }
+        if (!availableMemTables.isEmpty()) {
+            return availableMemTables.pop();
+        }
+        size++;
+        return new PrimitiveMemTable();
+    }
+
+    /**
+     * Reset a memtable and make it available again. The caller must make sure that nobody is reading the
+     * memtable, because the memory of its series is reused by the following writes.
+     */
+    public void putBack(IMemTable memTable) {
+        for (Map<String, IMemSeries> seriesMap : memTable.getMemTableMap().values()) {
+            for (IMemSeries memSeries : seriesMap.values()) {
+                memSeries.reset();
+            }
+        }
+        memTable.clear();
+        synchronized (this) {
+            availableMemTables.push(memTable);
+            notifyAll();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of memtables which are borrowed and not returned yet.
+     */
+    public synchronized int getUsedNumber() {
+        return size - availableMemTables.size();
+    }
+}
@@ -1,27 +1,23 @@
 package cn.edu.tsinghua.iotdb.engine.memtable;
 
-import cn.edu.tsinghua.iotdb.utils.PrimitiveArrayList;
-import cn.edu.tsinghua.iotdb.utils.PrimitiveArrayListFactory;
+import cn.edu.tsinghua.iotdb.utils.TVList;
 import cn.edu.tsinghua.tsfile.common.exception.UnSupportedDataTypeException;
 import cn.edu.tsinghua.tsfile.common.utils.Binary;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
-import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.TreeMap;
 
 /**
  * Created by zhangjinrui on 2018/1/25.
  */
 public class PrimitiveMemSeries implements IMemSeries {
     private TSDataType dataType;
-    private PrimitiveArrayList list;
+    private TVList list;
 
     public PrimitiveMemSeries(TSDataType dataType) {
         this.dataType = dataType;
-        this.list = PrimitiveArrayListFactory.getByDataType(dataType);
+        this.list = TVList.newList(dataType);
     }
 
     @Override
@@ -52,52 +48,55 @@ public class PrimitiveMemSeries implements IMemSeries {
 
     @Override
     public void putLong(long t, long v) {
-        list.putTimestamp(t, v);
+        list.putLong(t, v);
     }
 
     @Override
     public void putInt(long t, int v) {
-        list.putTimestamp(t, v);
+        list.putInt(t, v);
     }
 
     @Override
     public void putFloat(long t, float v) {
-        list.putTimestamp(t, v);
+        list.putFloat(t, v);
     }
 
     @Override
     public void putDouble(long t, double v) {
-        list.putTimestamp(t, v);
+        list.putDouble(t, v);
     }
 
     @Override
     public void putBinary(long t, Binary v) {
-        list.putTimestamp(t, v);
+        list.putBinary(t, v);
     }
 
     @Override
     public void putBoolean(long t, boolean v) {
-        list.putTimestamp(t, v);
+        list.putBoolean(t, v);
     }
 
     @Override
-    //TODO: 考虑使用数组进行排序去重
     public List<TimeValuePair> getSortedTimeValuePairList() {
-        int length = list.size();
-        TreeMap<Long, TsPrimitiveType> treeMap = new TreeMap<>();
-        for (int i = 0; i < length; i++) {
-            treeMap.put(list.getTimestamp(i), TsPrimitiveType.getByType(dataType, list.getValue(i)));
-        }
-        List<TimeValuePair> ret = new ArrayList<>();
-        treeMap.forEach((k, v) -> {
-            ret.add(new TimeValuePairInMemTable(k, v));
-        });
-        return ret;
+        return getSortedTimeValueArray().toTimeValuePairList();
+    }
+
+    @Override
+    public TimeValueArray getSortedTimeValueArray() {
+        return TimeValueArray.sortOf(dataType, list.getTimestamps(), list.getValues(), list.size());
+    }
+
+    @Override
+    public TimeValuePairSorter snapshot() {
+        long[] timestamps = list.getTimestamps();
+        Object values = list.getValues();
+        int size = list.size();
+        return () -> TimeValueArray.sortOf(dataType, timestamps, values, size).toTimeValuePairList();
     }
 
     @Override
     public void reset() {
-        this.list = PrimitiveArrayListFactory.getByDataType(dataType);
+        list.clear();
     }
 
     @Override
@@ -0,0 +1,243 @@
+package cn.edu.tsinghua.iotdb.engine.memtable;
+
+import cn.edu.tsinghua.tsfile.common.exception.UnSupportedDataTypeException;
+import cn.edu.tsinghua.tsfile.common.utils.Binary;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TimeValueArray holds the points of a memory series in ascending order of timestamp without duplicated
+ * timestamps. Timestamps and values are kept in parallel primitive arrays, so a series can be sorted and
+ * flushed without boxing every point. Points are accessed by index, e.g. {@link #getTimestamp(int)} and
+ * {@link #getInt(int)}.
+ */
+public class TimeValueArray {
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private TSDataType dataType;
+    private long[] timestamps;
+    /**
+     * boolean[], int[], long[], float[], double[] or Binary[] according to dataType.
+     */
+    private Object values;
+    private int size;
+
+    private TimeValueArray(TSDataType dataType, long[] timestamps, Object values, int size) {
+        this.dataType = dataType;
+        this.timestamps = timestamps;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Sort the points by timestamp, if several points have the same timestamp, the one written last is kept.
+     * The given arrays are owned by the returned object and may be sorted in place.
+     * @param timestamps timestamps in the order of writing.
+     * @param values values in the order of writing, which is a primitive array of dataType or Binary[].
+     * @param size number of points in the arrays.
+     */
+    public static TimeValueArray sortOf(TSDataType dataType, long[] timestamps, Object values, int size) {
+        TimeValueArray array = new TimeValueArray(dataType, timestamps, values, size);
+        array.sortAndDedup();
+        return array;
+    }
+
+    private void sortAndDedup() {
+        boolean sorted = true;
+        boolean distinct = true;
+        for (int i = 1; i < size; i++) {
+            if (timestamps[i] < timestamps[i - 1]) {
+                sorted = false;
+                break;
+            } else if (timestamps[i] == timestamps[i - 1]) {
+                distinct = false;
+            }
+        }
+        // fast path: the points are written in time order
+        if (sorted && distinct) {
+            return;
+        }
+        // order[i] is the index in values of the point at timestamps[i]
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        if (!sorted) {
+            mergeSort(timestamps, order, timestamps.clone(), order.clone(), 0, size);
+        }
+        // the sort is stable, so the last of the points with the same timestamp is the one written last
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (i + 1 < size && timestamps[i + 1] == timestamps[i]) {
+                continue;
+            }
+            timestamps[newSize] = timestamps[i];
+            order[newSize] = order[i];
+            newSize++;
+        }
+        values = gather(values, order, newSize);
+        size = newSize;
+    }
+
+    /*
+    Stable merge sort of times[from, to) and the parallel order, srcTimes and srcOrder are copies of them which
+    are used as the buffer.
+     */
+    private static void mergeSort(long[] times, int[] order, long[] srcTimes, int[] srcOrder, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                long t = times[i];
+                int o = order[i];
+                int j = i - 1;
+                for (; j >= from && times[j] > t; j--) {
+                    times[j + 1] = times[j];
+                    order[j + 1] = order[j];
+                }
+                times[j + 1] = t;
+                order[j + 1] = o;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        // sort both halves into the buffer, then merge them back
+        mergeSort(srcTimes, srcOrder, times, order, from, mid);
+        mergeSort(srcTimes, srcOrder, times, order, mid, to);
+        if (srcTimes[mid - 1] <= srcTimes[mid]) {
+            System.arraycopy(srcTimes, from, times, from, to - from);
+            System.arraycopy(srcOrder, from, order, from, to - from);
+            return;
+        }
+        for (int i = from, p = from, q = mid; i < to; i++) {
+            if (q >= to || p < mid && srcTimes[p] <= srcTimes[q]) {
+                times[i] = srcTimes[p];
+                order[i] = srcOrder[p++];
+            } else {
+                times[i] = srcTimes[q];
+                order[i] = srcOrder[q++];
+            }
+        }
+    }
+
+    private Object gather(Object values, int[] order, int size) {
+        switch (dataType) {
+            case BOOLEAN: {
+                boolean[] src = (boolean[]) values;
+                boolean[] dst = new boolean[size];
+                for (int i = 0; i < size; i++) {
+                    dst[i] = src[order[i]];
+                }
+                return dst;
+            }
+            case INT32: {
+                int[] src = (int[]) values;
+                int[] dst = new int[size];
+                for (int i = 0; i < size; i++) {
+                    dst[i] = src[order[i]];
+                }
+                return dst;
+            }
+            case INT64: {
+                long[] src = (long[]) values;
+                long[] dst = new long[size];
+                for (int i = 0; i < size; i++) {
+                    dst[i] = src[order[i]];
+                }
+                return dst;
+            }
+            case FLOAT: {
+                float[] src = (float[]) values;
+                float[] dst = new float[size];
+                for (int i = 0; i < size; i++) {
+                    dst[i] = src[order[i]];
+                }
+                return dst;
+            }
+            case DOUBLE: {
+                double[] src = (double[]) values;
+                double[] dst = new double[size];
+                for (int i = 0; i < size; i++) {
+                    dst[i] = src[order[i]];
+                }
+                return dst;
+            }
+            case TEXT: {
+                Binary[] src = (Binary[]) values;
+                Binary[] dst = new Binary[size];
+                for (int i = 0; i < size; i++) {
+                    dst[i] = src[order[i]];
+                }
+                return dst;
+            }
+            default:
+                throw new UnSupportedDataTypeException("Unsupported data type:" + dataType);
+        }
+    }
+
+    public TSDataType getDataType() {
+        return dataType;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    public boolean getBoolean(int index) {
+        return ((boolean[]) values)[index];
+    }
+
+    public int getInt(int index) {
+        return ((int[]) values)[index];
+    }
+
+    public long getLong(int index) {
+        return ((long[]) values)[index];
+    }
+
+    public float getFloat(int index) {
+        return ((float[]) values)[index];
+    }
+
+    public double getDouble(int index) {
+        return ((double[]) values)[index];
+    }
+
+    public Binary getBinary(int index) {
+        return ((Binary[]) values)[index];
+    }
+
+    public TsPrimitiveType getValue(int index) {
+        switch (dataType) {
+            case BOOLEAN:
+                return new TsPrimitiveType.TsBoolean(getBoolean(index));
+            case INT32:
+                return new TsPrimitiveType.TsInt(getInt(index));
+            case INT64:
+                return new TsPrimitiveType.TsLong(getLong(index));
+            case FLOAT:
+                return new TsPrimitiveType.TsFloat(getFloat(index));
+            case DOUBLE:
+                return new TsPrimitiveType.TsDouble(getDouble(index));
+            case TEXT:
+                return new TsPrimitiveType.TsBinary(getBinary(index));
+            default:
+                throw new UnSupportedDataTypeException("Unsupported data type:" + dataType);
+        }
+    }
+
+    public List<TimeValuePair> toTimeValuePairList() {
+        List<TimeValuePair> ret = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ret.add(new TimeValuePairInMemTable(timestamps[i], getValue(i)));
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,48 @@
+package cn.edu.tsinghua.iotdb.engine.pool;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import cn.edu.tsinghua.iotdb.concurrent.IoTDBThreadPoolFactory;
+import cn.edu.tsinghua.iotdb.concurrent.ThreadName;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+
+/**
+ * The thread pool shared by all the aggregation queries, the series of one
+ * query are aggregated by at most
+ * {@link TsfileDBConfig#aggregateParallelismPerQuery} threads of it.
+ */
+public class AggregateManager {
+
+	private ExecutorService pool;
+	private int threadCnt;
+
+	private static class InstanceHolder {
+		private static AggregateManager instance = new AggregateManager();
+	}
+
+	private AggregateManager() {
+		TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+		this.threadCnt = config.concurrentAggregateThread;
+		pool = IoTDBThreadPoolFactory.newFixedThreadPool(threadCnt, ThreadName.AGGREGATE_SERVICE.getName());
+	}
+
+	static public AggregateManager getInstance() {
+		return InstanceHolder.instance;
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		return pool.submit(task);
+	}
+
+	public int getActiveCnt() {
+		return ((ThreadPoolExecutor) pool).getActiveCount();
+	}
+
+	public int getThreadCnt() {
+		return threadCnt;
+	}
+}
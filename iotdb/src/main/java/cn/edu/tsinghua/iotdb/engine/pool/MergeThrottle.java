@@ -0,0 +1,70 @@
+package cn.edu.tsinghua.iotdb.engine.pool;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+
+/**
+ * Limits the rate at which all the merge threads write the merged tsfiles to
+ * {@link TsfileDBConfig#mergeThroughputInMBPerSec}, so that a merge of a large
+ * storage group doesn't take all the disk I/O from writing and querying. The
+ * merge threads report the bytes they have written and are delayed until the
+ * rate falls under the limit.
+ */
+public class MergeThrottle {
+
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private long bytesPerSecond;
+	/** the time when the bytes reported so far are written at the limited rate */
+	private long nextFreeNanos = System.nanoTime();
+
+	private static class InstanceHolder {
+		private static MergeThrottle instance = new MergeThrottle();
+	}
+
+	private MergeThrottle() {
+		TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+		setThroughputInMBPerSec(config.mergeThroughputInMBPerSec);
+	}
+
+	public static MergeThrottle getInstance() {
+		return InstanceHolder.instance;
+	}
+
+	/**
+	 * @param throughputInMBPerSec
+	 *            the maximum rate, the merge is not throttled when it is <= 0
+	 */
+	public synchronized void setThroughputInMBPerSec(int throughputInMBPerSec) {
+		this.bytesPerSecond = throughputInMBPerSec <= 0 ? 0 : throughputInMBPerSec * 1024L * 1024L;
+		this.nextFreeNanos = System.nanoTime();
+	}
+
+	/**
+	 * Report the bytes written by a merge thread, and wait until they can be
+	 * written at the limited rate. A merge thread interrupted by closing the
+	 * merge pool is not delayed any more.
+	 */
+	public void acquire(long bytes) {
+		long waitNanos;
+		synchronized (this) {
+			if (bytesPerSecond <= 0 || bytes <= 0) {
+				return;
+			}
+			long now = System.nanoTime();
+			// the unused rate of an idle period is not saved for later
+			if (nextFreeNanos < now) {
+				nextFreeNanos = now;
+			}
+			nextFreeNanos += bytes * NANOS_PER_SECOND / bytesPerSecond;
+			waitNanos = nextFreeNanos - now;
+		}
+		try {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
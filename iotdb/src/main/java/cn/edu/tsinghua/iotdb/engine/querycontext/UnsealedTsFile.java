@@ -1,5 +1,6 @@
 package cn.edu.tsinghua.iotdb.engine.querycontext;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.TsFileRollup;
 import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkMetaData;
 
 import java.util.List;
@@ -10,6 +11,10 @@ import java.util.List;
 public class UnsealedTsFile {
     private String filePath;
     private List<TimeSeriesChunkMetaData> timeSeriesChunkMetaDatas;
+    /**
+     * the rollups of the series in the flushed data, or null if the file keeps no rollup
+     */
+    private TsFileRollup rollup;
 
     public String getFilePath() {
         return filePath;
@@ -26,4 +31,12 @@ public class UnsealedTsFile {
     public void setTimeSeriesChunkMetaDatas(List<TimeSeriesChunkMetaData> timeSeriesChunkMetaDatas) {
         this.timeSeriesChunkMetaDatas = timeSeriesChunkMetaDatas;
     }
+
+    public TsFileRollup getRollup() {
+        return rollup;
+    }
+
+    public void setRollup(TsFileRollup rollup) {
+        this.rollup = rollup;
+    }
 }
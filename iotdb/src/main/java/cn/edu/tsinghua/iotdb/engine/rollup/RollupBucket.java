@@ -0,0 +1,65 @@
+package cn.edu.tsinghua.iotdb.engine.rollup;
+
+/**
+ * The aggregation of the points of a series in some consecutive buckets of a
+ * {@link RollupSeries}. The values are null and the times are -1 if it has no
+ * point.
+ */
+public class RollupBucket {
+
+	private long count;
+	private double sum;
+	private long minTime = -1;
+	private long maxTime = -1;
+	private Comparable<?> minValue;
+	private Comparable<?> maxValue;
+	private Comparable<?> firstValue;
+	private Comparable<?> lastValue;
+
+	RollupBucket() {
+	}
+
+	RollupBucket(long count, double sum, long minTime, long maxTime, Comparable<?> minValue, Comparable<?> maxValue,
+			Comparable<?> firstValue, Comparable<?> lastValue) {
+		this.count = count;
+		this.sum = sum;
+		this.minTime = minTime;
+		this.maxTime = maxTime;
+		this.minValue = minValue;
+		this.maxValue = maxValue;
+		this.firstValue = firstValue;
+		this.lastValue = lastValue;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getSum() {
+		return sum;
+	}
+
+	public long getMinTime() {
+		return minTime;
+	}
+
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	public Comparable<?> getMinValue() {
+		return minValue;
+	}
+
+	public Comparable<?> getMaxValue() {
+		return maxValue;
+	}
+
+	public Comparable<?> getFirstValue() {
+		return firstValue;
+	}
+
+	public Comparable<?> getLastValue() {
+		return lastValue;
+	}
+}
@@ -0,0 +1,153 @@
+package cn.edu.tsinghua.iotdb.engine.rollup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.engine.cache.WeightedLRUCache;
+
+/**
+ * This class decides which storage groups keep the rollups, see
+ * {@link TsfileDBConfig#rollupIntervals}, and caches the rollups of the sealed
+ * tsfiles read by the group by queries. The rollups are read and cached one
+ * series at a time, through the index of the positions of the series in the
+ * rollup file, which is cached as well. The caching strategy is LRU bounded
+ * by the estimated size of the rollups and the indexes, see
+ * {@link TsfileDBConfig#rollupCacheSizeInByte}, a quarter of which is used by
+ * the indexes. The rollups of a file must be removed by
+ * {@link #removeFile(String)} when the file is deleted.
+ */
+public class RollupManager {
+
+	private final TsfileDBConfig config;
+	/** key: the path of the sealed tsfile */
+	private final WeightedLRUCache<String, TsFileRollup.Index> indexCache;
+	private final WeightedLRUCache<SeriesKey, TsFileRollup> seriesCache;
+
+	private static class SeriesKey {
+		private final String tsFilePath;
+		private final String deltaObjectId;
+		private final String measurementId;
+
+		private SeriesKey(String tsFilePath, String deltaObjectId, String measurementId) {
+			this.tsFilePath = tsFilePath;
+			this.deltaObjectId = deltaObjectId;
+			this.measurementId = measurementId;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof SeriesKey)) {
+				return false;
+			}
+			SeriesKey that = (SeriesKey) o;
+			return tsFilePath.equals(that.tsFilePath) && deltaObjectId.equals(that.deltaObjectId)
+					&& measurementId.equals(that.measurementId);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * tsFilePath.hashCode() + deltaObjectId.hashCode()) + measurementId.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return tsFilePath + ":" + deltaObjectId + "." + measurementId;
+		}
+	}
+
+	private static class RollupManagerHolder {
+		private static final RollupManager INSTANCE = new RollupManager();
+	}
+
+	public static RollupManager getInstance() {
+		return RollupManagerHolder.INSTANCE;
+	}
+
+	private RollupManager() {
+		config = TsfileDBDescriptor.getInstance().getConfig();
+		long indexCacheSize = config.rollupCacheSizeInByte / 4;
+		indexCache = new WeightedLRUCache<String, TsFileRollup.Index>(indexCacheSize) {
+			@Override
+			protected long weigh(String key, TsFileRollup.Index index) {
+				return index.getSizeInBytes();
+			}
+		};
+		seriesCache = new WeightedLRUCache<SeriesKey, TsFileRollup>(config.rollupCacheSizeInByte - indexCacheSize) {
+			@Override
+			protected long weigh(SeriesKey key, TsFileRollup rollup) {
+				return rollup.getSizeInBytes();
+			}
+		};
+	}
+
+	/**
+	 * @return the intervals of the rollups in descending order, which are empty
+	 *         if no rollup is kept
+	 */
+	public long[] getIntervals() {
+		long[] intervals = Arrays.copyOf(config.rollupIntervals, config.rollupIntervals.length);
+		Arrays.sort(intervals);
+		for (int i = 0, j = intervals.length - 1; i < j; i++, j--) {
+			long interval = intervals[i];
+			intervals[i] = intervals[j];
+			intervals[j] = interval;
+		}
+		return intervals;
+	}
+
+	public boolean isEnabled(String storageGroup) {
+		return config.rollupIntervals.length > 0 && (config.rollupStorageGroups.length == 0
+				|| Arrays.asList(config.rollupStorageGroups).contains(storageGroup));
+	}
+
+	/**
+	 * @return the intervals of the rollups kept by the storage group, or null
+	 *         if it keeps no rollup
+	 */
+	public long[] getIntervals(String storageGroup) {
+		return isEnabled(storageGroup) ? getIntervals() : null;
+	}
+
+	/**
+	 * @return the rollups of only the series in the sealed tsfile, or null if
+	 *         the tsfile has no usable rollup file
+	 */
+	public TsFileRollup getSealedFileRollup(String tsFilePath, String deltaObjectId, String measurementId)
+			throws IOException {
+		String rollupFilePath = TsFileRollup.getRollupFilePath(tsFilePath);
+		return seriesCache.get(new SeriesKey(tsFilePath, deltaObjectId, measurementId), () -> {
+			TsFileRollup.Index index = indexCache.get(tsFilePath,
+					() -> TsFileRollup.readIndexFromFile(rollupFilePath));
+			return index == null ? null
+					: TsFileRollup.readSeriesFromFile(rollupFilePath, index, deltaObjectId, measurementId);
+		});
+	}
+
+	/**
+	 * Remove the rollups of the file, which is merged or deleted.
+	 */
+	public void removeFile(String tsFilePath) {
+		indexCache.remove(tsFilePath);
+		seriesCache.removeIf(key -> key.tsFilePath.equals(tsFilePath));
+	}
+
+	/**
+	 * Remove the rollups of all the files in the directory, which is deleted.
+	 */
+	public void removeDirectory(String dirPath) {
+		String prefix = dirPath.endsWith(File.separator) ? dirPath : dirPath + File.separator;
+		indexCache.removeIf(key -> key.startsWith(prefix));
+		seriesCache.removeIf(key -> key.tsFilePath.startsWith(prefix));
+	}
+
+	public void clear() {
+		indexCache.clear();
+		seriesCache.clear();
+	}
+}
@@ -0,0 +1,444 @@
+package cn.edu.tsinghua.iotdb.engine.rollup;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import cn.edu.tsinghua.tsfile.common.exception.UnSupportedDataTypeException;
+import cn.edu.tsinghua.tsfile.common.utils.Pair;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
+
+/**
+ * The pre-aggregated points of a numeric series in the buckets of a fixed
+ * interval. The buckets are aligned to the epoch, the bucket of a point starts
+ * at the greatest multiple of the interval not greater than its time. Only the
+ * buckets having points are kept, in the order of their start times.
+ * <p>
+ * The values are kept as long, the float and double ones by their bits as
+ * double. A series is built by adding its points or appending the series
+ * after it in time order, see {@link #appendInOrder(RollupSeries)}, and it is
+ * not changed any more after it is shared, {@link #merge(RollupSeries)} and
+ * {@link #copy()} return new ones.
+ */
+public class RollupSeries {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final TSDataType dataType;
+	private final long interval;
+
+	private int size;
+	private long[] startTimes;
+	private long[] counts;
+	private double[] sums;
+	private long[] minTimes;
+	private long[] maxTimes;
+	private long[] minValues;
+	private long[] maxValues;
+	private long[] firstValues;
+	private long[] lastValues;
+
+	public RollupSeries(TSDataType dataType, long interval) {
+		this(dataType, interval, INITIAL_CAPACITY);
+	}
+
+	private RollupSeries(TSDataType dataType, long interval, int capacity) {
+		if (!isSupported(dataType)) {
+			throw new UnSupportedDataTypeException("Rollup series doesn't support the data type " + dataType);
+		}
+		this.dataType = dataType;
+		this.interval = interval;
+		capacity = Math.max(capacity, 1);
+		startTimes = new long[capacity];
+		counts = new long[capacity];
+		sums = new double[capacity];
+		minTimes = new long[capacity];
+		maxTimes = new long[capacity];
+		minValues = new long[capacity];
+		maxValues = new long[capacity];
+		firstValues = new long[capacity];
+		lastValues = new long[capacity];
+	}
+
+	public static boolean isSupported(TSDataType dataType) {
+		switch (dataType) {
+		case INT32:
+		case INT64:
+		case FLOAT:
+		case DOUBLE:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	public static long getBucketStart(long time, long interval) {
+		return Math.floorDiv(time, interval) * interval;
+	}
+
+	public TSDataType getDataType() {
+		return dataType;
+	}
+
+	public long getInterval() {
+		return interval;
+	}
+
+	/**
+	 * @return the number of the buckets having points
+	 */
+	public int size() {
+		return size;
+	}
+
+	public long getStartTime(int index) {
+		return startTimes[index];
+	}
+
+	public long getCount(int index) {
+		return counts[index];
+	}
+
+	/**
+	 * Add a point, whose time must be greater than the points added before.
+	 */
+	public void add(long time, int value) {
+		append(time, value, value);
+	}
+
+	public void add(long time, long value) {
+		append(time, value, value);
+	}
+
+	public void add(long time, float value) {
+		append(time, Double.doubleToLongBits(value), value);
+	}
+
+	public void add(long time, double value) {
+		append(time, Double.doubleToLongBits(value), value);
+	}
+
+	public void add(long time, TsPrimitiveType value) {
+		switch (dataType) {
+		case INT32:
+			add(time, value.getInt());
+			break;
+		case INT64:
+			add(time, value.getLong());
+			break;
+		case FLOAT:
+			add(time, value.getFloat());
+			break;
+		case DOUBLE:
+			add(time, value.getDouble());
+			break;
+		default:
+			throw new UnSupportedDataTypeException("Rollup series doesn't support the data type " + dataType);
+		}
+	}
+
+	private void append(long time, long value, double doubleValue) {
+		long bucketStart = getBucketStart(time, interval);
+		if (size > 0 && startTimes[size - 1] == bucketStart) {
+			int index = size - 1;
+			counts[index]++;
+			sums[index] += doubleValue;
+			maxTimes[index] = time;
+			if (compare(value, minValues[index]) < 0) {
+				minValues[index] = value;
+			}
+			if (compare(value, maxValues[index]) > 0) {
+				maxValues[index] = value;
+			}
+			lastValues[index] = value;
+			return;
+		}
+		ensureCapacity(size + 1);
+		startTimes[size] = bucketStart;
+		counts[size] = 1;
+		sums[size] = doubleValue;
+		minTimes[size] = time;
+		maxTimes[size] = time;
+		minValues[size] = value;
+		maxValues[size] = value;
+		firstValues[size] = value;
+		lastValues[size] = value;
+		size++;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= startTimes.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, startTimes.length * 2);
+		startTimes = Arrays.copyOf(startTimes, newCapacity);
+		counts = Arrays.copyOf(counts, newCapacity);
+		sums = Arrays.copyOf(sums, newCapacity);
+		minTimes = Arrays.copyOf(minTimes, newCapacity);
+		maxTimes = Arrays.copyOf(maxTimes, newCapacity);
+		minValues = Arrays.copyOf(minValues, newCapacity);
+		maxValues = Arrays.copyOf(maxValues, newCapacity);
+		firstValues = Arrays.copyOf(firstValues, newCapacity);
+		lastValues = Arrays.copyOf(lastValues, newCapacity);
+	}
+
+	/**
+	 * Copy the bucket of another series of the same type and interval to the
+	 * end of this one, or combine them if they start at the same time.
+	 */
+	private void appendBucket(RollupSeries series, int index) {
+		if (size > 0 && startTimes[size - 1] == series.startTimes[index]) {
+			int last = size - 1;
+			counts[last] += series.counts[index];
+			sums[last] += series.sums[index];
+			if (series.minTimes[index] < minTimes[last]) {
+				minTimes[last] = series.minTimes[index];
+				firstValues[last] = series.firstValues[index];
+			}
+			if (series.maxTimes[index] > maxTimes[last]) {
+				maxTimes[last] = series.maxTimes[index];
+				lastValues[last] = series.lastValues[index];
+			}
+			if (compare(series.minValues[index], minValues[last]) < 0) {
+				minValues[last] = series.minValues[index];
+			}
+			if (compare(series.maxValues[index], maxValues[last]) > 0) {
+				maxValues[last] = series.maxValues[index];
+			}
+			return;
+		}
+		ensureCapacity(size + 1);
+		startTimes[size] = series.startTimes[index];
+		counts[size] = series.counts[index];
+		sums[size] = series.sums[index];
+		minTimes[size] = series.minTimes[index];
+		maxTimes[size] = series.maxTimes[index];
+		minValues[size] = series.minValues[index];
+		maxValues[size] = series.maxValues[index];
+		firstValues[size] = series.firstValues[index];
+		lastValues[size] = series.lastValues[index];
+		size++;
+	}
+
+	/**
+	 * Merge the buckets of another series of the same type and interval, the
+	 * buckets starting at the same time are combined.
+	 *
+	 * @return a new series, neither of the two is changed
+	 */
+	public RollupSeries merge(RollupSeries other) {
+		checkMergeable(other);
+		RollupSeries merged = new RollupSeries(dataType, interval, size + other.size);
+		int i = 0;
+		int j = 0;
+		while (i < size || j < other.size) {
+			if (j >= other.size || (i < size && startTimes[i] <= other.startTimes[j])) {
+				merged.appendBucket(this, i++);
+			} else {
+				merged.appendBucket(other, j++);
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * Append the buckets of another series of the same type and interval,
+	 * whose buckets start at or after the last bucket of this one, e.g. the
+	 * series of the next flush or the next tsfile. The buckets starting at the
+	 * same time are combined. It takes linear time in the appended buckets,
+	 * so that appending many series in time order is not quadratic as merging
+	 * them one by one.
+	 *
+	 * @return false if the other series starts before the last bucket of this
+	 *         one, then neither of the two is changed and they must be merged
+	 */
+	public boolean appendInOrder(RollupSeries later) {
+		checkMergeable(later);
+		if (size > 0 && later.size > 0 && later.startTimes[0] < startTimes[size - 1]) {
+			return false;
+		}
+		ensureCapacity(size + later.size);
+		for (int i = 0; i < later.size; i++) {
+			appendBucket(later, i);
+		}
+		return true;
+	}
+
+	/**
+	 * @return a new series of the same buckets, which can be changed without
+	 *         changing this one
+	 */
+	public RollupSeries copy() {
+		RollupSeries copy = new RollupSeries(dataType, interval, size);
+		for (int i = 0; i < size; i++) {
+			copy.appendBucket(this, i);
+		}
+		return copy;
+	}
+
+	private void checkMergeable(RollupSeries other) {
+		if (other.dataType != dataType || other.interval != interval) {
+			throw new IllegalArgumentException(String.format(
+					"Can't merge the rollup series of %s in %dms with the one of %s in %dms", other.dataType,
+					other.interval, dataType, interval));
+		}
+	}
+
+	/**
+	 * @param timeRanges
+	 *            the sorted and disjoint time ranges [left, right]
+	 * @return a new series of the buckets starting in one of the time ranges
+	 */
+	public RollupSeries retain(List<Pair<Long, Long>> timeRanges) {
+		RollupSeries retained = new RollupSeries(dataType, interval, size);
+		int index = 0;
+		for (Pair<Long, Long> timeRange : timeRanges) {
+			index = Math.max(index, lowerBound(timeRange.left));
+			while (index < size && startTimes[index] <= timeRange.right) {
+				retained.appendBucket(this, index++);
+			}
+		}
+		return retained;
+	}
+
+	/**
+	 * Aggregate the buckets starting in [startTime, endTime], which contain
+	 * exactly the points in it if both startTime and endTime + 1 are aligned
+	 * to the interval.
+	 */
+	public RollupBucket aggregate(long startTime, long endTime) {
+		int index = lowerBound(startTime);
+		if (index >= size || startTimes[index] > endTime) {
+			return new RollupBucket();
+		}
+		long count = 0;
+		double sum = 0;
+		long minTime = minTimes[index];
+		long maxTime = maxTimes[index];
+		long minValue = minValues[index];
+		long maxValue = maxValues[index];
+		long firstValue = firstValues[index];
+		long lastValue = lastValues[index];
+		for (; index < size && startTimes[index] <= endTime; index++) {
+			count += counts[index];
+			sum += sums[index];
+			if (compare(minValues[index], minValue) < 0) {
+				minValue = minValues[index];
+			}
+			if (compare(maxValues[index], maxValue) > 0) {
+				maxValue = maxValues[index];
+			}
+			maxTime = maxTimes[index];
+			lastValue = lastValues[index];
+		}
+		return new RollupBucket(count, sum, minTime, maxTime, toValue(minValue), toValue(maxValue),
+				toValue(firstValue), toValue(lastValue));
+	}
+
+	/**
+	 * @return the index of the first bucket starting at or after the time
+	 */
+	private int lowerBound(long time) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (startTimes[mid] < time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int compare(long value1, long value2) {
+		switch (dataType) {
+		case FLOAT:
+		case DOUBLE:
+			return Double.compare(Double.longBitsToDouble(value1), Double.longBitsToDouble(value2));
+		default:
+			return Long.compare(value1, value2);
+		}
+	}
+
+	private Comparable<?> toValue(long value) {
+		switch (dataType) {
+		case INT32:
+			return (int) value;
+		case INT64:
+			return value;
+		case FLOAT:
+			return (float) Double.longBitsToDouble(value);
+		case DOUBLE:
+			return Double.longBitsToDouble(value);
+		default:
+			throw new UnSupportedDataTypeException("Rollup series doesn't support the data type " + dataType);
+		}
+	}
+
+	/**
+	 * @return the estimated size in byte
+	 */
+	public long getSizeInBytes() {
+		return 64 + 72L * startTimes.length;
+	}
+
+	public void serialize(DataOutputStream outputStream) throws IOException {
+		outputStream.writeUTF(dataType.name());
+		outputStream.writeLong(interval);
+		outputStream.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			outputStream.writeLong(startTimes[i]);
+			outputStream.writeLong(counts[i]);
+			outputStream.writeDouble(sums[i]);
+			outputStream.writeLong(minTimes[i]);
+			outputStream.writeLong(maxTimes[i]);
+			outputStream.writeLong(minValues[i]);
+			outputStream.writeLong(maxValues[i]);
+			outputStream.writeLong(firstValues[i]);
+			outputStream.writeLong(lastValues[i]);
+		}
+	}
+
+	/**
+	 * Skip a serialized series without deserializing its buckets.
+	 */
+	public static void skip(DataInputStream inputStream) throws IOException {
+		inputStream.readUTF();
+		inputStream.readLong();
+		int size = inputStream.readInt();
+		long bytes = 72L * size;
+		while (bytes > 0) {
+			int skipped = inputStream.skipBytes((int) Math.min(bytes, Integer.MAX_VALUE));
+			if (skipped <= 0) {
+				throw new EOFException("Unexpected end of the rollup series");
+			}
+			bytes -= skipped;
+		}
+	}
+
+	public static RollupSeries deserialize(DataInputStream inputStream) throws IOException {
+		TSDataType dataType = TSDataType.valueOf(inputStream.readUTF());
+		long interval = inputStream.readLong();
+		int size = inputStream.readInt();
+		RollupSeries series = new RollupSeries(dataType, interval, size);
+		for (int i = 0; i < size; i++) {
+			series.startTimes[i] = inputStream.readLong();
+			series.counts[i] = inputStream.readLong();
+			series.sums[i] = inputStream.readDouble();
+			series.minTimes[i] = inputStream.readLong();
+			series.maxTimes[i] = inputStream.readLong();
+			series.minValues[i] = inputStream.readLong();
+			series.maxValues[i] = inputStream.readLong();
+			series.firstValues[i] = inputStream.readLong();
+			series.lastValues[i] = inputStream.readLong();
+		}
+		series.size = size;
+		return series;
+	}
+}
@@ -0,0 +1,450 @@
+package cn.edu.tsinghua.iotdb.engine.rollup;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rollup series of a tsfile in the configured intervals, see
+ * {@link RollupSeries}. They are persisted in the rollup file beside the
+ * tsfile, see {@link #getRollupFilePath(String)}, which is made of blocks
+ * appended by the flushes of the tsfile. A block is [int length][the rollups
+ * of a flush][long the position of the tsfile after the flush], so that the
+ * blocks of the data cut off by recovery can be cut off as well.
+ * <p>
+ * The rollups of a sealed tsfile are read one series at a time: the positions
+ * of the rollup series of every series in the blocks are indexed once by
+ * {@link #readIndexFromFile(String)}, and then only the blocks of the series
+ * queried are read by {@link #readSeriesFromFile(String, Index, String, String)}.
+ */
+public class TsFileRollup {
+
+	public static final String ROLLUP_SUFFIX = ".rollup";
+
+	private static final int BLOCK_LENGTH_BYTE_SIZE = 4;
+	private static final int TS_POSITION_BYTE_SIZE = 8;
+
+	private final long[] intervals;
+	/** deltaObjectId -> measurementId -> the rollup series of the intervals */
+	private final Map<String, Map<String, RollupSeries[]>> rollups;
+
+	public TsFileRollup(long[] intervals) {
+		this.intervals = intervals;
+		this.rollups = new HashMap<>();
+	}
+
+	public static String getRollupFilePath(String tsFilePath) {
+		return tsFilePath + ROLLUP_SUFFIX;
+	}
+
+	public long[] getIntervals() {
+		return intervals;
+	}
+
+	public boolean hasInterval(long interval) {
+		return indexOf(interval) >= 0;
+	}
+
+	private int indexOf(long interval) {
+		for (int i = 0; i < intervals.length; i++) {
+			if (intervals[i] == interval) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param rollupSeries
+	 *            the rollup series of the intervals, in the same order
+	 */
+	public void put(String deltaObjectId, String measurementId, RollupSeries[] rollupSeries) {
+		rollups.computeIfAbsent(deltaObjectId, k -> new HashMap<>()).put(measurementId, rollupSeries);
+	}
+
+	/**
+	 * @return the rollup series of the series in the interval, or null if the
+	 *         series has no data of a supported type in the tsfile
+	 */
+	public RollupSeries getRollupSeries(String deltaObjectId, String measurementId, long interval) {
+		int index = indexOf(interval);
+		Map<String, RollupSeries[]> measurements = rollups.get(deltaObjectId);
+		if (index < 0 || measurements == null || !measurements.containsKey(measurementId)) {
+			return null;
+		}
+		return measurements.get(measurementId)[index];
+	}
+
+	/**
+	 * @return the rollups of only the series, which are copied since this one
+	 *         is changed by {@link #append(TsFileRollup)}
+	 */
+	public TsFileRollup getSeriesRollup(String deltaObjectId, String measurementId) {
+		TsFileRollup seriesRollup = new TsFileRollup(intervals);
+		Map<String, RollupSeries[]> measurements = rollups.get(deltaObjectId);
+		if (measurements != null && measurements.containsKey(measurementId)) {
+			RollupSeries[] series = measurements.get(measurementId);
+			RollupSeries[] copies = new RollupSeries[series.length];
+			for (int i = 0; i < series.length; i++) {
+				copies[i] = series[i].copy();
+			}
+			seriesRollup.put(deltaObjectId, measurementId, copies);
+		}
+		return seriesRollup;
+	}
+
+	/**
+	 * Append the rollups of the data written after the data of this one. The
+	 * series of this one are appended in place, see
+	 * {@link RollupSeries#appendInOrder(RollupSeries)}, so they must not be
+	 * shared.
+	 */
+	public void append(TsFileRollup later) {
+		if (!Arrays.equals(intervals, later.intervals)) {
+			throw new IllegalArgumentException(String.format("Can't append the rollups in %s to the ones in %s",
+					Arrays.toString(later.intervals), Arrays.toString(intervals)));
+		}
+		for (Map.Entry<String, Map<String, RollupSeries[]>> deltaObject : later.rollups.entrySet()) {
+			for (Map.Entry<String, RollupSeries[]> measurement : deltaObject.getValue().entrySet()) {
+				RollupSeries[] laterSeries = measurement.getValue();
+				Map<String, RollupSeries[]> measurements = rollups.get(deltaObject.getKey());
+				RollupSeries[] series = measurements == null ? null : measurements.get(measurement.getKey());
+				if (series == null || series[0].getDataType() != laterSeries[0].getDataType()) {
+					put(deltaObject.getKey(), measurement.getKey(), laterSeries);
+					continue;
+				}
+				for (int i = 0; i < intervals.length; i++) {
+					if (!series[i].appendInOrder(laterSeries[i])) {
+						series[i] = series[i].merge(laterSeries[i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the estimated size in byte
+	 */
+	public long getSizeInBytes() {
+		long size = 64;
+		for (Map.Entry<String, Map<String, RollupSeries[]>> deltaObject : rollups.entrySet()) {
+			size += 64 + 2 * deltaObject.getKey().length();
+			for (Map.Entry<String, RollupSeries[]> measurement : deltaObject.getValue().entrySet()) {
+				size += 64 + 2 * measurement.getKey().length();
+				for (RollupSeries series : measurement.getValue()) {
+					size += series.getSizeInBytes();
+				}
+			}
+		}
+		return size;
+	}
+
+	private void serialize(DataOutputStream outputStream) throws IOException {
+		outputStream.writeInt(intervals.length);
+		for (long interval : intervals) {
+			outputStream.writeLong(interval);
+		}
+		outputStream.writeInt(rollups.size());
+		for (Map.Entry<String, Map<String, RollupSeries[]>> deltaObject : rollups.entrySet()) {
+			outputStream.writeUTF(deltaObject.getKey());
+			outputStream.writeInt(deltaObject.getValue().size());
+			for (Map.Entry<String, RollupSeries[]> measurement : deltaObject.getValue().entrySet()) {
+				outputStream.writeUTF(measurement.getKey());
+				for (RollupSeries series : measurement.getValue()) {
+					series.serialize(outputStream);
+				}
+			}
+		}
+	}
+
+	private static TsFileRollup deserialize(DataInputStream inputStream) throws IOException {
+		long[] intervals = new long[inputStream.readInt()];
+		for (int i = 0; i < intervals.length; i++) {
+			intervals[i] = inputStream.readLong();
+		}
+		TsFileRollup rollup = new TsFileRollup(intervals);
+		int deltaObjectCount = inputStream.readInt();
+		for (int i = 0; i < deltaObjectCount; i++) {
+			String deltaObjectId = inputStream.readUTF();
+			int measurementCount = inputStream.readInt();
+			for (int j = 0; j < measurementCount; j++) {
+				String measurementId = inputStream.readUTF();
+				RollupSeries[] series = new RollupSeries[intervals.length];
+				for (int k = 0; k < intervals.length; k++) {
+					series[k] = RollupSeries.deserialize(inputStream);
+				}
+				rollup.put(deltaObjectId, measurementId, series);
+			}
+		}
+		return rollup;
+	}
+
+	/**
+	 * Append this one as a block to the rollup file.
+	 *
+	 * @param tsFilePosition
+	 *            the position of the tsfile after the data of this one
+	 */
+	public void appendToFile(String rollupFilePath, long tsFilePosition) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		serialize(new DataOutputStream(baos));
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(rollupFilePath, true))) {
+			out.writeInt(baos.size());
+			baos.writeTo(out);
+			out.writeLong(tsFilePosition);
+		}
+	}
+
+	/**
+	 * The positions of the rollup series of every series in the blocks of a
+	 * rollup file.
+	 */
+	public static class Index {
+		private final long[] intervals;
+		/**
+		 * deltaObjectId -> measurementId -> the positions of the rollup series
+		 * of the intervals in the blocks, in the order of the blocks
+		 */
+		private final Map<String, Map<String, List<Long>>> positions = new HashMap<>();
+		private long sizeInBytes = 64;
+
+		private Index(long[] intervals) {
+			this.intervals = intervals;
+		}
+
+		public long[] getIntervals() {
+			return intervals;
+		}
+
+		private void add(String deltaObjectId, String measurementId, long position) {
+			Map<String, List<Long>> measurements = positions.get(deltaObjectId);
+			if (measurements == null) {
+				measurements = new HashMap<>();
+				positions.put(deltaObjectId, measurements);
+				sizeInBytes += 64 + 2 * deltaObjectId.length();
+			}
+			List<Long> seriesPositions = measurements.get(measurementId);
+			if (seriesPositions == null) {
+				seriesPositions = new ArrayList<>(1);
+				measurements.put(measurementId, seriesPositions);
+				sizeInBytes += 96 + 2 * measurementId.length();
+			}
+			seriesPositions.add(position);
+			sizeInBytes += 24;
+		}
+
+		private List<Long> get(String deltaObjectId, String measurementId) {
+			Map<String, List<Long>> measurements = positions.get(deltaObjectId);
+			return measurements == null ? null : measurements.get(measurementId);
+		}
+
+		/**
+		 * @return the estimated size in byte
+		 */
+		public long getSizeInBytes() {
+			return sizeInBytes;
+		}
+	}
+
+	/**
+	 * Index the complete blocks of the rollup file, without deserializing the
+	 * buckets of the rollup series.
+	 *
+	 * @return the index, or null if the file doesn't exist, or its blocks are
+	 *         in different intervals or broken
+	 */
+	public static Index readIndexFromFile(String rollupFilePath) throws IOException {
+		File rollupFile = new File(rollupFilePath);
+		if (!rollupFile.exists()) {
+			return null;
+		}
+		long fileLength = rollupFile.length();
+		Index index = null;
+		try (CountingInputStream counter = new CountingInputStream(
+				new BufferedInputStream(new FileInputStream(rollupFile)))) {
+			DataInputStream in = new DataInputStream(counter);
+			while (counter.position + BLOCK_LENGTH_BYTE_SIZE + TS_POSITION_BYTE_SIZE <= fileLength) {
+				int length = in.readInt();
+				long blockEnd = counter.position + length;
+				if (length < 0 || blockEnd + TS_POSITION_BYTE_SIZE > fileLength) {
+					break;
+				}
+				long[] intervals = new long[in.readInt()];
+				for (int i = 0; i < intervals.length; i++) {
+					intervals[i] = in.readLong();
+				}
+				if (index == null) {
+					index = new Index(intervals);
+				} else if (!Arrays.equals(index.intervals, intervals)) {
+					return null;
+				}
+				int deltaObjectCount = in.readInt();
+				for (int i = 0; i < deltaObjectCount; i++) {
+					String deltaObjectId = in.readUTF();
+					int measurementCount = in.readInt();
+					for (int j = 0; j < measurementCount; j++) {
+						String measurementId = in.readUTF();
+						index.add(deltaObjectId, measurementId, counter.position);
+						for (int k = 0; k < intervals.length; k++) {
+							RollupSeries.skip(in);
+						}
+					}
+				}
+				if (counter.position != blockEnd) {
+					// a broken block, the points are read instead
+					return null;
+				}
+				in.readLong();
+			}
+		} catch (EOFException e) {
+			return null;
+		}
+		return index;
+	}
+
+	/**
+	 * Read the rollup series of one series in all the blocks of the rollup
+	 * file.
+	 *
+	 * @param index
+	 *            the index of the file, see {@link #readIndexFromFile(String)}
+	 * @return the rollups of only the series, which are empty if the series
+	 *         has no rollup in the file
+	 */
+	public static TsFileRollup readSeriesFromFile(String rollupFilePath, Index index, String deltaObjectId,
+			String measurementId) throws IOException {
+		TsFileRollup seriesRollup = new TsFileRollup(index.intervals);
+		List<Long> positions = index.get(deltaObjectId, measurementId);
+		if (positions == null) {
+			return seriesRollup;
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(rollupFilePath, "r")) {
+			for (long position : positions) {
+				raf.seek(position);
+				DataInputStream in = new DataInputStream(
+						new BufferedInputStream(Channels.newInputStream(raf.getChannel())));
+				RollupSeries[] series = new RollupSeries[index.intervals.length];
+				for (int i = 0; i < series.length; i++) {
+					series[i] = RollupSeries.deserialize(in);
+				}
+				TsFileRollup block = new TsFileRollup(index.intervals);
+				block.put(deltaObjectId, measurementId, series);
+				// the blocks are appended in time order
+				seriesRollup.append(block);
+			}
+		}
+		return seriesRollup;
+	}
+
+	private static class CountingInputStream extends FilterInputStream {
+		private long position;
+
+		private CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				position++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) {
+				position += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			position += skipped;
+			return skipped;
+		}
+	}
+
+	/**
+	 * Cut off the blocks of the data cut off from the tsfile, and the last
+	 * block if it is not written completely.
+	 *
+	 * @param tsFilePosition
+	 *            the position of the tsfile recovered
+	 * @return the rollups of the remaining blocks, or null if the file doesn't
+	 *         exist or its blocks are in different intervals
+	 */
+	public static TsFileRollup recoverFromFile(String rollupFilePath, long tsFilePosition) throws IOException {
+		File rollupFile = new File(rollupFilePath);
+		if (!rollupFile.exists()) {
+			return null;
+		}
+		try (RandomAccessFile in = new RandomAccessFile(rollupFile, "rw")) {
+			TsFileRollup rollup = readBlocks(in, tsFilePosition);
+			FileChannel channel = in.getChannel();
+			channel.truncate(in.getFilePointer());
+			return rollup;
+		}
+	}
+
+	/**
+	 * Read the blocks until the one after the position of the tsfile or the
+	 * incomplete one, the file pointer is left at the end of the last block
+	 * read.
+	 */
+	private static TsFileRollup readBlocks(RandomAccessFile in, long tsFilePosition) throws IOException {
+		TsFileRollup rollup = null;
+		long fileLength = in.length();
+		long blockStart = in.getFilePointer();
+		boolean consistent = true;
+		while (blockStart + BLOCK_LENGTH_BYTE_SIZE + TS_POSITION_BYTE_SIZE <= fileLength) {
+			int length = in.readInt();
+			if (length < 0 || blockStart + BLOCK_LENGTH_BYTE_SIZE + length + TS_POSITION_BYTE_SIZE > fileLength) {
+				break;
+			}
+			byte[] bytes = new byte[length];
+			in.readFully(bytes);
+			long position = in.readLong();
+			if (position > tsFilePosition) {
+				break;
+			}
+			TsFileRollup block;
+			try {
+				block = deserialize(new DataInputStream(new ByteArrayInputStream(bytes)));
+			} catch (EOFException e) {
+				break;
+			}
+			if (rollup == null) {
+				rollup = block;
+			} else if (Arrays.equals(rollup.intervals, block.intervals)) {
+				rollup.append(block);
+			} else {
+				consistent = false;
+			}
+			blockStart = in.getFilePointer();
+		}
+		in.seek(blockStart);
+		return consistent ? rollup : null;
+	}
+}
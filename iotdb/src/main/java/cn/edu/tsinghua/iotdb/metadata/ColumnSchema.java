@@ -1,6 +1,7 @@
 package cn.edu.tsinghua.iotdb.metadata;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -23,35 +24,59 @@ public class ColumnSchema implements Serializable {
 		this.name = name;
 		this.dataType = dataType;
 		this.encoding = encoding;
-		this.args = new HashMap<>();
-		this.indexNameSet = new HashSet<>();
+	}
+
+	/**
+	 * @return a schema with the same args and indexes, which are changed
+	 *         without changing this schema
+	 */
+	public ColumnSchema copy() {
+		ColumnSchema copy = new ColumnSchema(name, dataType, encoding);
+		if (args != null) {
+			copy.args = new HashMap<>(args);
+		}
+		if (indexNameSet != null) {
+			copy.indexNameSet = new HashSet<>(indexNameSet);
+		}
+		return copy;
 	}
 
 	public boolean isHasIndex() {
-		return !indexNameSet.isEmpty();
+		return indexNameSet != null && !indexNameSet.isEmpty();
 	}
 
 	public boolean isHasIndex(IndexType indexType) {
-		return indexNameSet.contains(indexType);
+		return indexNameSet != null && indexNameSet.contains(indexType);
 	}
 
 	public Set<IndexType> getIndexSet() {
-		return indexNameSet;
+		return indexNameSet == null ? Collections.emptySet() : indexNameSet;
 	}
 
 
 	public void setHasIndex(IndexType indexType) {
+		// most series have neither args nor indexes, so the collections are created on demand
+		if (indexNameSet == null) {
+			indexNameSet = new HashSet<>();
+		}
 		this.indexNameSet.add(indexType);
 	}
 
-	public void removeIndex(IndexType indexType) { this.indexNameSet.remove(indexType); }
+	public void removeIndex(IndexType indexType) {
+		if (indexNameSet != null) {
+			this.indexNameSet.remove(indexType);
+		}
+	}
 
 	public void putKeyValueToArgs(String key, String value) {
-		this.args.put(key, value);
+		if (args == null) {
+			args = new HashMap<>();
+		}
+		this.args.put(key.intern(), value.intern());
 	}
 
 	public String getValueFromArgs(String key) {
-		return args.get(key);
+		return args == null ? null : args.get(key);
 	}
 	
 	public String getName(){
@@ -67,7 +92,7 @@ public class ColumnSchema implements Serializable {
 	}
 
 	public Map<String, String> getArgsMap() {
-		return args;
+		return args == null ? Collections.emptyMap() : args;
 	}
 
 	public void setArgsMap(Map<String, String> argsMap) {
@@ -5,6 +5,7 @@ import java.util.*;
 
 import cn.edu.tsinghua.iotdb.exception.MetadataArgsErrorException;
 import cn.edu.tsinghua.iotdb.exception.PathErrorException;
+import cn.edu.tsinghua.iotdb.index.IndexManager.IndexType;
 
 /**
  * Metadata Graph consists of one {@code MTree} and several {@code PTree}
@@ -305,6 +306,14 @@ public class MGraph implements Serializable {
 		return mTree.getSchemaForOnePathWithCheck(path);
 	}
 
+	public void addIndex(String path, IndexType indexType) throws PathErrorException {
+		mTree.addIndex(path, indexType);
+	}
+
+	public void removeIndex(String path, IndexType indexType) throws PathErrorException {
+		mTree.removeIndex(path, indexType);
+	}
+
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("===  Timeseries Tree  ===\n\n");
@@ -13,6 +13,9 @@ import java.io.*;
 import java.util.*;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * This class takes the responsibility of serialization of all the metadata info
  * and persistent it into files. This class contains all the interfaces to
@@ -22,6 +25,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * @author Jinrui Zhang
  */
 public class MManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MManager.class);
     // private static MManager manager = new MManager();
     private static final String ROOT_NAME = MetadataConstant.ROOT;
     // the lock for read/write
@@ -37,6 +41,14 @@ public class MManager {
 
     private RandomDeleteCache<String, PathCheckRet> checkAndGetDataTypeCache;
     private RandomDeleteCache<String, MNode> mNodeCache;
+    /*
+     * The schema and the storage group of the series are looked up by every
+     * insert. The caches are read without the lock, and are only filled under
+     * the read lock and cleared under the write lock, so that an entry can't
+     * outlive the deletion of its path or a new storage level.
+     */
+    private RandomDeleteCache<String, ColumnSchema> seriesSchemaCache;
+    private RandomDeleteCache<String, String> fileNameCache;
 
     private static class MManagerHolder {
         private static final MManager INSTANCE = new MManager();
@@ -87,6 +99,34 @@ public class MManager {
             }
         };
 
+        seriesSchemaCache = new RandomDeleteCache<String, ColumnSchema>(cacheSize) {
+            @Override
+            public void beforeRemove(ColumnSchema object) throws CacheException {}
+
+            @Override
+            public ColumnSchema loadObjectByKey(String key) throws CacheException {
+                try {
+                    return mGraph.getSchemaForOnePath(key);
+                } catch (PathErrorException e) {
+                    throw new CacheException(e);
+                }
+            }
+        };
+
+        fileNameCache = new RandomDeleteCache<String, String>(cacheSize) {
+            @Override
+            public void beforeRemove(String object) throws CacheException {}
+
+            @Override
+            public String loadObjectByKey(String key) throws CacheException {
+                try {
+                    return mGraph.getFileNameByPath(key);
+                } catch (PathErrorException e) {
+                    throw new CacheException(e);
+                }
+            }
+        };
+
         init();
     }
 
@@ -97,27 +137,19 @@ public class MManager {
         File logFile = new File(logFilePath);
         try {
             try {
-                if (dataFile.exists()) {
-                    // init the metadata from the serialized file
-                    FileInputStream fis = new FileInputStream(dataFile);
-                    ObjectInputStream ois = new ObjectInputStream(fis);
-                    mGraph = (MGraph) ois.readObject();
-                    ois.close();
-                    fis.close();
-                    dataFile.delete();
-                } else {
-                    // init the metadata from the operation log
+                // init the metadata from the snapshot and the operations logged after it
+                long logOffset = dataFile.exists() ? loadSnapshot(dataFile) : -1;
+                if (logOffset < 0 || (logFile.exists() && logOffset > logFile.length())) {
+                    // without a usable snapshot the whole operation log is replayed
                     mGraph = new MGraph(ROOT_NAME);
-                    if (logFile.exists()) {
-                        FileReader fr;
-                        fr = new FileReader(logFile);
-                        BufferedReader br = new BufferedReader(fr);
-                        String cmd;
-                        while ((cmd = br.readLine()) != null) {
-                            operation(cmd);
-                        }
-                        br.close();
-                    }
+                    logOffset = 0;
+                }
+                if (logFile.exists()) {
+                    replayLog(logFile, logOffset);
+                }
+                if (logFile.length() != logOffset) {
+                    // take a new snapshot so that the next start doesn't replay the log again
+                    flushObjectToFile();
                 }
                 FileWriter fw = new FileWriter(logFile, true);
                 logWriter = new BufferedWriter(fw);
@@ -131,15 +163,77 @@ public class MManager {
         }
     }
 
+    /**
+     * Drop the metadata in memory and load it again from the snapshot and the
+     * operation log, as the server does when it starts.
+     */
+    void reload() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (logWriter != null) {
+                logWriter.close();
+                logWriter = null;
+            }
+            writeToLog = false;
+            clearCaches();
+            init();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the length of the operation log when the snapshot was taken, or
+     *         -1 if the snapshot can't be read
+     */
+    private long loadSnapshot(File dataFile) {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new BufferedInputStream(new FileInputStream(dataFile)))) {
+            mGraph = (MGraph) ois.readObject();
+            return ois.readLong();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.warn("Can't read the metadata snapshot {}, the metadata log will be replayed.", dataFile, e);
+            return -1;
+        }
+    }
+
+    private void replayLog(File logFile, long offset)
+            throws IOException, PathErrorException, MetadataArgsErrorException {
+        try (FileInputStream fis = new FileInputStream(logFile)) {
+            // skip the operations in the snapshot
+            long skipped = 0;
+            while (skipped < offset) {
+                long num = fis.skip(offset - skipped);
+                if (num <= 0) {
+                    break;
+                }
+                skipped += num;
+            }
+            BufferedReader br = new BufferedReader(new InputStreamReader(fis));
+            String cmd;
+            while ((cmd = br.readLine()) != null) {
+                operation(cmd);
+            }
+        }
+    }
+
     public void clear() {
         lock.writeLock().lock();
         try {
+            clearCaches();
             this.mGraph = new MGraph(ROOT_NAME);
         } finally {
             lock.writeLock().unlock();
         }
     }
 
+    private void clearCaches() {
+        checkAndGetDataTypeCache.clear();
+        mNodeCache.clear();
+        seriesSchemaCache.clear();
+        fileNameCache.clear();
+    }
+
     private void operation(String cmd) throws PathErrorException, IOException, MetadataArgsErrorException {
 
         String args[] = cmd.trim().split(",");
@@ -231,8 +325,7 @@ public class MManager {
     public String deletePathFromMTree(String path) throws PathErrorException, IOException {
         lock.writeLock().lock();
         try {
-            checkAndGetDataTypeCache.clear();
-            mNodeCache.clear();
+            clearCaches();
             String dataFileName = mGraph.deletePath(path);
             if (writeToLog) {
                 initLogStream();
@@ -250,8 +343,7 @@ public class MManager {
 
         lock.writeLock().lock();
         try {
-            checkAndGetDataTypeCache.clear();
-            mNodeCache.clear();
+            clearCaches();
             mGraph.setStorageLevel(path);
             if (writeToLog) {
                 initLogStream();
@@ -300,6 +392,7 @@ public class MManager {
 
         lock.writeLock().lock();
         try {
+            clearCaches();
             mGraph.deletePath(path);
             if (writeToLog) {
                 initLogStream();
@@ -368,13 +461,7 @@ public class MManager {
      * @throws PathErrorException
      */
     public TSDataType getSeriesType(String fullPath) throws PathErrorException {
-
-        lock.readLock().lock();
-        try {
-            return getSchemaForOnePath(fullPath).dataType;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return getSchemaForOnePath(fullPath).dataType;
     }
 
     public TSDataType getSeriesType(MNode node, String fullPath) throws PathErrorException {
@@ -538,12 +625,15 @@ public class MManager {
      * @throws PathErrorException
      */
     public String getFileNameByPath(String path) throws PathErrorException {
-
+        String fileName = fileNameCache.getIfPresent(path);
+        if (fileName != null) {
+            return fileName;
+        }
         lock.readLock().lock();
         try {
-            return mGraph.getFileNameByPath(path);
-        } catch (PathErrorException e) {
-            throw new PathErrorException(String.format(e.getMessage()));
+            return fileNameCache.get(path);
+        } catch (CacheException e) {
+            throw new PathErrorException(String.format(getCauseMessage(e)));
         } finally {
             lock.readLock().unlock();
         }
@@ -690,6 +780,10 @@ public class MManager {
     }
 
     public MNode getNodeByDeltaObjectIDFromCache(String deltaObjectID) throws PathErrorException {
+        MNode node = mNodeCache.getIfPresent(deltaObjectID);
+        if (node != null) {
+            return node;
+        }
         lock.readLock().lock();
         try {
             return mNodeCache.get(deltaObjectID);
@@ -714,15 +808,24 @@ public class MManager {
      * from root to leaf node.
      */
     public ColumnSchema getSchemaForOnePath(String path) throws PathErrorException {
-
+        ColumnSchema schema = seriesSchemaCache.getIfPresent(path);
+        if (schema != null) {
+            return schema;
+        }
         lock.readLock().lock();
         try {
-            return mGraph.getSchemaForOnePath(path);
+            return seriesSchemaCache.get(path);
+        } catch (CacheException e) {
+            throw new PathErrorException(getCauseMessage(e));
         } finally {
             lock.readLock().unlock();
         }
     }
 
+    private static String getCauseMessage(CacheException e) {
+        return e.getCause() instanceof PathErrorException ? e.getCause().getMessage() : e.getMessage();
+    }
+
     public ColumnSchema getSchemaForOnePath(MNode node, String path) throws PathErrorException {
 
         lock.readLock().lock();
@@ -805,29 +908,36 @@ public class MManager {
         }
     }
 
+    /**
+     * Write a snapshot of the metadata with the current length of the operation
+     * log, the operations logged later are replayed on the snapshot when
+     * starting.
+     */
     public void flushObjectToFile() throws IOException {
 
         lock.writeLock().lock();
         try {
             File dataFile = new File(datafilePath);
-            // delete old metadata data file
-            if (dataFile.exists()) {
-                dataFile.delete();
-            }
             File metadataDir = new File(metadataDirPath);
             if (!metadataDir.exists()) {
                 metadataDir.mkdirs();
             }
-            File tempFile = new File(datafilePath + MetadataConstant.METADATA_TEMP);
-            FileOutputStream fos = new FileOutputStream(tempFile);
-            ObjectOutputStream oos = new ObjectOutputStream(fos);
-            oos.writeObject(mGraph);
-            oos.close();
             // close the logFile stream
             if (logWriter != null) {
                 logWriter.close();
                 logWriter = null;
             }
+            long logOffset = new File(logFilePath).length();
+            File tempFile = new File(datafilePath + MetadataConstant.METADATA_TEMP);
+            FileOutputStream fos = new FileOutputStream(tempFile);
+            ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(fos));
+            oos.writeObject(mGraph);
+            oos.writeLong(logOffset);
+            oos.close();
+            // delete old metadata data file
+            if (dataFile.exists()) {
+                dataFile.delete();
+            }
             // rename temp file to data file
             tempFile.renameTo(dataFile);
         } finally {
@@ -923,7 +1033,9 @@ public class MManager {
     public void addIndexForOneTimeseries(String path, IndexType indexType) throws PathErrorException, IOException {
         lock.writeLock().lock();
         try {
-            getSchemaForOnePath(path).setHasIndex(indexType);
+            mGraph.addIndex(path, indexType);
+            // the cached schema may be the shared one replaced by the copy of the timeseries
+            seriesSchemaCache.clear();
             if (writeToLog) {
                 initLogStream();
                 logWriter.write(MetadataOperationType.ADD_INDEX_TO_PATH + "," + path + "," + indexType);
@@ -945,7 +1057,7 @@ public class MManager {
     public void deleteIndexForOneTimeseries(String path, IndexType indexType) throws PathErrorException, IOException {
         lock.writeLock().lock();
         try {
-            getSchemaForOnePath(path).removeIndex(indexType);
+            mGraph.removeIndex(path, indexType);
             if (writeToLog) {
                 initLogStream();
                 logWriter.write(MetadataOperationType.DELETE_INDEX_FROM_PATH + "," + path + "," + indexType);
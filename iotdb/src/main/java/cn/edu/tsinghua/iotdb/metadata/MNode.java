@@ -1,13 +1,13 @@
 package cn.edu.tsinghua.iotdb.metadata;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
-import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
-import cn.edu.tsinghua.tsfile.file.metadata.enums.TSEncoding;
-
 /**
  * This class is the implementation of Metadata Node where "MNode" is the
  * shorthand of "Metadata Node". One MNode instance represents one node in the
@@ -19,6 +19,9 @@ import cn.edu.tsinghua.tsfile.file.metadata.enums.TSEncoding;
 public class MNode implements Serializable {
 
 	private static final long serialVersionUID = -770028375899514063L;
+	// most delta objects have a few measurements, so the children are kept in
+	// an array in the insertion order until there are more of them than this
+	private static final int CHILDREN_ARRAY_SIZE = 8;
 
 	// The name of the MNode
 	private String name;
@@ -35,21 +38,25 @@ public class MNode implements Serializable {
 	// node is one leaf
 	private ColumnSchema schema;
 	private MNode parent;
-	private LinkedHashMap<String, MNode> children;
+	private MNode[] childArray;
+	private int childNum;
+	private LinkedHashMap<String, MNode> childMap;
 
 	public MNode(String name, MNode parent, boolean isLeaf) {
 		this.setName(name);
 		this.parent = parent;
 		this.isLeaf = isLeaf;
 		this.isStorageLevel = false;
-		if (!isLeaf) {
-			children = new LinkedHashMap<>();
-		}
 	}
 
-	public MNode(String name, MNode parent, TSDataType dataType, TSEncoding encoding) {
-		this(name, parent, true);
-		this.schema = new ColumnSchema(name, dataType, encoding);
+	/**
+	 * The name of a measurement is interned, so that the measurement repeated
+	 * in millions of delta objects shares one string. The names of the delta
+	 * objects are mostly unique, so they are not interned.
+	 */
+	public MNode(String name, MNode parent, ColumnSchema schema) {
+		this(name.intern(), parent, true);
+		this.schema = schema;
 	}
 
 	public boolean isStorageLevel() {
@@ -84,29 +91,72 @@ public class MNode implements Serializable {
 	}
 
 	public boolean hasChild(String key) {
-		if (!isLeaf) {
-			return this.children.containsKey(key);
-		}
-		return false;
+		return getChild(key) != null;
 	}
 
+	/**
+	 * @param key
+	 *            the name of the child
+	 */
 	public void addChild(String key, MNode child) {
-		if (!isLeaf) {
-			this.children.put(key, child);
+		if (isLeaf) {
+			return;
+		}
+		if (childMap != null) {
+			// a measurement shares its interned name as the key
+			childMap.put(child.getName(), child);
+			return;
+		}
+		int index = indexOfChild(child.getName());
+		if (index >= 0) {
+			childArray[index] = child;
+		} else if (childNum < CHILDREN_ARRAY_SIZE) {
+			if (childArray == null || childNum == childArray.length) {
+				childArray = childArray == null ? new MNode[1] : Arrays.copyOf(childArray, childNum * 2);
+			}
+			childArray[childNum++] = child;
+		} else {
+			childMap = new LinkedHashMap<>();
+			for (int i = 0; i < childNum; i++) {
+				childMap.put(childArray[i].getName(), childArray[i]);
+			}
+			childMap.put(child.getName(), child);
+			childArray = null;
+			childNum = 0;
 		}
 	}
 
 	public void deleteChild(String key) {
-		children.remove(key);
+		if (childMap != null) {
+			childMap.remove(key);
+			return;
+		}
+		int index = indexOfChild(key);
+		if (index >= 0) {
+			System.arraycopy(childArray, index + 1, childArray, index, childNum - index - 1);
+			childArray[--childNum] = null;
+		}
 	}
 
 	public MNode getChild(String key) {
-		if (!isLeaf) {
-			return children.get(key);
+		if (isLeaf) {
+			return null;
+		}
+		if (childMap != null) {
+			return childMap.get(key);
 		}
-		return null;
+		int index = indexOfChild(key);
+		return index >= 0 ? childArray[index] : null;
 	}
 
+	private int indexOfChild(String key) {
+		for (int i = 0; i < childNum; i++) {
+			if (childArray[i].getName().equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
 	/**
 	 * @return the count of all leaves whose ancestor is current node
 	 */
@@ -115,7 +165,7 @@ public class MNode implements Serializable {
 			return 1;
 		} else {
 			int leafCount = 0;
-			for (MNode child : this.children.values()) {
+			for (MNode child : getChildren()) {
 				leafCount += child.getLeafCount();
 			}
 			return leafCount;
@@ -150,12 +200,28 @@ public class MNode implements Serializable {
 		this.parent = parent;
 	}
 
-	public LinkedHashMap<String, MNode> getChildren() {
-		return children;
+	/**
+	 * @return the children in the insertion order, or null if current node is
+	 *         a leaf
+	 */
+	public Collection<MNode> getChildren() {
+		if (isLeaf) {
+			return null;
+		}
+		if (childMap != null) {
+			return Collections.unmodifiableCollection(childMap.values());
+		}
+		if (childNum == 0) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(Arrays.asList(childArray).subList(0, childNum));
 	}
 
-	public void setChildren(LinkedHashMap<String, MNode> children) {
-		this.children = children;
+	public int getChildrenNum() {
+		if (childMap != null) {
+			return childMap.size();
+		}
+		return childNum;
 	}
 
 	public String getName() {
@@ -1,9 +1,13 @@
 package cn.edu.tsinghua.iotdb.metadata;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.*;
 
 import cn.edu.tsinghua.iotdb.exception.PathErrorException;
+import cn.edu.tsinghua.iotdb.index.IndexManager.IndexType;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSEncoding;
 
@@ -17,7 +21,12 @@ public class MTree implements Serializable {
 
 	private static final long serialVersionUID = -4200394435237291964L;
 	private final String space = "    ";
-	private MNode root;
+	// written by writeObject in a compact binary format
+	private transient MNode root;
+	// the schemas without args and indexes are shared by the timeseries of
+	// the same measurement, data type and encoding, and a timeseries gets its
+	// own copy before an index is added to it
+	private transient Map<String, ColumnSchema> sharedSchemas = new HashMap<>();
 	private final String separator = "\\.";
 
 	public MTree(String rootName) {
@@ -73,13 +82,18 @@ public class MTree implements Serializable {
 		}
 		TSDataType dt = TSDataType.valueOf(dataType);
 		TSEncoding ed = TSEncoding.valueOf(encoding);
-		MNode leaf = new MNode(nodeNames[nodeNames.length - 1], cur, dt, ed);
+		String measurement = nodeNames[nodeNames.length - 1];
+		ColumnSchema schema;
 		if (args.length > 0) {
+			schema = new ColumnSchema(measurement.intern(), dt, ed);
 			for (int k = 0; k < args.length; k++) {
 				String[] arg = args[k].split("=");
-				leaf.getSchema().putKeyValueToArgs(arg[0], arg[1]);
+				schema.putKeyValueToArgs(arg[0], arg[1]);
 			}
+		} else {
+			schema = getSharedSchema(measurement, dt, ed);
 		}
+		MNode leaf = new MNode(measurement, cur, schema);
 		levelPath = cur.getDataFileName();
 		leaf.setDataFileName(levelPath);
 		if (cur.isLeaf()) {
@@ -201,7 +215,7 @@ public class MTree implements Serializable {
 		if (node.getChildren() == null) {
 			return;
 		}
-		for (MNode child : node.getChildren().values()) {
+		for (MNode child : node.getChildren()) {
 			checkStorageGroup(child);
 		}
 	}
@@ -211,7 +225,7 @@ public class MTree implements Serializable {
 		if (node.getChildren() == null) {
 			return;
 		}
-		for (MNode child : node.getChildren().values()) {
+		for (MNode child : node.getChildren()) {
 			setDataFileName(path, child);
 		}
 	}
@@ -245,7 +259,7 @@ public class MTree implements Serializable {
 			dataFileName = cur.getDataFileName();
 		cur.getParent().deleteChild(cur.getName());
 		cur = cur.getParent();
-		while (cur != null && !cur.getName().equals("root") && cur.getChildren().size() == 0) {
+		while (cur != null && !cur.getName().equals("root") && cur.getChildrenNum() == 0) {
 			if (cur.isStorageLevel()) {
 				dataFileName = cur.getDataFileName();
 				return dataFileName;
@@ -274,7 +288,7 @@ public class MTree implements Serializable {
 		}
 		if (nodes[idx].equals("*")) {
 			boolean res = false;
-			for (MNode child : node.getChildren().values()) {
+			for (MNode child : node.getChildren()) {
 				res |= hasPath(child, nodes, idx + 1);
 			}
 			return res;
@@ -310,6 +324,39 @@ public class MTree implements Serializable {
 		return leaf.getSchema();
 	}
 
+	/**
+	 * Add an index to the timeseries of given path, which gets its own schema
+	 * first if it shares one with other timeseries.
+	 */
+	public void addIndex(String path, IndexType indexType) throws PathErrorException {
+		MNode leaf = getLeafByPath(path);
+		if (isSharedSchema(leaf.getSchema())) {
+			leaf.setSchema(leaf.getSchema().copy());
+		}
+		leaf.getSchema().setHasIndex(indexType);
+	}
+
+	public void removeIndex(String path, IndexType indexType) throws PathErrorException {
+		ColumnSchema schema = getLeafByPath(path).getSchema();
+		// a shared schema has no index
+		if (!isSharedSchema(schema)) {
+			schema.removeIndex(indexType);
+		}
+	}
+
+	private ColumnSchema getSharedSchema(String measurement, TSDataType dataType, TSEncoding encoding) {
+		return sharedSchemas.computeIfAbsent(getSharedSchemaKey(measurement, dataType, encoding),
+				key -> new ColumnSchema(measurement.intern(), dataType, encoding));
+	}
+
+	private boolean isSharedSchema(ColumnSchema schema) {
+		return sharedSchemas.get(getSharedSchemaKey(schema.name, schema.dataType, schema.encoding)) == schema;
+	}
+
+	private String getSharedSchemaKey(String measurement, TSDataType dataType, TSEncoding encoding) {
+		return measurement + "." + dataType.name() + "." + encoding.name();
+	}
+
 	private MNode getLeafByPath(String path) throws PathErrorException {
 		checkPath(path);
 		String[] node = path.split(separator);
@@ -593,7 +640,7 @@ public class MTree implements Serializable {
 	public List<String> getLeafNodePathInNextLevel(String path) throws PathErrorException {
 		List<String> ret = new ArrayList<>();
 		MNode cur = checkPath(path);
-		for(MNode child : cur.getChildren().values()) {
+		for(MNode child : cur.getChildren()) {
 			if (child.isLeaf()) {
 				ret.add(new StringBuilder(path).append(".").append(child.getName()).toString());
 			}
@@ -631,7 +678,7 @@ public class MTree implements Serializable {
 		}
 		int sum = 0;
 		if (!node.isLeaf()) {
-			for (MNode child : node.getChildren().values()) {
+			for (MNode child : node.getChildren()) {
 				sum += getFileCountForOneNode(child);
 			}
 		}
@@ -646,8 +693,8 @@ public class MTree implements Serializable {
 	public ArrayList<String> getAllType() {
 		ArrayList<String> res = new ArrayList<>();
 		if (getRoot() != null) {
-			for (String type : getRoot().getChildren().keySet()) {
-				res.add(type);
+			for (MNode type : getRoot().getChildren()) {
+				res.add(type.getName());
 			}
 		}
 		return res;
@@ -672,7 +719,7 @@ public class MTree implements Serializable {
             	res.add(path);
             	return;
         	}
-        	for (MNode childNode : node.getChildren().values()) {
+        	for (MNode childNode : node.getChildren()) {
             		findStorageGroup(childNode, path + "." + childNode.toString(), res);
         	}
     	}
@@ -700,9 +747,9 @@ public class MTree implements Serializable {
 		if (node.isLeaf()) {
 			deltaObjectMap.put(path, 1);
 		} else {
-			for (String child : node.getChildren().keySet()) {
+			for (MNode child : node.getChildren()) {
 				String newPath = path + "." + node.getName();
-				putDeltaObjectToMap(newPath, node.getChildren().get(child), deltaObjectMap);
+				putDeltaObjectToMap(newPath, child, deltaObjectMap);
 			}
 		}
 	}
@@ -773,7 +820,7 @@ public class MTree implements Serializable {
 			}
 			return;
 		}
-		for (MNode child : node.getChildren().values()) {
+		for (MNode child : node.getChildren()) {
 			putLeafToLeafMap(child, leafMap);
 		}
 	}
@@ -800,7 +847,7 @@ public class MTree implements Serializable {
 				findPath(node.getChild(nodeReg), nodes, idx + 1, parent + node.getName() + ".", paths);
 			}
 		} else {
-			for (MNode child : node.getChildren().values()) {
+			for (MNode child : node.getChildren()) {
 				findPath(child, nodes, idx + 1, parent + node.getName() + ".", paths);
 			}
 		}
@@ -837,7 +884,7 @@ public class MTree implements Serializable {
 				findPath(node.getChild(nodeReg), nodes, idx + 1, parent + node.getName() + ".", res);
 			}
 		} else {
-			for (MNode child : node.getChildren().values()) {
+			for (MNode child : node.getChildren()) {
 				findPath(child, nodes, idx + 1, parent + node.getName() + ".", res);
 			}
 		}
@@ -864,10 +911,10 @@ public class MTree implements Serializable {
 			builder.append(space);
 		}
 		builder.append(node.getName());
-		if (!node.isLeaf() && node.getChildren().size() > 0) {
+		if (!node.isLeaf() && node.getChildrenNum() > 0) {
 			builder.append(":{\n");
 			int first = 0;
-			for (MNode child : node.getChildren().values()) {
+			for (MNode child : node.getChildren()) {
 				if (first == 0) {
 					first = 1;
 				} else {
@@ -903,4 +950,136 @@ public class MTree implements Serializable {
 	public MNode getRoot() {
 		return root;
 	}
+
+	/**
+	 * Write the nodes in pre-order instead of serializing the object graph, so
+	 * that millions of nodes are written and read without the reflection and
+	 * the back reference table of the default serialization. A string is
+	 * written once and then referred to by its number, and the names of the
+	 * measurements repeated in every delta object are interned by their nodes,
+	 * so they are shared after reading.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		writeNode(out, root, new HashMap<>());
+	}
+
+	private void writeNode(ObjectOutputStream out, MNode node, Map<String, Integer> dictionary) throws IOException {
+		writeString(out, node.getName(), dictionary);
+		out.writeBoolean(node.isLeaf());
+		out.writeBoolean(node.isStorageLevel());
+		writeString(out, node.getDataFileName(), dictionary);
+		if (node.isLeaf()) {
+			ColumnSchema schema = node.getSchema();
+			writeString(out, schema.dataType.name(), dictionary);
+			writeString(out, schema.encoding.name(), dictionary);
+			Map<String, String> args = schema.getArgsMap();
+			out.writeInt(args.size());
+			for (Map.Entry<String, String> arg : args.entrySet()) {
+				writeString(out, arg.getKey(), dictionary);
+				writeString(out, arg.getValue(), dictionary);
+			}
+			Set<IndexType> indexes = schema.getIndexSet();
+			out.writeInt(indexes.size());
+			for (IndexType index : indexes) {
+				writeString(out, index.name(), dictionary);
+			}
+		} else {
+			out.writeInt(node.getChildrenNum());
+			for (MNode child : node.getChildren()) {
+				writeNode(out, child, dictionary);
+			}
+		}
+	}
+
+	private void writeString(ObjectOutputStream out, String string, Map<String, Integer> dictionary)
+			throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+			return;
+		}
+		Integer id = dictionary.get(string);
+		if (id != null) {
+			out.writeInt(id);
+		} else {
+			out.writeInt(dictionary.size());
+			out.writeUTF(string);
+			dictionary.put(string, dictionary.size());
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		sharedSchemas = new HashMap<>();
+		root = readNode(in, null, new ArrayList<>());
+		rebuildSchemaMap(root, null);
+	}
+
+	private MNode readNode(ObjectInputStream in, MNode parent, List<String> dictionary) throws IOException {
+		String name = readString(in, dictionary);
+		boolean isLeaf = in.readBoolean();
+		boolean isStorageLevel = in.readBoolean();
+		String dataFileName = readString(in, dictionary);
+		MNode node;
+		if (isLeaf) {
+			TSDataType dataType = TSDataType.valueOf(readString(in, dictionary));
+			TSEncoding encoding = TSEncoding.valueOf(readString(in, dictionary));
+			int argNum = in.readInt();
+			ColumnSchema schema = argNum > 0 ? new ColumnSchema(name.intern(), dataType, encoding)
+					: getSharedSchema(name, dataType, encoding);
+			for (int i = 0; i < argNum; i++) {
+				schema.putKeyValueToArgs(readString(in, dictionary), readString(in, dictionary));
+			}
+			int indexNum = in.readInt();
+			if (indexNum > 0 && isSharedSchema(schema)) {
+				schema = schema.copy();
+			}
+			for (int i = 0; i < indexNum; i++) {
+				schema.setHasIndex(IndexType.valueOf(readString(in, dictionary)));
+			}
+			node = new MNode(name, parent, schema);
+		} else {
+			node = new MNode(name, parent, false);
+			int childNum = in.readInt();
+			for (int i = 0; i < childNum; i++) {
+				MNode child = readNode(in, node, dictionary);
+				node.addChild(child.getName(), child);
+			}
+		}
+		node.setStorageLevel(isStorageLevel);
+		node.setDataFileName(dataFileName);
+		return node;
+	}
+
+	private String readString(ObjectInputStream in, List<String> dictionary) throws IOException {
+		int id = in.readInt();
+		if (id == -1) {
+			return null;
+		}
+		if (id == dictionary.size()) {
+			dictionary.add(in.readUTF());
+		}
+		return dictionary.get(id);
+	}
+
+	/**
+	 * The schema maps of a storage group are kept by the executor when a
+	 * timeseries is added or deleted, so they are counted again from the leaves
+	 * after reading.
+	 */
+	private void rebuildSchemaMap(MNode node, MNode storageGroup) {
+		if (node.isStorageLevel()) {
+			storageGroup = node;
+		}
+		if (node.isLeaf()) {
+			if (storageGroup != null) {
+				storageGroup.getSchemaMap().putIfAbsent(node.getName(), node.getSchema());
+				storageGroup.getNumSchemaMap().merge(node.getName(), 1, Integer::sum);
+			}
+			return;
+		}
+		for (MNode child : node.getChildren()) {
+			rebuildSchemaMap(child, storageGroup);
+		}
+	}
 }
@@ -6,6 +6,7 @@ public class MonitorConstants {
     public static final String DataType = "INT64";
     public static final String FILENODE_PROCESSOR_CONST = "FILENODE_PROCESSOR_CONST";
     public static final String FILENODE_MANAGER_CONST = "FILENODE_MANAGER_CONST";
+    public static final String CACHE_CONST = "CACHE_CONST";
     public static final String MONITOR_PATH_SEPERATOR = ".";
     public static final String statStorageGroupPrefix = "root.stats";
 
@@ -13,6 +14,11 @@ public class MonitorConstants {
     public static final String fileNodeManagerPath = "write.global";
     public static final String fileNodePath = "write";
 
+    // statistic for caches of query
+    public static final String fileMetadataCachePath = "cache.file_metadata";
+    public static final String rowGroupMetadataCachePath = "cache.row_group_metadata";
+    public static final String seriesChunkCachePath = "cache.series_chunk";
+
     /**
      * @param constantsType: produce initialization values for Statistics Params
      * @return : HashMap contains all the Statistics Params
@@ -30,6 +36,11 @@ public class MonitorConstants {
                     hashMap.put(statConstant.name(), new AtomicLong(0));
                 }
                 break;
+            case CACHE_CONST:
+                for (CacheStatConstants statConstant : CacheStatConstants.values()) {
+                    hashMap.put(statConstant.name(), new AtomicLong(0));
+                }
+                break;
             default:
                 //TODO: throws some errors
                 break;
@@ -47,4 +58,8 @@ public class MonitorConstants {
         TOTAL_REQ_SUCCESS, TOTAL_REQ_FAIL,
         TOTAL_POINTS_SUCCESS, TOTAL_POINTS_FAIL,
     }
+
+    public enum CacheStatConstants {
+        HIT, MISS, EVICTION, WEIGHT_IN_BYTE
+    }
 }
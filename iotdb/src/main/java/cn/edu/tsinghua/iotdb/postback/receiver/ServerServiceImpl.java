@@ -15,12 +15,11 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Map.Entry;
 
 import cn.edu.tsinghua.tsfile.timeseries.read.query.OnePassQueryDataSet;
 import cn.edu.tsinghua.tsfile.timeseries.read.support.OldRowRecord;
@@ -41,7 +40,6 @@ import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkProperties;
 import cn.edu.tsinghua.tsfile.file.metadata.TsDeltaObject;
 import cn.edu.tsinghua.tsfile.file.metadata.TsRowGroupBlockMetaData;
-import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.file.utils.ReadWriteThriftFormatUtils;
 import cn.edu.tsinghua.tsfile.timeseries.basis.TsFile;
 import cn.edu.tsinghua.tsfile.timeseries.read.FileReader;
@@ -49,6 +47,14 @@ import cn.edu.tsinghua.tsfile.timeseries.read.TsRandomAccessLocalFileReader;
 
 import cn.edu.tsinghua.tsfile.timeseries.read.support.Field;
 import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.DataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.TSRecord;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.BooleanDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.DoubleDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.FloatDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.IntDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.LongDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.StringDataPoint;
 
 
 /**
@@ -75,6 +81,10 @@ public class ServerServiceImpl implements ServerService.Iface {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ServerServiceImpl.class);
     private static final FileNodeManager fileNodeManager = FileNodeManager.getInstance();
+    /**
+     * Number of rows of a device inserted into the storage engine at a time.
+     */
+    private static final int INSERT_BATCH_SIZE = 1024;
 
     /**
      * Init threadLocal variable
@@ -339,270 +349,239 @@ public class ServerServiceImpl implements ServerService.Iface {
     }
 
     /**
-     * Insert all data in the tsfile into IoTDB.
+     * Insert all data in the tsfile into IoTDB. The points are read row by row and inserted into the storage engine
+     * directly in batches of rows, without being turned into SQL.
      */
     @Override
     public void mergeOldData(String filePath) throws TException {
-        Set<String> timeseries = new HashSet<>();
         TsRandomAccessLocalFileReader input = null;
-        Connection connection = null;
-        Statement statement = null;
+        int count = 0;
         try {
-            Class.forName(JDBC_DRIVER_NAME);
-            connection = DriverManager.getConnection("jdbc:tsfile://localhost:" + tsfileDBConfig.rpcPort + "/", "root",
-                    "root");
-            statement = connection.createStatement();
-            int count = 0;
-
             input = new TsRandomAccessLocalFileReader(filePath);
             FileReader reader = new FileReader(input);
             Map<String, TsDeltaObject> deltaObjectMap = reader.getFileMetaData().getDeltaObjectMap();
-            Iterator<String> it = deltaObjectMap.keySet().iterator();
-            while (it.hasNext()) {
-                String key = it.next().toString(); // key represent devices
-                TsDeltaObject deltaObj = deltaObjectMap.get(key);
-                TsRowGroupBlockMetaData blockMeta = new TsRowGroupBlockMetaData();
-                blockMeta.convertToTSF(ReadWriteThriftFormatUtils.readRowGroupBlockMetaData(input, deltaObj.offset,
-                        deltaObj.metadataBlockSize));
-                List<RowGroupMetaData> rowGroupMetadataList = blockMeta.getRowGroups();
-                timeseries.clear();
+            TsFile readTsFile = new TsFile(input);
+            for (String deltaObjectId : deltaObjectMap.keySet()) {
                 // firstly, get all timeseries in the same device
-                for (RowGroupMetaData rowGroupMetaData : rowGroupMetadataList) {
-                    List<TimeSeriesChunkMetaData> timeSeriesChunkMetaDataList = rowGroupMetaData
-                            .getTimeSeriesChunkMetaDataList();
-                    for (TimeSeriesChunkMetaData timeSeriesChunkMetaData : timeSeriesChunkMetaDataList) {
-                        TimeSeriesChunkProperties properties = timeSeriesChunkMetaData.getProperties();
-                        String measurementUID = properties.getMeasurementUID();
-                        measurementUID = key + "." + measurementUID;
-                        timeseries.add(measurementUID);
-                    }
-                }
-                // secondly, use tsFile Reader to form SQL
-
-                TsFile readTsFile = new TsFile(input);
-                ArrayList<Path> paths = new ArrayList<>();
-                paths.clear();
-                for (String timesery : timeseries) {
-                    paths.add(new Path(timesery));
+                List<Path> paths = getSeriesPaths(input, deltaObjectId, deltaObjectMap.get(deltaObjectId));
+                if (paths.isEmpty()) {
+                    continue;
                 }
+                // secondly, insert the rows of the device in batches
+                List<TSRecord> batch = new ArrayList<>(INSERT_BATCH_SIZE);
                 OnePassQueryDataSet queryDataSet = readTsFile.query(paths, null, null);
                 while (queryDataSet.hasNextRecord()) {
                     OldRowRecord record = queryDataSet.getNextRecord();
-                    List<Field> fields = record.getFields();
-                    String sql_front = null;
-                    for (Field field : fields) {
-                        if (field.toString() != "null") {
-                            sql_front = "insert into " + field.deltaObjectId + "(timestamp";
-                            break;
+                    TSRecord tsRecord = new TSRecord(record.timestamp, deltaObjectId);
+                    for (Field field : record.getFields()) {
+                        if (!field.isNull()) {
+                            tsRecord.addTuple(getDataPoint(field));
                         }
                     }
-                    String sql_rear = ") values(" + record.timestamp;
-                    for (Field field : fields) {
-                        if (field.toString() != "null") {
-                            sql_front = sql_front + "," + field.measurementId.toString();
-                            if (field.dataType == TSDataType.TEXT) {
-                                sql_rear = sql_rear + "," + "'" + field.toString() + "'";
-                            } else {
-                                sql_rear = sql_rear + "," + field.toString();
-                            }
+                    if (!tsRecord.dataPointList.isEmpty()) {
+                        batch.add(tsRecord);
+                        if (batch.size() >= INSERT_BATCH_SIZE) {
+                            count += insertBatch(deltaObjectId, batch);
                         }
                     }
-                    String sql = sql_front + sql_rear + ")";
-
-                    statement.addBatch(sql);
-                    count++;
-                    if (count > 10000) {
-                        statement.executeBatch();
-                        statement.clearBatch();
-                        count = 0;
-                    }
                 }
+                count += insertBatch(deltaObjectId, batch);
             }
-            statement.executeBatch();
-            statement.clearBatch();
+            LOGGER.info("IoTDB receiver : {} points of tsfile {} have been inserted", count, filePath);
         } catch (IOException e) {
-            LOGGER.error("IoTDB receiver can not parse tsfile into SQL because{}", e.getMessage());
-        } catch (SQLException | ClassNotFoundException e) {
-            LOGGER.error("IoTDB post back receiver: jdbc cannot connect to IoTDB because {}", e.getMessage());
+            LOGGER.error("IoTDB receiver can not read tsfile {} because {}", filePath, e.getMessage());
+            throw new TException(String.format("Can not read tsfile %s", filePath), e);
+        } catch (FileNodeManagerException e) {
+            LOGGER.error("IoTDB receiver can not insert the data of tsfile {} because {}", filePath, e.getMessage());
+            throw new TException(String.format("Can not insert the data of tsfile %s", filePath), e);
         } finally {
-            try {
-                input.close();
-            } catch (IOException e) {
-                LOGGER.error("IoTDB receiver : Cannot close file stream {} because {}", filePath);
-            }
-            try {
-                if (statement != null)
-                    statement.close();
-                if (connection != null)
-                    connection.close();
-            } catch (SQLException e) {
-                LOGGER.error("IoTDB receiver : Can not close JDBC connection because {}", e.getMessage());
-            }
+            closeFileReader(input, filePath);
         }
     }
 
     /**
-     * Insert those valid data in the tsfile into IoTDB
+     * Insert those valid data in the tsfile into IoTDB, i.e. the points which are not in the overlap files with the
+     * same values. The points are inserted into the storage engine directly in batches, without being turned into
+     * SQL, and the valid points of a device at the same time are inserted as one record. The points of the device in the overlap
+     * files are kept in memory while its rows in the tsfile are read.
      *
      * @param filePath
      * @param overlapFiles:files which are conflict with the postback file
      * @throws TException
      */
     public void mergeOldData(String filePath, List<String> overlapFiles) throws TException {
-        Set<String> timeseries = new HashSet<>();
         TsRandomAccessLocalFileReader input = null;
-        Connection connection = null;
-        Statement statement = null;
+        int count = 0;
         try {
-            Class.forName(JDBC_DRIVER_NAME);
-            connection = DriverManager.getConnection("jdbc:tsfile://localhost:" + tsfileDBConfig.rpcPort + "/", "root",
-                    "root");
-            statement = connection.createStatement();
-            int count = 0;
-
             input = new TsRandomAccessLocalFileReader(filePath);
             FileReader reader = new FileReader(input);
             Map<String, TsDeltaObject> deltaObjectMap = reader.getFileMetaData().getDeltaObjectMap();
-            Iterator<String> it = deltaObjectMap.keySet().iterator();
-            while (it.hasNext()) {
-                String key = it.next().toString(); // key represent devices
-                TsDeltaObject deltaObj = deltaObjectMap.get(key);
-                TsRowGroupBlockMetaData blockMeta = new TsRowGroupBlockMetaData();
-                blockMeta.convertToTSF(ReadWriteThriftFormatUtils.readRowGroupBlockMetaData(input, deltaObj.offset,
-                        deltaObj.metadataBlockSize));
-                List<RowGroupMetaData> rowGroupMetadataList = blockMeta.getRowGroups();
-                timeseries.clear();
-                // firstly, get all timeseries in the same device
-                for (RowGroupMetaData rowGroupMetaData : rowGroupMetadataList) {
-                    List<TimeSeriesChunkMetaData> timeSeriesChunkMetaDataList = rowGroupMetaData
-                            .getTimeSeriesChunkMetaDataList();
-                    for (TimeSeriesChunkMetaData timeSeriesChunkMetaData : timeSeriesChunkMetaDataList) {
-                        TimeSeriesChunkProperties properties = timeSeriesChunkMetaData.getProperties();
-                        String measurementUID = properties.getMeasurementUID();
-                        measurementUID = key + "." + measurementUID;
-                        timeseries.add(measurementUID);
-                    }
+            TsFile readTsFile = new TsFile(input);
+            for (String deltaObjectId : deltaObjectMap.keySet()) {
+                List<Path> paths = getSeriesPaths(input, deltaObjectId, deltaObjectMap.get(deltaObjectId));
+                if (paths.isEmpty()) {
+                    continue;
                 }
-                // secondly, use tsFile Reader to form SQL
-
-                TsFile readTsFile = new TsFile(input);
-                ArrayList<Path> paths = new ArrayList<>();
-                for (String timesery : timeseries) { // compare data with one timesery in a round to get valid data
-                    paths.clear();
-                    paths.add(new Path(timesery));
-                    Map<String, String> originDataPoint = new HashMap<>();
-                    Map<String, String> newDataPoint = new HashMap<>();
-                    String sqlFormat = "insert into %s(timestamp,%s) values(%s,%s)";
-                    OnePassQueryDataSet queryDataSet = readTsFile.query(paths, null, null);
-                    while (queryDataSet.hasNextRecord()) {
-                        OldRowRecord record = queryDataSet.getNextRecord();
-                        List<Field> fields = record.getFields();
-                        String sql;
-                        for (Field field : fields) { // get all data with the timesery in the postback file
-                            if (field.toString() != "null") {
-                                sql = String.format(sqlFormat, field.deltaObjectId, field.measurementId.toString(),
-                                        record.timestamp, "%s");
-                                if (field.dataType == TSDataType.TEXT) {
-                                    newDataPoint.put(sql, "'" + field.toString() + "'");
-                                } else {
-                                    newDataPoint.put(sql, field.toString());
-                                }
-
-                            }
+                // get all data of the device in all overlap files, key: measurement, time
+                Map<String, Map<Long, String>> originDataPoints = new HashMap<>();
+                for (String overlapFile : overlapFiles) {
+                    readOverlapData(overlapFile, deltaObjectId, paths, originDataPoints);
+                }
+                // insert the data of the device in the postback file, which are new or different, in batches
+                List<TSRecord> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+                OnePassQueryDataSet queryDataSet = readTsFile.query(paths, null, null);
+                while (queryDataSet.hasNextRecord()) {
+                    OldRowRecord record = queryDataSet.getNextRecord();
+                    TSRecord tsRecord = new TSRecord(record.timestamp, deltaObjectId);
+                    for (Field field : record.getFields()) {
+                        if (field.isNull()) {
+                            continue;
                         }
-                    }
-                    for (String overlapFile : overlapFiles) // get all data with the timesery in all overlap files.
-                    {
-                        TsRandomAccessLocalFileReader inputOverlap = null;
-                        try {
-                            inputOverlap = new TsRandomAccessLocalFileReader(overlapFile);
-                            TsFile readTsFileOverlap = new TsFile(inputOverlap);
-                            OnePassQueryDataSet queryDataSetOverlap = readTsFileOverlap.query(paths, null, null);
-                            while (queryDataSetOverlap.hasNextRecord()) {
-                                OldRowRecord recordOverlap = queryDataSetOverlap.getNextRecord();
-                                List<Field> fields = recordOverlap.getFields();
-                                String sql;
-                                for (Field field : fields) {
-                                    if (field.toString() != "null") {
-                                        sql = String.format(sqlFormat, field.deltaObjectId,
-                                                field.measurementId.toString(), recordOverlap.timestamp, "%s");
-                                        if (field.dataType == TSDataType.TEXT) {
-                                            originDataPoint.put(sql, "'" + field.toString() + "'");
-                                        } else {
-                                            originDataPoint.put(sql, field.toString());
-                                        }
-                                    }
-                                }
-                            }
-                        } catch (IOException e) {
-                            LOGGER.error("IoTDB post back receiver: unable to read tsfile {} because {}", overlapFile,
-                                    e.getMessage());
-                        } finally {
-                            try {
-                                inputOverlap.close();
-                            } catch (IOException e) {
-                                LOGGER.error("IoTDB receiver : Cannot close file stream {} because {}", overlapFile,
-                                        e.getMessage());
-                            }
+                        Map<Long, String> originSeriesPoints = originDataPoints.get(field.measurementId);
+                        String originValue = originSeriesPoints == null ? null
+                                : originSeriesPoints.get(record.timestamp);
+                        if (originValue == null || !originValue.equals(field.getStringValue())) {
+                            tsRecord.addTuple(getDataPoint(field));
                         }
                     }
-                    if (originDataPoint.isEmpty()) { // If there has no overlap data with the timesery, inserting all
-                        // data in the postback file
-                        for (Entry<String, String> entry : newDataPoint.entrySet()) {
-                            String sql = String.format(entry.getKey(), entry.getValue());
-                            statement.addBatch(sql);
-                            count++;
-                            if (count > 10000) {
-                                statement.executeBatch();
-                                statement.clearBatch();
-                                count = 0;
-                            }
-                        }
-                    } else { // Compare every data to get valid data
-                        for (Entry<String, String> entry : newDataPoint.entrySet()) {
-                            if (!originDataPoint.containsKey(entry.getKey())
-                                    || (originDataPoint.containsKey(entry.getKey())
-                                    && !originDataPoint.get(entry.getKey()).equals(entry.getValue()))) {
-                                String sql = String.format(entry.getKey(), entry.getValue());
-                                statement.addBatch(sql);
-                                count++;
-                                if (count > 10000) {
-                                    statement.executeBatch();
-                                    statement.clearBatch();
-                                    count = 0;
-                                }
-                            }
+                    if (!tsRecord.dataPointList.isEmpty()) {
+                        batch.add(tsRecord);
+                        if (batch.size() >= INSERT_BATCH_SIZE) {
+                            count += insertBatch(deltaObjectId, batch);
                         }
                     }
                 }
+                count += insertBatch(deltaObjectId, batch);
             }
-            statement.executeBatch();
-            statement.clearBatch();
+            LOGGER.info("IoTDB receiver : {} points of tsfile {} have been inserted", count, filePath);
         } catch (IOException e) {
-            LOGGER.error("IoTDB receiver can not parse tsfile into SQL because{}", e.getMessage());
-        } catch (SQLException | ClassNotFoundException e) {
-            LOGGER.error("IoTDB post back receiver: jdbc cannot connect to IoTDB because {}", e.getMessage());
+            LOGGER.error("IoTDB receiver can not read tsfile {} because {}", filePath, e.getMessage());
+            throw new TException(String.format("Can not read tsfile %s", filePath), e);
+        } catch (FileNodeManagerException e) {
+            LOGGER.error("IoTDB receiver can not insert the data of tsfile {} because {}", filePath, e.getMessage());
+            throw new TException(String.format("Can not insert the data of tsfile %s", filePath), e);
         } finally {
-            try {
-                input.close();
-            } catch (IOException e) {
-                LOGGER.error("IoTDB receiver : Cannot close file stream {} because {}", filePath, e.getMessage());
+            closeFileReader(input, filePath);
+        }
+    }
+
+    /**
+     * Get the paths of all timeseries of the device in the tsfile.
+     */
+    private List<Path> getSeriesPaths(TsRandomAccessLocalFileReader input, String deltaObjectId,
+                                      TsDeltaObject deltaObj) throws IOException {
+        TsRowGroupBlockMetaData blockMeta = new TsRowGroupBlockMetaData();
+        blockMeta.convertToTSF(ReadWriteThriftFormatUtils.readRowGroupBlockMetaData(input, deltaObj.offset,
+                deltaObj.metadataBlockSize));
+        Set<String> timeseries = new LinkedHashSet<>();
+        for (RowGroupMetaData rowGroupMetaData : blockMeta.getRowGroups()) {
+            for (TimeSeriesChunkMetaData timeSeriesChunkMetaData : rowGroupMetaData.getTimeSeriesChunkMetaDataList()) {
+                TimeSeriesChunkProperties properties = timeSeriesChunkMetaData.getProperties();
+                timeseries.add(deltaObjectId + "." + properties.getMeasurementUID());
             }
-            try {
-                if (statement != null)
-                    statement.close();
-                if (connection != null)
-                    connection.close();
-            } catch (SQLException e) {
-                LOGGER.error("IoTDB receiver : Can not close JDBC connection because {}", e.getMessage());
+        }
+        List<Path> paths = new ArrayList<>();
+        for (String timesery : timeseries) {
+            paths.add(new Path(timesery));
+        }
+        return paths;
+    }
+
+    /**
+     * Insert the records of the device as one batch and clear them.
+     *
+     * @return the number of points inserted
+     */
+    private int insertBatch(String deltaObjectId, List<TSRecord> batch) throws FileNodeManagerException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        FileNodeManagerException[] exceptions = fileNodeManager.insertBatch(deltaObjectId, batch, false);
+        int count = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (exceptions[i] != null) {
+                throw exceptions[i];
             }
+            count += batch.get(i).dataPointList.size();
+        }
+        batch.clear();
+        return count;
+    }
+
+    /**
+     * Read the points of the timeseries of the device in the overlap file into originDataPoints, which are grouped
+     * by their measurements and whose values are in string format. An overlap file is chosen when any device of it
+     * overlaps, so the timeseries which it does not contain have no origin points and are not queried.
+     */
+    private void readOverlapData(String overlapFile, String deltaObjectId, List<Path> paths,
+                                 Map<String, Map<Long, String>> originDataPoints) throws IOException {
+        TsRandomAccessLocalFileReader inputOverlap = null;
+        try {
+            inputOverlap = new TsRandomAccessLocalFileReader(overlapFile);
+            FileReader overlapReader = new FileReader(inputOverlap);
+            if (!overlapReader.containsDeltaObj(deltaObjectId)) {
+                return;
+            }
+            List<Path> overlapPaths = new ArrayList<>();
+            for (Path path : paths) {
+                if (overlapReader.containsSeries(deltaObjectId, path.getMeasurementToString())) {
+                    overlapPaths.add(path);
+                }
+            }
+            if (overlapPaths.isEmpty()) {
+                return;
+            }
+            TsFile readTsFileOverlap = new TsFile(inputOverlap);
+            OnePassQueryDataSet queryDataSetOverlap = readTsFileOverlap.query(overlapPaths, null, null);
+            while (queryDataSetOverlap.hasNextRecord()) {
+                OldRowRecord recordOverlap = queryDataSetOverlap.getNextRecord();
+                for (Field field : recordOverlap.getFields()) {
+                    if (!field.isNull()) {
+                        originDataPoints.computeIfAbsent(field.measurementId, k -> new HashMap<>())
+                                .put(recordOverlap.timestamp, field.getStringValue());
+                    }
+                }
+            }
+        } finally {
+            closeFileReader(inputOverlap, overlapFile);
+        }
+    }
+
+    private DataPoint getDataPoint(Field field) {
+        switch (field.dataType) {
+            case BOOLEAN:
+                return new BooleanDataPoint(field.measurementId, field.getBoolV());
+            case INT32:
+                return new IntDataPoint(field.measurementId, field.getIntV());
+            case INT64:
+                return new LongDataPoint(field.measurementId, field.getLongV());
+            case FLOAT:
+                return new FloatDataPoint(field.measurementId, field.getFloatV());
+            case DOUBLE:
+                return new DoubleDataPoint(field.measurementId, field.getDoubleV());
+            case TEXT:
+                return new StringDataPoint(field.measurementId, field.getBinaryV());
+            default:
+                return DataPoint.getDataPoint(field.dataType, field.measurementId, field.getStringValue());
+        }
+    }
+
+    private void closeFileReader(TsRandomAccessLocalFileReader input, String filePath) {
+        if (input == null) {
+            return;
+        }
+        try {
+            input.close();
+        } catch (IOException e) {
+            LOGGER.error("IoTDB receiver : Cannot close file stream {} because {}", filePath, e.getMessage());
         }
     }
 
     /**
      * It is to merge data. If data in the tsfile is new, append the tsfile to the
      * storage group directly. If data in the tsfile is old, it has two strategy to
-     * merge.It depends on the possibility of updating historical data.
+     * merge.It depends on the possibility of updating historical data. If a file fails to be merged, the exception
+     * is thrown and the received files are kept.
      */
     @Override
     public void mergeData() throws TException {
@@ -614,9 +593,9 @@ public class ServerServiceImpl implements ServerService.Iface {
                 for (int j = i + 1; j < filesPath.size(); j++) {
                     boolean swapOrNot = false;
                     Map<String, Long> startTimeI = fileNodeStartTime.get().get(filesPath.get(i));
-                    Map<String, Long> endTimeI = fileNodeStartTime.get().get(filesPath.get(i));
+                    Map<String, Long> endTimeI = fileNodeEndTime.get().get(filesPath.get(i));
                     Map<String, Long> startTimeJ = fileNodeStartTime.get().get(filesPath.get(j));
-                    Map<String, Long> endTimeJ = fileNodeStartTime.get().get(filesPath.get(j));
+                    Map<String, Long> endTimeJ = fileNodeEndTime.get().get(filesPath.get(j));
                     for (String deltaObject : endTimeI.keySet()) {
                         if (startTimeJ.containsKey(deltaObject)
                                 && startTimeI.get(deltaObject) > endTimeJ.get(deltaObject)) {
@@ -660,6 +639,7 @@ public class ServerServiceImpl implements ServerService.Iface {
                     }
                 } catch (FileNodeManagerException e) {
                     LOGGER.error("IoTDB receiver : Can not load external file because {}", e.getMessage());
+                    throw new TException(String.format("Can not load external file %s", path), e);
                 }
 
                 num++;
@@ -277,7 +277,7 @@ public class OverflowQPExecutor extends QueryProcessExecutor {
         String measurementId = path.getMeasurementToString();
 
         try {
-            TSDataType type = mManager.getSeriesType(deltaObjectId + "," + measurementId);
+            TSDataType type = mManager.getSeriesType(path.getFullPath());
             TSRecord tsRecord = new TSRecord(timestamp, deltaObjectId);
             DataPoint dataPoint = DataPoint.getDataPoint(type, measurementId, value);
             tsRecord.addTuple(dataPoint);
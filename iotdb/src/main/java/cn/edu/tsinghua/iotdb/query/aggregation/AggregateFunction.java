@@ -1,8 +1,10 @@
 package cn.edu.tsinghua.iotdb.query.aggregation;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupBucket;
 import cn.edu.tsinghua.iotdb.query.reader.InsertDynamicData;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
 import cn.edu.tsinghua.tsfile.common.utils.Binary;
+import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
 import cn.edu.tsinghua.tsfile.timeseries.read.query.DynamicOneColumnData;
@@ -34,6 +36,21 @@ public abstract class AggregateFunction {
      */
     public abstract void calculateValueFromPageHeader(PageHeader pageHeader) throws ProcessorException;
 
+    /**
+     * <p>
+     * Calculate the aggregation using the digest of a whole series chunk, so that
+     * none of the pages of the chunk need to be read.
+     * </p>
+     *
+     * @param minTime the min timestamp of the series chunk
+     * @param maxTime the max timestamp of the series chunk
+     * @param numRows the number of points in the series chunk
+     * @param digest  <code>TsDigest</code> of the series chunk
+     * @return false if the digest lacks the statistics needed, the pages of the chunk must be read then
+     */
+    public abstract boolean calculateValueFromSeriesDigest(long minTime, long maxTime, long numRows, TsDigest digest)
+            throws ProcessorException;
+
     /**
      * <p>
      * Could not calculate using <method>calculateValueFromPageHeader</method> directly.
@@ -85,6 +102,50 @@ public abstract class AggregateFunction {
     public abstract void calcGroupByAggregation(long partitionStart, long partitionEnd, long intervalStart, long intervalEnd,
                                                 DynamicOneColumnData data) throws ProcessorException;
 
+    /**
+     * <p>
+     * This method is calculate the group by function using the rollup of the points in the intersection of the
+     * partition and an interval, see {@link RollupBucket}.
+     * </p>
+     *
+     * @param partitionStart
+     * @param bucket the rollup of the points, which has no point if the intersection has no point
+     */
+    public abstract void calcGroupByAggregation(long partitionStart, RollupBucket bucket) throws ProcessorException;
+
+    /**
+     * Put an empty time for the partition, if it has neither a time nor an empty time yet.
+     *
+     * @return true if the partition is a new one
+     */
+    protected boolean putEmptyTimeOfPartition(long partitionStart) {
+        if (resultData.emptyTimeLength == 0) {
+            if (resultData.timeLength == 0 || resultData.getTime(resultData.timeLength - 1) != partitionStart) {
+                resultData.putEmptyTime(partitionStart);
+                return true;
+            }
+        } else if ((resultData.getEmptyTime(resultData.emptyTimeLength - 1) != partitionStart)
+                && (resultData.timeLength == 0 || resultData.getTime(resultData.timeLength - 1) != partitionStart)) {
+            resultData.putEmptyTime(partitionStart);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replace the empty time of the partition by a time, if the partition has no value yet.
+     *
+     * @return true if the value of the partition should be put, otherwise it is the last value
+     */
+    protected boolean putTimeOfPartition(long partitionStart) {
+        if (resultData.emptyTimeLength > 0 && resultData.getEmptyTime(resultData.emptyTimeLength - 1) == partitionStart) {
+            resultData.removeLastEmptyTime();
+            resultData.putTime(partitionStart);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Convert a value from string to its real data type and put into return data.
      * @param valueStr
@@ -1,9 +1,11 @@
 package cn.edu.tsinghua.iotdb.query.aggregation.impl;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupBucket;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregateFunction;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregationConstant;
 import cn.edu.tsinghua.iotdb.query.reader.InsertDynamicData;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
+import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
 import cn.edu.tsinghua.tsfile.timeseries.read.query.DynamicOneColumnData;
@@ -40,6 +42,17 @@ public class CountAggrFunc extends AggregateFunction {
 
     }
 
+    @Override
+    public boolean calculateValueFromSeriesDigest(long minTime, long maxTime, long numRows, TsDigest digest) {
+        if (resultData.timeLength == 0) {
+            resultData.putTime(0);
+            resultData.putLong(0);
+        }
+
+        resultData.setLong(0, resultData.getLong(0) + numRows);
+        return true;
+    }
+
     @Override
     public void calculateValueFromDataPage(DynamicOneColumnData dataInThisPage) throws IOException, ProcessorException {
         if (resultData.timeLength == 0) {
@@ -137,4 +150,17 @@ public class CountAggrFunc extends AggregateFunction {
             }
         }
     }
+
+    @Override
+    public void calcGroupByAggregation(long partitionStart, RollupBucket bucket) {
+        putEmptyTimeOfPartition(partitionStart);
+        if (bucket.getCount() > 0) {
+            if (putTimeOfPartition(partitionStart)) {
+                resultData.putLong(bucket.getCount());
+            } else {
+                long preSum = resultData.getLong(resultData.valueLength - 1);
+                resultData.setLong(resultData.valueLength - 1, preSum + bucket.getCount());
+            }
+        }
+    }
 }
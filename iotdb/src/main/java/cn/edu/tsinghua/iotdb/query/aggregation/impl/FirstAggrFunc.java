@@ -1,9 +1,11 @@
 package cn.edu.tsinghua.iotdb.query.aggregation.impl;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupBucket;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregateFunction;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregationConstant;
 import cn.edu.tsinghua.iotdb.query.reader.InsertDynamicData;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
+import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
 import cn.edu.tsinghua.tsfile.timeseries.filter.utils.DigestForFilter;
@@ -39,6 +41,23 @@ public class FirstAggrFunc extends AggregateFunction{
         resultData.putAnObject(digestForFilter.getMaxValue());
     }
 
+    @Override
+    public boolean calculateValueFromSeriesDigest(long minTime, long maxTime, long numRows, TsDigest digest) {
+        ByteBuffer firstVal = digest.getStatistics().get(AggregationConstant.FIRST);
+        if (firstVal == null) {
+            return false;
+        }
+        if(resultData.timeLength == 0)
+            initFirst();
+        if (resultData.getTime(0) != -1) {
+            return true;
+        }
+        resultData.setTime(0, 0);
+        DigestForFilter digestForFilter = new DigestForFilter(firstVal, firstVal, dataType);
+        resultData.putAnObject(digestForFilter.getMaxValue());
+        return true;
+    }
+
     @Override
     public void calculateValueFromDataPage(DynamicOneColumnData dataInThisPage) throws IOException, ProcessorException {
         //logger.error("Using page to aggregate");
@@ -129,6 +148,15 @@ public class FirstAggrFunc extends AggregateFunction{
         }
     }
 
+    @Override
+    public void calcGroupByAggregation(long partitionStart, RollupBucket bucket) {
+        putEmptyTimeOfPartition(partitionStart);
+        // the partition keeps the value got before
+        if (bucket.getCount() > 0 && putTimeOfPartition(partitionStart)) {
+            resultData.putAnObject(bucket.getFirstValue());
+        }
+    }
+
     // add a place holder
     private void initFirst() {
         resultData.putTime(-1);
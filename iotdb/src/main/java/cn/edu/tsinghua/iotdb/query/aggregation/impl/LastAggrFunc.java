@@ -1,9 +1,11 @@
 package cn.edu.tsinghua.iotdb.query.aggregation.impl;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupBucket;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregateFunction;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregationConstant;
 import cn.edu.tsinghua.iotdb.query.reader.InsertDynamicData;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
+import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.Digest;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
@@ -11,6 +13,7 @@ import cn.edu.tsinghua.tsfile.timeseries.filter.utils.DigestForFilter;
 import cn.edu.tsinghua.tsfile.timeseries.read.query.DynamicOneColumnData;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 public class LastAggrFunc extends AggregateFunction {
@@ -39,6 +42,22 @@ public class LastAggrFunc extends AggregateFunction {
         updateLast(val);
     }
 
+    @Override
+    public boolean calculateValueFromSeriesDigest(long minTime, long maxTime, long numRows, TsDigest digest) {
+        ByteBuffer lastVal = digest.getStatistics().get(AggregationConstant.LAST);
+        if (lastVal == null) {
+            return false;
+        }
+        if (resultData.timeLength == 0) {
+            resultData.putTime(0);
+        }
+
+        DigestForFilter digestForFilter = new DigestForFilter(lastVal, lastVal, dataType);
+        Comparable<?> val = digestForFilter.getMaxValue();
+        updateLast(val);
+        return true;
+    }
+
     @Override
     public void calculateValueFromDataPage(DynamicOneColumnData dataInThisPage) throws IOException, ProcessorException {
         if (resultData.timeLength == 0) {
@@ -140,6 +159,18 @@ public class LastAggrFunc extends AggregateFunction {
         }
     }
 
+    @Override
+    public void calcGroupByAggregation(long partitionStart, RollupBucket bucket) {
+        putEmptyTimeOfPartition(partitionStart);
+        if (bucket.getCount() > 0) {
+            if (putTimeOfPartition(partitionStart)) {
+                resultData.putAnObject(bucket.getLastValue());
+            } else {
+                resultData.setAnObject(resultData.valueLength - 1, bucket.getLastValue());
+            }
+        }
+    }
+
     private void updateLast(Comparable<?> lastVal) {
         if (!hasSetValue) {
             resultData.putAnObject(lastVal);
@@ -1,9 +1,11 @@
 package cn.edu.tsinghua.iotdb.query.aggregation.impl;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupBucket;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregateFunction;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregationConstant;
 import cn.edu.tsinghua.iotdb.query.reader.InsertDynamicData;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
+import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
 import cn.edu.tsinghua.tsfile.timeseries.read.query.DynamicOneColumnData;
@@ -32,6 +34,16 @@ public class MaxTimeAggrFunc extends AggregateFunction {
         updateMaxTime(timestamp);
     }
 
+    @Override
+    public boolean calculateValueFromSeriesDigest(long minTime, long maxTime, long numRows, TsDigest digest) {
+        if (resultData.timeLength == 0) {
+            resultData.putTime(0);
+        }
+
+        updateMaxTime(maxTime);
+        return true;
+    }
+
     @Override
     public void calculateValueFromDataPage(DynamicOneColumnData dataInThisPage) throws IOException, ProcessorException {
         if (resultData.timeLength == 0) {
@@ -132,6 +144,18 @@ public class MaxTimeAggrFunc extends AggregateFunction {
         }
     }
 
+    @Override
+    public void calcGroupByAggregation(long partitionStart, RollupBucket bucket) {
+        putEmptyTimeOfPartition(partitionStart);
+        if (bucket.getCount() > 0) {
+            if (putTimeOfPartition(partitionStart)) {
+                resultData.putLong(bucket.getMaxTime());
+            } else if (bucket.getMaxTime() > resultData.getLong(resultData.valueLength - 1)) {
+                resultData.setLong(resultData.valueLength - 1, bucket.getMaxTime());
+            }
+        }
+    }
+
     private void updateMaxTime(long timestamp) {
         if (!hasSetValue) {
             resultData.putLong(timestamp);
@@ -1,10 +1,12 @@
 package cn.edu.tsinghua.iotdb.query.aggregation.impl;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupBucket;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregateFunction;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregationConstant;
 import cn.edu.tsinghua.iotdb.query.reader.InsertDynamicData;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
 import cn.edu.tsinghua.tsfile.common.utils.BytesUtils;
+import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
 import cn.edu.tsinghua.tsfile.timeseries.read.query.DynamicOneColumnData;
@@ -43,6 +45,21 @@ public class MeanAggrFunc extends AggregateFunction{
         updateMean();
     }
 
+    @Override
+    public boolean calculateValueFromSeriesDigest(long minTime, long maxTime, long numRows, TsDigest digest) {
+        ByteBuffer sumVal = digest.getStatistics().get(AggregationConstant.SUM);
+        if (sumVal == null) {
+            return false;
+        }
+        if (resultData.timeLength == 0)
+            resultData.putTime(0);
+
+        sum += BytesUtils.bytesToDouble(sumVal.array());
+        cnt += numRows;
+        updateMean();
+        return true;
+    }
+
     @Override
     public void calculateValueFromDataPage(DynamicOneColumnData dataInThisPage) throws IOException, ProcessorException {
         // TODO : update mean or update sum?
@@ -136,6 +153,16 @@ public class MeanAggrFunc extends AggregateFunction{
         }
     }
 
+    @Override
+    public void calcGroupByAggregation(long partitionStart, RollupBucket bucket) {
+        if (putEmptyTimeOfPartition(partitionStart)) {
+            reset();
+        }
+        sum += bucket.getSum();
+        cnt += bucket.getCount();
+        groupUpdateMean(partitionStart);
+    }
+
     /**
      *  Update sum use all data in a column.
      * @param data
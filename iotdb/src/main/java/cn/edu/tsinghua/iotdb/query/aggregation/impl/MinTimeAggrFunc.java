@@ -1,9 +1,11 @@
 package cn.edu.tsinghua.iotdb.query.aggregation.impl;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupBucket;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregateFunction;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregationConstant;
 import cn.edu.tsinghua.iotdb.query.reader.InsertDynamicData;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
+import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
 import cn.edu.tsinghua.tsfile.timeseries.read.query.DynamicOneColumnData;
@@ -32,6 +34,16 @@ public class MinTimeAggrFunc extends AggregateFunction {
         updateMinTime(timestamp);
     }
 
+    @Override
+    public boolean calculateValueFromSeriesDigest(long minTime, long maxTime, long numRows, TsDigest digest) {
+        if (resultData.timeLength == 0) {
+            resultData.putTime(0);
+        }
+
+        updateMinTime(minTime);
+        return true;
+    }
+
     @Override
     public void calculateValueFromDataPage(DynamicOneColumnData dataInThisPage) throws IOException, ProcessorException {
         if (resultData.timeLength == 0) {
@@ -129,6 +141,18 @@ public class MinTimeAggrFunc extends AggregateFunction {
         }
     }
 
+    @Override
+    public void calcGroupByAggregation(long partitionStart, RollupBucket bucket) {
+        putEmptyTimeOfPartition(partitionStart);
+        if (bucket.getCount() > 0) {
+            if (putTimeOfPartition(partitionStart)) {
+                resultData.putLong(bucket.getMinTime());
+            } else if (bucket.getMinTime() < resultData.getLong(resultData.valueLength - 1)) {
+                resultData.setLong(resultData.valueLength - 1, bucket.getMinTime());
+            }
+        }
+    }
+
 
     private void updateMinTime(long timestamp) {
         if (!hasSetValue) {
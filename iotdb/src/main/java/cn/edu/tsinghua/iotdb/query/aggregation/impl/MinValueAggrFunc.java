@@ -1,11 +1,13 @@
 package cn.edu.tsinghua.iotdb.query.aggregation.impl;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupBucket;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregateFunction;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregationConstant;
 import cn.edu.tsinghua.iotdb.query.reader.InsertDynamicData;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
 import cn.edu.tsinghua.tsfile.common.exception.UnSupportedDataTypeException;
 import cn.edu.tsinghua.tsfile.common.utils.Binary;
+import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.Digest;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
@@ -13,6 +15,7 @@ import cn.edu.tsinghua.tsfile.timeseries.filter.utils.DigestForFilter;
 import cn.edu.tsinghua.tsfile.timeseries.read.query.DynamicOneColumnData;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 public class MinValueAggrFunc extends AggregateFunction {
@@ -39,6 +42,21 @@ public class MinValueAggrFunc extends AggregateFunction {
         updateMinValue(minv);
     }
 
+    @Override
+    public boolean calculateValueFromSeriesDigest(long minTime, long maxTime, long numRows, TsDigest digest) {
+        ByteBuffer minVal = digest.getStatistics().get(AggregationConstant.MIN_VALUE);
+        if (minVal == null) {
+            return false;
+        }
+        if (resultData.timeLength == 0) {
+            resultData.putTime(0);
+        }
+
+        DigestForFilter digestForFilter = new DigestForFilter(minVal, minVal, dataType);
+        updateMinValue(digestForFilter.getMinValue());
+        return true;
+    }
+
     @Override
     public void calculateValueFromDataPage(DynamicOneColumnData dataInThisPage) throws IOException, ProcessorException {
         if (resultData.timeLength == 0) {
@@ -139,6 +157,19 @@ public class MinValueAggrFunc extends AggregateFunction {
         }
     }
 
+    @Override
+    public void calcGroupByAggregation(long partitionStart, RollupBucket bucket) {
+        putEmptyTimeOfPartition(partitionStart);
+        Comparable<?> minValue = bucket.getMinValue();
+        if (minValue != null) {
+            if (putTimeOfPartition(partitionStart)) {
+                resultData.putAnObject(minValue);
+            } else if (compare(minValue, resultData.getAnObject(resultData.valueLength - 1)) < 0) {
+                resultData.setAnObject(resultData.valueLength - 1, minValue);
+            }
+        }
+    }
+
     private void updateMinValue(Comparable<?> minv) {
         if (!hasSetValue) {
             resultData.putAnObject(minv);
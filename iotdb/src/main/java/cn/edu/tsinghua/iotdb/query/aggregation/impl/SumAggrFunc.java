@@ -1,10 +1,12 @@
 package cn.edu.tsinghua.iotdb.query.aggregation.impl;
 
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupBucket;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregateFunction;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregationConstant;
 import cn.edu.tsinghua.iotdb.query.reader.InsertDynamicData;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
 import cn.edu.tsinghua.tsfile.common.utils.BytesUtils;
+import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
 import cn.edu.tsinghua.tsfile.timeseries.read.query.DynamicOneColumnData;
@@ -43,6 +45,22 @@ public class SumAggrFunc extends AggregateFunction {
         updateSum();
     }
 
+    @Override
+    public boolean calculateValueFromSeriesDigest(long minTime, long maxTime, long numRows, TsDigest digest) {
+        ByteBuffer sumVal = digest.getStatistics().get(AggregationConstant.SUM);
+        if (sumVal == null) {
+            return false;
+        }
+        if (resultData.timeLength == 0)
+            resultData.putTime(0);
+        if (numRows > 0)
+            hasValue = true;
+
+        sum += BytesUtils.bytesToDouble(sumVal.array());
+        updateSum();
+        return true;
+    }
+
     @Override
     public void calculateValueFromDataPage(DynamicOneColumnData dataInThisPage) throws IOException, ProcessorException {
         // TODO : update mean or update sum?
@@ -136,6 +154,18 @@ public class SumAggrFunc extends AggregateFunction {
         }
     }
 
+    @Override
+    public void calcGroupByAggregation(long partitionStart, RollupBucket bucket) {
+        if (putEmptyTimeOfPartition(partitionStart)) {
+            reset();
+        }
+        if (bucket.getCount() > 0) {
+            sum += bucket.getSum();
+            hasValue = true;
+        }
+        groupUpdateMean(partitionStart);
+    }
+
     /**
      *  Update sum use all data in a column.
      * @param data
@@ -1,8 +1,8 @@
 package cn.edu.tsinghua.iotdb.query.engine;
 
-import cn.edu.tsinghua.iotdb.concurrent.IoTDBThreadPoolFactory;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
 import cn.edu.tsinghua.iotdb.engine.filenode.FileNodeManager;
+import cn.edu.tsinghua.iotdb.engine.pool.AggregateManager;
 import cn.edu.tsinghua.iotdb.exception.FileNodeManagerException;
 import cn.edu.tsinghua.iotdb.exception.PathErrorException;
 import cn.edu.tsinghua.iotdb.metadata.MManager;
@@ -28,8 +28,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static cn.edu.tsinghua.iotdb.query.engine.EngineUtils.noFilterOrOnlyHasTimeFilter;
 
@@ -45,7 +46,10 @@ public class AggregateEngine {
     private int crossQueryFetchSize =
             10 * TsfileDBDescriptor.getInstance().getConfig().fetchSize;
 
-    //private ExecutorService aggregateThreadPool;
+    /** the maximum number of threads aggregating the series of this query **/
+    private int aggregateParallelism =
+            TsfileDBDescriptor.getInstance().getConfig().aggregateParallelismPerQuery;
+
 //    private AggregateEngine() {
 //    }
 
@@ -181,7 +185,8 @@ public class AggregateEngine {
             if (aggregateTimestamps.size() == 0)
                 break;
 
-            //TODO optimize it using multi process
+            // the series are aggregated by this thread, because their record readers are used again
+            // for the next batch and keep the sealed files opened by the thread which first read them
 
             hasAnyUnReadDataFlag = false;
             int aggregationPathOrdinal = 0;
@@ -242,11 +247,8 @@ public class AggregateEngine {
             throws PathErrorException, ProcessorException, IOException {
 
         int aggreNumber = 0;
-        CountDownLatch latch = new CountDownLatch(aggres.size());
-        ExecutorService service = IoTDBThreadPoolFactory.newFixedThreadPool(Runtime.getRuntime().availableProcessors() - 1,
-                "AggregateThread");
-        //ExecutorService service = Executors.newFixedThreadPool(aggres.size());
-
+        List<AggregateRecordReader> recordReaders = new ArrayList<>();
+        List<AggregateFunction> aggregateFunctions = new ArrayList<>();
         for (Pair<Path, AggregateFunction> pair : aggres) {
             aggreNumber++;
             Path path = pair.left;
@@ -254,44 +256,94 @@ public class AggregateEngine {
 
             String deltaObjectUID = path.getDeltaObjectToString();
             String measurementUID = path.getMeasurementToString();
+            // the record readers are constructed by this thread, which holds the read tokens of the query
             AggregateRecordReader recordReader = (AggregateRecordReader)
                     RecordReaderFactory.getInstance().getRecordReader(deltaObjectUID, measurementUID,
                             queryTimeFilter, null, null, ReadCachePrefix.addQueryPrefix(aggreNumber), ReaderType.AGGREGATE);
-            service.submit(new AggregateThread(recordReader, aggregateFunction, latch));
+            recordReaders.add(recordReader);
+            aggregateFunctions.add(aggregateFunction);
         }
 
-        try {
-            latch.await();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        // the series are divided among at most aggregateParallelismPerQuery threads
+        int parallelism = Math.min(aggregateParallelism, recordReaders.size());
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            futures.add(AggregateManager.getInstance()
+                    .submit(new AggregateThread(recordReaders, aggregateFunctions, i, parallelism)));
         }
-
-        service.shutdown();
+        waitForAggregateThreads(futures);
     }
 
-    private class AggregateThread implements Runnable {
-
-        private AggregateRecordReader aggregateRecordReader;
-        private AggregateFunction aggregateFunction;
-        private CountDownLatch latch;
+    /**
+     * Wait until all the threads of the query end, so that none of them is
+     * still reading when the query releases its readers, and then throw the
+     * first error of them. The wait is not interruptible, since a running
+     * thread can't be stopped by cancelling its future, and the interrupt is
+     * restored after all the threads end.
+     */
+    static void waitForAggregateThreads(List<Future<Void>> futures) throws ProcessorException, IOException {
+        Throwable error = null;
+        boolean interrupted = false;
+        for (Future<Void> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    if (error == null) {
+                        error = e;
+                    }
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error instanceof ProcessorException) {
+            throw (ProcessorException) error;
+        } else if (error != null) {
+            throw new ProcessorException(error);
+        }
+    }
 
-        public AggregateThread(AggregateRecordReader aggregateRecordReader, AggregateFunction aggregateFunction, CountDownLatch latch) {
-            this.aggregateRecordReader = aggregateRecordReader;
-            this.aggregateFunction = aggregateFunction;
-            this.latch = latch;
+    /**
+     * Aggregate the series of the given offset, the offset plus the step, and
+     * so on.
+     */
+    private class AggregateThread implements Callable<Void> {
+
+        private List<AggregateRecordReader> recordReaders;
+        private List<AggregateFunction> aggregateFunctions;
+        private int offset;
+        private int step;
+
+        public AggregateThread(List<AggregateRecordReader> recordReaders, List<AggregateFunction> aggregateFunctions,
+                               int offset, int step) {
+            this.recordReaders = recordReaders;
+            this.aggregateFunctions = aggregateFunctions;
+            this.offset = offset;
+            this.step = step;
         }
 
         @Override
-        public void run() {
+        public Void call() throws ProcessorException, IOException {
             try {
-                aggregateRecordReader .aggregate(aggregateFunction);
-//                FileNodeManager.getInstance().endQuery(deltaObjectUID, recordReader.getReadToken());
-//                ReadCacheManager.getInstance().removeReadToken(deltaObjectUID, recordReader.getReadToken());
+                for (int i = offset; i < recordReaders.size(); i += step) {
+                    recordReaders.get(i).aggregate(aggregateFunctions.get(i));
+                }
+            } finally {
+                // the sealed files read above are opened by this thread
                 FileReaderMap.getInstance().close();
-                latch.countDown();
-            } catch (ProcessorException | IOException  e) {
-                e.printStackTrace();
             }
+            return null;
         }
     }
 
@@ -1,9 +1,11 @@
 package cn.edu.tsinghua.iotdb.query.engine;
 
+import cn.edu.tsinghua.iotdb.engine.cache.LastValueCache;
 import cn.edu.tsinghua.iotdb.exception.PathErrorException;
 import cn.edu.tsinghua.iotdb.metadata.MManager;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggreFuncFactory;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregateFunction;
+import cn.edu.tsinghua.iotdb.query.aggregation.AggregationConstant;
 import cn.edu.tsinghua.iotdb.query.engine.groupby.GroupByEngineNoFilter;
 import cn.edu.tsinghua.iotdb.query.engine.groupby.GroupByEngineWithFilter;
 import cn.edu.tsinghua.iotdb.query.fill.IFill;
@@ -110,7 +112,15 @@ public class OverflowQueryEngine {
             aggregations.add(new Pair<>(pair.left, aggregateFunction));
         }
 
-        new AggregateEngine().multiAggregate(aggregations, filterStructures);
+        // the last and max_time of the whole series are answered by the last points, which are cached
+        List<Pair<Path, AggregateFunction>> readAggregations = aggregations;
+        if (LastValueCache.getInstance().isEnabled() && (filterStructures == null || filterStructures.isEmpty()
+                || (filterStructures.size() == 1 && filterStructures.get(0).noFilter()))) {
+            readAggregations = aggregateByLastPoints(aggregations);
+        }
+        if (!readAggregations.isEmpty()) {
+            new AggregateEngine().multiAggregate(readAggregations, filterStructures);
+        }
         OnePassQueryDataSet ansOnePassQueryDataSet = new OnePassQueryDataSet();
         for (Pair<Path, AggregateFunction> pair : aggregations) {
             AggregateFunction aggregateFunction = pair.right;
@@ -125,6 +135,40 @@ public class OverflowQueryEngine {
         return ansOnePassQueryDataSet;
     }
 
+    /**
+     * Calculate the last and max_time aggregations using the last points of their series.
+     *
+     * @return the other aggregations, which have to read the data
+     */
+    private List<Pair<Path, AggregateFunction>> aggregateByLastPoints(List<Pair<Path, AggregateFunction>> aggregations)
+            throws ProcessorException, IOException, PathErrorException {
+        List<Pair<Path, AggregateFunction>> readAggregations = new ArrayList<>();
+        // the last point of a series is got once, since its record reader can't be read twice
+        Map<String, LastValueCache.LastPoint> lastPoints = new HashMap<>();
+        for (Pair<Path, AggregateFunction> pair : aggregations) {
+            AggregateFunction aggregateFunction = pair.right;
+            if (!aggregateFunction.name.equals(AggregationConstant.LAST)
+                    && !aggregateFunction.name.equals(AggregationConstant.MAX_TIME)) {
+                readAggregations.add(pair);
+                continue;
+            }
+            LastValueCache.LastPoint lastPoint = lastPoints.get(pair.left.getFullPath());
+            if (lastPoint == null) {
+                lastPoint = PreviousFill.getLastPoint(pair.left.getDeltaObjectToString(), pair.left.getMeasurementToString());
+                lastPoints.put(pair.left.getFullPath(), lastPoint);
+            }
+            if (lastPoint.hasPoint()) {
+                aggregateFunction.resultData.putTime(0);
+                if (aggregateFunction.name.equals(AggregationConstant.LAST)) {
+                    aggregateFunction.resultData.putAnObject(lastPoint.getTimeValuePair().getValue().getValue());
+                } else {
+                    aggregateFunction.resultData.putLong(lastPoint.getTimeValuePair().getTimestamp());
+                }
+            }
+        }
+        return readAggregations;
+    }
+
     /**
      * Group by function implementation.
      *
@@ -1,11 +1,15 @@
 package cn.edu.tsinghua.iotdb.query.engine.groupby;
 
 import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupManager;
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupSeries;
 import cn.edu.tsinghua.iotdb.exception.PathErrorException;
+import cn.edu.tsinghua.iotdb.metadata.MManager;
 import cn.edu.tsinghua.iotdb.query.aggregation.AggregateFunction;
 import cn.edu.tsinghua.iotdb.query.management.ReadCachePrefix;
 import cn.edu.tsinghua.iotdb.query.reader.QueryRecordReader;
 import cn.edu.tsinghua.iotdb.query.reader.ReaderType;
+import cn.edu.tsinghua.iotdb.query.reader.RecordReader;
 import cn.edu.tsinghua.iotdb.query.reader.RecordReaderFactory;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
 import cn.edu.tsinghua.tsfile.common.utils.Pair;
@@ -66,6 +70,12 @@ public class  GroupByEngineNoFilter {
 
     private SingleSeriesFilterExpression queryTimeFilter;
 
+    /** the interval of the rollups read instead of the points, or 0 if the points must be read **/
+    private long rollupInterval;
+
+    /** HashMap to record the rollup series of each aggregation Path, which is null if its points must be read **/
+    private Map<String, RollupSeries> rollupSeriesMap = new HashMap<>();
+
     public GroupByEngineNoFilter(List<Pair<Path, AggregateFunction>> aggregations, SingleSeriesFilterExpression queryTimeFilter,
                                   long origin, long unit, SingleSeriesFilterExpression intervals, int partitionFetchSize) {
         this.aggregations = aggregations;
@@ -92,6 +102,8 @@ public class  GroupByEngineNoFilter {
             long intervalStart = longInterval.flag[0] ? longInterval.v[0] : longInterval.v[0] + 1;
             this.origin = origin - (long)Math.ceil((double)(origin-intervalStart) / unit) * unit;
         }
+
+        this.rollupInterval = chooseRollupInterval();
     }
 
     public OnePassQueryDataSet groupBy()
@@ -144,6 +156,13 @@ public class  GroupByEngineNoFilter {
                     Path path = pair.left;
                     AggregateFunction aggregateFunction = pair.right;
                     String aggregationKey = aggregationKey(aggregateFunction, path);
+                    RollupSeries rollupSeries = getRollupSeries(path, aggregationKey, aggregationOrdinal);
+                    if (rollupSeries != null) {
+                        // the partition and the interval are both made of whole buckets
+                        aggregateFunction.calcGroupByAggregation(partitionStart, rollupSeries.aggregate(
+                                Math.max(partitionStart, intervalStart), Math.min(partitionEnd, intervalEnd)));
+                        continue;
+                    }
                     DynamicOneColumnData data = queryPathResult.get(aggregationKey);
                     if (data == null || (data.curIdx >= data.timeLength && !data.hasReadAll)) {
                         data = readOneColumnWithoutFilter(path, data, null, aggregationOrdinal);
@@ -200,6 +219,75 @@ public class  GroupByEngineNoFilter {
         return groupByResult;
     }
 
+    /**
+     * Choose the largest interval of the rollups which the unit is a multiple of, and to which the origin and the
+     * bounds of the intervals and the time filter are aligned, so that every partition is made of whole buckets.
+     *
+     * @return 0 if there is no such interval
+     */
+    private long chooseRollupInterval() {
+        LongInterval timeInterval = queryTimeFilter == null ? null :
+                (LongInterval) FilterVerifier.create(TSDataType.INT64).getInterval(queryTimeFilter);
+        for (long interval : RollupManager.getInstance().getIntervals()) {
+            if (unit % interval == 0 && Math.floorMod(origin, interval) == 0 && isAligned(longInterval, interval)
+                    && (timeInterval == null || isAligned(timeInterval, interval))) {
+                return interval;
+            }
+        }
+        return 0;
+    }
+
+    private boolean isAligned(LongInterval interval, long rollupInterval) {
+        for (int i = 0; i < interval.count; i += 2) {
+            long start = interval.flag[i] ? interval.v[i] : interval.v[i] + 1;
+            long end = interval.flag[i + 1] ? interval.v[i + 1] : interval.v[i + 1] - 1;
+            if ((start != Long.MIN_VALUE && Math.floorMod(start, rollupInterval) != 0)
+                    || (end != Long.MAX_VALUE && Math.floorMod(end + 1, rollupInterval) != 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RollupSeries getRollupSeries(Path path, String aggregationKey, int aggregationOrdinal)
+            throws ProcessorException, IOException, PathErrorException {
+        if (rollupInterval <= 0) {
+            return null;
+        }
+        if (!rollupSeriesMap.containsKey(aggregationKey)) {
+            rollupSeriesMap.put(aggregationKey, readRollupSeries(path, aggregationOrdinal));
+        }
+        return rollupSeriesMap.get(aggregationKey);
+    }
+
+    /**
+     * @return the rollup series of the points satisfying the time filter, or null if the points must be read
+     */
+    private RollupSeries readRollupSeries(Path path, int aggregationOrdinal)
+            throws ProcessorException, IOException, PathErrorException {
+        if (!RollupManager.getInstance().isEnabled(MManager.getInstance().getFileNameByPath(path.getFullPath()))) {
+            return null;
+        }
+        String recordReaderPrefix = ReadCachePrefix.addQueryPrefix(aggregationOrdinal);
+        RecordReader recordReader = RecordReaderFactory.getInstance().getRecordReader(path.getDeltaObjectToString(),
+                path.getMeasurementToString(), queryTimeFilter, null, null, recordReaderPrefix, ReaderType.QUERY);
+        List<Pair<Long, Long>> timeRanges = null;
+        if (queryTimeFilter != null) {
+            LongInterval timeInterval = (LongInterval) FilterVerifier.create(TSDataType.INT64).getInterval(queryTimeFilter);
+            timeRanges = new ArrayList<>();
+            for (int i = 0; i < timeInterval.count; i += 2) {
+                timeRanges.add(new Pair<>(timeInterval.flag[i] ? timeInterval.v[i] : timeInterval.v[i] + 1,
+                        timeInterval.flag[i + 1] ? timeInterval.v[i + 1] : timeInterval.v[i + 1] - 1));
+            }
+        }
+        RollupSeries rollupSeries = recordReader.getRollupSeries(rollupInterval, timeRanges);
+        if (rollupSeries == null) {
+            LOG.debug("Read the points of {} since some of them have no rollup", path);
+            return null;
+        }
+        return timeRanges == null ? rollupSeries : rollupSeries.retain(timeRanges);
+    }
+
     private DynamicOneColumnData readOneColumnWithoutFilter(Path path, DynamicOneColumnData res, Integer readLock, int aggregationOrdinal)
             throws ProcessorException, IOException, PathErrorException {
 
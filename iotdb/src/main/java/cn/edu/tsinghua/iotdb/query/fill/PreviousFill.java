@@ -1,6 +1,7 @@
 package cn.edu.tsinghua.iotdb.query.fill;
 
 
+import cn.edu.tsinghua.iotdb.engine.cache.LastValueCache;
 import cn.edu.tsinghua.iotdb.exception.PathErrorException;
 import cn.edu.tsinghua.iotdb.query.management.ReadCachePrefix;
 import cn.edu.tsinghua.iotdb.query.reader.FillRecordReader;
@@ -59,6 +60,22 @@ public class PreviousFill extends IFill {
 
         String deltaObjectId = path.getDeltaObjectToString();
         String measurementId = path.getMeasurementToString();
+
+        // the fill of the latest values is answered by the last point, which is cached
+        LastValueCache.LastPoint lastPoint = LastValueCache.getInstance().get(deltaObjectId, measurementId);
+        if (lastPoint == null && LastValueCache.getInstance().isEnabled()) {
+            lastPoint = getLastPoint(deltaObjectId, measurementId);
+        }
+        if (lastPoint != null && (!lastPoint.hasPoint() || lastPoint.getTimeValuePair().getTimestamp() <= queryTime)) {
+            if (lastPoint.hasPoint() && lastPoint.getTimeValuePair().getTimestamp() >= beforeTime) {
+                result.putTime(queryTime);
+                result.putAnObject(lastPoint.getTimeValuePair().getValue().getValue());
+            } else {
+                result.putEmptyTime(queryTime);
+            }
+            return result;
+        }
+
         String recordReaderPrefix = ReadCachePrefix.addQueryPrefix("PreviousFill", -1);
 
         FillRecordReader recordReader = (FillRecordReader) RecordReaderFactory.getInstance().getRecordReader(deltaObjectId, measurementId,
@@ -68,4 +85,24 @@ public class PreviousFill extends IFill {
 
         return result;
     }
+
+    /**
+     * Get the last point of the series from {@link LastValueCache}, or read it and put it into the cache.
+     */
+    public static LastValueCache.LastPoint getLastPoint(String deltaObjectId, String measurementId)
+            throws ProcessorException, IOException, PathErrorException {
+        LastValueCache lastValueCache = LastValueCache.getInstance();
+        LastValueCache.LastPoint lastPoint = lastValueCache.get(deltaObjectId, measurementId);
+        if (lastPoint != null) {
+            return lastPoint;
+        }
+
+        // the series must be registered before its data is got
+        long version = lastValueCache.getVersion(deltaObjectId, measurementId);
+        String recordReaderPrefix = ReadCachePrefix.addQueryPrefix("LastPoint", -1);
+        FillRecordReader recordReader = (FillRecordReader) RecordReaderFactory.getInstance().getRecordReader(deltaObjectId, measurementId,
+                null, null, null, recordReaderPrefix, ReaderType.FILL);
+
+        return lastValueCache.put(deltaObjectId, measurementId, recordReader.getLastPoint(), version);
+    }
 }
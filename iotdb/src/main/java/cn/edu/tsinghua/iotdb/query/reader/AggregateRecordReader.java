@@ -217,6 +217,16 @@ public class AggregateRecordReader extends RecordReader {
             }
         }
 
+        // calculate the whole series chunk using its digest if the chunk lies in the time filter and is not changed
+        // by overflow data, only the boundary chunks of the time filter need to be read
+        if (queryValueFilter == null && valueReader.getNumRows() > 0
+                && canCalcAggregationUsingHeader(valueReader.getStartTime(), valueReader.getEndTime(), insertMemoryData)
+                && func.calculateValueFromSeriesDigest(valueReader.getStartTime(), valueReader.getEndTime(), valueReader.getNumRows(), digest)) {
+            logger.debug("calculate aggregation without filter using the series digest");
+            usedPageOffset = -1;
+            return;
+        }
+
         ByteArrayInputStream bis = valueReader.initBAISForOnePage(usedPageOffset);
         PageReader pageReader = new PageReader(bis, valueReader.compressionTypeName);
 
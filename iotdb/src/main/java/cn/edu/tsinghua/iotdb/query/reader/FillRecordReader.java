@@ -9,10 +9,15 @@ import cn.edu.tsinghua.tsfile.timeseries.filter.definition.SingleSeriesFilterExp
 import cn.edu.tsinghua.tsfile.timeseries.read.RowGroupReader;
 import cn.edu.tsinghua.tsfile.timeseries.read.ValueReader;
 import cn.edu.tsinghua.tsfile.timeseries.read.query.DynamicOneColumnData;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
 
 import java.io.IOException;
 import java.util.List;
 
+import static cn.edu.tsinghua.tsfile.timeseries.filter.definition.FilterFactory.gtEq;
+import static cn.edu.tsinghua.tsfile.timeseries.filter.definition.FilterFactory.timeFilterSeries;
+
 public class FillRecordReader extends RecordReader{
 
     public FillRecordReader(GlobalSortedSeriesDataSource globalSortedSeriesDataSource, OverflowSeriesDataSource overflowSeriesDataSource,
@@ -33,6 +38,39 @@ public class FillRecordReader extends RecordReader{
     public void getPreviousFillResult(DynamicOneColumnData result, SingleSeriesFilterExpression fillTimeFilter, long beforeTime, long queryTime)
             throws IOException {
 
+        getPreviousPoint(result, fillTimeFilter, beforeTime, queryTime);
+
+        if (result.valueLength == 0) {
+            result.putEmptyTime(queryTime);
+        } else {
+            result.setTime(0, queryTime);
+        }
+    }
+
+    /**
+     * Get the last point of the series.
+     *
+     * @return the last point, or null if the series has no point
+     * @throws IOException file read error
+     */
+    public TimeValuePair getLastPoint() throws IOException {
+        DynamicOneColumnData result = new DynamicOneColumnData(dataType, true, true);
+        SingleSeriesFilterExpression fillTimeFilter = gtEq(timeFilterSeries(), 0L, true);
+
+        getPreviousPoint(result, fillTimeFilter, 0, Long.MAX_VALUE);
+
+        if (result.valueLength == 0) {
+            return null;
+        }
+        return new TimeValuePair(result.getTime(0), TsPrimitiveType.getByType(dataType, result.getAnObject(0)));
+    }
+
+    /**
+     * Put the point whose time is the biggest one in [beforeTime, queryTime] into the result, with its own time.
+     */
+    private void getPreviousPoint(DynamicOneColumnData result, SingleSeriesFilterExpression fillTimeFilter,
+                                  long beforeTime, long queryTime) throws IOException {
+
         List<RowGroupReader> rowGroupReaderList = tsFileReaderManager.getRowGroupReaderListByDeltaObject(deltaObjectId, fillTimeFilter);
 
         for (RowGroupReader rowGroupReader : rowGroupReaderList) {
@@ -56,12 +94,6 @@ public class FillRecordReader extends RecordReader{
         }
         // get fill result in InsertMemoryData
         FillProcessor.getPreviousFillResultInMemory(result, insertMemoryData, beforeTime, queryTime);
-
-        if (result.valueLength == 0) {
-            result.putEmptyTime(queryTime);
-        } else {
-            result.setTime(0, queryTime);
-        }
     }
 
     /**
@@ -2,8 +2,15 @@ package cn.edu.tsinghua.iotdb.query.reader;
 
 import cn.edu.tsinghua.iotdb.engine.filenode.IntervalFileNode;
 import cn.edu.tsinghua.iotdb.engine.querycontext.GlobalSortedSeriesDataSource;
+import cn.edu.tsinghua.iotdb.engine.querycontext.OverflowInsertFile;
 import cn.edu.tsinghua.iotdb.engine.querycontext.OverflowSeriesDataSource;
+import cn.edu.tsinghua.iotdb.engine.querycontext.OverflowUpdateDeleteFile;
 import cn.edu.tsinghua.iotdb.engine.querycontext.RawSeriesChunk;
+import cn.edu.tsinghua.iotdb.engine.querycontext.UnsealedTsFile;
+import cn.edu.tsinghua.iotdb.engine.querycontext.UpdateDeleteInfoOfOneSeries;
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupManager;
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupSeries;
+import cn.edu.tsinghua.iotdb.engine.rollup.TsFileRollup;
 import cn.edu.tsinghua.iotdb.exception.PathErrorException;
 import cn.edu.tsinghua.iotdb.metadata.MManager;
 import cn.edu.tsinghua.iotdb.query.management.FileReaderMap;
@@ -11,6 +18,7 @@ import cn.edu.tsinghua.iotdb.query.management.ReaderManager;
 import cn.edu.tsinghua.iotdb.queryV2.engine.overflow.OverflowOperationReader;
 import cn.edu.tsinghua.iotdb.queryV2.engine.reader.series.OverflowInsertDataReader;
 import cn.edu.tsinghua.iotdb.queryV2.factory.SeriesReaderFactory;
+import cn.edu.tsinghua.tsfile.common.utils.Pair;
 import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
@@ -19,11 +27,13 @@ import cn.edu.tsinghua.tsfile.timeseries.filter.utils.Interval;
 import cn.edu.tsinghua.tsfile.timeseries.filter.visitorImpl.SingleValueVisitor;
 import cn.edu.tsinghua.tsfile.timeseries.read.TsRandomAccessLocalFileReader;
 import cn.edu.tsinghua.tsfile.timeseries.read.ValueReader;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import static cn.edu.tsinghua.iotdb.query.reader.ReaderUtils.getSingleValueVisitorByDataType;
@@ -83,6 +93,10 @@ public class RecordReader {
 
     protected int readToken;
 
+    /** the data sources, which are kept to get the rollups of the series **/
+    protected GlobalSortedSeriesDataSource globalSortedSeriesDataSource;
+    protected OverflowSeriesDataSource overflowSeriesDataSource;
+
     public RecordReader(GlobalSortedSeriesDataSource globalSortedSeriesDataSource, OverflowSeriesDataSource overflowSeriesDataSource,
                         String deltaObjectId, String measurementId,
                         SingleSeriesFilterExpression queryTimeFilter, SingleSeriesFilterExpression queryValueFilter, int readToken)
@@ -134,6 +148,123 @@ public class RecordReader {
         }
 
         this.readToken = readToken;
+        this.globalSortedSeriesDataSource = globalSortedSeriesDataSource;
+        this.overflowSeriesDataSource = overflowSeriesDataSource;
+    }
+
+    /**
+     * Get the rollup series of all the points of the series in the interval, which is made of the rollups of the
+     * sealed tsfiles, the rollups of the unsealed tsfile and the points in memory, see {@link RollupSeries}. The
+     * sealed tsfiles are in time order, so their rollups are appended rather than merged one by one.
+     *
+     * @param timeRanges the sorted and disjoint time ranges [left, right] of the query, the sealed tsfiles out of
+     *                   them are skipped. It is null if the query has no time filter.
+     * @return null if some points of the series have no rollup, e.g. the points of the tsfiles merged or the points
+     * changed by overflow data, so that the points must be read
+     */
+    public RollupSeries getRollupSeries(long interval, List<Pair<Long, Long>> timeRanges) throws IOException {
+        if (!RollupSeries.isSupported(dataType) || hasOverflowData()) {
+            return null;
+        }
+        RollupSeries rollupSeries = new RollupSeries(dataType, interval);
+        for (IntervalFileNode fileNode : globalSortedSeriesDataSource.getSealedTsFiles()) {
+            if (!fileNode.getStartTimeMap().containsKey(deltaObjectId) || !overlaps(fileNode, timeRanges)) {
+                continue;
+            }
+            TsFileRollup fileRollup = RollupManager.getInstance().getSealedFileRollup(fileNode.getFilePath(),
+                    deltaObjectId, measurementId);
+            rollupSeries = appendRollupSeries(rollupSeries, fileRollup, interval);
+            if (rollupSeries == null) {
+                return null;
+            }
+        }
+        UnsealedTsFile unsealedTsFile = globalSortedSeriesDataSource.getUnsealedTsFile();
+        if (unsealedTsFile != null) {
+            rollupSeries = appendRollupSeries(rollupSeries, unsealedTsFile.getRollup(), interval);
+            if (rollupSeries == null) {
+                return null;
+            }
+        }
+        if (memRawSeriesChunk != null && !memRawSeriesChunk.isEmpty()) {
+            RollupSeries memRollupSeries = new RollupSeries(dataType, interval);
+            Iterator<TimeValuePair> iterator = memRawSeriesChunk.getIterator();
+            while (iterator.hasNext()) {
+                TimeValuePair timeValuePair = iterator.next();
+                memRollupSeries.add(timeValuePair.getTimestamp(), timeValuePair.getValue());
+            }
+            if (!rollupSeries.appendInOrder(memRollupSeries)) {
+                rollupSeries = rollupSeries.merge(memRollupSeries);
+            }
+        }
+        return rollupSeries;
+    }
+
+    /**
+     * @return whether the points of the series in the sealed tsfile may be in one of the time ranges
+     */
+    private boolean overlaps(IntervalFileNode fileNode, List<Pair<Long, Long>> timeRanges) {
+        long startTime = fileNode.getStartTime(deltaObjectId);
+        long endTime = fileNode.getEndTime(deltaObjectId);
+        if (timeRanges == null || endTime < 0) {
+            return true;
+        }
+        for (Pair<Long, Long> timeRange : timeRanges) {
+            if (timeRange.left <= endTime && timeRange.right >= startTime) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Append the rollup series of the tsfile to the given one, which is built by this reader and not shared. It is
+     * merged instead if it isn't after the given one.
+     *
+     * @return null if the tsfile has no rollup of the series in the interval
+     */
+    private RollupSeries appendRollupSeries(RollupSeries rollupSeries, TsFileRollup fileRollup, long interval) {
+        if (fileRollup == null || !fileRollup.hasInterval(interval)) {
+            return null;
+        }
+        RollupSeries fileRollupSeries = fileRollup.getRollupSeries(deltaObjectId, measurementId, interval);
+        if (fileRollupSeries == null) {
+            // the tsfile has no point of the series
+            return rollupSeries;
+        }
+        if (fileRollupSeries.getDataType() != dataType) {
+            return null;
+        }
+        return rollupSeries.appendInOrder(fileRollupSeries) ? rollupSeries : rollupSeries.merge(fileRollupSeries);
+    }
+
+    private boolean hasOverflowData() {
+        if (overflowSeriesDataSource.hasRawSeriesChunk()) {
+            return true;
+        }
+        if (overflowSeriesDataSource.getOverflowInsertFileList() != null) {
+            for (OverflowInsertFile overflowInsertFile : overflowSeriesDataSource.getOverflowInsertFileList()) {
+                if (overflowInsertFile.getTimeSeriesChunkMetaDatas() != null
+                        && !overflowInsertFile.getTimeSeriesChunkMetaDatas().isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        UpdateDeleteInfoOfOneSeries updateDeleteInfoOfOneSeries = overflowSeriesDataSource.getUpdateDeleteInfoOfOneSeries();
+        if (updateDeleteInfoOfOneSeries != null) {
+            if (updateDeleteInfoOfOneSeries.getOverflowUpdateInMem() != null
+                    && updateDeleteInfoOfOneSeries.getOverflowUpdateInMem().valueLength > 0) {
+                return true;
+            }
+            if (updateDeleteInfoOfOneSeries.getOverflowUpdateFileList() != null) {
+                for (OverflowUpdateDeleteFile overflowUpdateDeleteFile : updateDeleteInfoOfOneSeries.getOverflowUpdateFileList()) {
+                    if (overflowUpdateDeleteFile.getTimeSeriesChunkMetaDataList() != null
+                            && !overflowUpdateDeleteFile.getTimeSeriesChunkMetaDataList().isEmpty()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
     }
 
     public void closeFileStream() {
@@ -1,22 +1,37 @@
 package cn.edu.tsinghua.iotdb.queryV2.engine.control;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
 import cn.edu.tsinghua.iotdb.utils.CommonUtils;
+import cn.edu.tsinghua.tsfile.timeseries.read.TsRandomAccessMMapFileReader;
 
 /**
  * Manager all file streams opened by overflow. Every overflow's read job has a unique ID which is saved in corresponding
  * SeriesReader
+ * <p>
+ * The sealed TsFiles read through memory mapping are mapped once and shared by all the jobs, see
+ * {@link #getMappedReader(Long, String)}. When no job reads a mapping any more, it is kept for the next jobs as
+ * long as the idle mappings are within {@code sealedFileMappingCacheSize} bytes, beyond which the least recently
+ * released ones are unmapped. A mapping is also released after its file is removed by
+ * {@link #removeSealedFile(String)} and all the jobs reading it are closed.
  * Created by zhangjinrui on 2018/1/18.
  */
 public class OverflowFileStreamManager {
@@ -27,6 +42,32 @@ public class OverflowFileStreamManager {
 
     private AtomicInteger mappedByteBufferUsage = new AtomicInteger();
 
+    /** key: the path of the sealed TsFile, guarded by this */
+    private Map<String, SealedFileMapping> sealedFileMappings = new HashMap<>();
+    /** key: the job ID, value: the mappings read by the job, guarded by this */
+    private Map<Long, Set<SealedFileMapping>> jobMappings = new HashMap<>();
+    /** the mappings read by no job in the order they are released, key: the path, guarded by this */
+    private LinkedHashMap<String, SealedFileMapping> idleMappings = new LinkedHashMap<>();
+    /** the total size of the idle mappings, guarded by this */
+    private long idleMappingSize;
+
+    private TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+
+    private static class SealedFileMapping {
+        private final String path;
+        private final TsRandomAccessMMapFileReader reader;
+        private final long size;
+        /** the number of the jobs reading the mapping */
+        private int references;
+        private boolean removed;
+
+        private SealedFileMapping(String path, TsRandomAccessMMapFileReader reader, long size) {
+            this.path = path;
+            this.reader = reader;
+            this.size = size;
+        }
+    }
+
     private OverflowFileStreamManager() {
         fileStreamStore = new ConcurrentHashMap<>();
     }
@@ -86,6 +127,129 @@ public class OverflowFileStreamManager {
             }
             fileStreamStore.remove(jobId);
         }
+        releaseMappings(jobId);
+    }
+
+    /**
+     * Get a reader of the sealed TsFile for the job, which reads the mapping of the file shared by all the jobs.
+     * The file is mapped by the first job reading it, or reuses the idle mapping left by the earlier jobs.
+     */
+    public synchronized TsRandomAccessMMapFileReader getMappedReader(Long jobId, String path) throws IOException {
+        SealedFileMapping mapping = sealedFileMappings.get(path);
+        if (mapping == null) {
+            // the mapping stays valid after the file is closed
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(path, "r")) {
+                mapping = new SealedFileMapping(path, new TsRandomAccessMMapFileReader(randomAccessFile),
+                        randomAccessFile.length());
+            }
+            sealedFileMappings.put(path, mapping);
+        }
+        if (jobMappings.computeIfAbsent(jobId, k -> new HashSet<>()).add(mapping)) {
+            if (mapping.references == 0 && idleMappings.remove(path) != null) {
+                idleMappingSize -= mapping.size;
+            }
+            mapping.references++;
+        }
+        return mapping.reader.duplicate();
+    }
+
+    private synchronized void releaseMappings(Long jobId) {
+        Set<SealedFileMapping> mappings = jobMappings.remove(jobId);
+        if (mappings == null) {
+            return;
+        }
+        for (SealedFileMapping mapping : mappings) {
+            mapping.references--;
+            if (mapping.references > 0) {
+                continue;
+            }
+            if (mapping.removed) {
+                unmap(mapping);
+            } else {
+                idleMappings.put(mapping.path, mapping);
+                idleMappingSize += mapping.size;
+            }
+        }
+        evictIdleMappings();
+    }
+
+    /**
+     * Unmap the least recently released idle mappings until they are within sealedFileMappingCacheSize.
+     */
+    private void evictIdleMappings() {
+        Iterator<SealedFileMapping> iterator = idleMappings.values().iterator();
+        while (idleMappingSize > config.sealedFileMappingCacheSize && iterator.hasNext()) {
+            SealedFileMapping mapping = iterator.next();
+            iterator.remove();
+            idleMappingSize -= mapping.size;
+            sealedFileMappings.remove(mapping.path);
+            unmap(mapping);
+        }
+    }
+
+    /**
+     * Remove the mapping of the sealed TsFile, which is merged or deleted. It is unmapped after the jobs reading it
+     * are closed.
+     */
+    public synchronized void removeSealedFile(String path) {
+        SealedFileMapping mapping = sealedFileMappings.remove(path);
+        if (mapping != null) {
+            removeMapping(mapping);
+        }
+    }
+
+    /**
+     * Remove the mappings of all the sealed TsFiles in the directory, which is deleted.
+     */
+    public synchronized void removeSealedDirectory(String dirPath) {
+        String prefix = dirPath.endsWith(File.separator) ? dirPath : dirPath + File.separator;
+        removeSealedFiles(path -> path.startsWith(prefix));
+    }
+
+    /**
+     * Remove the mappings of all the sealed TsFiles, when the filenode processors are closed.
+     */
+    public synchronized void removeAllSealedFiles() {
+        removeSealedFiles(path -> true);
+    }
+
+    private void removeSealedFiles(Predicate<String> pathFilter) {
+        Iterator<SealedFileMapping> iterator = sealedFileMappings.values().iterator();
+        while (iterator.hasNext()) {
+            SealedFileMapping mapping = iterator.next();
+            if (pathFilter.test(mapping.path)) {
+                iterator.remove();
+                removeMapping(mapping);
+            }
+        }
+    }
+
+    private void removeMapping(SealedFileMapping mapping) {
+        mapping.removed = true;
+        if (mapping.references == 0) {
+            if (idleMappings.remove(mapping.path) != null) {
+                idleMappingSize -= mapping.size;
+            }
+            unmap(mapping);
+        }
+    }
+
+    private void unmap(SealedFileMapping mapping) {
+        for (MappedByteBuffer buffer : mapping.reader.getMappedBuffers()) {
+            try {
+                CommonUtils.destroyBuffer(buffer);
+            } catch (Exception e) {
+                LOGGER.error("Failed to unmap the sealed file {} because of {}.", mapping.path, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the number of the sealed TsFiles mapped and not removed
+     */
+    public synchronized int getSealedFileMappingNum() {
+        return sealedFileMappings.size();
     }
 
     private static class OverflowFileStreamManagerHelper {
@@ -1,18 +1,32 @@
 package cn.edu.tsinghua.iotdb.queryV2.engine.control;
 
+import cn.edu.tsinghua.iotdb.engine.cache.SeriesChunkCache;
+import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileReader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
-import cn.edu.tsinghua.tsfile.timeseries.readV2.common.SeriesChunk;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.common.MemSeriesChunk;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoader;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoaderImpl;
 
 import java.io.IOException;
 
 /**
+ * Loads the series chunks of a sealed TsFile through {@link SeriesChunkCache}, which is shared by all the queries.
+ * The chunks missed by the cache are read by {@link SeriesChunkLoaderImpl}.
+ *
  * Created by zhangjinrui on 2018/1/24.
  */
 public class SeriesChunkLoaderIoTDBImpl implements SeriesChunkLoader{
 
+    private String filePath;
+    private SeriesChunkLoader fileSeriesChunkLoader;
+
+    public SeriesChunkLoaderIoTDBImpl(String filePath, ITsRandomAccessFileReader randomAccessFileReader) {
+        this.filePath = filePath;
+        this.fileSeriesChunkLoader = new SeriesChunkLoaderImpl(randomAccessFileReader);
+    }
+
     @Override
-    public SeriesChunk getMemSeriesChunk(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor) throws IOException {
-        return null;
+    public MemSeriesChunk getMemSeriesChunk(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor) throws IOException {
+        return SeriesChunkCache.getInstance().get(filePath, encodedSeriesChunkDescriptor, fileSeriesChunkLoader);
     }
 }
@@ -106,7 +106,7 @@ public class SeriesMetadataQuerierIoTDBImpl {
     }
 
     private SeriesChunkDescriptor generateSeriesChunkDescriptorByMetadata(String filePath, TimeSeriesChunkMetaData timeSeriesChunkMetaData) {
-        SeriesChunkDescriptor seriesChunkDescriptor = new EncodedSeriesChunkDescriptor(
+        EncodedSeriesChunkDescriptor seriesChunkDescriptor = new EncodedSeriesChunkDescriptor(
                 filePath,
                 timeSeriesChunkMetaData.getProperties().getFileOffset(),
                 timeSeriesChunkMetaData.getTotalByteSize(),
@@ -117,6 +117,7 @@ public class SeriesMetadataQuerierIoTDBImpl {
                 timeSeriesChunkMetaData.getTInTimeSeriesChunkMetaData().getEndTime(),
                 timeSeriesChunkMetaData.getNumRows(),
                 timeSeriesChunkMetaData.getVInTimeSeriesChunkMetaData().getEnumValues());
+        seriesChunkDescriptor.setPageIndex(timeSeriesChunkMetaData.getPageIndex());
         return seriesChunkDescriptor;
     }
 
@@ -0,0 +1,102 @@
+package cn.edu.tsinghua.iotdb.queryV2.engine.reader;
+
+import cn.edu.tsinghua.iotdb.queryV2.engine.reader.PriorityTimeValuePairReader.Priority;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+
+/**
+ * A loser tree (tournament tree) over a fixed number of sources, each source has one current TimeValuePair in
+ * its slot. The winner is the slot with the smallest timestamp, and among the slots with the same timestamp the
+ * one with the highest priority, then the one with the smallest index. Replacing the value of the winner costs
+ * log(k) comparisons and no allocation, while a PriorityQueue needs a poll and an add for the same work.
+ */
+public class LoserTree {
+
+    private final int size;
+    private final TimeValuePair[] values;
+    private final Priority[] priorities;
+    /**
+     * tree[0] is the winner, tree[1 .. size - 1] are the losers of the internal nodes. Slot i is the leaf
+     * (size + i), so the parent of node n is n / 2.
+     */
+    private final int[] tree;
+
+    public LoserTree(Priority[] priorities) {
+        this.size = priorities.length;
+        this.priorities = priorities;
+        this.values = new TimeValuePair[size];
+        this.tree = new int[Math.max(size, 1)];
+    }
+
+    /**
+     * Set the first value of a slot before {@link #build()}, null if the source is empty.
+     */
+    public void set(int index, TimeValuePair value) {
+        values[index] = value;
+    }
+
+    public void build() {
+        tree[0] = size == 0 ? -1 : play(1);
+    }
+
+    private int play(int node) {
+        if (node >= size) {
+            return node - size;
+        }
+        int left = play(node * 2);
+        int right = play(node * 2 + 1);
+        if (beats(left, right)) {
+            tree[node] = right;
+            return left;
+        } else {
+            tree[node] = left;
+            return right;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0 || values[tree[0]] == null;
+    }
+
+    /**
+     * @return index of the winner slot.
+     */
+    public int getTopIndex() {
+        return tree[0];
+    }
+
+    public TimeValuePair getTop() {
+        return values[tree[0]];
+    }
+
+    /**
+     * Replace the value of the winner slot with the next value of its source, null if the source is exhausted,
+     * and replay the matches from its leaf to the root.
+     */
+    public void replaceTop(TimeValuePair value) {
+        int winner = tree[0];
+        values[winner] = value;
+        for (int node = (winner + size) / 2; node > 0; node /= 2) {
+            if (beats(tree[node], winner)) {
+                int loser = winner;
+                winner = tree[node];
+                tree[node] = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    private boolean beats(int a, int b) {
+        TimeValuePair valueA = values[a];
+        TimeValuePair valueB = values[b];
+        if (valueA == null || valueB == null) {
+            return valueB == null && (valueA != null || a < b);
+        }
+        long timeA = valueA.getTimestamp();
+        long timeB = valueB.getTimestamp();
+        if (timeA != timeB) {
+            return timeA < timeB;
+        }
+        int cmp = priorities[a].compareTo(priorities[b]);
+        return cmp != 0 ? cmp > 0 : a < b;
+    }
+}
@@ -8,16 +8,18 @@ import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.TimeValuePairReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.PriorityQueue;
 
 /**
  * Created by zhangjinrui on 2018/1/11.
+ * <p>
+ * Merges readers by timestamp, and for a timestamp in several readers only the value of the reader with the
+ * highest priority is returned. The current value of each reader is kept in a {@link LoserTree}.
  */
 public class PriorityMergeSortTimeValuePairReader <T extends PriorityTimeValuePairReader>
         implements TimeValuePairReader, SeriesReader {
 
     protected List<T> readerList;
-    protected PriorityQueue<Element> heap;
+    protected LoserTree loserTree;
 
     public PriorityMergeSortTimeValuePairReader(T... readers) throws IOException {
         readerList = new ArrayList<T>();
@@ -33,36 +35,48 @@ public class PriorityMergeSortTimeValuePairReader <T extends PriorityTimeValuePa
     }
 
     private void init() throws IOException {
-        heap = new PriorityQueue<>();
+        Priority[] priorities = new Priority[readerList.size()];
+        for (int i = 0; i < readerList.size(); i++) {
+            priorities[i] = readerList.get(i).getPriority();
+        }
+        loserTree = new LoserTree(priorities);
         for (int i = 0; i < readerList.size(); i++) {
             if (readerList.get(i).hasNext()) {
-                heap.add(new Element(i, readerList.get(i).next(), readerList.get(i).getPriority()));
+                loserTree.set(i, readerList.get(i).next());
             }
         }
+        loserTree.build();
     }
 
     @Override
     public boolean hasNext() throws IOException {
-        return heap.size() > 0;
+        return !loserTree.isEmpty();
     }
 
     @Override
     public TimeValuePair next() throws IOException {
-        Element top = heap.peek();
-        updateHeap(top);
-        return top.timeValuePair;
+        TimeValuePair top = loserTree.getTop();
+        updateTree(top.getTimestamp());
+        return top;
     }
 
-    private void updateHeap(Element top) throws IOException {
-        while (heap.size() > 0 && heap.peek().timeValuePair.getTimestamp() == top.timeValuePair.getTimestamp()) {
-            Element e = heap.poll();
-            PriorityTimeValuePairReader priorityTimeValuePairReader = readerList.get(e.index);
-            if (priorityTimeValuePairReader.hasNext()) {
-                heap.add(new Element(e.index, priorityTimeValuePairReader.next(), priorityTimeValuePairReader.getPriority()));
-            }
+    /**
+     * Move every reader whose current value is at the given timestamp to its next value.
+     */
+    protected void updateTree(long timestamp) throws IOException {
+        while (!loserTree.isEmpty() && loserTree.getTop().getTimestamp() == timestamp) {
+            loserTree.replaceTop(nextOf(loserTree.getTopIndex(), timestamp));
         }
     }
 
+    /**
+     * @return the next value of the reader after its current value at the given timestamp, null if there is none.
+     */
+    protected TimeValuePair nextOf(int index, long timestamp) throws IOException {
+        T reader = readerList.get(index);
+        return reader.hasNext() ? reader.next() : null;
+    }
+
     @Override
     public void skipCurrentTimeValuePair() throws IOException {
         if (hasNext()) {
@@ -76,23 +90,4 @@ public class PriorityMergeSortTimeValuePairReader <T extends PriorityTimeValuePa
             timeValuePairReader.close();
         }
     }
-
-    protected class Element implements Comparable<Element> {
-        int index;
-        TimeValuePair timeValuePair;
-        Priority priority;
-
-        public Element(int index, TimeValuePair timeValuePair, Priority priority) {
-            this.index = index;
-            this.timeValuePair = timeValuePair;
-            this.priority = priority;
-        }
-
-        @Override
-        public int compareTo(Element o) {
-            return this.timeValuePair.getTimestamp() > o.timeValuePair.getTimestamp() ? 1 :
-                    this.timeValuePair.getTimestamp() < o.timeValuePair.getTimestamp() ? -1 :
-                            o.priority.compareTo(this.priority);
-        }
-    }
 }
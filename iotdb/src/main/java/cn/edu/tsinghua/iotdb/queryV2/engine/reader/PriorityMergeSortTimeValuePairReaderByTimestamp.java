@@ -34,12 +34,12 @@ public class PriorityMergeSortTimeValuePairReaderByTimestamp extends PriorityMer
         if(hasCachedTimeValuePair && cachedTimeValuePair.getTimestamp() >= currentTimestamp){
             return true;
         }
-        while (heap.size()>0){
-            Element top = heap.peek();
-            updateHeap(top);
-            if(top.timeValuePair.getTimestamp() >= currentTimestamp){
+        while (!loserTree.isEmpty()){
+            TimeValuePair top = loserTree.getTop();
+            updateTree(top.getTimestamp());
+            if(top.getTimestamp() >= currentTimestamp){
                 hasCachedTimeValuePair = true;
-                cachedTimeValuePair = top.timeValuePair;
+                cachedTimeValuePair = top;
                 return true;
             }
         }
@@ -53,34 +53,22 @@ public class PriorityMergeSortTimeValuePairReaderByTimestamp extends PriorityMer
             return cachedTimeValuePair;
         }
 
-        Element top = heap.peek();
-        updateHeap(top);
-        return top.timeValuePair;
+        TimeValuePair top = loserTree.getTop();
+        updateTree(top.getTimestamp());
+        return top;
     }
 
-    private void updateHeap(Element top) throws IOException {
-        while (heap.size() > 0 && heap.peek().timeValuePair.getTimestamp() == top.timeValuePair.getTimestamp()) {
-            Element e = heap.poll();
-            PriorityTimeValuePairReaderByTimestamp priorityTimeValuePairReader = readerList.get(e.index);
-
-            if(currentTimestamp > top.timeValuePair.getTimestamp()){
-                TsPrimitiveType value = priorityTimeValuePairReader.getValueInTimestamp(currentTimestamp);
-                if(value != null){
-                    heap.add(new Element(e.index, new TimeValuePair(currentTimestamp, value), priorityTimeValuePairReader.getPriority()));
-                }
-                else {
-                    //judge if priorityTimeValuePairReader has a timeValuePair whose time > currentTimestamp when it doesn't has a timeValuePair in currentTimestamp
-                    if (priorityTimeValuePairReader.hasNext()) {
-                        heap.add(new Element(e.index, priorityTimeValuePairReader.next(), priorityTimeValuePairReader.getPriority()));
-                    }
-                }
-            }
-            else {
-                if (priorityTimeValuePairReader.hasNext()) {
-                    heap.add(new Element(e.index, priorityTimeValuePairReader.next(), priorityTimeValuePairReader.getPriority()));
-                }
+    @Override
+    protected TimeValuePair nextOf(int index, long timestamp) throws IOException {
+        PriorityTimeValuePairReaderByTimestamp priorityTimeValuePairReader = readerList.get(index);
+        if(currentTimestamp > timestamp){
+            TsPrimitiveType value = priorityTimeValuePairReader.getValueInTimestamp(currentTimestamp);
+            if(value != null){
+                return new TimeValuePair(currentTimestamp, value);
             }
+            //judge if priorityTimeValuePairReader has a timeValuePair whose time > currentTimestamp when it doesn't has a timeValuePair in currentTimestamp
         }
+        return priorityTimeValuePairReader.hasNext() ? priorityTimeValuePairReader.next() : null;
     }
 
     @Override
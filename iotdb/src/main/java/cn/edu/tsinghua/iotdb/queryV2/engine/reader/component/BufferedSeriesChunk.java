@@ -10,10 +10,10 @@ import java.io.InputStream;
  */
 public class BufferedSeriesChunk implements SeriesChunk {
 
-    private SegmentInputStream seriesChunkInputStream;
+    private InputStream seriesChunkInputStream;
     private SeriesChunkDescriptor seriesChunkDescriptor;
 
-    public BufferedSeriesChunk(SegmentInputStream seriesChunkInputStream, SeriesChunkDescriptor seriesChunkDescriptor) {
+    public BufferedSeriesChunk(InputStream seriesChunkInputStream, SeriesChunkDescriptor seriesChunkDescriptor) {
         this.seriesChunkInputStream = seriesChunkInputStream;
         this.seriesChunkDescriptor = seriesChunkDescriptor;
     }
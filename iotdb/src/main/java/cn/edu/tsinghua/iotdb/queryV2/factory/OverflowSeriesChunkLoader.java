@@ -3,7 +3,7 @@ package cn.edu.tsinghua.iotdb.queryV2.factory;
 import cn.edu.tsinghua.iotdb.queryV2.engine.control.OverflowFileStreamManager;
 import cn.edu.tsinghua.iotdb.queryV2.engine.reader.component.BufferedSeriesChunk;
 import cn.edu.tsinghua.iotdb.queryV2.engine.reader.component.SegmentInputStream;
-import cn.edu.tsinghua.iotdb.queryV2.engine.reader.component.SegmentInputStreamWithMMap;
+import cn.edu.tsinghua.tsfile.common.utils.ByteBufferInputStream;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.SeriesChunk;
 import org.slf4j.Logger;
@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 
 /**
@@ -30,9 +31,11 @@ public class OverflowSeriesChunkLoader {
         if (overflowFileStreamManager.contains(scDescriptor.getFilePath()) || (new File(scDescriptor.getFilePath()).length() +
                 overflowFileStreamManager.getMappedByteBufferUsage().get()  < Integer.MAX_VALUE)) {
             MappedByteBuffer buffer = overflowFileStreamManager.get(scDescriptor.getFilePath());
-            return new BufferedSeriesChunk(
-                    new SegmentInputStreamWithMMap(buffer, scDescriptor.getOffsetInFile(), scDescriptor.getLengthOfBytes()),
-                    scDescriptor);
+            // read the pages from a slice of the mapped file without copying them
+            ByteBuffer seriesChunkBuffer = buffer.duplicate();
+            seriesChunkBuffer.position((int) scDescriptor.getOffsetInFile());
+            seriesChunkBuffer.limit((int) (scDescriptor.getOffsetInFile() + scDescriptor.getLengthOfBytes()));
+            return new BufferedSeriesChunk(new ByteBufferInputStream(seriesChunkBuffer.slice()), scDescriptor);
         } else {
             RandomAccessFile randomAccessFile = overflowFileStreamManager.get(jobId, scDescriptor.getFilePath());
             return new BufferedSeriesChunk(
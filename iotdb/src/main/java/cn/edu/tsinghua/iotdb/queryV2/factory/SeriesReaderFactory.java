@@ -24,7 +24,6 @@ import cn.edu.tsinghua.tsfile.timeseries.readV2.common.SeriesChunkDescriptor;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.MetadataQuerier;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoaderImpl;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.SeriesReader;
-import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.SeriesReaderByTimeStamp;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,8 +86,9 @@ public class SeriesReaderFactory {
         List<PriorityTimeValuePairReaderByTimestamp> timeValuePairReaders = new ArrayList<>();
         for (EncodedSeriesChunkDescriptor seriesChunkDescriptor : seriesChunkDescriptorList) {
             SeriesChunk seriesChunk = overflowSeriesChunkLoader.getMemSeriesChunk(jobId, seriesChunkDescriptor);
-            SeriesReaderByTimeStamp seriesChunkReader = new SeriesChunkReaderByTimestampImpl(seriesChunk.getSeriesChunkBodyStream(),
+            SeriesChunkReaderByTimestampImpl seriesChunkReader = new SeriesChunkReaderByTimestampImpl(seriesChunk.getSeriesChunkBodyStream(),
                     seriesChunkDescriptor.getDataType(), seriesChunkDescriptor.getCompressionTypeName());
+            seriesChunkReader.setPageIndex(seriesChunkDescriptor.getPageIndex());
             PriorityTimeValuePairReaderByTimestamp priorityTimeValuePairReader = new PriorityTimeValuePairReaderByTimestamp(seriesChunkReader,
                     new PriorityTimeValuePairReader.Priority(priorityValue));
             timeValuePairReaders.add(priorityTimeValuePairReader);
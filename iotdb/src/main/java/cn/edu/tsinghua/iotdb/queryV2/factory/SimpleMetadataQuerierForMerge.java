@@ -51,18 +51,33 @@ public class SimpleMetadataQuerierForMerge implements MetadataQuerier {
 
     @Override
     public List<EncodedSeriesChunkDescriptor> getSeriesChunkDescriptorList(Path path) throws IOException {
+        List<EncodedSeriesChunkDescriptor> encodedSeriesChunkDescriptorList = new ArrayList<>();
+        for (TimeSeriesChunkMetaData timeSeriesChunkMetaData : getSeriesChunkMetaDataList(path)) {
+            encodedSeriesChunkDescriptorList.add(generateSeriesChunkDescriptorByMetadata(timeSeriesChunkMetaData));
+        }
+        return encodedSeriesChunkDescriptorList;
+    }
+
+    /**
+     * @return the metadata of the series chunks of the path in this file, which are used to copy the chunks
+     * without decoding them
+     */
+    public List<TimeSeriesChunkMetaData> getSeriesChunkMetaDataList(Path path) throws IOException {
+        if (!fileMetaData.containsDeltaObject(path.getDeltaObjectToString())) {
+            return new ArrayList<>();
+        }
         try {
             List<RowGroupMetaData> rowGroupMetaDataList = rowGroupMetadataCache.get(path.getDeltaObjectToString());
-            List<EncodedSeriesChunkDescriptor> encodedSeriesChunkDescriptorList = new ArrayList<>();
+            List<TimeSeriesChunkMetaData> timeSeriesChunkMetaDataList = new ArrayList<>();
             for (RowGroupMetaData rowGroupMetaData : rowGroupMetaDataList) {
                 List<TimeSeriesChunkMetaData> timeSeriesChunkMetaDataListInOneRowGroup = rowGroupMetaData.getTimeSeriesChunkMetaDataList();
                 for (TimeSeriesChunkMetaData timeSeriesChunkMetaData : timeSeriesChunkMetaDataListInOneRowGroup) {
                     if (path.getMeasurementToString().equals(timeSeriesChunkMetaData.getProperties().getMeasurementUID())) {
-                        encodedSeriesChunkDescriptorList.add(generateSeriesChunkDescriptorByMetadata(timeSeriesChunkMetaData));
+                        timeSeriesChunkMetaDataList.add(timeSeriesChunkMetaData);
                     }
                 }
             }
-            return encodedSeriesChunkDescriptorList;
+            return timeSeriesChunkMetaDataList;
         } catch (CacheException e) {
             throw new IOException(e);
         }
@@ -110,6 +125,7 @@ public class SimpleMetadataQuerierForMerge implements MetadataQuerier {
                 timeSeriesChunkMetaData.getTInTimeSeriesChunkMetaData().getEndTime(),
                 timeSeriesChunkMetaData.getNumRows(),
                 timeSeriesChunkMetaData.getVInTimeSeriesChunkMetaData().getEnumValues());
+        encodedSeriesChunkDescriptor.setPageIndex(timeSeriesChunkMetaData.getPageIndex());
         return encodedSeriesChunkDescriptor;
     }
 
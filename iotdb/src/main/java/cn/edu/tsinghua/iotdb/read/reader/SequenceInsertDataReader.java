@@ -1,18 +1,23 @@
 package cn.edu.tsinghua.iotdb.read.reader;
 
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
 import cn.edu.tsinghua.iotdb.engine.filenode.IntervalFileNode;
 import cn.edu.tsinghua.iotdb.engine.querycontext.GlobalSortedSeriesDataSource;
 import cn.edu.tsinghua.iotdb.engine.querycontext.UnsealedTsFile;
 import cn.edu.tsinghua.iotdb.queryV2.engine.control.OverflowFileStreamManager;
 import cn.edu.tsinghua.iotdb.queryV2.engine.control.QueryJobManager;
+import cn.edu.tsinghua.iotdb.queryV2.engine.control.SeriesChunkLoaderIoTDBImpl;
 import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileReader;
 import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkMetaData;
 import cn.edu.tsinghua.tsfile.timeseries.read.TsRandomAccessLocalFileReader;
 import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.MetadataQuerierByFileImpl;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoaderImpl;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.BatchReader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.SeriesReader;
 
 import java.io.FileNotFoundException;
@@ -33,6 +38,15 @@ public abstract class SequenceInsertDataReader implements SeriesReader {
     private boolean hasSeriesReaderInitialized;
     private int nextSeriesReaderIndex;
     private SeriesReader currentSeriesReader;
+    /**
+     * The batch whose points are being returned, if the current reader is read in batches. The readers of TsFiles
+     * decode a page at once, so their points are taken from the batches instead of through their point methods.
+     */
+    private BatchData currentBatch;
+    /**
+     * the points of a reader which is not read in batches, collected when this reader is read in batches
+     */
+    private BatchData pointBatch;
 
     public SequenceInsertDataReader(GlobalSortedSeriesDataSource sortedSeriesDataSource){
         path = sortedSeriesDataSource.getSeriesPath();
@@ -45,33 +59,68 @@ public abstract class SequenceInsertDataReader implements SeriesReader {
 
     @Override
     public boolean hasNext() throws IOException {
-        if(hasSeriesReaderInitialized && currentSeriesReader.hasNext()){
+        if(currentBatch != null && currentBatch.hasNext()){
             return true;
         }
-        else {
-            hasSeriesReaderInitialized = false;
-        }
+        currentBatch = null;
 
-        while (nextSeriesReaderIndex < seriesReaders.size()){
+        while (hasSeriesReaderInitialized || nextSeriesReaderIndex < seriesReaders.size()){
             if(!hasSeriesReaderInitialized){
                 currentSeriesReader = seriesReaders.get(nextSeriesReaderIndex++);
                 hasSeriesReaderInitialized = true;
             }
-            if(currentSeriesReader.hasNext()){
-                return true;
+            if(currentSeriesReader instanceof BatchReader){
+                BatchReader batchReader = (BatchReader) currentSeriesReader;
+                if(batchReader.hasNextBatch()){
+                    currentBatch = batchReader.nextBatch();
+                    return true;
+                }
             }
-            else {
-                hasSeriesReaderInitialized = false;
+            else if(currentSeriesReader.hasNext()){
+                return true;
             }
+            hasSeriesReaderInitialized = false;
         }
         return false;
     }
 
     @Override
     public TimeValuePair next() throws IOException {
+        if(!hasNext()){
+            throw new IOException("No more TimeValuePair in current reader");
+        }
+        if(currentBatch != null){
+            TimeValuePair timeValuePair = currentBatch.currentTimeValuePair();
+            currentBatch.next();
+            return timeValuePair;
+        }
         return currentSeriesReader.next();
     }
 
+    /**
+     * Must be called after {@link #hasNext()} returns true.
+     *
+     * @return the remaining points of the current batch, or the following points of the current reader collected
+     * into a batch if it is not read in batches. The batch may be reused by the following call.
+     */
+    protected BatchData nextBatchOfCurrentReader() throws IOException {
+        if(currentBatch != null){
+            BatchData batch = currentBatch;
+            currentBatch = null;
+            return batch;
+        }
+        TimeValuePair first = currentSeriesReader.next();
+        if(pointBatch == null || pointBatch.getDataType() != first.getValue().getDataType()){
+            pointBatch = new BatchData(first.getValue().getDataType());
+        }
+        pointBatch.setLength(0);
+        pointBatch.putTimeValuePair(first);
+        while (pointBatch.length() < pointBatch.capacity() && currentSeriesReader.hasNext()){
+            pointBatch.putTimeValuePair(currentSeriesReader.next());
+        }
+        return pointBatch;
+    }
+
     @Override
     public void skipCurrentTimeValuePair() throws IOException {
         next();
@@ -84,6 +133,29 @@ public abstract class SequenceInsertDataReader implements SeriesReader {
         }
     }
 
+    /**
+     * Sealed TsFiles are not modified any more, so they can be read through the memory mapping shared by the queries.
+     */
+    protected ITsRandomAccessFileReader getSealedTsFileReader(String filePath) throws IOException {
+        if (TsfileDBDescriptor.getInstance().getConfig().enableMMapForSealedFile) {
+            return OverflowFileStreamManager.getInstance().getMappedReader(jobId, filePath);
+        }
+        RandomAccessFile raf = OverflowFileStreamManager.getInstance().get(jobId, filePath);
+        return new TsRandomAccessLocalFileReader(raf);
+    }
+
+    /**
+     * The series chunks of sealed TsFiles are read through the cache of uncompressed chunks shared by the queries.
+     */
+    protected SeriesChunkLoader getSealedTsFileChunkLoader(String filePath, ITsRandomAccessFileReader randomAccessFileReader) {
+        return new SeriesChunkLoaderIoTDBImpl(filePath, randomAccessFileReader);
+    }
+
+    protected List<EncodedSeriesChunkDescriptor> getSealedTsFileChunkDescriptors(ITsRandomAccessFileReader randomAccessFileReader)
+            throws IOException {
+        return new MetadataQuerierByFileImpl(randomAccessFileReader).getSeriesChunkDescriptorList(path);
+    }
+
     private EncodedSeriesChunkDescriptor generateSeriesChunkDescriptorByMetadata(TimeSeriesChunkMetaData timeSeriesChunkMetaData, String filePath) {
         EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor = new EncodedSeriesChunkDescriptor(filePath,
                 timeSeriesChunkMetaData.getProperties().getFileOffset(),
@@ -95,10 +167,11 @@ public abstract class SequenceInsertDataReader implements SeriesReader {
                 timeSeriesChunkMetaData.getTInTimeSeriesChunkMetaData().getEndTime(),
                 timeSeriesChunkMetaData.getNumRows(),
                 timeSeriesChunkMetaData.getVInTimeSeriesChunkMetaData().getEnumValues());
+        encodedSeriesChunkDescriptor.setPageIndex(timeSeriesChunkMetaData.getPageIndex());
         return encodedSeriesChunkDescriptor;
     }
 
-    protected abstract class SealedTsFileReader implements SeriesReader{
+    protected abstract class SealedTsFileReader implements SeriesReader {
 
         protected List<IntervalFileNode> sealedTsFiles;
         protected int usedIntervalFileIndex;
@@ -160,7 +233,7 @@ public abstract class SequenceInsertDataReader implements SeriesReader {
         protected abstract void initSingleTsFileReader(IntervalFileNode fileNode) throws IOException;
     }
 
-    protected abstract class UnSealedTsFileReader implements SeriesReader{
+    protected abstract class UnSealedTsFileReader implements SeriesReader {
         protected UnsealedTsFile unsealedTsFile;
         protected SeriesReader singleTsFileReader;
 
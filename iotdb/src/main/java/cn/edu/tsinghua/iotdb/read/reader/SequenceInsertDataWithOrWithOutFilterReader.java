@@ -3,7 +3,6 @@ package cn.edu.tsinghua.iotdb.read.reader;
 import cn.edu.tsinghua.iotdb.engine.filenode.IntervalFileNode;
 import cn.edu.tsinghua.iotdb.engine.querycontext.GlobalSortedSeriesDataSource;
 import cn.edu.tsinghua.iotdb.engine.querycontext.UnsealedTsFile;
-import cn.edu.tsinghua.iotdb.queryV2.engine.control.OverflowFileStreamManager;
 import cn.edu.tsinghua.iotdb.queryV2.engine.reader.series.RawSeriesChunkReaderWithFilter;
 import cn.edu.tsinghua.iotdb.queryV2.engine.reader.series.RawSeriesChunkReaderWithoutFilter;
 import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileReader;
@@ -11,18 +10,18 @@ import cn.edu.tsinghua.tsfile.timeseries.filter.utils.DigestForFilter;
 import cn.edu.tsinghua.tsfile.timeseries.filterV2.expression.QueryFilterType;
 import cn.edu.tsinghua.tsfile.timeseries.filterV2.expression.impl.SeriesFilter;
 import cn.edu.tsinghua.tsfile.timeseries.filterV2.visitor.impl.DigestFilterVisitor;
-import cn.edu.tsinghua.tsfile.timeseries.read.TsRandomAccessLocalFileReader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoader;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.BatchReader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl.SeriesReaderFromSingleFileWithFilterImpl;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl.SeriesReaderFromSingleFileWithoutFilterImpl;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.util.List;
 
 /***/
-public class SequenceInsertDataWithOrWithOutFilterReader extends SequenceInsertDataReader {
+public class SequenceInsertDataWithOrWithOutFilterReader extends SequenceInsertDataReader implements BatchReader {
     private SeriesFilter<?> filter;
 
     public SequenceInsertDataWithOrWithOutFilterReader(GlobalSortedSeriesDataSource sortedSeriesDataSource, SeriesFilter<?> filter)
@@ -47,7 +46,24 @@ public class SequenceInsertDataWithOrWithOutFilterReader extends SequenceInsertD
         }
     }
 
-    protected class SealedTsFileWithFilterReader extends SequenceInsertDataReader.SealedTsFileReader{
+    @Override
+    public boolean hasNextBatch() throws IOException {
+        return hasNext();
+    }
+
+    /**
+     * @return the satisfied points of a page of the TsFiles, or of the MemTable. The batch may be reused by the
+     * following call.
+     */
+    @Override
+    public BatchData nextBatch() throws IOException {
+        if (hasNext()) {
+            return nextBatchOfCurrentReader();
+        }
+        throw new IOException("No more batch in current reader");
+    }
+
+    protected class SealedTsFileWithFilterReader extends SequenceInsertDataReader.SealedTsFileReader implements BatchReader {
 
 
         public SealedTsFileWithFilterReader(List<IntervalFileNode> sealedTsFiles){
@@ -75,20 +91,52 @@ public class SequenceInsertDataWithOrWithOutFilterReader extends SequenceInsertD
         }
 
         protected void initSingleTsFileReader(IntervalFileNode fileNode)throws IOException {
-            RandomAccessFile raf = OverflowFileStreamManager.getInstance().get(jobId, fileNode.getFilePath());
-            ITsRandomAccessFileReader randomAccessFileReader = new TsRandomAccessLocalFileReader(raf);
+            ITsRandomAccessFileReader randomAccessFileReader = getSealedTsFileReader(fileNode.getFilePath());
+            SeriesChunkLoader seriesChunkLoader = getSealedTsFileChunkLoader(fileNode.getFilePath(), randomAccessFileReader);
+            List<EncodedSeriesChunkDescriptor> encodedSeriesChunkDescriptorList = getSealedTsFileChunkDescriptors(randomAccessFileReader);
 
             if(filter == null){
-                singleTsFileReader = new SeriesReaderFromSingleFileWithoutFilterImpl(randomAccessFileReader, path);
+                singleTsFileReader = new SeriesReaderFromSingleFileWithoutFilterImpl(randomAccessFileReader, seriesChunkLoader, encodedSeriesChunkDescriptorList);
             }
             else{
-                singleTsFileReader = new SeriesReaderFromSingleFileWithFilterImpl(randomAccessFileReader, path, filter.getFilter());
+                singleTsFileReader = new SeriesReaderFromSingleFileWithFilterImpl(randomAccessFileReader, seriesChunkLoader, encodedSeriesChunkDescriptorList, filter.getFilter());
+            }
+
+        }
+
+        @Override
+        public boolean hasNextBatch() throws IOException {
+            if(singleTsFileReaderInitialized && ((BatchReader) singleTsFileReader).hasNextBatch()){
+                return true;
             }
+            while ((usedIntervalFileIndex + 1) < sealedTsFiles.size()){
+                if(!singleTsFileReaderInitialized){
+                    IntervalFileNode fileNode = sealedTsFiles.get(++usedIntervalFileIndex);
+                    if(singleTsFileSatisfied(fileNode)) {
+                        initSingleTsFileReader(fileNode);
+                        singleTsFileReaderInitialized = true;
+                    }
+                    else {
+                        continue;
+                    }
+                }
+                if(((BatchReader) singleTsFileReader).hasNextBatch()){
+                    return true;
+                }
+                else{
+                    singleTsFileReaderInitialized = false;
+                }
+            }
+            return false;
+        }
 
+        @Override
+        public BatchData nextBatch() throws IOException {
+            return ((BatchReader) singleTsFileReader).nextBatch();
         }
     }
 
-    protected class UnSealedTsFileWithFilterReader extends SequenceInsertDataReader.UnSealedTsFileReader{
+    protected class UnSealedTsFileWithFilterReader extends SequenceInsertDataReader.UnSealedTsFileReader implements BatchReader {
         public UnSealedTsFileWithFilterReader(UnsealedTsFile unsealedTsFile) throws IOException {
             super(unsealedTsFile);
         }
@@ -102,5 +150,15 @@ public class SequenceInsertDataWithOrWithOutFilterReader extends SequenceInsertD
                 singleTsFileReader = new SeriesReaderFromSingleFileWithFilterImpl(randomAccessFileReader, seriesChunkLoader, encodedSeriesChunkDescriptorList, filter.getFilter());
             }
         }
+
+        @Override
+        public boolean hasNextBatch() throws IOException {
+            return ((BatchReader) singleTsFileReader).hasNextBatch();
+        }
+
+        @Override
+        public BatchData nextBatch() throws IOException {
+            return ((BatchReader) singleTsFileReader).nextBatch();
+        }
     }
 }
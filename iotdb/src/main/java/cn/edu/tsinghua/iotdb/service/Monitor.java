@@ -5,6 +5,7 @@ import cn.edu.tsinghua.iotdb.conf.TsFileDBConstant;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
 import cn.edu.tsinghua.iotdb.utils.OpenFileNumUtil;
+import cn.edu.tsinghua.iotdb.writelog.manager.MultiFileLogNodeManager;
 import cn.edu.tsinghua.iotdb.exception.StartupException;
 import org.apache.commons.io.FileUtils;
 
@@ -95,6 +96,11 @@ public class Monitor implements MonitorMBean, IService{
 		return OpenFileNumUtil.getInstance().get(OpenFileNumUtil.OpenFileNumStatistics.SOCKET_OPEN_FILE_NUM);
 	}
 
+	@Override
+	public long getLastWalRecoverTimeInMs() {
+		return MultiFileLogNodeManager.getInstance().getLastRecoverTimeInMs();
+	}
+
 	@Override
 	public long getMergePeriodInSecond() {
 		return config.periodTimeForMerge;
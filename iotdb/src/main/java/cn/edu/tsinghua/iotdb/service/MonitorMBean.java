@@ -19,4 +19,6 @@ public interface MonitorMBean {
 	int getOverflowOpenFileNum();
 	int getMetadataOpenFileNum();
 	int getSocketOpenFileNum();
+
+	long getLastWalRecoverTimeInMs();
 }
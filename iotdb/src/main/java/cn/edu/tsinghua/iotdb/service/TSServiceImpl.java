@@ -30,8 +30,10 @@ import cn.edu.tsinghua.iotdb.query.management.ReadCacheManager;
 import cn.edu.tsinghua.iotdb.queryV2.engine.control.QueryJobManager;
 import cn.edu.tsinghua.service.rpc.thrift.*;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.query.QueryDataSet;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.TSRecord;
 import org.apache.thrift.TException;
 import org.apache.thrift.server.ServerContext;
 import org.joda.time.DateTimeZone;
@@ -366,6 +368,164 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
 		}
 	}
 
+	/**
+	 * Insert a batch of rows of one device. Unlike executeBatchStatement, no SQL is parsed and no plan is
+	 * generated, the schema and the permissions are checked once for the whole batch and the rows are inserted
+	 * into FileNodeManager directly under one lock of the storage group with one wal write.
+	 */
+	@Override
+	public TSExecuteBatchStatementResp insertBatch(TSBatchInsertionReq req) throws TException {
+		try {
+			if (!checkLogin()) {
+				LOGGER.info("{}: Not login.",TsFileDBConstant.GLOBAL_DB_NAME);
+				return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS, "Not login", null);
+			}
+			String deltaObjectId = req.getDeltaObjectId();
+			List<String> measurements = req.getMeasurements();
+			List<Path> paths = new ArrayList<>();
+			for (String measurement : measurements) {
+				paths.add(new Path(deltaObjectId + "." + measurement));
+			}
+			try {
+				if (!AuthorityChecker.check(username.get(), paths, Operator.OperatorType.INSERT, null)) {
+					return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS,
+							"No permissions for this operation " + Operator.OperatorType.INSERT, null);
+				}
+			} catch (AuthException e) {
+				return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS, "Uninitialized authorizer " + e.getMessage(), null);
+			}
+			TSDataType[] dataTypes = checkBatchSchema(deltaObjectId, measurements, req.getDataTypes());
+
+			int rowCount = req.getRowCount();
+			ByteBuffer timestamps = ByteBuffer.wrap(req.getTimestamps());
+			if (req.getValues().size() != measurements.size()) {
+				throw new ProcessorException(String.format("The batch has %d measurements but %d value buffers",
+						measurements.size(), req.getValues().size()));
+			}
+			ByteBuffer[] values = new ByteBuffer[measurements.size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = req.getValues().get(i).slice();
+			}
+			// nothing is inserted unless all the buffers hold exactly rowCount rows
+			checkBatchBuffers(rowCount, timestamps, values, dataTypes, measurements);
+			List<TSRecord> tsRecords = new ArrayList<>(rowCount);
+			for (int row = 0; row < rowCount; row++) {
+				TSRecord tsRecord = new TSRecord(timestamps.getLong(), deltaObjectId);
+				for (int i = 0; i < values.length; i++) {
+					tsRecord.addTuple(Utils.unpackDataPoint(values[i], dataTypes[i], measurements.get(i)));
+				}
+				tsRecords.add(tsRecord);
+			}
+			FileNodeManagerException[] exceptions;
+			try {
+				exceptions = FileNodeManager.getInstance().insertBatch(deltaObjectId, tsRecords, false);
+			} catch (FileNodeManagerException e) {
+				return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS,
+						String.format("Fail to insert the batch because %s", e.getMessage()),
+						Collections.nCopies(rowCount, Statement.EXECUTE_FAILED));
+			}
+			List<Integer> result = new ArrayList<>(rowCount);
+			boolean isAllSuccessful = true;
+			String batchErrorMessage = "";
+			for (int row = 0; row < rowCount; row++) {
+				if (exceptions[row] == null) {
+					result.add(Statement.SUCCESS_NO_INFO);
+				} else {
+					result.add(Statement.EXECUTE_FAILED);
+					isAllSuccessful = false;
+					batchErrorMessage = String.format("Fail to insert the row at %d because %s", tsRecords.get(row).time,
+							exceptions[row].getMessage());
+				}
+			}
+			if(isAllSuccessful) {
+				return getTSBathExecuteStatementResp(TS_StatusCode.SUCCESS_STATUS, "Insert batch successfully", result);
+			} else {
+				return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS, batchErrorMessage, result);
+			}
+		} catch (ProcessorException | PathErrorException e) {
+			return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS, e.getMessage(), null);
+		} catch (Exception e) {
+			LOGGER.error("{}: error occurs when inserting a batch",TsFileDBConstant.GLOBAL_DB_NAME, e);
+			return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS, e.getMessage(), null);
+		}
+	}
+
+	/**
+	 * Check that every measurement of the batch exists in the schema with the same data type as the client sent.
+	 *
+	 * @return data types of the measurements
+	 */
+	private TSDataType[] checkBatchSchema(String deltaObjectId, List<String> measurements, List<String> types)
+			throws PathErrorException, ProcessorException {
+		if (types.size() != measurements.size()) {
+			throw new ProcessorException(String.format("The batch has %d measurements but %d data types",
+					measurements.size(), types.size()));
+		}
+		MNode node = MManager.getInstance().getNodeByDeltaObjectIDFromCache(deltaObjectId);
+		TSDataType[] dataTypes = new TSDataType[measurements.size()];
+		for (int i = 0; i < measurements.size(); i++) {
+			String measurement = measurements.get(i);
+			if (!node.hasChild(measurement) || !node.getChild(measurement).isLeaf()) {
+				throw new ProcessorException(String.format("Current deltaObjectId[%s] does not contains measurement:%s", deltaObjectId, measurement));
+			}
+			dataTypes[i] = node.getChild(measurement).getSchema().dataType;
+			if (!dataTypes[i].toString().equals(types.get(i))) {
+				throw new ProcessorException(String.format("The data type of %s.%s is %s, but the batch is %s",
+						deltaObjectId, measurement, dataTypes[i], types.get(i)));
+			}
+		}
+		return dataTypes;
+	}
+
+	/**
+	 * Check that the timestamps and the values of every measurement hold exactly rowCount rows.
+	 */
+	private void checkBatchBuffers(int rowCount, ByteBuffer timestamps, ByteBuffer[] values, TSDataType[] dataTypes,
+			List<String> measurements) throws ProcessorException {
+		if (rowCount < 0) {
+			throw new ProcessorException(String.format("The row count of the batch is %d", rowCount));
+		}
+		if (timestamps.remaining() != (long) rowCount * 8) {
+			throw new ProcessorException(String.format("The batch has %d rows but %d bytes of timestamps",
+					rowCount, timestamps.remaining()));
+		}
+		for (int i = 0; i < values.length; i++) {
+			ByteBuffer value = values[i];
+			long size;
+			switch (dataTypes[i]) {
+			case BOOLEAN:
+				size = rowCount;
+				break;
+			case INT32:
+			case FLOAT:
+				size = (long) rowCount * 4;
+				break;
+			case INT64:
+			case DOUBLE:
+				size = (long) rowCount * 8;
+				break;
+			case TEXT:
+				// each text is its length followed by its bytes
+				size = 0;
+				for (int row = 0; row < rowCount && size >= 0; row++) {
+					if (value.remaining() - size < 4) {
+						size = -1;
+						break;
+					}
+					int length = value.getInt(value.position() + (int) size);
+					size = length < 0 || length > value.remaining() - size - 4 ? -1 : size + 4 + length;
+				}
+				break;
+			default:
+				throw new ProcessorException(String.format("Unsupported data type %s of %s", dataTypes[i], measurements.get(i)));
+			}
+			if (size != value.remaining()) {
+				throw new ProcessorException(String.format("The batch has %d rows but the %d bytes of values of %s do not match",
+						rowCount, value.remaining(), measurements.get(i)));
+			}
+		}
+	}
+
 	@Override
 	public TSExecuteStatementResp executeStatement(TSExecuteStatementReq req) throws TException {
 		try {
@@ -528,15 +688,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
 			}
 
 			int fetchSize = req.getFetch_size();
-			QueryDataSet queryDataSet;
-			if (!queryRet.get().containsKey(statement)) {
-				PhysicalPlan physicalPlan = queryStatus.get().get(statement);
-				processor.getExecutor().setFetchSize(fetchSize);
-				queryDataSet = processor.getExecutor().processQuery(physicalPlan);
-				queryRet.get().put(statement, queryDataSet);
-			} else {
-				queryDataSet = queryRet.get().get(statement);
-			}
+			QueryDataSet queryDataSet = getQueryDataSet(statement, fetchSize);
 			TSQueryDataSet result = Utils.convertQueryDataSetByFetchSize(queryDataSet, fetchSize);
 			boolean hasResultSet = result.getRecords().size() > 0;
 			if(!hasResultSet && queryRet.get() != null) {
@@ -552,6 +704,49 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
 		}
 	}
 
+	@Override
+	public TSFetchColumnarResultsResp fetchColumnarResults(TSFetchColumnarResultsReq req) throws TException {
+		try {
+			if (!checkLogin()) {
+				return getTSFetchColumnarResultsResp(TS_StatusCode.ERROR_STATUS, "Not login.");
+			}
+			String statement = req.getStatement();
+
+			if (!queryStatus.get().containsKey(statement)) {
+				return getTSFetchColumnarResultsResp(TS_StatusCode.ERROR_STATUS, "Has not executed statement");
+			}
+
+			int fetchSize = req.getFetch_size();
+			QueryDataSet queryDataSet = getQueryDataSet(statement, fetchSize);
+			TSColumnarDataSet result = Utils.convertQueryDataSetToColumnar(queryDataSet, fetchSize);
+			boolean hasResultSet = result.getRowCount() > 0;
+			if(!hasResultSet && queryRet.get() != null) {
+				queryRet.get().remove(statement);
+			}
+			TSFetchColumnarResultsResp resp = getTSFetchColumnarResultsResp(TS_StatusCode.SUCCESS_STATUS, "FetchResult successfully. Has more result: " + hasResultSet);
+			resp.setHasResultSet(hasResultSet);
+			resp.setDataSet(result);
+			return resp;
+		} catch (Exception e) {
+			LOGGER.error("{}: Internal server error: {}",TsFileDBConstant.GLOBAL_DB_NAME, e.getMessage());
+			return getTSFetchColumnarResultsResp(TS_StatusCode.ERROR_STATUS, e.getMessage());
+		}
+	}
+
+	private QueryDataSet getQueryDataSet(String statement, int fetchSize)
+			throws QueryProcessorException, IOException, FileNodeManagerException {
+		QueryDataSet queryDataSet;
+		if (!queryRet.get().containsKey(statement)) {
+			PhysicalPlan physicalPlan = queryStatus.get().get(statement);
+			processor.getExecutor().setFetchSize(fetchSize);
+			queryDataSet = processor.getExecutor().processQuery(physicalPlan);
+			queryRet.get().put(statement, queryDataSet);
+		} else {
+			queryDataSet = queryRet.get().get(statement);
+		}
+		return queryDataSet;
+	}
+
 	@Override
 	public TSExecuteStatementResp executeUpdateStatement(TSExecuteStatementReq req) throws TException {
 		try {
@@ -720,6 +915,14 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
 		return resp;
 	}
 
+	private TSFetchColumnarResultsResp getTSFetchColumnarResultsResp(TS_StatusCode code, String msg) {
+		TSFetchColumnarResultsResp resp = new TSFetchColumnarResultsResp();
+		TS_Status ts_status = new TS_Status(code);
+		ts_status.setErrorMessage(msg);
+		resp.setStatus(ts_status);
+		return resp;
+	}
+
 	public void handleClientExit() throws TException {
 		closeOperation(null);
 		closeSession(null);
@@ -11,20 +11,35 @@ import java.util.Map.Entry;
 
 import cn.edu.tsinghua.iotdb.metadata.ColumnSchema;
 import cn.edu.tsinghua.service.rpc.thrift.TSColumnSchema;
+import cn.edu.tsinghua.service.rpc.thrift.TSColumnarDataSet;
 import cn.edu.tsinghua.service.rpc.thrift.TSDataValue;
 import cn.edu.tsinghua.service.rpc.thrift.TSQueryDataSet;
 import cn.edu.tsinghua.service.rpc.thrift.TSRowRecord;
 import cn.edu.tsinghua.tsfile.common.exception.UnSupportedDataTypeException;
+import cn.edu.tsinghua.tsfile.common.utils.Binary;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.RowRecord;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.query.QueryDataSet;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.DataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.BooleanDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.DoubleDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.FloatDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.IntDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.LongDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.StringDataPoint;
 
 /**
  * Utils to convert between thrift format and TsFile format
  */
 public class Utils {
 
+	/**
+	 * Number of rows the column buffers are allocated for before they grow.
+	 */
+	private static final int COLUMNAR_INITIAL_ROWS = 1024;
+
     public static Map<String, List<TSColumnSchema>> convertAllSchema(Map<String, List<ColumnSchema>> allSchema) {
         if (allSchema == null) {
             return null;
@@ -66,6 +81,149 @@ public class Utils {
 		return tsQueryDataSet;
 	}
 
+	/**
+	 * Convert at most fetchsize rows of the query result into columns, the values of each column are packed into
+	 * one buffer instead of one TSDataValue per cell. See TSColumnarDataSet in rpc.thrift for the format.
+	 */
+	public static TSColumnarDataSet convertQueryDataSetToColumnar(QueryDataSet queryDataSet, int fetchsize) throws IOException {
+		// each row is packed into the column buffers as soon as it is read, the buffers grow when they are full
+		int initialRows = Math.max(Math.min(fetchsize, COLUMNAR_INITIAL_ROWS), 1);
+		ByteBuffer timestamps = ByteBuffer.allocate(initialRows * 8);
+		TSDataType[] dataTypes = new TSDataType[0];
+		ByteBuffer[] bitmaps = new ByteBuffer[0];
+		ByteBuffer[] values = new ByteBuffer[0];
+		int rowCount = 0;
+		while (rowCount < fetchsize && queryDataSet.hasNext()) {
+			RowRecord rowRecord = queryDataSet.next();
+			if (rowCount == 0) {
+				int columnCount = rowRecord.getFields().size();
+				dataTypes = new TSDataType[columnCount];
+				bitmaps = new ByteBuffer[columnCount];
+				values = new ByteBuffer[columnCount];
+				for (int column = 0; column < columnCount; column++) {
+					bitmaps[column] = ByteBuffer.allocate((initialRows + 7) / 8);
+					values[column] = ByteBuffer.allocate(initialRows * 8);
+				}
+			}
+			timestamps = ensureRemaining(timestamps, 8);
+			timestamps.putLong(rowRecord.getTimestamp());
+			int column = 0;
+			for (TsPrimitiveType value : rowRecord.getFields().values()) {
+				if (rowCount % 8 == 0) {
+					bitmaps[column] = ensureRemaining(bitmaps[column], 1);
+					bitmaps[column].put((byte) 0);
+				}
+				if (value != null) {
+					ByteBuffer bitmap = bitmaps[column];
+					bitmap.put(rowCount / 8, (byte) (bitmap.get(rowCount / 8) | (1 << (rowCount % 8))));
+					dataTypes[column] = value.getDataType();
+					values[column] = ensureRemaining(values[column], getPackedSize(value));
+					packValue(values[column], value);
+				}
+				column++;
+			}
+			rowCount++;
+		}
+		timestamps.flip();
+
+		TSColumnarDataSet tsColumnarDataSet = new TSColumnarDataSet();
+		tsColumnarDataSet.setRowCount(rowCount);
+		tsColumnarDataSet.setTimestamps(timestamps);
+		tsColumnarDataSet.setDataTypes(new ArrayList<>(dataTypes.length));
+		tsColumnarDataSet.setBitmaps(new ArrayList<>(dataTypes.length));
+		tsColumnarDataSet.setValues(new ArrayList<>(dataTypes.length));
+		for (int column = 0; column < dataTypes.length; column++) {
+			bitmaps[column].flip();
+			values[column].flip();
+			tsColumnarDataSet.getDataTypes().add(dataTypes[column] == null ? "" : dataTypes[column].toString());
+			tsColumnarDataSet.getBitmaps().add(bitmaps[column]);
+			tsColumnarDataSet.getValues().add(values[column]);
+		}
+		return tsColumnarDataSet;
+	}
+
+	/**
+	 * @return the buffer itself if it has at least size bytes remaining, otherwise a larger copy of it
+	 */
+	private static ByteBuffer ensureRemaining(ByteBuffer buffer, int size) {
+		if (buffer.remaining() >= size) {
+			return buffer;
+		}
+		ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+		buffer.flip();
+		newBuffer.put(buffer);
+		return newBuffer;
+	}
+
+	private static int getPackedSize(TsPrimitiveType value) {
+		switch (value.getDataType()) {
+		case BOOLEAN:
+			return 1;
+		case INT32:
+		case FLOAT:
+			return 4;
+		case INT64:
+		case DOUBLE:
+			return 8;
+		case TEXT:
+			return 4 + value.getBinary().values.length;
+		default:
+			throw new UnSupportedDataTypeException(String.format("data type %s is not supported when convert data at server", value.getDataType().toString()));
+		}
+	}
+
+	private static void packValue(ByteBuffer buffer, TsPrimitiveType value) {
+		switch (value.getDataType()) {
+		case BOOLEAN:
+			buffer.put(value.getBoolean() ? (byte) 1 : (byte) 0);
+			break;
+		case INT32:
+			buffer.putInt(value.getInt());
+			break;
+		case INT64:
+			buffer.putLong(value.getLong());
+			break;
+		case FLOAT:
+			buffer.putFloat(value.getFloat());
+			break;
+		case DOUBLE:
+			buffer.putDouble(value.getDouble());
+			break;
+		case TEXT:
+			byte[] bytes = value.getBinary().values;
+			buffer.putInt(bytes.length);
+			buffer.put(bytes);
+			break;
+		default:
+			throw new UnSupportedDataTypeException(String.format("data type %s is not supported when convert data at server", value.getDataType().toString()));
+		}
+	}
+
+	/**
+	 * Read the next value packed by a client of TSIService.insertBatch from the buffer. See TSBatchInsertionReq in
+	 * rpc.thrift for the format.
+	 */
+	public static DataPoint unpackDataPoint(ByteBuffer buffer, TSDataType dataType, String measurementId) {
+		switch (dataType) {
+		case BOOLEAN:
+			return new BooleanDataPoint(measurementId, buffer.get() != 0);
+		case INT32:
+			return new IntDataPoint(measurementId, buffer.getInt());
+		case INT64:
+			return new LongDataPoint(measurementId, buffer.getLong());
+		case FLOAT:
+			return new FloatDataPoint(measurementId, buffer.getFloat());
+		case DOUBLE:
+			return new DoubleDataPoint(measurementId, buffer.getDouble());
+		case TEXT:
+			byte[] bytes = new byte[buffer.getInt()];
+			buffer.get(bytes);
+			return new StringDataPoint(measurementId, new Binary(bytes));
+		default:
+			throw new UnSupportedDataTypeException(String.format("data type %s is not supported when convert data at server", dataType.toString()));
+		}
+	}
+
 	public static TSRowRecord convertToTSRecord(RowRecord rowRecord) {
 		TSRowRecord tsRowRecord = new TSRowRecord();
 		tsRowRecord.setTimestamp(rowRecord.getTimestamp());
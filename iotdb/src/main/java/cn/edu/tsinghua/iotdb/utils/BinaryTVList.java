@@ -0,0 +1,47 @@
+package cn.edu.tsinghua.iotdb.utils;
+
+import cn.edu.tsinghua.tsfile.common.utils.Binary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BinaryTVList extends TVList {
+
+    private List<Binary[]> values = new ArrayList<>();
+
+    @Override
+    public void putBinary(long timestamp, Binary value) {
+        int elementIndex = checkExpand();
+        int arrayIndex = size / ARRAY_SIZE;
+        timestamps.get(arrayIndex)[elementIndex] = timestamp;
+        values.get(arrayIndex)[elementIndex] = value;
+        size++;
+    }
+
+    @Override
+    public Binary getBinary(int index) {
+        checkIndex(index);
+        return values.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+    }
+
+    @Override
+    public Binary[] getValues() {
+        Binary[] ret = new Binary[size];
+        copyChunks(values, ret);
+        return ret;
+    }
+
+    @Override
+    protected void addValueChunk() {
+        values.add(PrimitiveArrayPool.getInstance().getBinaryArray());
+    }
+
+    @Override
+    protected void releaseValueChunks() {
+        PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+        for (Binary[] array : values) {
+            pool.release(array);
+        }
+        values.clear();
+    }
+}
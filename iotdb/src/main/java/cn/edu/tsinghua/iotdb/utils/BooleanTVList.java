@@ -0,0 +1,45 @@
+package cn.edu.tsinghua.iotdb.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BooleanTVList extends TVList {
+
+    private List<boolean[]> values = new ArrayList<>();
+
+    @Override
+    public void putBoolean(long timestamp, boolean value) {
+        int elementIndex = checkExpand();
+        int arrayIndex = size / ARRAY_SIZE;
+        timestamps.get(arrayIndex)[elementIndex] = timestamp;
+        values.get(arrayIndex)[elementIndex] = value;
+        size++;
+    }
+
+    @Override
+    public boolean getBoolean(int index) {
+        checkIndex(index);
+        return values.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+    }
+
+    @Override
+    public boolean[] getValues() {
+        boolean[] ret = new boolean[size];
+        copyChunks(values, ret);
+        return ret;
+    }
+
+    @Override
+    protected void addValueChunk() {
+        values.add(PrimitiveArrayPool.getInstance().getBooleanArray());
+    }
+
+    @Override
+    protected void releaseValueChunks() {
+        PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+        for (boolean[] array : values) {
+            pool.release(array);
+        }
+        values.clear();
+    }
+}
@@ -0,0 +1,45 @@
+package cn.edu.tsinghua.iotdb.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DoubleTVList extends TVList {
+
+    private List<double[]> values = new ArrayList<>();
+
+    @Override
+    public void putDouble(long timestamp, double value) {
+        int elementIndex = checkExpand();
+        int arrayIndex = size / ARRAY_SIZE;
+        timestamps.get(arrayIndex)[elementIndex] = timestamp;
+        values.get(arrayIndex)[elementIndex] = value;
+        size++;
+    }
+
+    @Override
+    public double getDouble(int index) {
+        checkIndex(index);
+        return values.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+    }
+
+    @Override
+    public double[] getValues() {
+        double[] ret = new double[size];
+        copyChunks(values, ret);
+        return ret;
+    }
+
+    @Override
+    protected void addValueChunk() {
+        values.add(PrimitiveArrayPool.getInstance().getDoubleArray());
+    }
+
+    @Override
+    protected void releaseValueChunks() {
+        PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+        for (double[] array : values) {
+            pool.release(array);
+        }
+        values.clear();
+    }
+}
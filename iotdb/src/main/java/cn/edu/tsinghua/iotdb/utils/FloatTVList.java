@@ -0,0 +1,45 @@
+package cn.edu.tsinghua.iotdb.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FloatTVList extends TVList {
+
+    private List<float[]> values = new ArrayList<>();
+
+    @Override
+    public void putFloat(long timestamp, float value) {
+        int elementIndex = checkExpand();
+        int arrayIndex = size / ARRAY_SIZE;
+        timestamps.get(arrayIndex)[elementIndex] = timestamp;
+        values.get(arrayIndex)[elementIndex] = value;
+        size++;
+    }
+
+    @Override
+    public float getFloat(int index) {
+        checkIndex(index);
+        return values.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+    }
+
+    @Override
+    public float[] getValues() {
+        float[] ret = new float[size];
+        copyChunks(values, ret);
+        return ret;
+    }
+
+    @Override
+    protected void addValueChunk() {
+        values.add(PrimitiveArrayPool.getInstance().getFloatArray());
+    }
+
+    @Override
+    protected void releaseValueChunks() {
+        PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+        for (float[] array : values) {
+            pool.release(array);
+        }
+        values.clear();
+    }
+}
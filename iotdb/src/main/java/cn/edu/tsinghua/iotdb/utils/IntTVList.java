@@ -0,0 +1,45 @@
+package cn.edu.tsinghua.iotdb.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IntTVList extends TVList {
+
+    private List<int[]> values = new ArrayList<>();
+
+    @Override
+    public void putInt(long timestamp, int value) {
+        int elementIndex = checkExpand();
+        int arrayIndex = size / ARRAY_SIZE;
+        timestamps.get(arrayIndex)[elementIndex] = timestamp;
+        values.get(arrayIndex)[elementIndex] = value;
+        size++;
+    }
+
+    @Override
+    public int getInt(int index) {
+        checkIndex(index);
+        return values.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+    }
+
+    @Override
+    public int[] getValues() {
+        int[] ret = new int[size];
+        copyChunks(values, ret);
+        return ret;
+    }
+
+    @Override
+    protected void addValueChunk() {
+        values.add(PrimitiveArrayPool.getInstance().getIntArray());
+    }
+
+    @Override
+    protected void releaseValueChunks() {
+        PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+        for (int[] array : values) {
+            pool.release(array);
+        }
+        values.clear();
+    }
+}
@@ -0,0 +1,45 @@
+package cn.edu.tsinghua.iotdb.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LongTVList extends TVList {
+
+    private List<long[]> values = new ArrayList<>();
+
+    @Override
+    public void putLong(long timestamp, long value) {
+        int elementIndex = checkExpand();
+        int arrayIndex = size / ARRAY_SIZE;
+        timestamps.get(arrayIndex)[elementIndex] = timestamp;
+        values.get(arrayIndex)[elementIndex] = value;
+        size++;
+    }
+
+    @Override
+    public long getLong(int index) {
+        checkIndex(index);
+        return values.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+    }
+
+    @Override
+    public long[] getValues() {
+        long[] ret = new long[size];
+        copyChunks(values, ret);
+        return ret;
+    }
+
+    @Override
+    protected void addValueChunk() {
+        values.add(PrimitiveArrayPool.getInstance().getLongArray());
+    }
+
+    @Override
+    protected void releaseValueChunks() {
+        PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+        for (long[] array : values) {
+            pool.release(array);
+        }
+        values.clear();
+    }
+}
@@ -91,6 +91,30 @@ public class PrimitiveArrayList {
         return length;
     }
 
+    /**
+     * @return all timestamps copied into one array of length {@link #size()}.
+     */
+    public long[] getTimestamps() {
+        long[] ret = new long[length];
+        for (int i = 0; i * MAX_SIZE_OF_ONE_ARRAY < length; i++) {
+            System.arraycopy(timestamps.get(i), 0, ret, i * MAX_SIZE_OF_ONE_ARRAY,
+                    Math.min(MAX_SIZE_OF_ONE_ARRAY, length - i * MAX_SIZE_OF_ONE_ARRAY));
+        }
+        return ret;
+    }
+
+    /**
+     * @return all values copied into one primitive array (or Binary array) of length {@link #size()}.
+     */
+    public Object getValues() {
+        Object ret = Array.newInstance(clazz, length);
+        for (int i = 0; i * MAX_SIZE_OF_ONE_ARRAY < length; i++) {
+            System.arraycopy(values.get(i), 0, ret, i * MAX_SIZE_OF_ONE_ARRAY,
+                    Math.min(MAX_SIZE_OF_ONE_ARRAY, length - i * MAX_SIZE_OF_ONE_ARRAY));
+        }
+        return ret;
+    }
+
     public PrimitiveArrayList clone() {
         PrimitiveArrayList cloneList = new PrimitiveArrayList(clazz);
         cloneList.values.clear();
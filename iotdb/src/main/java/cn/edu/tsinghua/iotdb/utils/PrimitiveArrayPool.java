@@ -0,0 +1,100 @@
+package cn.edu.tsinghua.iotdb.utils;
+
+import cn.edu.tsinghua.tsfile.common.utils.Binary;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * PrimitiveArrayPool keeps the chunks released by {@link TVList#clear()}, so that the chunks of a reset memory
+ * series are reused by the following writes instead of being allocated again. Only chunks of
+ * {@link TVList#ARRAY_SIZE} are pooled, and at most {@link #MAX_POOLED_ARRAYS} chunks of each type are kept.
+ */
+public class PrimitiveArrayPool {
+
+    /**
+     * With chunks of 128 elements, at most 4MB of long[] are kept by the pool.
+     */
+    private static final int MAX_POOLED_ARRAYS = 4096;
+
+    private final ArrayDeque<long[]> longArrays = new ArrayDeque<>();
+    private final ArrayDeque<int[]> intArrays = new ArrayDeque<>();
+    private final ArrayDeque<float[]> floatArrays = new ArrayDeque<>();
+    private final ArrayDeque<double[]> doubleArrays = new ArrayDeque<>();
+    private final ArrayDeque<boolean[]> booleanArrays = new ArrayDeque<>();
+    private final ArrayDeque<Binary[]> binaryArrays = new ArrayDeque<>();
+
+    private static class InstanceHolder {
+        private static PrimitiveArrayPool instance = new PrimitiveArrayPool();
+    }
+
+    private PrimitiveArrayPool() {
+    }
+
+    public static PrimitiveArrayPool getInstance() {
+        return InstanceHolder.instance;
+    }
+
+    public synchronized long[] getLongArray() {
+        long[] array = longArrays.poll();
+        return array != null ? array : new long[TVList.ARRAY_SIZE];
+    }
+
+    public synchronized int[] getIntArray() {
+        int[] array = intArrays.poll();
+        return array != null ? array : new int[TVList.ARRAY_SIZE];
+    }
+
+    public synchronized float[] getFloatArray() {
+        float[] array = floatArrays.poll();
+        return array != null ? array : new float[TVList.ARRAY_SIZE];
+    }
+
+    public synchronized double[] getDoubleArray() {
+        double[] array = doubleArrays.poll();
+        return array != null ? array : new double[TVList.ARRAY_SIZE];
+    }
+
+    public synchronized boolean[] getBooleanArray() {
+        boolean[] array = booleanArrays.poll();
+        return array != null ? array : new boolean[TVList.ARRAY_SIZE];
+    }
+
+    public synchronized Binary[] getBinaryArray() {
+        Binary[] array = binaryArrays.poll();
+        return array != null ? array : new Binary[TVList.ARRAY_SIZE];
+    }
+
+    public synchronized void release(long[] array) {
+        if (longArrays.size() < MAX_POOLED_ARRAYS)
+            longArrays.push(array);
+    }
+
+    public synchronized void release(int[] array) {
+        if (intArrays.size() < MAX_POOLED_ARRAYS)
+            intArrays.push(array);
+    }
+
+    public synchronized void release(float[] array) {
+        if (floatArrays.size() < MAX_POOLED_ARRAYS)
+            floatArrays.push(array);
+    }
+
+    public synchronized void release(double[] array) {
+        if (doubleArrays.size() < MAX_POOLED_ARRAYS)
+            doubleArrays.push(array);
+    }
+
+    public synchronized void release(boolean[] array) {
+        if (booleanArrays.size() < MAX_POOLED_ARRAYS)
+            booleanArrays.push(array);
+    }
+
+    public synchronized void release(Binary[] array) {
+        if (binaryArrays.size() < MAX_POOLED_ARRAYS) {
+            // do not hold the values of a released list
+            Arrays.fill(array, null);
+            binaryArrays.push(array);
+        }
+    }
+}
@@ -25,14 +25,25 @@ public abstract class RandomDeleteCache<K, V> implements Cache<K, V> {
         V v = cache.get(key);
         if (v == null) {
             randomRemoveObjectIfCacheIsFull();
-            cache.put(key, loadObjectByKey(key));
-            v = cache.get(key);
+            v = loadObjectByKey(key);
+            // the loaded object is returned even if it is removed concurrently, e.g. by clear()
+            cache.put(key, v);
         }
         return v;
     }
 
+    /**
+     * Get the cached object of the key without loading it.
+     *
+     * @param key
+     * @return the cached object, or null if the key is not cached
+     */
+    public V getIfPresent(K key) {
+        return cache.get(key);
+    }
+
     private void randomRemoveObjectIfCacheIsFull() throws CacheException {
-        if (cache.size() == this.cacheSize) {
+        if (cache.size() >= this.cacheSize) {
             removeFirstObject();
         }
     }
@@ -0,0 +1,153 @@
+package cn.edu.tsinghua.iotdb.utils;
+
+import cn.edu.tsinghua.tsfile.common.exception.UnSupportedDataTypeException;
+import cn.edu.tsinghua.tsfile.common.utils.Binary;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TVList stores timestamps and values of one data type in chunks of {@link #ARRAY_SIZE} elements. Each subclass
+ * keeps its values in primitive chunks and only supports the typed put and get of its data type. Chunks are
+ * borrowed from {@link PrimitiveArrayPool} and returned to it by {@link #clear()}.
+ */
+public abstract class TVList {
+
+    public static final int ARRAY_SIZE = 128;
+
+    protected List<long[]> timestamps = new ArrayList<>();
+    protected int size;
+
+    public static TVList newList(TSDataType dataType) {
+        switch (dataType) {
+            case BOOLEAN:
+                return new BooleanTVList();
+            case INT32:
+                return new IntTVList();
+            case INT64:
+                return new LongTVList();
+            case FLOAT:
+                return new FloatTVList();
+            case DOUBLE:
+                return new DoubleTVList();
+            case TEXT:
+                return new BinaryTVList();
+            default:
+                throw new UnSupportedDataTypeException("DataType: " + dataType);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTime(int index) {
+        checkIndex(index);
+        return timestamps.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+    }
+
+    public void putLong(long timestamp, long value) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public void putInt(long timestamp, int value) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public void putFloat(long timestamp, float value) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public void putDouble(long timestamp, double value) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public void putBinary(long timestamp, Binary value) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public void putBoolean(long timestamp, boolean value) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public long getLong(int index) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public int getInt(int index) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public float getFloat(int index) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public double getDouble(int index) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public Binary getBinary(int index) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    public boolean getBoolean(int index) {
+        throw new UnsupportedOperationException("DataType not consistent");
+    }
+
+    /**
+     * @return all timestamps copied into one array of length {@link #size()}.
+     */
+    public long[] getTimestamps() {
+        long[] ret = new long[size];
+        copyChunks(timestamps, ret);
+        return ret;
+    }
+
+    /**
+     * @return all values copied into one primitive array (or Binary array) of length {@link #size()}.
+     */
+    public abstract Object getValues();
+
+    /**
+     * Remove all points and return the chunks to the pool. The caller must make sure that nobody is reading this
+     * list any more.
+     */
+    public void clear() {
+        PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+        for (long[] array : timestamps) {
+            pool.release(array);
+        }
+        timestamps.clear();
+        releaseValueChunks();
+        size = 0;
+    }
+
+    /*
+    Make sure there is space for the next point, return the position of it in its chunk.
+     */
+    protected int checkExpand() {
+        int elementIndex = size % ARRAY_SIZE;
+        if (elementIndex == 0) {
+            timestamps.add(PrimitiveArrayPool.getInstance().getLongArray());
+            addValueChunk();
+        }
+        return elementIndex;
+    }
+
+    protected abstract void addValueChunk();
+
+    protected abstract void releaseValueChunks();
+
+    protected void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new ArrayIndexOutOfBoundsException("index: " + index);
+        }
+    }
+
+    protected void copyChunks(List<?> chunks, Object dest) {
+        for (int i = 0; i * ARRAY_SIZE < size; i++) {
+            System.arraycopy(chunks.get(i), 0, dest, i * ARRAY_SIZE, Math.min(ARRAY_SIZE, size - i * ARRAY_SIZE));
+        }
+    }
+}
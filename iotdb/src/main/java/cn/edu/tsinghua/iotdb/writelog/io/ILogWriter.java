@@ -1,11 +1,32 @@
 package cn.edu.tsinghua.iotdb.writelog.io;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 public interface ILogWriter {
 
+    /**
+     * Append the logs to the end of the file and force them to disk.
+     */
     void write(List<byte[]> logCache) throws IOException;
 
+    /**
+     * Append the logs to the end of the file and force them to disk.
+     * @param logBuffer contains logs already framed with size and checksum between its position and limit.
+     */
+    void write(ByteBuffer logBuffer) throws IOException;
+
+    /**
+     * Append the logs to the end of the file without forcing them to disk.
+     * @param logBuffer contains logs already framed with size and checksum between its position and limit.
+     */
+    void append(ByteBuffer logBuffer) throws IOException;
+
+    /**
+     * Force all appended logs to disk. This is an empty operation if nothing is appended since last force.
+     */
+    void force() throws IOException;
+
     void close() throws IOException;
 }
@@ -3,7 +3,6 @@ package cn.edu.tsinghua.iotdb.writelog.io;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.List;
@@ -14,15 +13,17 @@ public class LogWriter implements ILogWriter {
     private File logFile;
     private FileChannel outputStream;
     private CRC32 checkSummer = new CRC32();
+    /**
+     * Whether some logs have been appended but not forced to disk yet.
+     */
+    private boolean dirty = false;
 
     public LogWriter(String logFilePath) {
         logFile = new File(logFilePath);
     }
 
     @Override
-    public void write(List<byte[]> logCache) throws IOException {
-        if (outputStream == null)
-            outputStream = new FileOutputStream(logFile, true).getChannel();
+    public synchronized void write(List<byte[]> logCache) throws IOException {
         int totalSize = 0;
         for (byte[] bytes : logCache) {
             totalSize += 4 + 8 + bytes.length;
@@ -36,13 +37,37 @@ public class LogWriter implements ILogWriter {
             buffer.put(bytes);
         }
         buffer.flip();
-        outputStream.write(buffer);
-        outputStream.force(true);
+        write(buffer);
+    }
+
+    @Override
+    public synchronized void write(ByteBuffer logBuffer) throws IOException {
+        append(logBuffer);
+        force();
+    }
+
+    @Override
+    public synchronized void append(ByteBuffer logBuffer) throws IOException {
+        if (outputStream == null)
+            outputStream = new FileOutputStream(logFile, true).getChannel();
+        while (logBuffer.hasRemaining()) {
+            outputStream.write(logBuffer);
+        }
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void force() throws IOException {
+        if (outputStream != null && dirty) {
+            outputStream.force(true);
+            dirty = false;
+        }
     }
 
     @Override
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
         if (outputStream != null) {
+            force();
             outputStream.close();
             outputStream = null;
         }
@@ -0,0 +1,157 @@
+package cn.edu.tsinghua.iotdb.writelog.io;
+
+import cn.edu.tsinghua.iotdb.qp.physical.PhysicalPlan;
+import cn.edu.tsinghua.iotdb.utils.CommonUtils;
+import cn.edu.tsinghua.iotdb.writelog.transfer.PhysicalPlanLogTransfer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * MMapLogReader scans a log file sequentially through a read-only mapping, logs are verified and decoded in place
+ * without being copied out of the mapping. It reads both the segments of {@link MMapLogWriter} and the files of
+ * {@link LogWriter}, and stops at the first log which is empty (the zeroed tail of a preallocated segment),
+ * incomplete or corrupted.
+ */
+public class MMapLogReader implements ILogReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(MMapLogReader.class);
+
+    private static final int LOG_HEADER_SIZE = 4 + 8;
+
+    private RandomAccessFile logRAF;
+    private String filepath;
+    private long fileSize;
+    /**
+     * The mapped part of the file, a file larger than Integer.MAX_VALUE is mapped window by window.
+     */
+    private MappedByteBuffer window;
+    private long windowStart;
+    private boolean reachEnd;
+    private CRC32 checkSummer = new CRC32();
+    private PhysicalPlan planBuffer = null;
+
+    public MMapLogReader() {
+
+    }
+
+    public MMapLogReader(File logFile) throws FileNotFoundException {
+        open(logFile);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (planBuffer != null)
+            return true;
+        if (reachEnd)
+            return false;
+        try {
+            if (!ensureMapped(LOG_HEADER_SIZE)) {
+                return end();
+            }
+            int logSize = window.getInt(window.position());
+            if (logSize <= 0 || !ensureMapped(LOG_HEADER_SIZE + logSize)) {
+                return end();
+            }
+            int logStart = window.position() + LOG_HEADER_SIZE;
+            long checkSum = window.getLong(window.position() + 4);
+            ByteBuffer log = window.duplicate();
+            log.limit(logStart + logSize);
+            log.position(logStart);
+            checkSummer.reset();
+            checkSummer.update(log);
+            if (checkSummer.getValue() != checkSum) {
+                return end();
+            }
+            log.position(logStart);
+            planBuffer = PhysicalPlanLogTransfer.logToOperator(log);
+            window.position(logStart + logSize);
+            return true;
+        } catch (IOException e) {
+            logger.error("Cannot read log file {}, because {}", filepath, e.getMessage());
+            return end();
+        }
+    }
+
+    @Override
+    public PhysicalPlan next() {
+        PhysicalPlan ret = planBuffer;
+        planBuffer = null;
+        return ret;
+    }
+
+    @Override
+    public void close() {
+        unmap();
+        if (logRAF != null) {
+            try {
+                logRAF.close();
+            } catch (IOException e) {
+                logger.error("Cannot close log file {}", filepath);
+            }
+            logRAF = null;
+        }
+    }
+
+    @Override
+    public void open(File logFile) throws FileNotFoundException {
+        open(logFile, 0);
+    }
+
+    /**
+     * Open the log file and start reading from the offset, which must be the start of a log.
+     */
+    public void open(File logFile, long startOffset) throws FileNotFoundException {
+        close();
+        logRAF = new RandomAccessFile(logFile, "r");
+        filepath = logFile.getPath();
+        fileSize = logFile.length();
+        windowStart = startOffset;
+        reachEnd = false;
+        planBuffer = null;
+    }
+
+    private boolean end() {
+        reachEnd = true;
+        return false;
+    }
+
+    /*
+    Make sure the next bytes from current position are mapped, return false if the file does not have so many
+    bytes left.
+     */
+    private boolean ensureMapped(int bytes) throws IOException {
+        if (window != null && window.remaining() >= bytes) {
+            return true;
+        }
+        long offset = window == null ? windowStart : windowStart + window.position();
+        if (fileSize - offset < bytes) {
+            return false;
+        }
+        unmap();
+        windowStart = offset;
+        window = logRAF.getChannel().map(FileChannel.MapMode.READ_ONLY, offset,
+                Math.min(fileSize - offset, Integer.MAX_VALUE));
+        return true;
+    }
+
+    private void unmap() {
+        if (window == null) {
+            return;
+        }
+        try {
+            CommonUtils.destroyBuffer(window);
+        } catch (Exception e) {
+            logger.warn("Cannot unmap log file {}, because {}", filepath, e.getMessage());
+        }
+        window = null;
+    }
+}
@@ -0,0 +1,265 @@
+package cn.edu.tsinghua.iotdb.writelog.io;
+
+import cn.edu.tsinghua.iotdb.utils.CommonUtils;
+import cn.edu.tsinghua.iotdb.writelog.LogPosition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * MMapLogWriter writes logs into a series of fixed-size segment files named "wal-segment-{index}" under a log
+ * directory. A segment is preallocated with zeros when it is created and is written through a MappedByteBuffer,
+ * so forcing it does not update the file size. A log never spans two segments, and the zeroed tail of a
+ * segment marks its end for readers.
+ * A writer never appends to an existing segment: the first append after it is created or closed starts a new
+ * segment whose index is larger than all existing ones. A flush does not close the writer, it only records
+ * {@link #getPosition()}, and once the flush ends the position is saved as the checkpoint of the directory by
+ * {@link #writeCheckpoint(File, LogPosition)}, so that the logs before it are neither replayed nor kept.
+ */
+public class MMapLogWriter implements ILogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MMapLogWriter.class);
+
+    public static final String SEGMENT_PREFIX = "wal-segment-";
+
+    public static final String CHECKPOINT_FILE_NAME = "wal-checkpoint";
+
+    private static final String CHECKPOINT_TEMP_SUFFIX = ".tmp";
+
+    private static final int LOG_HEADER_SIZE = 4 + 8;
+
+    private static final int PREALLOCATE_CHUNK_SIZE = 1024 * 1024;
+
+    private File logDirectory;
+    private long segmentSize;
+    /**
+     * Index of the current segment, -1 if no segment has been created by this writer.
+     */
+    private int segmentIndex = -1;
+    private MappedByteBuffer segmentBuffer;
+    private CRC32 checkSummer = new CRC32();
+    /**
+     * Whether some logs have been appended but not forced to disk yet.
+     */
+    private boolean dirty = false;
+
+    public MMapLogWriter(String logDirectory, long segmentSize) {
+        this.logDirectory = new File(logDirectory);
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * @return segment files in the directory, sorted by their indexes.
+     */
+    public static List<File> listSegments(File logDirectory) {
+        File[] files = logDirectory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(files, Comparator.comparingInt(MMapLogWriter::getSegmentIndex));
+        return Arrays.asList(files);
+    }
+
+    public static int getSegmentIndex(File segment) {
+        return getSegmentIndex(segment.getName());
+    }
+
+    public static int getSegmentIndex(String segmentName) {
+        return Integer.parseInt(segmentName.substring(SEGMENT_PREFIX.length()));
+    }
+
+    /**
+     * Save the position from which the logs of the directory are replayed. The checkpoint is written into a
+     * temporary file and renamed, so a crash leaves either the old or the new one.
+     */
+    public static void writeCheckpoint(File logDirectory, LogPosition position) throws IOException {
+        File checkpoint = new File(logDirectory, CHECKPOINT_FILE_NAME);
+        File tempCheckpoint = new File(logDirectory, CHECKPOINT_FILE_NAME + CHECKPOINT_TEMP_SUFFIX);
+        try (RandomAccessFile raf = new RandomAccessFile(tempCheckpoint, "rw")) {
+            raf.setLength(0);
+            raf.writeInt(getSegmentIndex(position.logPath));
+            raf.writeLong(position.startPos);
+            raf.getFD().sync();
+        }
+        if (!tempCheckpoint.renameTo(checkpoint)) {
+            // renameTo does not replace an existing file on some platforms
+            if (!checkpoint.delete() || !tempCheckpoint.renameTo(checkpoint)) {
+                throw new IOException("Cannot rename " + tempCheckpoint.getPath() + " to " + checkpoint.getPath());
+            }
+        }
+    }
+
+    /**
+     * @return the position saved by {@link #writeCheckpoint(File, LogPosition)}, or null if there is none.
+     */
+    public static LogPosition readCheckpoint(File logDirectory) throws IOException {
+        File checkpoint = new File(logDirectory, CHECKPOINT_FILE_NAME);
+        if (!checkpoint.exists()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(checkpoint, "r")) {
+            LogPosition position = new LogPosition();
+            position.logPath = SEGMENT_PREFIX + raf.readInt();
+            position.startPos = raf.readLong();
+            return position;
+        }
+    }
+
+    /**
+     * @return the position where the next log will be written, whose logPath is the name of the segment and
+     * startPos is the offset in it. All logs appended so far are before the position.
+     */
+    public synchronized LogPosition getPosition() {
+        LogPosition position = new LogPosition();
+        if (segmentBuffer == null) {
+            // the next append starts a new segment
+            position.logPath = SEGMENT_PREFIX + (getLastSegmentIndex() + 1);
+            position.startPos = 0;
+        } else {
+            position.logPath = SEGMENT_PREFIX + segmentIndex;
+            position.startPos = segmentBuffer.position();
+        }
+        position.endPos = position.startPos;
+        return position;
+    }
+
+    private int getLastSegmentIndex() {
+        if (segmentIndex < 0) {
+            List<File> segments = listSegments(logDirectory);
+            segmentIndex = segments.isEmpty() ? -1 : getSegmentIndex(segments.get(segments.size() - 1));
+            // the segments before the checkpoint may be discarded, new segments must not reuse their indexes
+            try {
+                LogPosition checkpoint = readCheckpoint(logDirectory);
+                if (checkpoint != null) {
+                    segmentIndex = Math.max(segmentIndex, getSegmentIndex(checkpoint.logPath) - 1);
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot read checkpoint of {}, because {}", logDirectory, e.getMessage());
+            }
+        }
+        return segmentIndex;
+    }
+
+    @Override
+    public synchronized void write(List<byte[]> logCache) throws IOException {
+        int totalSize = 0;
+        for (byte[] bytes : logCache) {
+            totalSize += LOG_HEADER_SIZE + bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(totalSize);
+        for (byte[] bytes : logCache) {
+            buffer.putInt(bytes.length);
+            checkSummer.reset();
+            checkSummer.update(bytes);
+            buffer.putLong(checkSummer.getValue());
+            buffer.put(bytes);
+        }
+        buffer.flip();
+        write(buffer);
+    }
+
+    @Override
+    public synchronized void write(ByteBuffer logBuffer) throws IOException {
+        append(logBuffer);
+        force();
+    }
+
+    @Override
+    public synchronized void append(ByteBuffer logBuffer) throws IOException {
+        while (logBuffer.hasRemaining()) {
+            int start = logBuffer.position();
+            int firstLogSize = LOG_HEADER_SIZE + logBuffer.getInt(start);
+            if (segmentBuffer == null || segmentBuffer.remaining() < firstLogSize) {
+                rollSegment(firstLogSize);
+            }
+            // copy as many whole logs as the current segment can hold
+            int end = start + firstLogSize;
+            while (end < logBuffer.limit()) {
+                int nextEnd = end + LOG_HEADER_SIZE + logBuffer.getInt(end);
+                if (nextEnd - start > segmentBuffer.remaining()) {
+                    break;
+                }
+                end = nextEnd;
+            }
+            ByteBuffer logs = logBuffer.duplicate();
+            logs.limit(end);
+            segmentBuffer.put(logs);
+            logBuffer.position(end);
+            dirty = true;
+        }
+    }
+
+    @Override
+    public synchronized void force() throws IOException {
+        if (segmentBuffer != null && dirty) {
+            segmentBuffer.force();
+            dirty = false;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeSegment();
+    }
+
+    private void rollSegment(int minSize) throws IOException {
+        closeSegment();
+        segmentIndex = getLastSegmentIndex() + 1;
+        logDirectory.mkdirs();
+        File segment = new File(logDirectory, SEGMENT_PREFIX + segmentIndex);
+        long size = Math.max(segmentSize, minSize);
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            FileChannel channel = raf.getChannel();
+            preallocate(channel, size);
+            // the mapping stays valid after the channel is closed
+            segmentBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        logger.debug("Log directory {} starts a new segment {}", logDirectory, segment.getName());
+    }
+
+    /*
+    Fill the file with zeros, so that the blocks and the size of the file will not change any more when logs
+    are forced.
+     */
+    private void preallocate(FileChannel channel, long size) throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocateDirect((int) Math.min(size, PREALLOCATE_CHUNK_SIZE));
+        long position = 0;
+        while (position < size) {
+            zeros.clear();
+            if (size - position < zeros.capacity()) {
+                zeros.limit((int) (size - position));
+            }
+            position += channel.write(zeros, position);
+        }
+        channel.force(true);
+        try {
+            CommonUtils.destroyBuffer(zeros);
+        } catch (Exception e) {
+            logger.warn("Cannot release preallocation buffer of {}, because {}", logDirectory, e.getMessage());
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (segmentBuffer == null) {
+            return;
+        }
+        force();
+        try {
+            CommonUtils.destroyBuffer(segmentBuffer);
+        } catch (Exception e) {
+            logger.warn("Cannot unmap segment {} of {}, because {}", segmentIndex, logDirectory, e.getMessage());
+        }
+        segmentBuffer = null;
+    }
+}
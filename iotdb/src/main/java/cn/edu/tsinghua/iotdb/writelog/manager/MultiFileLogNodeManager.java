@@ -1,5 +1,6 @@
 package cn.edu.tsinghua.iotdb.writelog.manager;
 
+import cn.edu.tsinghua.iotdb.concurrent.IoTDBThreadPoolFactory;
 import cn.edu.tsinghua.iotdb.concurrent.ThreadName;
 import cn.edu.tsinghua.iotdb.conf.TsFileDBConstant;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
@@ -9,6 +10,7 @@ import cn.edu.tsinghua.iotdb.exception.StartupException;
 import cn.edu.tsinghua.iotdb.service.IService;
 import cn.edu.tsinghua.iotdb.service.ServiceType;
 import cn.edu.tsinghua.iotdb.writelog.node.ExclusiveWriteLogNode;
+import cn.edu.tsinghua.iotdb.writelog.node.WALGroupCommitter;
 import cn.edu.tsinghua.iotdb.writelog.node.WriteLogNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,9 +19,15 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
 
@@ -27,6 +35,8 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
     private Map<String, WriteLogNode> nodeMap;
 
     private Thread syncThread;
+
+    private volatile long lastRecoverTimeInMs = 0;
     private TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
 
     private static class InstanceHolder {
@@ -90,24 +100,86 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
 
     /*
     Warning : caller must guarantee thread safety.
+    Nodes of different storage groups are recovered in parallel by at most walRecoverParallelism threads, while
+    nodes of the same storage group are recovered serially in the order of their identifiers.
      */
     @Override
     public void recover() throws RecoverException {
-        List<WriteLogNode> nodeList = new ArrayList<>(nodeMap.size());
-        nodeList.addAll(nodeMap.values());
-        nodeList.sort(null);
-        for(WriteLogNode node : nodeList) {
+        long startTime = System.currentTimeMillis();
+        Map<String, List<WriteLogNode>> nodeGroups = new TreeMap<>();
+        for (WriteLogNode node : nodeMap.values()) {
+            String fileNodeName = node.getIdentifier().split("-")[0];
+            nodeGroups.computeIfAbsent(fileNodeName, k -> new ArrayList<>()).add(node);
+        }
+        int nodeNum = nodeMap.size();
+        AtomicInteger recoveredNum = new AtomicInteger();
+        int parallelism = Math.min(config.walRecoverParallelism, nodeGroups.size());
+        if (parallelism <= 1) {
+            for (List<WriteLogNode> nodeGroup : nodeGroups.values()) {
+                recoverNodeGroup(nodeGroup, recoveredNum, nodeNum);
+            }
+        } else {
+            ExecutorService recoverPool = IoTDBThreadPoolFactory.newFixedThreadPool(parallelism,
+                    ThreadName.WAL_RECOVER.getName());
+            List<Future<?>> futures = new ArrayList<>(nodeGroups.size());
+            for (List<WriteLogNode> nodeGroup : nodeGroups.values()) {
+                futures.add(recoverPool.submit(() -> {
+                    recoverNodeGroup(nodeGroup, recoveredNum, nodeNum);
+                    return null;
+                }));
+            }
+            recoverPool.shutdown();
+            RecoverException exception = null;
+            // wait for all groups even if some fail, so that no replay is running when this method returns
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (exception == null) {
+                        exception = e.getCause() instanceof RecoverException ? (RecoverException) e.getCause()
+                                : new RecoverException(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    recoverPool.shutdownNow();
+                    Thread.currentThread().interrupt();
+                    throw new RecoverException(e);
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        }
+        lastRecoverTimeInMs = System.currentTimeMillis() - startTime;
+        logger.info("{} log nodes of {} storage groups recovered in {} ms with parallelism {}", nodeNum,
+                nodeGroups.size(), lastRecoverTimeInMs, Math.max(parallelism, 1));
+    }
+
+    private void recoverNodeGroup(List<WriteLogNode> nodeGroup, AtomicInteger recoveredNum, int nodeNum)
+            throws RecoverException {
+        nodeGroup.sort(Comparator.comparing(WriteLogNode::getIdentifier));
+        for (WriteLogNode node : nodeGroup) {
+            long startTime = System.currentTimeMillis();
             try {
                 node.recover();
             } catch (RecoverException e) {
                 logger.error("{} failed to recover because {}", node.toString(), e.getMessage());
                 throw e;
             }
+            logger.info("{} recovered in {} ms, {}/{} log nodes recovered", node.toString(),
+                    System.currentTimeMillis() - startTime, recoveredNum.incrementAndGet(), nodeNum);
         }
     }
 
+    /**
+     * @return time (in milliseconds) spent by the last {@link #recover()}.
+     */
+    public long getLastRecoverTimeInMs() {
+        return lastRecoverTimeInMs;
+    }
+
     @Override
     public void close() {
+        WALGroupCommitter.getInstance().close();
         if(syncThread == null || !syncThread.isAlive()) {
             logger.error("MultiFileLogNodeManager has not yet started");
             return;
@@ -3,10 +3,12 @@ package cn.edu.tsinghua.iotdb.writelog.node;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
 import cn.edu.tsinghua.iotdb.exception.RecoverException;
+import cn.edu.tsinghua.iotdb.exception.WALOverSizedException;
 import cn.edu.tsinghua.iotdb.utils.MemUtils;
 import cn.edu.tsinghua.iotdb.writelog.LogPosition;
 import cn.edu.tsinghua.iotdb.writelog.io.ILogWriter;
 import cn.edu.tsinghua.iotdb.writelog.io.LogWriter;
+import cn.edu.tsinghua.iotdb.writelog.io.MMapLogWriter;
 import cn.edu.tsinghua.iotdb.writelog.recover.ExclusiveLogRecoverPerformer;
 import cn.edu.tsinghua.iotdb.writelog.recover.RecoverPerformer;
 import cn.edu.tsinghua.iotdb.writelog.transfer.PhysicalPlanLogTransfer;
@@ -16,11 +18,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
 
 /**
  * This WriteLogNode is used to manage write ahead logs of a single FileNode.
@@ -33,6 +42,11 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
     public static final String OLD_SUFFIX = "-old";
 
+    /**
+     * Size of the header of a log in file, which is the size(int) and checksum(long) of the log.
+     */
+    private static final int LOG_HEADER_SIZE = 4 + 8;
+
     /**
      * This should be the same as the corresponding FileNode's name.
      */
@@ -46,7 +60,32 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
     private TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
 
-    private List<byte[]> logCache = new ArrayList<>(config.flushWalThreshold);
+    /**
+     * Logs which are not written to the log file yet. Each log is encoded directly into this buffer and
+     * framed as [size(int)][checksum(long)][log], which is exactly the format of the log file, so the
+     * buffer can be written out without further copy. It is allocated at the first write and reused.
+     */
+    private ByteBuffer logBuffer;
+
+    /**
+     * Number of logs in logBuffer.
+     */
+    private int logCount = 0;
+
+    private CRC32 checkSummer = new CRC32();
+
+    /**
+     * When logs are written into segments, each started flush records the position of the writer without closing
+     * the current segment. When the flush ends, the position becomes the checkpoint from which logs are replayed
+     * and the segments before it are discarded. Flushes end in the order they start.
+     */
+    private ArrayDeque<LogPosition> flushingPositions = new ArrayDeque<>();
+
+    /**
+     * Number of flushes which are started but not ended. The old log file holds the logs of all of them, so it
+     * is discarded only when the last one ends.
+     */
+    private int flushingCount = 0;
 
     private ReadWriteLock lock = new ReentrantReadWriteLock();
 
@@ -56,7 +95,10 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
         new File(logDirectory).mkdirs();
 
         recoverPerformer = new ExclusiveLogRecoverPerformer(restoreFilePath, processorStoreFilePath, this);
-        currentFileWriter = new LogWriter(logDirectory + File.separator + WAL_FILE_NAME);
+        if (config.enableWalSegment)
+            currentFileWriter = new MMapLogWriter(logDirectory, config.walSegmentSize);
+        else
+            currentFileWriter = new LogWriter(logDirectory + File.separator + WAL_FILE_NAME);
     }
 
     public void setRecoverPerformer(RecoverPerformer recoverPerformer) {
@@ -68,18 +110,29 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
      */
     @Override
     public LogPosition write(PhysicalPlan plan) throws IOException {
+        writeWithoutWait(Collections.singletonList(plan)).await();
+        return null;
+    }
+
+    @Override
+    public LogDurability writeWithoutWait(List<? extends PhysicalPlan> plans) throws IOException {
         lockForWrite();
         try {
-            byte[] logBytes = PhysicalPlanLogTransfer.operatorToLog(plan);
-            logCache.add(logBytes);
+            for (PhysicalPlan plan : plans) {
+                putLog(plan);
+            }
 
-            if (logCache.size() >= config.flushWalThreshold) {
+            if (!config.enableWalGroupCommit && logCount >= config.flushWalThreshold) {
                 sync();
             }
         } finally {
             unlockForWrite();
         }
-        return null;
+        if (!config.enableWalGroupCommit) {
+            return LogDurability.DURABLE;
+        }
+        LogDurability durability = WALGroupCommitter.getInstance().commit(this);
+        return config.walGroupCommitSync ? durability : LogDurability.DURABLE;
     }
 
     @Override
@@ -115,23 +168,61 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     Warning : caller must have lock.
      */
     @Override
-    public void notifyStartFlush() throws IOException {
+    public synchronized void notifyStartFlush() throws IOException {
+        if (config.enableWalSegment) {
+            // the current segment is kept open, the writer rolls to a new segment only when it is full
+            sync();
+            LogPosition flushingPosition;
+            lockForOther();
+            try {
+                flushingPosition = ((MMapLogWriter) currentFileWriter).getPosition();
+            } finally {
+                unlockForOther();
+            }
+            flushingPositions.addLast(flushingPosition);
+            logger.info("Log node {} starts flush at {} offset {}", identifier, flushingPosition.logPath,
+                    flushingPosition.startPos);
+            return;
+        }
         close();
+        flushingCount++;
         File oldLogFile = new File(logDirectory + File.separator + WAL_FILE_NAME);
         File newLogFile = new File(logDirectory + File.separator + WAL_FILE_NAME + OLD_SUFFIX);
         if(!oldLogFile.exists())
             return;
+        if (newLogFile.exists()) {
+            // an earlier flush has not ended, its logs must be kept as well
+            appendToOldLog(oldLogFile, newLogFile);
+            return;
+        }
         if(!oldLogFile.renameTo(newLogFile))
             logger.error("Log node {} renaming log file failed!", identifier);
         else
             logger.info("Log node {} renamed log file, file size is {}", identifier, MemUtils.bytesCntToStr(newLogFile.length()));
     }
 
+    private void appendToOldLog(File logFile, File oldLogFile) throws IOException {
+        try (FileChannel source = new FileInputStream(logFile).getChannel();
+             FileChannel target = new FileOutputStream(oldLogFile, true).getChannel()) {
+            long position = 0;
+            long size = source.size();
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+            target.force(true);
+        }
+        if(!logFile.delete())
+            logger.error("Log node {} cannot delete log file after appending it to the old one", identifier);
+        else
+            logger.info("Log node {} appended log file to the old one, file size is {}", identifier,
+                    MemUtils.bytesCntToStr(oldLogFile.length()));
+    }
+
     /*
     Warning : caller must have lock.
      */
     @Override
-    public void notifyEndFlush(List<LogPosition> logPositions) {
+    public synchronized void notifyEndFlush(List<LogPosition> logPositions) {
         discard();
     }
 
@@ -149,7 +240,9 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     public void delete() throws IOException {
         lockForOther();
         try {
-            logCache.clear();
+            if(logBuffer != null)
+                logBuffer.clear();
+            logCount = 0;
             if(currentFileWriter != null)
                 currentFileWriter.close();
             FileUtils.deleteDirectory(new File(logDirectory));
@@ -178,23 +271,134 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     private void sync() {
         lockForOther();
         try {
-            logger.debug("Log node {} starts sync, {} logs to be synced", identifier, logCache.size());
-            if(logCache.size() == 0) {
+            logger.debug("Log node {} starts sync, {} logs to be synced", identifier, logCount);
+            if(logCount == 0) {
                 return;
             }
             try {
-                currentFileWriter.write(logCache);
+                logBuffer.flip();
+                currentFileWriter.write(logBuffer);
             } catch (IOException e) {
                 logger.error("Log node {} sync failed because {}.", identifier, e.getMessage());
             }
-            logCache.clear();
+            logBuffer.clear();
+            logCount = 0;
             logger.debug("Log node {} ends sync.", identifier);
         } finally {
             unlockForOther();
         }
     }
 
+    /*
+    Append logs in cache to the log file without forcing them, used by WALGroupCommitter.
+     */
+    void appendCache() throws IOException {
+        lockForOther();
+        try {
+            appendBuffer();
+        } finally {
+            unlockForOther();
+        }
+    }
+
+    /*
+    Warning : caller must have lock.
+     */
+    private void appendBuffer() throws IOException {
+        if(logCount == 0) {
+            return;
+        }
+        logBuffer.flip();
+        try {
+            currentFileWriter.append(logBuffer);
+        } finally {
+            logBuffer.clear();
+            logCount = 0;
+        }
+    }
+
+    /*
+    Encode the plan into logBuffer. If the buffer is too full to hold it, the buffered logs are
+    appended to the log file first.
+    Warning : caller must have lock.
+     */
+    private void putLog(PhysicalPlan plan) throws IOException {
+        if (logBuffer == null) {
+            logBuffer = config.walBufferDirect ? ByteBuffer.allocateDirect(config.walBufferSize)
+                    : ByteBuffer.allocate(config.walBufferSize);
+        }
+        if (tryPutLog(plan)) {
+            return;
+        }
+        appendBuffer();
+        if (tryPutLog(plan)) {
+            return;
+        }
+        // the log is larger than the whole buffer, which should be rare
+        byte[] logBytes = PhysicalPlanLogTransfer.operatorToLog(plan);
+        currentFileWriter.write(Collections.singletonList(logBytes));
+    }
+
+    /*
+    Return false if the remaining space of logBuffer is not enough for the log.
+     */
+    private boolean tryPutLog(PhysicalPlan plan) throws WALOverSizedException {
+        int start = logBuffer.position();
+        if (logBuffer.capacity() - start <= LOG_HEADER_SIZE) {
+            return false;
+        }
+        boolean limitedByEntrySize = logBuffer.capacity() - start - LOG_HEADER_SIZE > config.maxLogEntrySize;
+        logBuffer.limit(limitedByEntrySize ? start + LOG_HEADER_SIZE + config.maxLogEntrySize : logBuffer.capacity());
+        logBuffer.position(start + LOG_HEADER_SIZE);
+        try {
+            PhysicalPlanLogTransfer.operatorToLog(plan, logBuffer);
+        } catch (BufferOverflowException e) {
+            logBuffer.limit(logBuffer.capacity());
+            logBuffer.position(start);
+            if (limitedByEntrySize) {
+                throw new WALOverSizedException("Plan " + plan.toString() + " is too big to write to WAL");
+            }
+            return false;
+        }
+        int end = logBuffer.position();
+        // compute checksum on the buffer without copying the log out
+        logBuffer.limit(end);
+        logBuffer.position(start + LOG_HEADER_SIZE);
+        checkSummer.reset();
+        checkSummer.update(logBuffer);
+        logBuffer.limit(logBuffer.capacity());
+        logBuffer.putInt(start, end - start - LOG_HEADER_SIZE);
+        logBuffer.putLong(start + 4, checkSummer.getValue());
+        logBuffer.position(end);
+        logCount++;
+        return true;
+    }
+
+    /*
+    Force appended logs to disk, used by WALGroupCommitter. The node lock is held like appendCache so that
+    the writer is not closed or replaced by a flush or a close while being forced.
+     */
+    void forceWriter() throws IOException {
+        lockForOther();
+        try {
+            currentFileWriter.force();
+        } finally {
+            unlockForOther();
+        }
+    }
+
     private void discard() {
+        if (config.enableWalSegment) {
+            LogPosition flushingPosition = flushingPositions.pollFirst();
+            if (flushingPosition != null) {
+                discardSegments(flushingPosition);
+            }
+            return;
+        }
+        if (flushingCount > 0 && --flushingCount > 0) {
+            logger.info("Log node {} keeps old file for {} flushes", identifier, flushingCount);
+            return;
+        }
         File oldLogFile = new File(logDirectory + File.separator + WAL_FILE_NAME + OLD_SUFFIX);
         if(!oldLogFile.exists()) {
             logger.info("No old log to be deleted");
@@ -206,6 +410,28 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
         }
     }
 
+    /*
+    Save the position as the checkpoint and delete the segments before it, whose logs are all flushed.
+     */
+    private void discardSegments(LogPosition flushingPosition) {
+        try {
+            MMapLogWriter.writeCheckpoint(new File(logDirectory), flushingPosition);
+        } catch (IOException e) {
+            // the segments are kept, so the flushed logs are replayed again instead of being lost
+            logger.error("Log node {} cannot save checkpoint because {}", identifier, e.getMessage());
+            return;
+        }
+        int flushingSegmentIndex = MMapLogWriter.getSegmentIndex(flushingPosition.logPath);
+        for (File segment : MMapLogWriter.listSegments(new File(logDirectory))) {
+            if (MMapLogWriter.getSegmentIndex(segment) >= flushingSegmentIndex)
+                break;
+            if (!segment.delete())
+                logger.error("Log segment {} of {} cannot be deleted", segment.getName(), identifier);
+        }
+        logger.info("Log node {} cleaned logs before {} offset {}", identifier, flushingPosition.logPath,
+                flushingPosition.startPos);
+    }
+
     public String toString() {
         return "Log node " + identifier;
     }
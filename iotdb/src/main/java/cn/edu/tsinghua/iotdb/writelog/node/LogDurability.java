@@ -0,0 +1,23 @@
+package cn.edu.tsinghua.iotdb.writelog.node;
+
+import java.io.IOException;
+
+/**
+ * A handle returned by {@link WriteLogNode#writeWithoutWait} which is waited on until the written logs are
+ * durable. Callers holding the lock of a FileNode should release it before waiting, so that the writers of
+ * the same FileNode can join the same group commit.
+ */
+public interface LogDurability {
+
+    /**
+     * The handle of logs which need no waiting, e.g. when group commit is disabled or asynchronous.
+     */
+    LogDurability DURABLE = () -> {
+    };
+
+    /**
+     * Wait until the logs are forced to disk.
+     * @throws IOException if the logs fail to be written or forced, or the waiting is interrupted.
+     */
+    void await() throws IOException;
+}
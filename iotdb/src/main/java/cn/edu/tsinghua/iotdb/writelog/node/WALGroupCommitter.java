@@ -0,0 +1,196 @@
+package cn.edu.tsinghua.iotdb.writelog.node;
+
+import cn.edu.tsinghua.iotdb.concurrent.ThreadName;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * WALGroupCommitter is a commit pipeline shared by all ExclusiveWriteLogNodes when group commit is enabled.
+ * Writers put their logs into the cache of their own node and register the node in the current batch. A single
+ * commit thread collects the batch for at most {@code walGroupCommitWindowInMs}, appends the caches of all
+ * registered nodes to their files and then forces each touched file only once, so concurrent inserts of many
+ * storage groups share the fsyncs instead of issuing one per node per threshold.
+ * Writers may wait on their batch until it is durable (sync) or return immediately (async). The waiting happens
+ * outside the locks of the FileNode, so the writers of a storage group can share a batch as well.
+ */
+public class WALGroupCommitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WALGroupCommitter.class);
+
+    private TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+
+    private final Object monitor = new Object();
+
+    /**
+     * The batch which is accepting new nodes. Guarded by monitor.
+     */
+    private CommitBatch currentBatch = new CommitBatch();
+
+    private Thread commitThread;
+
+    /**
+     * Set by close() to make the commit thread exit after committing the current batch. Guarded by monitor.
+     * The thread is not interrupted, since an interrupt during a write or a force closes the log channel.
+     */
+    private boolean stopped;
+
+    private static class InstanceHolder {
+        private static WALGroupCommitter instance = new WALGroupCommitter();
+    }
+
+    private WALGroupCommitter() {
+    }
+
+    public static WALGroupCommitter getInstance() {
+        return InstanceHolder.instance;
+    }
+
+    /**
+     * Register a node whose cache contains logs to be committed in the next batch. This method does not block,
+     * writers which need durability wait on the returned handle after releasing their own locks.
+     * @param node the node whose cache should be committed.
+     * @return the handle of the batch, which is released after the logs of the batch are forced to disk.
+     */
+    public LogDurability commit(ExclusiveWriteLogNode node) {
+        CommitBatch batch;
+        synchronized (monitor) {
+            ensureStarted();
+            batch = currentBatch;
+            if (batch.nodes.isEmpty()) {
+                monitor.notifyAll();
+            }
+            batch.nodes.add(node);
+        }
+        return batch;
+    }
+
+    /**
+     * Commit what is left and stop the commit thread. The thread will be restarted by next commit.
+     */
+    public void close() {
+        Thread thread;
+        synchronized (monitor) {
+            thread = commitThread;
+            commitThread = null;
+            if (thread == null) {
+                return;
+            }
+            stopped = true;
+            monitor.notifyAll();
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // the batch may have been accepting nodes when the thread exits
+        CommitBatch batch;
+        synchronized (monitor) {
+            stopped = false;
+            batch = currentBatch;
+            currentBatch = new CommitBatch();
+        }
+        batch.process();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureStarted() {
+        if (commitThread == null || !commitThread.isAlive()) {
+            commitThread = new Thread(commitTask, ThreadName.WAL_GROUP_COMMIT.getName());
+            commitThread.setDaemon(true);
+            commitThread.start();
+        }
+    }
+
+    private final Runnable commitTask = new Runnable() {
+        @Override
+        public void run() {
+            while (true) {
+                CommitBatch batch;
+                boolean stopping;
+                try {
+                    synchronized (monitor) {
+                        while (currentBatch.nodes.isEmpty() && !stopped) {
+                            monitor.wait();
+                        }
+                        // wait for the commit window so that more writers can join this batch
+                        long deadline = System.currentTimeMillis() + config.walGroupCommitWindowInMs;
+                        long remaining = config.walGroupCommitWindowInMs;
+                        while (remaining > 0 && !stopped) {
+                            monitor.wait(remaining);
+                            remaining = deadline - System.currentTimeMillis();
+                        }
+                        stopping = stopped;
+                        batch = currentBatch;
+                        currentBatch = new CommitBatch();
+                    }
+                } catch (InterruptedException e) {
+                    logger.warn("WAL group commit thread is interrupted.");
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                batch.process();
+                if (stopping) {
+                    logger.info("WAL group commit thread exits.");
+                    return;
+                }
+            }
+        }
+    };
+
+    private static class CommitBatch implements LogDurability {
+
+        private Set<ExclusiveWriteLogNode> nodes = new LinkedHashSet<>();
+
+        private CountDownLatch durable = new CountDownLatch(1);
+
+        private volatile IOException exception;
+
+        private void process() {
+            try {
+                if (nodes.isEmpty()) {
+                    return;
+                }
+                logger.debug("Group commit starts, {} nodes to be committed", nodes.size());
+                for (ExclusiveWriteLogNode node : nodes) {
+                    node.appendCache();
+                }
+                for (ExclusiveWriteLogNode node : nodes) {
+                    node.forceWriter();
+                }
+                logger.debug("Group commit finished");
+            } catch (IOException e) {
+                logger.error("Group commit failed because {}", e.getMessage());
+                exception = e;
+            } finally {
+                durable.countDown();
+            }
+        }
+
+        @Override
+        public void await() throws IOException {
+            try {
+                durable.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted when waiting for WAL group commit", e);
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+}
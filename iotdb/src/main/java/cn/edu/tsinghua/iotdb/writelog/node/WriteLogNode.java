@@ -19,6 +19,14 @@ public interface WriteLogNode {
      */
     LogPosition write(PhysicalPlan plan) throws IOException;
 
+    /**
+     * Put the logs of the plans into the cache under one lock like write, but return before they are durable.
+     * The caller should release its own locks and then wait on the returned handle.
+     * @param plans
+     * @return A handle to wait until the logs are durable.
+     */
+    LogDurability writeWithoutWait(List<? extends PhysicalPlan> plans) throws IOException;
+
     /**
      * First judge the stage of recovery by status of files, and then recover from that stage.
      */
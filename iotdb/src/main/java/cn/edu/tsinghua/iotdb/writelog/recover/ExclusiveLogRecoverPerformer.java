@@ -4,9 +4,11 @@ import cn.edu.tsinghua.iotdb.engine.filenode.FileNodeManager;
 import cn.edu.tsinghua.iotdb.exception.FileNodeManagerException;
 import cn.edu.tsinghua.iotdb.exception.RecoverException;
 import cn.edu.tsinghua.iotdb.qp.physical.PhysicalPlan;
+import cn.edu.tsinghua.iotdb.writelog.LogPosition;
 import cn.edu.tsinghua.iotdb.writelog.RecoverStage;
 import cn.edu.tsinghua.iotdb.writelog.replay.ConcreteLogReplayer;
-import cn.edu.tsinghua.iotdb.writelog.io.RAFLogReader;
+import cn.edu.tsinghua.iotdb.writelog.io.MMapLogReader;
+import cn.edu.tsinghua.iotdb.writelog.io.MMapLogWriter;
 import cn.edu.tsinghua.iotdb.writelog.replay.LogReplayer;
 import cn.edu.tsinghua.iotdb.writelog.node.ExclusiveWriteLogNode;
 import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
@@ -44,8 +46,7 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
 
     private LogReplayer replayer = new ConcreteLogReplayer();
 
-    // The two fields can be made static only because the recovery is a serial process.
-    private static RAFLogReader RAFLogReader = new RAFLogReader();
+    private MMapLogReader logReader = new MMapLogReader();
 
     private RecoverPerformer fileNodeRecoverPerformer;
 
@@ -219,17 +220,21 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
     }
 
     private int replayLogFile(File logFile) throws RecoverException {
+        return replayLogFile(logFile, 0);
+    }
+
+    private int replayLogFile(File logFile, long startOffset) throws RecoverException {
         int failedCnt = 0;
         if(logFile.exists()) {
             try {
-                RAFLogReader.open(logFile);
+                logReader.open(logFile, startOffset);
             } catch (FileNotFoundException e) {
                 logger.error("Log node {} cannot read old log file, because {}",writeLogNode.getIdentifier(), e.getMessage());
                 throw new RecoverException("Cannot read old log file, recovery aborted.");
             }
-            while(RAFLogReader.hasNext()) {
+            while(logReader.hasNext()) {
                 try {
-                    PhysicalPlan physicalPlan = RAFLogReader.next();
+                    PhysicalPlan physicalPlan = logReader.next();
                     if(physicalPlan == null) {
                         logger.error("Log node {} read a bad log",writeLogNode.getIdentifier());
                         throw new RecoverException("Cannot read old log file, recovery aborted.");
@@ -240,7 +245,7 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
                     logger.error("Log node {}, {}", writeLogNode.getLogDirectory(), e.getMessage());
                 }
             }
-            RAFLogReader.close();
+            logReader.close();
         }
         return failedCnt;
     }
@@ -254,6 +259,21 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
         // then replay new log
         File newLogFile = new File(writeLogNode.getLogDirectory() + File.separator + ExclusiveWriteLogNode.WAL_FILE_NAME);
         failedEntryCnt += replayLogFile(newLogFile);
+        // logs written in segments are replayed in the order of segments, from the checkpoint of the last flush
+        LogPosition checkpoint;
+        try {
+            checkpoint = MMapLogWriter.readCheckpoint(new File(writeLogNode.getLogDirectory()));
+        } catch (IOException e) {
+            logger.error("Log node {} cannot read checkpoint, because {}", writeLogNode.getIdentifier(), e.getMessage());
+            throw new RecoverException("Cannot read log checkpoint, recovery aborted.");
+        }
+        int checkpointIndex = checkpoint == null ? -1 : MMapLogWriter.getSegmentIndex(checkpoint.logPath);
+        for (File segment : MMapLogWriter.listSegments(new File(writeLogNode.getLogDirectory()))) {
+            int segmentIndex = MMapLogWriter.getSegmentIndex(segment);
+            if (segmentIndex < checkpointIndex)
+                continue;
+            failedEntryCnt += replayLogFile(segment, segmentIndex == checkpointIndex ? checkpoint.startPos : 0);
+        }
         // TODO : do we need to proceed if there are failed logs ?
         if(failedEntryCnt > 0)
             throw new RecoverException("There are " + failedEntryCnt + " logs failed to recover, see logs above for details");
@@ -304,6 +324,19 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
                 failedFiles.add(newLogFile.getPath());
             }
         }
+        for (File segment : MMapLogWriter.listSegments(new File(writeLogNode.getLogDirectory()))) {
+            if(!segment.delete()) {
+                logger.error("Log node {} cannot delete log segment {}", writeLogNode.getLogDirectory(), segment.getName());
+                failedFiles.add(segment.getPath());
+            }
+        }
+        File checkpointFile = new File(writeLogNode.getLogDirectory(), MMapLogWriter.CHECKPOINT_FILE_NAME);
+        if(checkpointFile.exists()) {
+            if(!checkpointFile.delete()) {
+                logger.error("Log node {} cannot delete log checkpoint", writeLogNode.getLogDirectory());
+                failedFiles.add(checkpointFile.getPath());
+            }
+        }
         if(failedFiles.size() > 0)
             throw new RecoverException("File clean failed. Failed files are " + failedFiles.toString());
         // clean flag
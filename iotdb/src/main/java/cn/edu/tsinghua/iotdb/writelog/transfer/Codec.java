@@ -3,10 +3,22 @@ package cn.edu.tsinghua.iotdb.writelog.transfer;
 import cn.edu.tsinghua.iotdb.qp.physical.PhysicalPlan;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 interface Codec<T extends PhysicalPlan> {
 
 	byte[] encode(T t);
 
+	/**
+	 * Encode t directly into buffer starting from its current position.
+	 * @throws java.nio.BufferOverflowException if the remaining space of buffer is not enough.
+	 */
+	void encode(T t, ByteBuffer buffer);
+
 	T decode(byte[] bytes) throws IOException;
+
+	/**
+	 * Decode a log from buffer starting from its current position, the position is advanced to the end of the log.
+	 */
+	T decode(ByteBuffer buffer) throws IOException;
 }
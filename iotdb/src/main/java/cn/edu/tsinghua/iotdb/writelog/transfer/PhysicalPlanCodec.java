@@ -47,6 +47,44 @@ public enum PhysicalPlanCodec {
         return codecMap.get(opcode);
     }
 
+    /**
+     * Put the length and the UTF-8 bytes of a string into the buffer without creating an intermediate byte array.
+     * The result is the same as putting the length and the bytes of {@link BytesUtils#StringToBytes(String)}.
+     */
+    static void putString(ByteBuffer buffer, String str) {
+        int lengthPosition = buffer.position();
+        buffer.putInt(0);
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xc0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                int codePoint = -1;
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    codePoint = Character.toCodePoint(c, str.charAt(++i));
+                }
+                if (codePoint < 0) {
+                    // malformed surrogate is replaced the same way as String.getBytes() does
+                    buffer.put((byte) '?');
+                } else {
+                    buffer.put((byte) (0xf0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3f)));
+                }
+            } else {
+                buffer.put((byte) (0xe0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                buffer.put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+        buffer.putInt(lengthPosition, buffer.position() - lengthPosition - 4);
+    }
+
     static class codecInstances {
 
         static final Codec<DeletePlan> deletePlanCodec = new Codec<DeletePlan>() {
@@ -57,21 +95,28 @@ public enum PhysicalPlanCodec {
                 if (localBuffer.get() == null)
                     localBuffer.set(ByteBuffer.allocate(config.maxLogEntrySize));
 
-                int type = SystemLogOperator.DELETE;
                 ByteBuffer buffer = localBuffer.get();
                 buffer.clear();
-                buffer.put((byte) type);
-                buffer.putLong(t.getDeleteTime());
-                byte[] pathBytes = BytesUtils.StringToBytes(t.getPaths().get(0).getFullPath());
-                buffer.putInt(pathBytes.length);
-                buffer.put(pathBytes);
+                encode(t, buffer);
 
                 return Arrays.copyOfRange(buffer.array(), 0, buffer.position());
             }
 
+            @Override
+            public void encode(DeletePlan t, ByteBuffer buffer) {
+                int type = SystemLogOperator.DELETE;
+                buffer.put((byte) type);
+                buffer.putLong(t.getDeleteTime());
+                putString(buffer, t.getPaths().get(0).getFullPath());
+            }
+
             @Override
             public DeletePlan decode(byte[] bytes) throws IOException {
-                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                return decode(ByteBuffer.wrap(bytes));
+            }
+
+            @Override
+            public DeletePlan decode(ByteBuffer buffer) throws IOException {
                 int type = buffer.get();
                 long time = buffer.getLong();
 
@@ -89,12 +134,19 @@ public enum PhysicalPlanCodec {
 
             @Override
             public byte[] encode(UpdatePlan updatePlan) {
-                int type = SystemLogOperator.UPDATE;
                 if (localBuffer.get() == null)
                     localBuffer.set(ByteBuffer.allocate(config.maxLogEntrySize));
 
                 ByteBuffer buffer = localBuffer.get();
                 buffer.clear();
+                encode(updatePlan, buffer);
+
+                return Arrays.copyOfRange(buffer.array(), 0, buffer.position());
+            }
+
+            @Override
+            public void encode(UpdatePlan updatePlan, ByteBuffer buffer) {
+                int type = SystemLogOperator.UPDATE;
                 buffer.put((byte) type);
                 buffer.putInt(updatePlan.getIntervals().size());
                 for (Pair<Long, Long> pair : updatePlan.getIntervals()) {
@@ -102,20 +154,17 @@ public enum PhysicalPlanCodec {
                     buffer.putLong(pair.right);
                 }
 
-                byte[] valueBytes = BytesUtils.StringToBytes(updatePlan.getValue());
-                buffer.putInt(valueBytes.length);
-                buffer.put(valueBytes);
-
-                byte[] pathBytes = BytesUtils.StringToBytes(updatePlan.getPath().getFullPath());
-                buffer.putInt(pathBytes.length);
-                buffer.put(pathBytes);
-
-                return Arrays.copyOfRange(buffer.array(), 0, buffer.position());
+                putString(buffer, updatePlan.getValue());
+                putString(buffer, updatePlan.getPath().getFullPath());
             }
 
             @Override
             public UpdatePlan decode(byte[] bytes) throws IOException {
-                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                return decode(ByteBuffer.wrap(bytes));
+            }
+
+            @Override
+            public UpdatePlan decode(ByteBuffer buffer) throws IOException {
                 int type = buffer.get();
 
                 int timeListBytesLength = buffer.getInt();
@@ -145,42 +194,44 @@ public enum PhysicalPlanCodec {
 
             @Override
             public byte[] encode(InsertPlan plan) {
-                int type = SystemLogOperator.INSERT;
                 if (localBuffer.get() == null)
                     localBuffer.set(ByteBuffer.allocate(config.maxLogEntrySize));
                 ByteBuffer buffer = localBuffer.get();
                 buffer.clear();
+                encode(plan, buffer);
+
+                return Arrays.copyOfRange(buffer.array(), 0, buffer.position());
+            }
+
+            @Override
+            public void encode(InsertPlan plan, ByteBuffer buffer) {
+                int type = SystemLogOperator.INSERT;
                 buffer.put((byte) type);
                 buffer.put((byte) plan.getInsertType());
                 buffer.putLong(plan.getTime());
 
-                byte[] deltaObjectBytes = BytesUtils.StringToBytes(plan.getDeltaObject());
-                buffer.putInt(deltaObjectBytes.length);
-                buffer.put(deltaObjectBytes);
+                putString(buffer, plan.getDeltaObject());
 
                 List<String> measurementList = plan.getMeasurements();
                 buffer.putInt(measurementList.size());
                 for (String m : measurementList) {
-                    byte[] mBytes = BytesUtils.StringToBytes(m);
-                    buffer.putInt(mBytes.length);
-                    buffer.put(mBytes);
+                    putString(buffer, m);
                 }
 
                 List<String> valueList = plan.getValues();
                 buffer.putInt(valueList.size());
                 for (String m : valueList) {
-                    byte[] vBytes = BytesUtils.StringToBytes(m);
-                    buffer.putInt(vBytes.length);
-                    buffer.put(vBytes);
+                    putString(buffer, m);
                 }
-
-                return Arrays.copyOfRange(buffer.array(), 0, buffer.position());
             }
 
             @Override
             public InsertPlan decode(byte[] bytes) throws IOException {
-                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                return decode(ByteBuffer.wrap(bytes));
+            }
 
+            @Override
+            public InsertPlan decode(ByteBuffer buffer) throws IOException {
                 int type = buffer.get();
                 int insertType = buffer.get();
                 long time = buffer.getLong();
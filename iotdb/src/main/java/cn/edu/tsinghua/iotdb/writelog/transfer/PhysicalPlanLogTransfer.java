@@ -5,29 +5,40 @@ import cn.edu.tsinghua.iotdb.qp.physical.PhysicalPlan;
 
 import java.io.IOException;
 import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 public class PhysicalPlanLogTransfer {
 
     public static byte[] operatorToLog(PhysicalPlan plan) throws WALOverSizedException {
-        Codec<PhysicalPlan> codec = null;
+        Codec<PhysicalPlan> codec = getCodec(plan);
+        try {
+            return codec.encode(plan);
+        } catch (BufferOverflowException e) {
+            throw new WALOverSizedException("Plan " + plan.toString() + " is too big to write to WAL");
+        }
+    }
+
+    /**
+     * Encode the plan directly into buffer from its current position, the encoded bytes are the same as
+     * {@link #operatorToLog(PhysicalPlan)}.
+     * @throws BufferOverflowException if the remaining space of buffer is not enough, the position of buffer is
+     * undefined in this case.
+     */
+    public static void operatorToLog(PhysicalPlan plan, ByteBuffer buffer) {
+        getCodec(plan).encode(plan, buffer);
+    }
+
+    private static Codec<PhysicalPlan> getCodec(PhysicalPlan plan) {
         switch (plan.getOperatorType()) {
             case INSERT:
-                codec = (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(SystemLogOperator.INSERT).codec;
-                break;
+                return (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(SystemLogOperator.INSERT).codec;
             case UPDATE:
-                codec = (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(SystemLogOperator.UPDATE).codec;
-                break;
+                return (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(SystemLogOperator.UPDATE).codec;
             case DELETE:
-                codec = (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(SystemLogOperator.DELETE).codec;
-                break;
+                return (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(SystemLogOperator.DELETE).codec;
             default:
                 throw new UnsupportedOperationException("SystemLogOperator given is not supported. " + plan.getOperatorType());
         }
-        try {
-            return codec.encode(plan);
-        } catch (BufferOverflowException e) {
-            throw new WALOverSizedException("Plan " + plan.toString() + " is too big to write to WAL");
-        }
     }
 
     public static PhysicalPlan logToOperator(byte[] opInBytes) throws IOException {
@@ -36,4 +47,15 @@ public class PhysicalPlanLogTransfer {
         Codec<PhysicalPlan> codec = (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(opCode).codec;
         return codec.decode(opInBytes);
     }
+
+    /**
+     * Decode a log from buffer starting from its current position, so that a log in a mapped file can be decoded
+     * without being copied out first.
+     */
+    public static PhysicalPlan logToOperator(ByteBuffer buffer) throws IOException {
+        // the first byte determines the opCode
+        int opCode = buffer.get(buffer.position());
+        Codec<PhysicalPlan> codec = (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(opCode).codec;
+        return codec.decode(buffer);
+    }
 }
@@ -1,6 +1,7 @@
 package cn.edu.tsinghua.iotdb.engine.bufferwrite;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
@@ -8,14 +9,18 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
 import cn.edu.tsinghua.iotdb.conf.directories.Directories;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import cn.edu.tsinghua.iotdb.engine.MetadataManagerHelper;
+import cn.edu.tsinghua.iotdb.engine.memcontrol.BasicMemController;
 import cn.edu.tsinghua.iotdb.engine.querycontext.RawSeriesChunk;
 import cn.edu.tsinghua.iotdb.exception.BufferWriteProcessorException;
 import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
@@ -43,11 +48,16 @@ public class BufferWriteProcessorNewTest {
 		}
 	};
 
+	// the flush of a memtable waits for this latch if it is set
+	CountDownLatch flushLatch = null;
+
 	Action fnflushaction = new Action() {
 
 		@Override
 		public void act() throws Exception {
-
+			if (flushLatch != null) {
+				flushLatch.await();
+			}
 		}
 	};
 	Map<String, Object> parameters = new HashMap<>();
@@ -132,4 +142,85 @@ public class BufferWriteProcessorNewTest {
 		assertEquals(dataType, right.get(0).getVInTimeSeriesChunkMetaData().getDataType());
 		bufferWriteProcessor.close();
 	}
+
+	@Test
+	public void testFlushSeveralMemTables()
+			throws BufferWriteProcessorException, WriteProcessException, IOException, InterruptedException {
+		TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+		int memtableNumber = config.memtableNumber;
+		config.memtableNumber = 3;
+		try {
+			bufferwrite = new BufferWriteProcessor(Directories.getInstance().getFolderForTest(),
+					processorName, filename, parameters, FileSchemaUtils.constructFileSchema(processorName));
+			// every flush switches to a new memtable, the data being flushed can still be queried
+			for (int round = 0; round < 3; round++) {
+				for (int i = round * 100 + 1; i <= round * 100 + 100; i++) {
+					bufferwrite.write(processorName, measurementId, i, dataType, String.valueOf(i));
+				}
+				bufferwrite.flush();
+				Pair<RawSeriesChunk, List<TimeSeriesChunkMetaData>> pair = bufferwrite
+						.queryBufferWriteData(processorName, measurementId, dataType);
+				int inMemory = 0;
+				Iterator<TimeValuePair> iterator = pair.left.getIterator();
+				while (iterator.hasNext()) {
+					iterator.next();
+					inMemory++;
+				}
+				long flushed = 0;
+				for (TimeSeriesChunkMetaData chunkMetaData : pair.right) {
+					flushed += chunkMetaData.getNumRows();
+				}
+				assertEquals((round + 1) * 100, inMemory + flushed);
+			}
+			// waiting for the end of flush.
+			for (int i = 0; i < 100 && bufferwrite.isFlush(); i++) {
+				TimeUnit.MILLISECONDS.sleep(100);
+			}
+			assertEquals(false, bufferwrite.isFlush());
+			Pair<RawSeriesChunk, List<TimeSeriesChunkMetaData>> pair = bufferwrite.queryBufferWriteData(processorName,
+					measurementId, dataType);
+			assertEquals(true, pair.left.isEmpty());
+			assertEquals(3, pair.right.size());
+		} finally {
+			config.memtableNumber = memtableNumber;
+		}
+	}
+
+	@Test
+	public void testMemoryFreedAfterFlush()
+			throws BufferWriteProcessorException, WriteProcessException, IOException, InterruptedException {
+		TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+		int memtableNumber = config.memtableNumber;
+		int memControllerType = config.memControllerType;
+		config.memtableNumber = 3;
+		// the memory reported by the processor is counted by the record controller
+		config.memControllerType = BasicMemController.CONTROLLER_TYPE.RECORD.ordinal();
+		flushLatch = new CountDownLatch(1);
+		try {
+			bufferwrite = new BufferWriteProcessor(Directories.getInstance().getFolderForTest(),
+					processorName, filename, parameters, FileSchemaUtils.constructFileSchema(processorName));
+			long baseUsage = BasicMemController.getInstance().getTotalUsage();
+			for (int round = 0; round < 2; round++) {
+				for (int i = round * 100 + 1; i <= round * 100 + 100; i++) {
+					bufferwrite.write(processorName, measurementId, i, dataType, String.valueOf(i));
+				}
+				bufferwrite.flush();
+			}
+			// the memtables waiting to be flushed are still counted
+			assertTrue(BasicMemController.getInstance().getTotalUsage() > baseUsage);
+			assertEquals(0, bufferwrite.memoryUsage());
+			flushLatch.countDown();
+			// waiting for the end of flush.
+			for (int i = 0; i < 100 && bufferwrite.isFlush(); i++) {
+				TimeUnit.MILLISECONDS.sleep(100);
+			}
+			assertEquals(false, bufferwrite.isFlush());
+			assertEquals(baseUsage, BasicMemController.getInstance().getTotalUsage());
+		} finally {
+			flushLatch.countDown();
+			flushLatch = null;
+			config.memtableNumber = memtableNumber;
+			config.memControllerType = memControllerType;
+		}
+	}
 }
@@ -0,0 +1,132 @@
+package cn.edu.tsinghua.iotdb.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.engine.memcontrol.BasicMemController;
+import cn.edu.tsinghua.iotdb.engine.memcontrol.RecordMemController;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.common.MemSeriesChunk;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoader;
+
+public class SeriesChunkCacheTest {
+
+	private static final long MB = 1024 * 1024;
+
+	private TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+	private int memControllerType;
+	private RecordMemController memController = RecordMemController.getInstance();
+	private SeriesChunkCache cache;
+	// the number of the chunks read from the files
+	private AtomicInteger loadNum = new AtomicInteger();
+	private SeriesChunkLoader loader = descriptor -> {
+		loadNum.incrementAndGet();
+		return new MemSeriesChunk(descriptor, new ByteArrayInputStream(new byte[0]));
+	};
+
+	@Before
+	public void setUp() {
+		memControllerType = config.memControllerType;
+		config.memControllerType = BasicMemController.CONTROLLER_TYPE.RECORD.ordinal();
+		// the thresholds are relative to the memory used by others
+		memController.setWarningThreshold(memController.getTotalUsage() + MB);
+		memController.setDangerouseThreshold(memController.getTotalUsage() + 2 * MB);
+		cache = new SeriesChunkCache(MB);
+	}
+
+	@After
+	public void tearDown() {
+		cache.clear();
+		memController.setWarningThreshold(config.memThresholdWarning);
+		memController.setDangerouseThreshold(config.memThresholdDangerous);
+		config.memControllerType = memControllerType;
+	}
+
+	private void get(String filePath, long offset) throws IOException {
+		EncodedSeriesChunkDescriptor descriptor = new EncodedSeriesChunkDescriptor(filePath, offset, 10,
+				CompressionTypeName.UNCOMPRESSED, TSDataType.INT32, null, 0, 0, 0);
+		cache.get(filePath, descriptor, loader);
+	}
+
+	@Test
+	public void testRemoveFile() throws IOException {
+		long baseUsage = memController.getTotalUsage();
+		get("f1", 0);
+		get("f1", 100);
+		get("f2", 0);
+		assertEquals(3, loadNum.get());
+		// the cached chunks are reported as used memory
+		assertEquals(cache.getCache().getUsedWeight(), memController.getTotalUsage() - baseUsage);
+		get("f1", 0);
+		get("f1", 100);
+		get("f2", 0);
+		assertEquals(3, loadNum.get());
+
+		// f1 is merged or deleted, so its chunks are read again
+		cache.removeFile("f1");
+		assertEquals(1, cache.getCache().size());
+		assertEquals(cache.getCache().getUsedWeight(), memController.getTotalUsage() - baseUsage);
+		get("f1", 0);
+		get("f1", 100);
+		get("f2", 0);
+		assertEquals(5, loadNum.get());
+	}
+
+	@Test
+	public void testRemoveDirectory() throws IOException {
+		String dir = "data" + File.separator + "root.vehicle";
+		String f1 = dir + File.separator + "f1";
+		String f2 = dir + File.separator + "f2";
+		// not in the directory although its path starts with the directory path
+		String f3 = dir + "1" + File.separator + "f3";
+		get(f1, 0);
+		get(f2, 0);
+		get(f3, 0);
+		assertEquals(3, loadNum.get());
+
+		cache.removeDirectory(dir);
+		assertEquals(1, cache.getCache().size());
+		get(f1, 0);
+		get(f2, 0);
+		get(f3, 0);
+		assertEquals(5, loadNum.get());
+	}
+
+	@Test
+	public void testNotAdmittedUnderMemoryPressure() throws IOException {
+		Object writer = new Object();
+		// the writes reach the warning threshold
+		long pressure = MB;
+		memController.reportUse(writer, pressure);
+		try {
+			assertEquals(BasicMemController.UsageLevel.WARNING, memController.getCurrLevel());
+			long usage = memController.getTotalUsage();
+			// read from the file every time rather than cached
+			get("f1", 0);
+			get("f1", 0);
+			assertEquals(2, loadNum.get());
+			assertEquals(0, cache.getCache().size());
+			assertEquals(usage, memController.getTotalUsage());
+		} finally {
+			memController.reportFree(writer, pressure);
+		}
+
+		// cached again once the memory is freed
+		get("f1", 0);
+		get("f1", 0);
+		assertEquals(3, loadNum.get());
+		assertEquals(1, cache.getCache().size());
+	}
+}
@@ -0,0 +1,177 @@
+package cn.edu.tsinghua.iotdb.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class WeightedLRUCacheTest {
+
+	private static final int SEGMENT_CAPACITY = 100;
+
+	private WeightedLRUCache<String, String> newCache() {
+		return new WeightedLRUCache<String, String>(16 * SEGMENT_CAPACITY) {
+			@Override
+			protected long weigh(String key, String value) {
+				return value.length();
+			}
+		};
+	}
+
+	@Test
+	public void testEvictByWeight() throws IOException {
+		WeightedLRUCache<String, String> cache = newCache();
+		AtomicInteger loadNum = new AtomicInteger();
+		for (int i = 0; i < 1000; i++) {
+			cache.get("key" + i, () -> {
+				loadNum.incrementAndGet();
+				return "0123456789";
+			});
+			assertTrue(cache.getUsedWeight() <= cache.getCapacityInByte());
+		}
+		assertEquals(1000, loadNum.get());
+		assertEquals(1000, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1000, cache.getEvictionCount() + cache.size());
+		assertEquals(10L * cache.size(), cache.getUsedWeight());
+
+		// the most recently used one is never evicted
+		cache.get("key999", () -> {
+			fail("key999 should be cached");
+			return null;
+		});
+		assertEquals(1, cache.getHitCount());
+
+		cache.remove("key999");
+		assertEquals(10L * cache.size(), cache.getUsedWeight());
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getUsedWeight());
+	}
+
+	@Test
+	public void testNotCached() throws IOException {
+		WeightedLRUCache<String, String> cache = newCache();
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i <= SEGMENT_CAPACITY; i++) {
+			builder.append('a');
+		}
+		String heavy = builder.toString();
+		assertEquals(heavy, cache.get("heavy", () -> heavy));
+		assertNull(cache.get("null", () -> null));
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getUsedWeight());
+
+		try {
+			cache.get("error", () -> {
+				throw new IOException("read error");
+			});
+			fail();
+		} catch (IOException e) {
+			assertEquals("read error", e.getMessage());
+		}
+		assertEquals("value", cache.get("error", () -> "value"));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testGetIfPresent() throws IOException {
+		WeightedLRUCache<String, String> cache = newCache();
+		assertNull(cache.getIfPresent("key"));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+		cache.get("key", () -> "value");
+		assertEquals("value", cache.getIfPresent("key"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(SEGMENT_CAPACITY, cache.getSegmentCapacityInByte());
+	}
+
+	@Test
+	public void testLoadOnceConcurrently() throws Exception {
+		WeightedLRUCache<String, String> cache = newCache();
+		int threadNum = 8;
+		AtomicInteger loadNum = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threadNum);
+		try {
+			List<Future<String>> futures = new ArrayList<>();
+			for (int i = 0; i < threadNum; i++) {
+				futures.add(pool.submit(() -> cache.get("key", () -> {
+					loadNum.incrementAndGet();
+					try {
+						// keep loading for a while so that the other threads miss the key at the same time
+						loading.await(100, TimeUnit.MILLISECONDS);
+					} catch (InterruptedException e) {
+						throw new IOException(e);
+					}
+					return "value";
+				})));
+			}
+			for (Future<String> future : futures) {
+				assertEquals("value", future.get());
+			}
+		} finally {
+			loading.countDown();
+			pool.shutdown();
+		}
+		assertEquals(1, loadNum.get());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(threadNum - 1, cache.getHitCount());
+	}
+
+	@Test
+	public void testAdmitAndRemoval() throws IOException {
+		AtomicLong reserved = new AtomicLong();
+		WeightedLRUCache<String, String> cache = new WeightedLRUCache<String, String>(16 * SEGMENT_CAPACITY) {
+			@Override
+			protected long weigh(String key, String value) {
+				return value.length();
+			}
+
+			@Override
+			protected boolean admit(String key, String value, long weight) {
+				if (key.startsWith("rejected")) {
+					return false;
+				}
+				reserved.addAndGet(weight);
+				return true;
+			}
+
+			@Override
+			protected void onRemoval(String key, String value, long weight) {
+				reserved.addAndGet(-weight);
+			}
+		};
+		for (int i = 0; i < 1000; i++) {
+			cache.get("file" + (i % 2) + ":" + i, () -> "0123456789");
+			assertEquals(cache.getUsedWeight(), reserved.get());
+		}
+		assertEquals("value", cache.get("rejected", () -> "value"));
+		assertEquals(cache.getUsedWeight(), reserved.get());
+
+		int size = cache.size();
+		cache.removeIf(key -> key.startsWith("file0:"));
+		assertTrue(cache.size() < size);
+		assertEquals(cache.getUsedWeight(), reserved.get());
+		for (int i = 0; i < 1000; i += 2) {
+			int index = i;
+			assertEquals("new", cache.get("file0:" + index, () -> "new"));
+			cache.remove("file0:" + index);
+		}
+		cache.clear();
+		assertEquals(0, reserved.get());
+	}
+}
@@ -0,0 +1,170 @@
+package cn.edu.tsinghua.iotdb.engine.filenode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cn.edu.tsinghua.iotdb.engine.MetadataManagerHelper;
+import cn.edu.tsinghua.iotdb.engine.querycontext.GlobalSortedSeriesDataSource;
+import cn.edu.tsinghua.iotdb.engine.querycontext.QueryDataSource;
+import cn.edu.tsinghua.iotdb.exception.FileNodeManagerException;
+import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
+import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkMetaData;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import cn.edu.tsinghua.tsfile.timeseries.filterV2.TimeFilter;
+import cn.edu.tsinghua.tsfile.timeseries.filterV2.expression.impl.SeriesFilter;
+import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.DataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.TSRecord;
+
+/**
+ * The processor of a storage group is constructed once when several threads
+ * open it at the same time, and its queries run alongside its inserts.
+ */
+public class FileNodeManagerConcurrentTest {
+
+	private static final int THREAD_NUM = 8;
+	private static final int POINT_NUM = 1000;
+
+	private String deltaObjectId = "root.vehicle.d0";
+	private String measurementId = "s0";
+	private FileNodeManager fileNodeManager;
+
+	@Before
+	public void setUp() throws Exception {
+		EnvironmentUtils.closeStatMonitor();
+		EnvironmentUtils.closeMemControl();
+		MetadataManagerHelper.initMetadata();
+		EnvironmentUtils.envSetUp();
+		fileNodeManager = FileNodeManager.getInstance();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		EnvironmentUtils.cleanEnv();
+	}
+
+	@Test
+	public void testGetProcessorConcurrently() throws InterruptedException {
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		FileNodeProcessor[] processors = new FileNodeProcessor[THREAD_NUM];
+		CountDownLatch startLatch = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < THREAD_NUM; i++) {
+			int index = i;
+			Thread thread = new Thread(() -> {
+				try {
+					startLatch.await();
+					FileNodeProcessor processor = fileNodeManager.getProcessor(deltaObjectId, false);
+					processor.readUnlock();
+					processors[index] = processor;
+				} catch (Throwable e) {
+					error.compareAndSet(null, e);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		startLatch.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		checkError(error);
+		for (FileNodeProcessor processor : processors) {
+			assertTrue(processors[0] == processor);
+		}
+	}
+
+	@Test
+	public void testQueryWithInsert() throws InterruptedException, FileNodeManagerException {
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		AtomicBoolean insertEnded = new AtomicBoolean(false);
+		List<Thread> threads = new ArrayList<>();
+		threads.add(new Thread(() -> {
+			try {
+				for (int time = 1; time <= POINT_NUM; time++) {
+					TSRecord record = new TSRecord(time, deltaObjectId);
+					record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(time)));
+					fileNodeManager.insert(record, false);
+				}
+			} catch (Throwable e) {
+				error.compareAndSet(null, e);
+			} finally {
+				insertEnded.set(true);
+			}
+		}));
+		for (int i = 0; i < THREAD_NUM; i++) {
+			threads.add(new Thread(() -> {
+				try {
+					// the points are inserted in time order, so a later query sees no less of them
+					int lastCount = 0;
+					while (!insertEnded.get()) {
+						int count = queryCount();
+						assertTrue(count >= lastCount);
+						assertTrue(count <= POINT_NUM);
+						lastCount = count;
+					}
+				} catch (Throwable e) {
+					error.compareAndSet(null, e);
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		checkError(error);
+		assertEquals(POINT_NUM, queryCount());
+	}
+
+	private int queryCount() throws FileNodeManagerException {
+		int token = fileNodeManager.beginQuery(deltaObjectId);
+		try {
+			SeriesFilter<Long> seriesFilter = new SeriesFilter<>(new Path(deltaObjectId + "." + measurementId),
+					TimeFilter.gt(0L));
+			QueryDataSource queryDataSource = fileNodeManager.query(seriesFilter);
+			GlobalSortedSeriesDataSource dataSource = queryDataSource.getSeriesDataSource();
+			int count = 0;
+			if (dataSource.hasUnsealedTsFile()) {
+				for (TimeSeriesChunkMetaData chunkMetaData : dataSource.getUnsealedTsFile()
+						.getTimeSeriesChunkMetaDatas()) {
+					count += chunkMetaData.getNumRows();
+				}
+			}
+			if (dataSource.hasRawSeriesChunk()) {
+				long lastTime = 0;
+				Iterator<TimeValuePair> iterator = dataSource.getRawSeriesChunk().getIterator();
+				while (iterator.hasNext()) {
+					long time = iterator.next().getTimestamp();
+					assertTrue(time > lastTime);
+					lastTime = time;
+					count++;
+				}
+			}
+			return count;
+		} finally {
+			fileNodeManager.endQuery(deltaObjectId, token);
+		}
+	}
+
+	private void checkError(AtomicReference<Throwable> error) {
+		if (error.get() != null) {
+			error.get().printStackTrace();
+			fail(error.get().toString());
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package cn.edu.tsinghua.iotdb.engine.memtable;
+
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class MemTablePoolTest {
+
+    @Test
+    public void reuseTest() {
+        MemTablePool pool = new MemTablePool("root.pool", 2);
+        IMemTable memTable = pool.getAvailableMemTable();
+        for (int i = 0; i < 1000; i++) {
+            memTable.write("d0", "s0", TSDataType.INT64, i, String.valueOf(i));
+        }
+        Assert.assertEquals(1, pool.getUsedNumber());
+        pool.putBack(memTable);
+        Assert.assertEquals(0, pool.getUsedNumber());
+
+        IMemTable reused = pool.getAvailableMemTable();
+        Assert.assertSame(memTable, reused);
+        Assert.assertTrue(reused.isEmpty());
+        Assert.assertEquals(0, reused.query("d0", "s0", TSDataType.INT64).count());
+        reused.write("d0", "s0", TSDataType.INT64, 5, "5");
+        Assert.assertEquals(1, reused.size());
+    }
+
+    @Test
+    public void backpressureTest() throws InterruptedException {
+        MemTablePool pool = new MemTablePool("root.pool", 2);
+        IMemTable first = pool.getAvailableMemTable();
+        pool.getAvailableMemTable();
+        Assert.assertEquals(2, pool.getUsedNumber());
+
+        // all memtables are in use, the next one is available only after a memtable is put back
+        AtomicReference<IMemTable> third = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            third.set(pool.getAvailableMemTable());
+            latch.countDown();
+        });
+        writer.start();
+        Assert.assertFalse(latch.await(200, TimeUnit.MILLISECONDS));
+        Assert.assertNull(third.get());
+
+        pool.putBack(first);
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertSame(first, third.get());
+        Assert.assertEquals(2, pool.getUsedNumber());
+        writer.join();
+    }
+}
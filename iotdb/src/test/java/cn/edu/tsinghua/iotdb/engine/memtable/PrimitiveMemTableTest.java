@@ -10,7 +10,9 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 
 /**
  * Created by zhangjinrui on 2018/1/25.
@@ -34,6 +36,28 @@ public class PrimitiveMemTableTest {
         Assert.assertEquals(count, i);
     }
 
+    @Test
+    public void memSeriesSnapshotTest() {
+        // the snapshot is sorted after the series is reset and reused
+        PrimitiveMemSeries series = new PrimitiveMemSeries(TSDataType.INT64);
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            series.putLong(count - i - 1, i);
+        }
+        TimeValuePairSorter snapshot = series.snapshot();
+        series.reset();
+        for (int i = 0; i < count; i++) {
+            series.putLong(i, -i);
+        }
+        int i = 0;
+        for (TimeValuePair timeValuePair : snapshot.getSortedTimeValuePairList()) {
+            Assert.assertEquals(i, timeValuePair.getTimestamp());
+            Assert.assertEquals((long) (count - i - 1), timeValuePair.getValue().getValue());
+            i++;
+        }
+        Assert.assertEquals(count, i);
+    }
+
     @Test
     public void simpleTest() {
         IMemTable memTable = new PrimitiveMemTable();
@@ -104,6 +128,40 @@ public class PrimitiveMemTableTest {
         write(memTable, deviceId, measurementId[index++], TSDataType.TEXT, size);
     }
 
+    @Test
+    public void sortedTimeValueArrayTest() {
+        // timestamps are partly ordered and often duplicated, the last written value of a timestamp should be kept
+        PrimitiveMemSeries series = new PrimitiveMemSeries(TSDataType.INT64);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        Random rand = new Random();
+        for (int i = 0; i < 10000; i++) {
+            long time = i % 3 == 0 ? rand.nextInt(5000) : i;
+            long value = rand.nextLong();
+            series.putLong(time, value);
+            expected.put(time, value);
+        }
+        TimeValueArray array = series.getSortedTimeValueArray();
+        Assert.assertEquals(expected.size(), array.size());
+        int i = 0;
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            Assert.assertEquals((long) entry.getKey(), array.getTimestamp(i));
+            Assert.assertEquals((long) entry.getValue(), array.getLong(i));
+            i++;
+        }
+
+        // points written in time order are returned as they are
+        series.reset();
+        for (i = 0; i < 1000; i++) {
+            series.putLong(i, i);
+        }
+        array = series.getSortedTimeValueArray();
+        Assert.assertEquals(1000, array.size());
+        for (i = 0; i < 1000; i++) {
+            Assert.assertEquals(i, array.getTimestamp(i));
+            Assert.assertEquals(i, array.getLong(i));
+        }
+    }
+
     private TimeValuePair[] genTimeValuePair(int size, TSDataType dataType) {
         TimeValuePair[] ret = new TimeValuePair[size];
         Random rand = new Random();
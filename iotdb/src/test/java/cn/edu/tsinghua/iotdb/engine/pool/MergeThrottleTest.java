@@ -0,0 +1,41 @@
+package cn.edu.tsinghua.iotdb.engine.pool;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+
+public class MergeThrottleTest {
+
+	private MergeThrottle throttle = MergeThrottle.getInstance();
+
+	@After
+	public void tearDown() {
+		throttle.setThroughputInMBPerSec(TsfileDBDescriptor.getInstance().getConfig().mergeThroughputInMBPerSec);
+	}
+
+	@Test
+	public void testThrottle() {
+		throttle.setThroughputInMBPerSec(1);
+		long startTime = System.currentTimeMillis();
+		// 1MB written at 1MB per second
+		for (int i = 0; i < 4; i++) {
+			throttle.acquire(256 * 1024);
+		}
+		long timeConsume = System.currentTimeMillis() - startTime;
+		assertTrue("time consumption " + timeConsume + "ms", timeConsume >= 900);
+	}
+
+	@Test
+	public void testNotThrottled() {
+		throttle.setThroughputInMBPerSec(0);
+		long startTime = System.currentTimeMillis();
+		for (int i = 0; i < 1000; i++) {
+			throttle.acquire(1024 * 1024);
+		}
+		long timeConsume = System.currentTimeMillis() - startTime;
+		assertTrue("time consumption " + timeConsume + "ms", timeConsume < 900);
+	}
+}
@@ -1,9 +1,14 @@
 package cn.edu.tsinghua.iotdb.metadata;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,9 +16,11 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
 import cn.edu.tsinghua.iotdb.exception.MetadataArgsErrorException;
 import cn.edu.tsinghua.iotdb.exception.PathErrorException;
 import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
 
 public class MManagerBasicTest {
@@ -220,4 +227,59 @@ public class MManagerBasicTest {
 			fail(e.getMessage());
 		}
 	}
+
+	@Test
+	public void testCachedLookupAfterChange() throws PathErrorException, IOException, MetadataArgsErrorException {
+		MManager manager = MManager.getInstance();
+		manager.setStorageLevelToMTree("root.laptop");
+		manager.addPathToMTree("root.laptop.d1.s0", "INT32", "RLE", new String[0]);
+		assertEquals(TSDataType.INT32, manager.getSeriesType("root.laptop.d1.s0"));
+		assertEquals("root.laptop", manager.getFileNameByPath("root.laptop.d1.s0"));
+
+		// the cached schema and storage group are not used after the path is deleted
+		manager.deletePathFromMTree("root.laptop.d1.s0");
+		try {
+			manager.getSeriesType("root.laptop.d1.s0");
+			fail();
+		} catch (PathErrorException e) {
+		}
+		manager.deletePathFromMTree("root.laptop");
+		manager.setStorageLevelToMTree("root.laptop.d1");
+		manager.addPathToMTree("root.laptop.d1.s0", "INT64", "RLE", new String[0]);
+		assertEquals(TSDataType.INT64, manager.getSeriesType("root.laptop.d1.s0"));
+		assertEquals("root.laptop.d1", manager.getFileNameByPath("root.laptop.d1.s0"));
+	}
+
+	@Test
+	public void testRestartFromSnapshotAndLog() throws PathErrorException, IOException, MetadataArgsErrorException {
+		MManager manager = MManager.getInstance();
+		manager.setStorageLevelToMTree("root.laptop");
+		manager.addPathToMTree("root.laptop.d1.s0", "INT32", "RLE", new String[0]);
+		manager.flushObjectToFile();
+		manager.addPathToMTree("root.laptop.d1.s1", "INT64", "RLE", new String[0]);
+
+		// rewrite the operations in the snapshot, so that replaying them would add root.laptop.d9.s0
+		String metadataDir = TsfileDBDescriptor.getInstance().getConfig().metadataDir;
+		File logFile = new File(metadataDir, MetadataConstant.METADATA_LOG);
+		File dataFile = new File(metadataDir, MetadataConstant.METADATA_OBJ);
+		String log = new String(Files.readAllBytes(logFile.toPath()), StandardCharsets.UTF_8);
+		int snapshotEnd = log.indexOf(MetadataOperationType.ADD_PATH_TO_MTREE + ",root.laptop.d1.s1");
+		log = log.substring(0, snapshotEnd).replace("root.laptop.d1.s0", "root.laptop.d9.s0")
+				+ log.substring(snapshotEnd);
+		Files.write(logFile.toPath(), log.getBytes(StandardCharsets.UTF_8));
+
+		manager.reload();
+		assertTrue(manager.pathExist("root.laptop.d1.s0"));
+		assertTrue(manager.pathExist("root.laptop.d1.s1"));
+		assertFalse(manager.pathExist("root.laptop.d9.s0"));
+		assertEquals(TSDataType.INT64, manager.getSeriesType("root.laptop.d1.s1"));
+
+		// a new snapshot including the replayed operations is taken
+		assertTrue(logFile.delete());
+		manager.reload();
+		assertTrue(dataFile.exists());
+		assertTrue(manager.pathExist("root.laptop.d1.s1"));
+		manager.addPathToMTree("root.laptop.d1.s2", "INT64", "RLE", new String[0]);
+		assertTrue(manager.pathExist("root.laptop.d1.s2"));
+	}
 }
@@ -1,11 +1,20 @@
 package cn.edu.tsinghua.iotdb.metadata;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -13,6 +22,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import cn.edu.tsinghua.iotdb.exception.PathErrorException;
+import cn.edu.tsinghua.iotdb.index.IndexManager.IndexType;
 import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
 
 public class MTreeTest {
@@ -170,4 +180,99 @@ public class MTreeTest {
 		assertEquals(root.isPathExist("root.laptop.d2"), true);
 		assertEquals(root.isPathExist("root.laptop.d2.s0"), true);
 	}
+
+	@Test
+	public void testSerialize() throws Exception {
+		MTree tree = new MTree("root");
+		tree.setStorageGroup("root.laptop");
+		tree.addTimeseriesPath("root.laptop.d1.s1", "INT32", "RLE", new String[] { "max_point_number=2" });
+		tree.addTimeseriesPath("root.laptop.d1.s2", "FLOAT", "GORILLA", new String[0]);
+		tree.addTimeseriesPath("root.laptop.d2.s1", "INT32", "RLE", new String[0]);
+		tree.addIndex("root.laptop.d2.s1", IndexType.KvIndex);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(tree);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		MTree readTree = (MTree) in.readObject();
+		in.close();
+
+		assertEquals(tree.toString(), readTree.toString());
+		assertEquals("root.laptop", readTree.getFileNameByPath("root.laptop.d2.s1"));
+		assertEquals("2", readTree.getSchemaForOnePath("root.laptop.d1.s1").getValueFromArgs("max_point_number"));
+		assertTrue(readTree.getSchemaForOnePath("root.laptop.d2.s1").isHasIndex(IndexType.KvIndex));
+		assertFalse(readTree.getSchemaForOnePath("root.laptop.d1.s1").isHasIndex());
+		// the same measurement names are shared
+		assertSame(readTree.getNodeByPath("root.laptop.d1.s1").getName(),
+				readTree.getNodeByPath("root.laptop.d2.s1").getName());
+		// the schema maps of the storage group are rebuilt
+		assertEquals(2, readTree.getSchemaMapForOneFileNode("root.laptop").size());
+		assertEquals(Integer.valueOf(2), readTree.getNumSchemaMapForOneFileNode("root.laptop").get("s1"));
+		assertEquals(Integer.valueOf(1), readTree.getNumSchemaMapForOneFileNode("root.laptop").get("s2"));
+	}
+
+	@Test
+	public void testSharedSchema() throws Exception {
+		MTree tree = new MTree("root");
+		tree.setStorageGroup("root.laptop");
+		tree.addTimeseriesPath("root.laptop.d1.s1", "INT32", "RLE", new String[0]);
+		tree.addTimeseriesPath("root.laptop.d2.s1", "INT32", "RLE", new String[0]);
+		tree.addTimeseriesPath("root.laptop.d3.s1", "INT32", "PLAIN", new String[0]);
+		tree.addTimeseriesPath("root.laptop.d4.s1", "INT32", "RLE", new String[] { "max_point_number=2" });
+		assertSame(tree.getSchemaForOnePath("root.laptop.d1.s1"), tree.getSchemaForOnePath("root.laptop.d2.s1"));
+		assertNotSame(tree.getSchemaForOnePath("root.laptop.d1.s1"), tree.getSchemaForOnePath("root.laptop.d3.s1"));
+		assertNotSame(tree.getSchemaForOnePath("root.laptop.d1.s1"), tree.getSchemaForOnePath("root.laptop.d4.s1"));
+
+		// the index is added to the copy of one timeseries only
+		tree.addIndex("root.laptop.d1.s1", IndexType.KvIndex);
+		assertTrue(tree.getSchemaForOnePath("root.laptop.d1.s1").isHasIndex(IndexType.KvIndex));
+		assertFalse(tree.getSchemaForOnePath("root.laptop.d2.s1").isHasIndex());
+		tree.removeIndex("root.laptop.d2.s1", IndexType.KvIndex);
+		tree.removeIndex("root.laptop.d1.s1", IndexType.KvIndex);
+		assertFalse(tree.getSchemaForOnePath("root.laptop.d1.s1").isHasIndex());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(tree);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		MTree readTree = (MTree) in.readObject();
+		in.close();
+		assertSame(readTree.getSchemaForOnePath("root.laptop.d1.s1"),
+				readTree.getSchemaForOnePath("root.laptop.d2.s1"));
+	}
+
+	@Test
+	public void testManyChildren() throws Exception {
+		MTree tree = new MTree("root");
+		tree.setStorageGroup("root.laptop");
+		for (int i = 0; i < 20; i++) {
+			tree.addTimeseriesPath("root.laptop.d1.s" + i, "INT32", "RLE", new String[0]);
+		}
+		MNode device = tree.getNodeByPath("root.laptop.d1");
+		assertEquals(20, device.getChildrenNum());
+		int i = 0;
+		for (MNode child : device.getChildren()) {
+			assertEquals("s" + i++, child.getName());
+		}
+		for (i = 0; i < 20; i += 2) {
+			tree.deletePath("root.laptop.d1.s" + i);
+		}
+		assertEquals(10, device.getChildrenNum());
+		assertFalse(tree.hasPath("root.laptop.d1.s0"));
+		assertTrue(tree.hasPath("root.laptop.d1.s19"));
+
+		// a few children are kept in the insertion order after deleting
+		MNode laptop = tree.getNodeByPath("root.laptop");
+		tree.addTimeseriesPath("root.laptop.d2.s0", "INT32", "RLE", new String[0]);
+		tree.addTimeseriesPath("root.laptop.d3.s0", "INT32", "RLE", new String[0]);
+		tree.deletePath("root.laptop.d2.s0");
+		assertEquals(2, laptop.getChildrenNum());
+		List<String> names = new ArrayList<>();
+		for (MNode child : laptop.getChildren()) {
+			names.add(child.getName());
+		}
+		assertEquals(Arrays.asList("d1", "d3"), names);
+	}
 }
@@ -0,0 +1,245 @@
+package cn.edu.tsinghua.iotdb.postback.receiver;
+
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.thrift.TException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.jdbc.TsfileJDBCConfig;
+import cn.edu.tsinghua.iotdb.service.IoTDB;
+import cn.edu.tsinghua.iotdb.service.TestUtils;
+import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
+import cn.edu.tsinghua.tsfile.common.utils.Binary;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSEncoding;
+import cn.edu.tsinghua.tsfile.timeseries.write.TsFileWriter;
+import cn.edu.tsinghua.tsfile.timeseries.write.desc.MeasurementDescriptor;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.TSRecord;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.IntDataPoint;
+import cn.edu.tsinghua.tsfile.timeseries.write.record.datapoint.StringDataPoint;
+
+/**
+ * The data of the received tsfiles, which are older than the data of the
+ * receiver, are inserted into the storage engine directly.
+ */
+public class ServerServiceImplTest {
+
+    private static String[] create_sql = new String[]{
+            "SET STORAGE GROUP TO root.vehicle",
+            "CREATE TIMESERIES root.vehicle.d0.s0 WITH DATATYPE=INT32, ENCODING=RLE",
+            "CREATE TIMESERIES root.vehicle.d0.s1 WITH DATATYPE=TEXT, ENCODING=PLAIN",
+    };
+
+    private IoTDB deamon;
+
+    private boolean testFlag = TestUtils.testFlag;
+    private TsfileDBConfig conf = TsfileDBDescriptor.getInstance().getConfig();
+    private String postbackDir;
+
+    @Before
+    public void setUp() throws Exception {
+        if (testFlag) {
+            EnvironmentUtils.closeStatMonitor();
+            EnvironmentUtils.closeMemControl();
+            deamon = IoTDB.getInstance();
+            deamon.active();
+            EnvironmentUtils.envSetUp();
+            postbackDir = new File(conf.dataDir, "postbackTest").getAbsolutePath();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (testFlag) {
+            deamon.stop();
+            Thread.sleep(5000);
+            FileUtils.deleteDirectory(new File(postbackDir));
+            EnvironmentUtils.cleanEnv();
+        }
+    }
+
+    @Test
+    public void test() throws Exception {
+        if (testFlag) {
+            Thread.sleep(5000);
+            for (String sql : create_sql) {
+                execute(sql);
+            }
+            // the receiver has s0 = time in [1, 20]
+            for (int time = 1; time <= 20; time++) {
+                execute(String.format("insert into root.vehicle.d0(timestamp,s0) values(%s,%s)", time, time));
+            }
+            execute("flush");
+
+            // the received s0 is time in [5, 7], time * 10 in [8, 15] and time * 100 in [16, 18]
+            String file1 = writeTsFile("file1", 5, 15);
+            ServerServiceImpl serverService = new ServerServiceImpl();
+            serverService.mergeOldData(file1);
+            check(15);
+
+            // the points in [12, 15] are the same as the ones in file1
+            String file2 = writeTsFile("file2", 12, 18);
+            serverService.mergeOldData(file2, Collections.singletonList(file1));
+            check(18);
+
+            // the failure is thrown, so that the received files are kept
+            String missingFile = new File(postbackDir, "missing").getAbsolutePath();
+            try {
+                serverService.mergeOldData(missingFile);
+                fail();
+            } catch (TException e) {
+                // expected
+            }
+            try {
+                serverService.mergeOldData(file2, Collections.singletonList(missingFile));
+                fail();
+            } catch (TException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testOverlapFileWithoutSeries() throws Exception {
+        if (testFlag) {
+            Thread.sleep(5000);
+            for (String sql : create_sql) {
+                execute(sql);
+            }
+            execute("CREATE TIMESERIES root.vehicle.d1.s0 WITH DATATYPE=INT32, ENCODING=RLE");
+            for (int time = 1; time <= 20; time++) {
+                execute(String.format("insert into root.vehicle.d0(timestamp,s0) values(%s,%s)", time, time));
+            }
+            execute("flush");
+
+            // the overlap file has neither root.vehicle.d0.s1 nor root.vehicle.d1
+            String file1 = writeTsFile("file1", 5, 15, Collections.singletonList("root.vehicle.d0"), false);
+            ServerServiceImpl serverService = new ServerServiceImpl();
+            serverService.mergeOldData(file1);
+            String file2 = writeTsFile("file2", 12, 18, Arrays.asList("root.vehicle.d0", "root.vehicle.d1"), true);
+            serverService.mergeOldData(file2, Collections.singletonList(file1));
+
+            Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+            try (Connection connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+                 Statement statement = connection.createStatement()) {
+                Assert.assertTrue(statement.execute("select s0,s1 from root.vehicle.d0"));
+                ResultSet resultSet = statement.getResultSet();
+                int time = 0;
+                while (resultSet.next()) {
+                    time++;
+                    Assert.assertEquals(time, resultSet.getLong("Time"));
+                    boolean received = time >= 5 && time <= 18;
+                    Assert.assertEquals(received ? getReceivedValue(time) : time, resultSet.getInt("root.vehicle.d0.s0"));
+                    Assert.assertEquals(time >= 12 && time <= 18 ? "t" + time : null,
+                            resultSet.getString("root.vehicle.d0.s1"));
+                }
+                Assert.assertEquals(20, time);
+
+                Assert.assertTrue(statement.execute("select s0 from root.vehicle.d1"));
+                resultSet = statement.getResultSet();
+                time = 11;
+                while (resultSet.next()) {
+                    time++;
+                    Assert.assertEquals(time, resultSet.getLong("Time"));
+                    Assert.assertEquals(getReceivedValue(time), resultSet.getInt("root.vehicle.d1.s0"));
+                }
+                Assert.assertEquals(18, time);
+            }
+        }
+    }
+
+    private int getReceivedValue(int time) {
+        if (time < 8) {
+            return time;
+        }
+        return time <= 15 ? time * 10 : time * 100;
+    }
+
+    /**
+     * Write a tsfile of root.vehicle.d0 in [startTime, endTime], whose s1 is 't' + time.
+     */
+    private String writeTsFile(String name, int startTime, int endTime) throws Exception {
+        return writeTsFile(name, startTime, endTime, Collections.singletonList("root.vehicle.d0"), true);
+    }
+
+    /**
+     * Write a tsfile of the devices in [startTime, endTime]. Only the first device has s1, which is 't' + time.
+     */
+    private String writeTsFile(String name, int startTime, int endTime, List<String> deltaObjects, boolean hasS1)
+            throws Exception {
+        File file = new File(postbackDir, name);
+        file.getParentFile().mkdirs();
+        TsFileWriter writer = new TsFileWriter(file);
+        writer.addMeasurement(new MeasurementDescriptor("s0", TSDataType.INT32, TSEncoding.RLE));
+        if (hasS1) {
+            writer.addMeasurement(new MeasurementDescriptor("s1", TSDataType.TEXT, TSEncoding.PLAIN));
+        }
+        for (int time = startTime; time <= endTime; time++) {
+            for (String deltaObject : deltaObjects) {
+                TSRecord record = new TSRecord(time, deltaObject);
+                record.addTuple(new IntDataPoint("s0", getReceivedValue(time)));
+                if (hasS1 && deltaObject.equals(deltaObjects.get(0))) {
+                    record.addTuple(new StringDataPoint("s1", new Binary("t" + time)));
+                }
+                writer.write(record);
+            }
+        }
+        writer.close();
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * Check the points in [1, 20], which are the received ones in [5, receivedEndTime] and s0 = time otherwise.
+     */
+    private void check(int receivedEndTime) throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            Statement statement = connection.createStatement();
+            Assert.assertTrue(statement.execute("select s0,s1 from root.vehicle.d0"));
+            ResultSet resultSet = statement.getResultSet();
+            int time = 0;
+            while (resultSet.next()) {
+                time++;
+                Assert.assertEquals(time, resultSet.getLong("Time"));
+                boolean received = time >= 5 && time <= receivedEndTime;
+                Assert.assertEquals(received ? getReceivedValue(time) : time, resultSet.getInt("root.vehicle.d0.s0"));
+                Assert.assertEquals(received ? "t" + time : null, resultSet.getString("root.vehicle.d0.s1"));
+            }
+            Assert.assertEquals(20, time);
+            statement.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private void execute(String sql) throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        try (Connection connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
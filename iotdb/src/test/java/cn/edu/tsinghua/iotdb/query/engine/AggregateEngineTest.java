@@ -0,0 +1,78 @@
+package cn.edu.tsinghua.iotdb.query.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import cn.edu.tsinghua.iotdb.engine.pool.AggregateManager;
+import cn.edu.tsinghua.tsfile.common.exception.ProcessorException;
+
+public class AggregateEngineTest {
+
+	@Test
+	public void testWorkerIOException() throws ProcessorException, InterruptedException {
+		AtomicBoolean slowTaskEnded = new AtomicBoolean(false);
+		List<Future<Void>> futures = new ArrayList<>();
+		futures.add(AggregateManager.getInstance().submit(() -> {
+			throw new IOException("read error");
+		}));
+		futures.add(AggregateManager.getInstance().submit(() -> {
+			TimeUnit.MILLISECONDS.sleep(500);
+			slowTaskEnded.set(true);
+			return null;
+		}));
+		try {
+			AggregateEngine.waitForAggregateThreads(futures);
+			fail("the error of the worker is not thrown");
+		} catch (IOException e) {
+			assertEquals("read error", e.getMessage());
+		}
+		// the query doesn't end while a worker is still reading
+		assertTrue(slowTaskEnded.get());
+	}
+
+	@Test
+	public void testWorkerRuntimeException() throws IOException {
+		List<Future<Void>> futures = new ArrayList<>();
+		futures.add(AggregateManager.getInstance().submit(() -> null));
+		futures.add(AggregateManager.getInstance().submit(() -> {
+			throw new IllegalStateException("aggregate error");
+		}));
+		try {
+			AggregateEngine.waitForAggregateThreads(futures);
+			fail("the error of the worker is not thrown");
+		} catch (ProcessorException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void testInterruptedWhileWaiting() throws ProcessorException, IOException {
+		AtomicBoolean taskEnded = new AtomicBoolean(false);
+		List<Future<Void>> futures = new ArrayList<>();
+		futures.add(AggregateManager.getInstance().submit(() -> {
+			TimeUnit.MILLISECONDS.sleep(500);
+			taskEnded.set(true);
+			return null;
+		}));
+		Thread.currentThread().interrupt();
+		try {
+			AggregateEngine.waitForAggregateThreads(futures);
+			fail("the interrupt is not thrown");
+		} catch (ProcessorException e) {
+			assertTrue(e.getCause() instanceof InterruptedException);
+		}
+		assertTrue(taskEnded.get());
+		// the interrupt is restored for the caller
+		assertTrue(Thread.interrupted());
+	}
+}
@@ -1,14 +1,98 @@
 package cn.edu.tsinghua.iotdb.queryV2.control;
 
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.queryV2.engine.control.OverflowFileStreamManager;
+import cn.edu.tsinghua.tsfile.timeseries.read.TsRandomAccessMMapFileReader;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
 /**
  * Created by zhangjinrui on 2018/1/19.
  */
 public class OverflowFileStreamManagerTest {
 
+    private static final String FILE_PATH = "OverflowFileStreamManagerTest.tsfile";
+    private static final String FILE_PATH2 = "OverflowFileStreamManagerTest2.tsfile";
+
+    private OverflowFileStreamManager manager = OverflowFileStreamManager.getInstance();
+    private TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
+    private long sealedFileMappingCacheSize;
+
+    @Before
+    public void setUp() throws IOException {
+        sealedFileMappingCacheSize = config.sealedFileMappingCacheSize;
+        for (String path : new String[]{FILE_PATH, FILE_PATH2}) {
+            try (FileOutputStream out = new FileOutputStream(path)) {
+                out.write(new byte[]{1, 2, 3, 4});
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        manager.removeAllSealedFiles();
+        manager.closeAll(1L);
+        manager.closeAll(2L);
+        new File(FILE_PATH).delete();
+        new File(FILE_PATH2).delete();
+        config.sealedFileMappingCacheSize = sealedFileMappingCacheSize;
+    }
+
+    @Test
+    public void testSharedMapping() throws IOException {
+        int mappingNum = manager.getSealedFileMappingNum();
+        TsRandomAccessMMapFileReader reader1 = manager.getMappedReader(1L, FILE_PATH);
+        TsRandomAccessMMapFileReader reader2 = manager.getMappedReader(2L, FILE_PATH);
+        manager.getMappedReader(2L, FILE_PATH);
+        // the file is mapped once and the readers have their own positions
+        Assert.assertEquals(mappingNum + 1, manager.getSealedFileMappingNum());
+        Assert.assertSame(reader1.getMappedBuffers(), reader2.getMappedBuffers());
+        reader1.seek(3);
+        Assert.assertEquals(4, reader1.read());
+        Assert.assertEquals(1, reader2.read());
+        reader1.close();
+        Assert.assertEquals(2, reader2.read());
+
+        // the closed jobs don't release the mapping of a file not removed
+        manager.closeAll(1L);
+        Assert.assertEquals(mappingNum + 1, manager.getSealedFileMappingNum());
+        Assert.assertEquals(3, reader2.read());
+
+        // the removed file is mapped again by the next job
+        manager.removeSealedFile(FILE_PATH);
+        Assert.assertEquals(mappingNum, manager.getSealedFileMappingNum());
+        TsRandomAccessMMapFileReader reader3 = manager.getMappedReader(1L, FILE_PATH);
+        Assert.assertNotSame(reader2.getMappedBuffers(), reader3.getMappedBuffers());
+        Assert.assertEquals(1, reader3.read());
+    }
+
     @Test
-    public void test() {
+    public void testIdleMappingsBounded() throws IOException {
+        int mappingNum = manager.getSealedFileMappingNum();
+        // the idle mappings can hold one of the files
+        config.sealedFileMappingCacheSize = 4;
+        TsRandomAccessMMapFileReader reader1 = manager.getMappedReader(1L, FILE_PATH);
+        TsRandomAccessMMapFileReader reader2 = manager.getMappedReader(2L, FILE_PATH2);
+        manager.closeAll(1L);
+        manager.closeAll(2L);
+        // the file released first is unmapped and the other one is kept for the next jobs
+        Assert.assertEquals(mappingNum + 1, manager.getSealedFileMappingNum());
+        TsRandomAccessMMapFileReader reader3 = manager.getMappedReader(1L, FILE_PATH2);
+        Assert.assertSame(reader2.getMappedBuffers(), reader3.getMappedBuffers());
+        TsRandomAccessMMapFileReader reader4 = manager.getMappedReader(1L, FILE_PATH);
+        Assert.assertNotSame(reader1.getMappedBuffers(), reader4.getMappedBuffers());
+        Assert.assertEquals(1, reader4.read());
 
+        // nothing is kept when no idle mapping is allowed
+        config.sealedFileMappingCacheSize = 0;
+        manager.closeAll(1L);
+        Assert.assertEquals(mappingNum, manager.getSealedFileMappingNum());
     }
 }
@@ -0,0 +1,68 @@
+package cn.edu.tsinghua.iotdb.queryV2.reader;
+
+import cn.edu.tsinghua.iotdb.queryV2.engine.reader.LoserTree;
+import cn.edu.tsinghua.iotdb.queryV2.engine.reader.PriorityTimeValuePairReader.Priority;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class LoserTreeTest {
+
+    @Test
+    public void mergeTest() {
+        Random random = new Random(2018);
+        for (int size = 0; size <= 33; size++) {
+            // source i has the timestamps start[i], start[i] + step[i], ... and its value is its index
+            long[] current = new long[size];
+            int[] step = new int[size];
+            int[] remaining = new int[size];
+            Priority[] priorities = new Priority[size];
+            for (int i = 0; i < size; i++) {
+                current[i] = random.nextInt(50);
+                step[i] = random.nextInt(5) + 1;
+                remaining[i] = random.nextInt(30);
+                priorities[i] = new Priority(i);
+            }
+            LoserTree loserTree = new LoserTree(priorities);
+            for (int i = 0; i < size; i++) {
+                loserTree.set(i, remaining[i] > 0 ? pair(current[i], i) : null);
+            }
+            loserTree.build();
+
+            long lastTime = Long.MIN_VALUE;
+            int lastIndex = -1;
+            while (!loserTree.isEmpty()) {
+                int index = loserTree.getTopIndex();
+                TimeValuePair top = loserTree.getTop();
+                Assert.assertEquals(index, top.getValue().getInt());
+                Assert.assertEquals(current[index], top.getTimestamp());
+                // smallest timestamp first, then the highest priority
+                Assert.assertTrue(top.getTimestamp() > lastTime
+                        || (top.getTimestamp() == lastTime && index < lastIndex));
+                for (int i = 0; i < size; i++) {
+                    if (remaining[i] > 0) {
+                        Assert.assertTrue(current[i] > top.getTimestamp()
+                                || (current[i] == top.getTimestamp() && i <= index));
+                    }
+                }
+                lastTime = top.getTimestamp();
+                lastIndex = index;
+
+                remaining[index]--;
+                current[index] += step[index];
+                loserTree.replaceTop(remaining[index] > 0 ? pair(current[index], index) : null);
+            }
+            for (int i = 0; i < size; i++) {
+                Assert.assertEquals(0, Math.max(remaining[i], 0));
+            }
+        }
+    }
+
+    private TimeValuePair pair(long time, int value) {
+        return new TimeValuePair(time, TsPrimitiveType.getByType(TSDataType.INT32, value));
+    }
+}
@@ -0,0 +1,152 @@
+package cn.edu.tsinghua.iotdb.queryV2.reader;
+
+import cn.edu.tsinghua.iotdb.queryV2.engine.reader.PriorityMergeSortTimeValuePairReader;
+import cn.edu.tsinghua.iotdb.queryV2.engine.reader.PriorityTimeValuePairReader;
+import cn.edu.tsinghua.iotdb.queryV2.engine.reader.PriorityTimeValuePairReader.Priority;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.TimeValuePairReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Compares the loser tree of {@link PriorityMergeSortTimeValuePairReader} with the PriorityQueue it replaced, for
+ * 2 to 256 overlapping sources. It is not run as a unit test, run main() to get the numbers.
+ */
+public class PriorityMergeSortBenchmark {
+
+    private static final int TOTAL_POINTS = 2_000_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        for (int sources = 2; sources <= 256; sources *= 2) {
+            TimeValuePair[][] data = generate(sources, TOTAL_POINTS / sources);
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                mergeByHeap(data);
+                mergeByLoserTree(data);
+            }
+            long heapTime = 0;
+            long loserTreeTime = 0;
+            long checksum = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                checksum += mergeByHeap(data);
+                heapTime += System.nanoTime() - start;
+                start = System.nanoTime();
+                checksum -= mergeByLoserTree(data);
+                loserTreeTime += System.nanoTime() - start;
+            }
+            System.out.println(String.format("sources: %d, heap: %.2f ms, loser tree: %.2f ms, checksum: %d",
+                    sources, heapTime / 1e6 / ROUNDS, loserTreeTime / 1e6 / ROUNDS, checksum));
+        }
+    }
+
+    /**
+     * Source i has the timestamps i, i + sources / 2, i + sources, ..., so that half of the timestamps are in two
+     * sources.
+     */
+    private static TimeValuePair[][] generate(int sources, int pointsPerSource) {
+        TimeValuePair[][] data = new TimeValuePair[sources][pointsPerSource];
+        int step = Math.max(sources / 2, 1);
+        for (int i = 0; i < sources; i++) {
+            for (int j = 0; j < pointsPerSource; j++) {
+                long time = i + (long) j * step;
+                data[i][j] = new TimeValuePair(time, TsPrimitiveType.getByType(TSDataType.INT64, time));
+            }
+        }
+        return data;
+    }
+
+    private static long mergeByLoserTree(TimeValuePair[][] data) throws IOException {
+        List<PriorityTimeValuePairReader> readers = new ArrayList<>();
+        for (int i = 0; i < data.length; i++) {
+            readers.add(new PriorityTimeValuePairReader(new ArrayReader(data[i]), new Priority(i)));
+        }
+        PriorityMergeSortTimeValuePairReader<PriorityTimeValuePairReader> reader =
+                new PriorityMergeSortTimeValuePairReader<>(readers);
+        long sum = 0;
+        while (reader.hasNext()) {
+            sum += reader.next().getTimestamp();
+        }
+        return sum;
+    }
+
+    /**
+     * The merge before the loser tree, one Element is allocated for every point.
+     */
+    private static long mergeByHeap(TimeValuePair[][] data) throws IOException {
+        List<PriorityTimeValuePairReader> readers = new ArrayList<>();
+        PriorityQueue<Element> heap = new PriorityQueue<>();
+        for (int i = 0; i < data.length; i++) {
+            readers.add(new PriorityTimeValuePairReader(new ArrayReader(data[i]), new Priority(i)));
+            if (readers.get(i).hasNext()) {
+                heap.add(new Element(i, readers.get(i).next(), readers.get(i).getPriority()));
+            }
+        }
+        long sum = 0;
+        while (heap.size() > 0) {
+            Element top = heap.peek();
+            while (heap.size() > 0 && heap.peek().timeValuePair.getTimestamp() == top.timeValuePair.getTimestamp()) {
+                Element e = heap.poll();
+                PriorityTimeValuePairReader reader = readers.get(e.index);
+                if (reader.hasNext()) {
+                    heap.add(new Element(e.index, reader.next(), reader.getPriority()));
+                }
+            }
+            sum += top.timeValuePair.getTimestamp();
+        }
+        return sum;
+    }
+
+    private static class Element implements Comparable<Element> {
+        int index;
+        TimeValuePair timeValuePair;
+        Priority priority;
+
+        Element(int index, TimeValuePair timeValuePair, Priority priority) {
+            this.index = index;
+            this.timeValuePair = timeValuePair;
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Element o) {
+            return this.timeValuePair.getTimestamp() > o.timeValuePair.getTimestamp() ? 1 :
+                    this.timeValuePair.getTimestamp() < o.timeValuePair.getTimestamp() ? -1 :
+                            o.priority.compareTo(this.priority);
+        }
+    }
+
+    private static class ArrayReader implements TimeValuePairReader {
+        private TimeValuePair[] data;
+        private int index = 0;
+
+        ArrayReader(TimeValuePair[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < data.length;
+        }
+
+        @Override
+        public TimeValuePair next() {
+            return data[index++];
+        }
+
+        @Override
+        public void skipCurrentTimeValuePair() {
+            index++;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package cn.edu.tsinghua.iotdb.service;
+
+import static cn.edu.tsinghua.iotdb.service.TestUtils.*;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import cn.edu.tsinghua.iotdb.jdbc.TsfileJDBCConfig;
+import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
+
+/**
+ * Aggregation without value filter, the series chunks which lie in the time
+ * filter and are not changed by overflow data are calculated using their
+ * digests, the others are calculated using their pages.
+ */
+public class IoTDBAggregationDigestTest {
+
+    private final String d0s0 = "root.vehicle.d0.s0";
+    private final String d0s1 = "root.vehicle.d0.s1";
+
+    private static String[] create_sql = new String[]{
+            "SET STORAGE GROUP TO root.vehicle",
+            "CREATE TIMESERIES root.vehicle.d0.s0 WITH DATATYPE=INT32, ENCODING=RLE",
+            "CREATE TIMESERIES root.vehicle.d0.s1 WITH DATATYPE=DOUBLE, ENCODING=RLE",
+    };
+
+    private IoTDB deamon;
+
+    private boolean testFlag = TestUtils.testFlag;
+
+    @Before
+    public void setUp() throws Exception {
+        if (testFlag) {
+            EnvironmentUtils.closeStatMonitor();
+            EnvironmentUtils.closeMemControl();
+            deamon = IoTDB.getInstance();
+            deamon.active();
+            EnvironmentUtils.envSetUp();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (testFlag) {
+            deamon.stop();
+            Thread.sleep(5000);
+            EnvironmentUtils.cleanEnv();
+        }
+    }
+
+    @Test
+    public void test() throws ClassNotFoundException, SQLException, InterruptedException {
+        if (testFlag) {
+            Thread.sleep(5000);
+            insertSQL();
+            // the values of [451, 460] are updated to 0
+            aggregateTest("", 1000, 495945, 0, 1000, 1, 1000, 1, 1000);
+            aggregateTest(" where time > 150 and time <= 850", 700, 345795, 0, 850, 151, 850, 151, 850);
+            aggregateTest(" where time > 500 and time <= 700", 200, 120100, 501, 700, 501, 700, 501, 700);
+        }
+    }
+
+    private void insertSQL() throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            Statement statement = connection.createStatement();
+            for (String sql : create_sql) {
+                statement.execute(sql);
+            }
+            // every flush writes a series chunk of 100 points
+            for (int time = 1; time <= 1000; time++) {
+                statement.execute(String.format("insert into root.vehicle.d0(timestamp,s0,s1) values(%s,%s,%s)",
+                        time, time, time));
+                if (time % 100 == 0) {
+                    statement.execute("flush");
+                }
+            }
+            statement.execute("UPDATE root.vehicle.d0 SET s0 = 0 WHERE time > 450 and time <= 460");
+            statement.execute("UPDATE root.vehicle.d0 SET s1 = 0 WHERE time > 450 and time <= 460");
+            statement.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private void aggregateTest(String filter, long count, double sum, int minValue, int maxValue, int first, int last,
+                               long minTime, long maxTime) throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            Statement statement = connection.createStatement();
+            boolean hasResultSet = statement.execute("select count(s0),sum(s0),mean(s1),min_value(s0),max_value(s0)," +
+                    "first(s0),last(s0),min_time(s1),max_time(s1) from root.vehicle.d0" + filter);
+            Assert.assertTrue(hasResultSet);
+            ResultSet resultSet = statement.getResultSet();
+            int cnt = 0;
+            while (resultSet.next()) {
+                Assert.assertEquals(count, resultSet.getLong(count(d0s0)));
+                Assert.assertEquals(sum, resultSet.getDouble(sum(d0s0)), 0.01);
+                Assert.assertEquals(sum / count, resultSet.getDouble(mean(d0s1)), 0.01);
+                Assert.assertEquals(minValue, resultSet.getInt(min_value(d0s0)));
+                Assert.assertEquals(maxValue, resultSet.getInt(max_value(d0s0)));
+                Assert.assertEquals(first, resultSet.getInt(first(d0s0)));
+                Assert.assertEquals(last, resultSet.getInt(last(d0s0)));
+                Assert.assertEquals(minTime, resultSet.getLong(min_time(d0s1)));
+                Assert.assertEquals(maxTime, resultSet.getLong(max_time(d0s1)));
+                cnt++;
+            }
+            Assert.assertEquals(1, cnt);
+            statement.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package cn.edu.tsinghua.iotdb.service;
+
+import cn.edu.tsinghua.iotdb.jdbc.TsfileConnection;
+import cn.edu.tsinghua.iotdb.jdbc.TsfileJDBCConfig;
+import cn.edu.tsinghua.iotdb.jdbc.TsfileStatement;
+import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
+import cn.edu.tsinghua.service.rpc.thrift.TSBatchInsertionReq;
+import cn.edu.tsinghua.service.rpc.thrift.TSExecuteBatchStatementResp;
+import cn.edu.tsinghua.service.rpc.thrift.TS_StatusCode;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import org.apache.thrift.TException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IoTDBBatchInsertionTest {
+
+    private static final String TIMESTAMP_STR = "Time";
+
+    private static String[] create_sql = new String[]{
+            "SET STORAGE GROUP TO root.vehicle",
+
+            "CREATE TIMESERIES root.vehicle.d0.s0 WITH DATATYPE=INT32, ENCODING=RLE",
+            "CREATE TIMESERIES root.vehicle.d0.s1 WITH DATATYPE=INT64, ENCODING=RLE",
+            "CREATE TIMESERIES root.vehicle.d0.s2 WITH DATATYPE=FLOAT, ENCODING=RLE",
+            "CREATE TIMESERIES root.vehicle.d0.s3 WITH DATATYPE=TEXT, ENCODING=PLAIN",
+            "CREATE TIMESERIES root.vehicle.d0.s4 WITH DATATYPE=BOOLEAN, ENCODING=PLAIN",
+            "CREATE TIMESERIES root.vehicle.d0.s5 WITH DATATYPE=DOUBLE, ENCODING=RLE",
+    };
+
+    private IoTDB deamon;
+
+    private boolean testFlag = TestUtils.testFlag;
+
+    @Before
+    public void setUp() throws Exception {
+        if (testFlag) {
+            EnvironmentUtils.closeStatMonitor();
+            EnvironmentUtils.closeMemControl();
+            deamon = IoTDB.getInstance();
+            deamon.active();
+            EnvironmentUtils.envSetUp();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (testFlag) {
+            deamon.stop();
+            Thread.sleep(5000);
+            EnvironmentUtils.cleanEnv();
+        }
+    }
+
+    @Test
+    public void test() throws ClassNotFoundException, SQLException, TException {
+        if (testFlag) {
+            Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+            try (Connection connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root")) {
+                Statement statement = connection.createStatement();
+                for (String sql : create_sql) {
+                    statement.execute(sql);
+                }
+                insertBatchTest((TsfileConnection) connection, (TsfileStatement) statement);
+                wrongDataTypeTest((TsfileStatement) statement);
+                wrongRowCountTest((TsfileConnection) connection, statement);
+                statement.close();
+            }
+        }
+    }
+
+    private void insertBatchTest(TsfileConnection connection, TsfileStatement statement) throws SQLException {
+        int rowCount = 100;
+        long[] timestamps = new long[rowCount];
+        int[] s0 = new int[rowCount];
+        long[] s1 = new long[rowCount];
+        float[] s2 = new float[rowCount];
+        String[] s3 = new String[rowCount];
+        boolean[] s4 = new boolean[rowCount];
+        double[] s5 = new double[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            timestamps[i] = i + 1;
+            s0[i] = i;
+            s1[i] = i * 10L;
+            s2[i] = i + 0.5f;
+            s3[i] = "text" + i;
+            s4[i] = i % 2 == 0;
+            s5[i] = i + 0.25;
+        }
+        int[] result = statement.insertBatch("root.vehicle.d0", Arrays.asList("s0", "s1", "s2", "s3", "s4", "s5"),
+                timestamps, new TSDataType[]{TSDataType.INT32, TSDataType.INT64, TSDataType.FLOAT, TSDataType.TEXT,
+                        TSDataType.BOOLEAN, TSDataType.DOUBLE}, new Object[]{s0, s1, s2, s3, s4, s5});
+        assertEquals(rowCount, result.length);
+        for (int r : result) {
+            assertEquals(Statement.SUCCESS_NO_INFO, r);
+        }
+
+        // rows before the last flushed time go to overflow, inserted through the connection
+        List<String> measurements = Arrays.asList("s0");
+        result = connection.insertBatch("root.vehicle.d0", measurements, new long[]{200, 50},
+                new TSDataType[]{TSDataType.INT32}, new Object[]{new int[]{-1, -2}});
+        assertEquals(2, result.length);
+
+        boolean hasResultSet = statement.execute("select * from root.vehicle.d0");
+        assertTrue(hasResultSet);
+        ResultSet resultSet = statement.getResultSet();
+        int cnt = 0;
+        while (resultSet.next()) {
+            long time = resultSet.getLong(TIMESTAMP_STR);
+            if (time == 200) {
+                assertEquals("-1", resultSet.getString("root.vehicle.d0.s0"));
+                assertNull(resultSet.getString("root.vehicle.d0.s3"));
+            } else {
+                int i = (int) time - 1;
+                String expected = time == 50 ? "-2" : String.valueOf(i);
+                assertEquals(expected, resultSet.getString("root.vehicle.d0.s0"));
+                assertEquals(String.valueOf(i * 10L), resultSet.getString("root.vehicle.d0.s1"));
+                assertEquals(String.valueOf(i + 0.5f), resultSet.getString("root.vehicle.d0.s2"));
+                assertEquals("text" + i, resultSet.getString("root.vehicle.d0.s3"));
+                assertEquals(String.valueOf(i % 2 == 0), resultSet.getString("root.vehicle.d0.s4"));
+                assertEquals(String.valueOf(i + 0.25), resultSet.getString("root.vehicle.d0.s5"));
+            }
+            cnt++;
+        }
+        assertEquals(rowCount + 1, cnt);
+    }
+
+    private void wrongDataTypeTest(TsfileStatement statement) {
+        try {
+            statement.insertBatch("root.vehicle.d0", Arrays.asList("s0"), new long[]{300},
+                    new TSDataType[]{TSDataType.INT64}, new Object[]{new long[]{1}});
+            fail();
+        } catch (BatchUpdateException e) {
+            assertTrue(e.getMessage().contains("root.vehicle.d0.s0"));
+        } catch (SQLException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private void wrongRowCountTest(TsfileConnection connection, Statement statement) throws SQLException, TException {
+        ByteBuffer timestamps = ByteBuffer.allocate(3 * 8);
+        timestamps.putLong(400).putLong(401).putLong(402).flip();
+        // the INT32 values of only 2 rows
+        ByteBuffer intValues = ByteBuffer.allocate(2 * 4);
+        intValues.putInt(1).putInt(2).flip();
+        // the second text says it is longer than the bytes left
+        ByteBuffer textValues = ByteBuffer.allocate(3 * 5);
+        textValues.putInt(1).put((byte) 'a').putInt(100).put((byte) 'b').putInt(1).put((byte) 'c').flip();
+
+        TSBatchInsertionReq req = new TSBatchInsertionReq(connection.sessionHandle, "root.vehicle.d0",
+                Arrays.asList("s0"), 3, timestamps, Arrays.asList("INT32"), Arrays.asList(intValues));
+        TSExecuteBatchStatementResp resp = connection.client.insertBatch(req);
+        assertEquals(TS_StatusCode.ERROR_STATUS, resp.getStatus().getStatusCode());
+        assertTrue(resp.getStatus().getErrorMessage().contains("s0"));
+
+        req = new TSBatchInsertionReq(connection.sessionHandle, "root.vehicle.d0",
+                Arrays.asList("s3"), 3, timestamps, Arrays.asList("TEXT"), Arrays.asList(textValues));
+        resp = connection.client.insertBatch(req);
+        assertEquals(TS_StatusCode.ERROR_STATUS, resp.getStatus().getStatusCode());
+        assertTrue(resp.getStatus().getErrorMessage().contains("s3"));
+
+        // more rows than timestamps
+        req = new TSBatchInsertionReq(connection.sessionHandle, "root.vehicle.d0",
+                Arrays.asList("s0"), 4, timestamps, Arrays.asList("INT32"), Arrays.asList(intValues));
+        resp = connection.client.insertBatch(req);
+        assertEquals(TS_StatusCode.ERROR_STATUS, resp.getStatus().getStatusCode());
+
+        // none of the rows is inserted
+        assertTrue(statement.execute("select s0,s3 from root.vehicle.d0 where time >= 400"));
+        ResultSet resultSet = statement.getResultSet();
+        assertFalse(resultSet.next());
+    }
+}
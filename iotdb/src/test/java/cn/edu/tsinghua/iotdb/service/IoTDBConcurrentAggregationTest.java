@@ -0,0 +1,166 @@
+package cn.edu.tsinghua.iotdb.service;
+
+import static cn.edu.tsinghua.iotdb.service.TestUtils.*;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import cn.edu.tsinghua.iotdb.jdbc.TsfileJDBCConfig;
+import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
+
+/**
+ * Several aggregation queries run at the same time, the series of all of them
+ * are aggregated by the threads of the shared aggregate pool.
+ */
+public class IoTDBConcurrentAggregationTest {
+
+    private static final int SERIES_NUM = 6;
+    private static final int QUERY_THREAD_NUM = 8;
+    private static final int QUERY_NUM = 5;
+
+    private IoTDB deamon;
+
+    private boolean testFlag = TestUtils.testFlag;
+
+    @Before
+    public void setUp() throws Exception {
+        if (testFlag) {
+            EnvironmentUtils.closeStatMonitor();
+            EnvironmentUtils.closeMemControl();
+            deamon = IoTDB.getInstance();
+            deamon.active();
+            EnvironmentUtils.envSetUp();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (testFlag) {
+            deamon.stop();
+            Thread.sleep(5000);
+            EnvironmentUtils.cleanEnv();
+        }
+    }
+
+    @Test
+    public void test() throws ClassNotFoundException, SQLException, InterruptedException {
+        if (testFlag) {
+            Thread.sleep(5000);
+            insertSQL();
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < QUERY_THREAD_NUM; i++) {
+                // the queries have different time filters, so each one has its own results
+                int startTime = i * 100;
+                Thread thread = new Thread(() -> {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < QUERY_NUM; j++) {
+                            aggregateTest(startTime);
+                        }
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            startLatch.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (error.get() != null) {
+                error.get().printStackTrace();
+                fail(error.get().toString());
+            }
+        }
+    }
+
+    private void insertSQL() throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            Statement statement = connection.createStatement();
+            statement.execute("SET STORAGE GROUP TO root.vehicle");
+            StringBuilder measurements = new StringBuilder();
+            for (int i = 0; i < SERIES_NUM; i++) {
+                statement.execute(String.format("CREATE TIMESERIES root.vehicle.d0.s%d WITH DATATYPE=INT64, ENCODING=RLE", i));
+                measurements.append(",s").append(i);
+            }
+            // the points after 1000 are still in memory
+            for (int time = 1; time <= 1100; time++) {
+                StringBuilder values = new StringBuilder();
+                for (int i = 0; i < SERIES_NUM; i++) {
+                    values.append(",").append(time * (i + 1));
+                }
+                statement.execute(String.format("insert into root.vehicle.d0(timestamp%s) values(%d%s)",
+                        measurements, time, values));
+                if (time % 250 == 0 && time <= 1000) {
+                    statement.execute("flush");
+                }
+            }
+            statement.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private void aggregateTest(int startTime) throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            Statement statement = connection.createStatement();
+            StringBuilder sql = new StringBuilder("select ");
+            for (int i = 0; i < SERIES_NUM; i++) {
+                if (i > 0) {
+                    sql.append(",");
+                }
+                sql.append(String.format("count(s%d),sum(s%d),max_value(s%d)", i, i, i));
+            }
+            sql.append(" from root.vehicle.d0 where time > ").append(startTime);
+            boolean hasResultSet = statement.execute(sql.toString());
+            Assert.assertTrue(hasResultSet);
+            ResultSet resultSet = statement.getResultSet();
+            // the points in (startTime, 1100], the value of si at time t is t * (i + 1)
+            long count = 1100 - startTime;
+            long timeSum = (long) (startTime + 1 + 1100) * count / 2;
+            int cnt = 0;
+            while (resultSet.next()) {
+                for (int i = 0; i < SERIES_NUM; i++) {
+                    String path = "root.vehicle.d0.s" + i;
+                    Assert.assertEquals(count, resultSet.getLong(count(path)));
+                    Assert.assertEquals((double) timeSum * (i + 1), resultSet.getDouble(sum(path)), 0.01);
+                    Assert.assertEquals(1100L * (i + 1), resultSet.getLong(max_value(path)));
+                }
+                cnt++;
+            }
+            Assert.assertEquals(1, cnt);
+            statement.close();
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package cn.edu.tsinghua.iotdb.service;
+
+import static cn.edu.tsinghua.iotdb.service.TestUtils.*;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.engine.filenode.FileNodeManager;
+import cn.edu.tsinghua.iotdb.engine.rollup.TsFileRollup;
+import cn.edu.tsinghua.iotdb.jdbc.TsfileJDBCConfig;
+import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
+
+/**
+ * Group by whose unit is a multiple of a rollup interval, the rollups of the
+ * sealed tsfile, the unsealed tsfile and the points in memory are read instead
+ * of the points, unless the series is changed by overflow data.
+ */
+public class IoTDBGroupByRollupTest {
+
+    private static final String TIMESTAMP_STR = "Time";
+    private final String d0s0 = "root.vehicle.d0.s0";
+    private final String d0s1 = "root.vehicle.d0.s1";
+
+    private static String[] create_sql = new String[]{
+            "SET STORAGE GROUP TO root.vehicle",
+            "CREATE TIMESERIES root.vehicle.d0.s0 WITH DATATYPE=INT32, ENCODING=RLE",
+            "CREATE TIMESERIES root.vehicle.d0.s1 WITH DATATYPE=DOUBLE, ENCODING=RLE",
+    };
+
+    private IoTDB deamon;
+
+    private boolean testFlag = TestUtils.testFlag;
+    private TsfileDBConfig conf = TsfileDBDescriptor.getInstance().getConfig();
+    private long[] rollupIntervals;
+
+    @Before
+    public void setUp() throws Exception {
+        if (testFlag) {
+            rollupIntervals = conf.rollupIntervals;
+            conf.rollupIntervals = new long[]{10, 100};
+            EnvironmentUtils.closeStatMonitor();
+            EnvironmentUtils.closeMemControl();
+            deamon = IoTDB.getInstance();
+            deamon.active();
+            EnvironmentUtils.envSetUp();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (testFlag) {
+            deamon.stop();
+            Thread.sleep(5000);
+            EnvironmentUtils.cleanEnv();
+            conf.rollupIntervals = rollupIntervals;
+        }
+    }
+
+    @Test
+    public void test() throws Exception {
+        if (testFlag) {
+            Thread.sleep(5000);
+            insertSQL();
+            Assert.assertTrue(hasRollupFile());
+            groupByTest("", 100, 0, 999, -1, -1);
+            groupByTest(" where time >= 200 and time < 700", 50, 200, 699, -1, -1);
+            // the series is changed by overflow data, so its points are read
+            execute("UPDATE root.vehicle.d0 SET s0 = 0 WHERE time > 450 and time <= 460");
+            groupByTest("", 100, 0, 999, 451, 460);
+        }
+    }
+
+    private void insertSQL() throws Exception {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            Statement statement = connection.createStatement();
+            for (String sql : create_sql) {
+                statement.execute(sql);
+            }
+            for (int time = 1; time <= 1000; time++) {
+                statement.execute(String.format("insert into root.vehicle.d0(timestamp,s0,s1) values(%s,%s,%s)",
+                        time, time, time * 0.5));
+                if (time == 300 || time == 800) {
+                    statement.execute("flush");
+                } else if (time == 600) {
+                    // [1, 600] are in a sealed tsfile, [601, 800] are in the unsealed one, the others are in memory
+                    FileNodeManager.getInstance().closeAll();
+                }
+            }
+            statement.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private boolean hasRollupFile() {
+        for (String dir : conf.bufferWriteDirs) {
+            File[] files = new File(dir, "root.vehicle").listFiles();
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                if (file.getName().endsWith(TsFileRollup.ROLLUP_SUFFIX)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void execute(String sql) throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        try (Connection connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * The points are s0 = time and s1 = time * 0.5 in [1, 1000], except that s0 is 0 in [updateStart, updateEnd].
+     */
+    private void groupByTest(String filter, long unit, long startTime, long endTime, long updateStart,
+                             long updateEnd) throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            Statement statement = connection.createStatement();
+            boolean hasResultSet = statement.execute(String.format("select count(s0),sum(s0),max_value(s0)," +
+                    "min_value(s1),first(s0),last(s1),min_time(s0),max_time(s1),mean(s1) from root.vehicle.d0%s " +
+                    "group by(%dms, 0, [0,999])", filter, unit));
+            Assert.assertTrue(hasResultSet);
+            ResultSet resultSet = statement.getResultSet();
+            int cnt = 0;
+            while (resultSet.next()) {
+                long partitionStart = resultSet.getLong(TIMESTAMP_STR);
+                Assert.assertEquals(cnt * unit, partitionStart);
+                long minTime = Math.max(Math.max(partitionStart, startTime), 1);
+                long maxTime = Math.min(partitionStart + unit - 1, endTime);
+                cnt++;
+                if (minTime > maxTime) {
+                    Assert.assertNull(resultSet.getString(count(d0s0)));
+                    Assert.assertNull(resultSet.getString(last(d0s1)));
+                    continue;
+                }
+                long sum = 0;
+                long maxValue = Long.MIN_VALUE;
+                for (long time = minTime; time <= maxTime; time++) {
+                    long value = time >= updateStart && time <= updateEnd ? 0 : time;
+                    sum += value;
+                    maxValue = Math.max(maxValue, value);
+                }
+                long count = maxTime - minTime + 1;
+                Assert.assertEquals(count, resultSet.getLong(count(d0s0)));
+                Assert.assertEquals(sum, resultSet.getDouble(sum(d0s0)), 0.01);
+                Assert.assertEquals(maxValue, resultSet.getLong(max_value(d0s0)));
+                Assert.assertEquals(minTime * 0.5, resultSet.getDouble(min_value(d0s1)), 0.01);
+                Assert.assertEquals(minTime, resultSet.getLong(first(d0s0)));
+                Assert.assertEquals(maxTime * 0.5, resultSet.getDouble(last(d0s1)), 0.01);
+                Assert.assertEquals(minTime, resultSet.getLong(min_time(d0s0)));
+                Assert.assertEquals(maxTime, resultSet.getLong(max_time(d0s1)));
+                Assert.assertEquals((minTime + maxTime) * 0.25, resultSet.getDouble(mean(d0s1)), 0.01);
+            }
+            Assert.assertEquals(1000 / unit, cnt);
+            statement.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+}
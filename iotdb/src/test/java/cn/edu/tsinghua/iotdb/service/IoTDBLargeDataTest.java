@@ -11,6 +11,7 @@ import org.junit.Test;
 
 import java.io.FileNotFoundException;
 import java.sql.*;
+import java.util.Properties;
 
 import static cn.edu.tsinghua.iotdb.service.TestUtils.*;
 import static org.junit.Assert.*;
@@ -102,6 +103,7 @@ public class IoTDBLargeDataTest {
 
             // select test
             selectAllTest();
+            selectAllColumnarTest();
             selectOneSeriesWithValueFilterTest();
             seriesTimeDigestReadTest();
             crossSeriesReadUpdateTest();
@@ -161,6 +163,59 @@ public class IoTDBLargeDataTest {
         }
     }
 
+    private void selectAllColumnarTest() throws ClassNotFoundException, SQLException {
+        String selectSql = "select * from root";
+        String[] columns = new String[]{TIMESTAMP_STR, d0s0, d0s1, d0s2, d0s3, d0s4, d0s5, d1s0, d1s1};
+
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Properties properties = new Properties();
+        properties.setProperty(TsfileJDBCConfig.AUTH_USER, "root");
+        properties.setProperty(TsfileJDBCConfig.AUTH_PASSWORD, "root");
+        properties.setProperty(TsfileJDBCConfig.COLUMNAR_FETCH, "true");
+        Connection connection = null;
+        Connection columnarConnection = null;
+        try {
+            // results fetched in columnar form should be the same as the ones fetched row by row
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            columnarConnection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", properties);
+            Statement statement = connection.createStatement();
+            Statement columnarStatement = columnarConnection.createStatement();
+            Assert.assertTrue(statement.execute(selectSql));
+            Assert.assertTrue(columnarStatement.execute(selectSql));
+            ResultSet resultSet = statement.getResultSet();
+            ResultSet columnarResultSet = columnarStatement.getResultSet();
+            int cnt = 0;
+            while (resultSet.next()) {
+                Assert.assertTrue(columnarResultSet.next());
+                for (String column : columns) {
+                    assertEquals(resultSet.getString(column), columnarResultSet.getString(column));
+                }
+                cnt++;
+            }
+            Assert.assertFalse(columnarResultSet.next());
+            // the rows of the last fetch must not be read after the end
+            try {
+                columnarResultSet.getString(d0s0);
+                fail("No record should remain");
+            } catch (SQLException e) {
+                assertEquals("No record remains", e.getMessage());
+            }
+            assertEquals(23400, cnt);
+            statement.close();
+            columnarStatement.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+            if (columnarConnection != null) {
+                columnarConnection.close();
+            }
+        }
+    }
+
     private void selectOneSeriesWithValueFilterTest() throws ClassNotFoundException, SQLException {
 
         String selectSql = "select s0 from root.vehicle.d0 where s0 >= 20";
@@ -0,0 +1,183 @@
+package cn.edu.tsinghua.iotdb.service;
+
+import static cn.edu.tsinghua.iotdb.service.TestUtils.*;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.engine.cache.LastValueCache;
+import cn.edu.tsinghua.iotdb.jdbc.TsfileJDBCConfig;
+import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
+
+/**
+ * The last aggregations and the previous fills of the latest values are
+ * answered by the cached last points, which are kept up to date by the
+ * insertions and dropped by the updates and the deletions. The answers must be
+ * the same as the ones read from the data.
+ */
+public class IoTDBLastValueCacheTest {
+
+    private static final String TIMESTAMP_STR = "Time";
+    private final String d0s0 = "root.vehicle.d0.s0";
+    private final String d0s1 = "root.vehicle.d0.s1";
+
+    private static String[] create_sql = new String[]{
+            "SET STORAGE GROUP TO root.vehicle",
+            "CREATE TIMESERIES root.vehicle.d0.s0 WITH DATATYPE=INT32, ENCODING=RLE",
+            "CREATE TIMESERIES root.vehicle.d0.s1 WITH DATATYPE=DOUBLE, ENCODING=RLE",
+    };
+
+    private IoTDB deamon;
+
+    private boolean testFlag = TestUtils.testFlag;
+    private TsfileDBConfig conf = TsfileDBDescriptor.getInstance().getConfig();
+    private boolean enableLastValueCache;
+
+    @Before
+    public void setUp() throws Exception {
+        if (testFlag) {
+            enableLastValueCache = conf.enableLastValueCache;
+            conf.enableLastValueCache = true;
+            EnvironmentUtils.closeStatMonitor();
+            EnvironmentUtils.closeMemControl();
+            deamon = IoTDB.getInstance();
+            deamon.active();
+            EnvironmentUtils.envSetUp();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (testFlag) {
+            deamon.stop();
+            Thread.sleep(5000);
+            EnvironmentUtils.cleanEnv();
+            conf.enableLastValueCache = enableLastValueCache;
+        }
+    }
+
+    @Test
+    public void test() throws Exception {
+        if (testFlag) {
+            Thread.sleep(5000);
+            for (String sql : create_sql) {
+                execute(sql);
+            }
+            // no point yet
+            checkLatestValues("null,null,null", "150,null");
+
+            for (int time = 1; time <= 100; time++) {
+                execute(String.format("insert into root.vehicle.d0(timestamp,s0,s1) values(%s,%s,%s)",
+                        time, time, time * 0.5));
+                if (time == 50) {
+                    execute("flush");
+                }
+            }
+            checkLatestValues("100,100,50.0", "150,100");
+            Assert.assertEquals(100, LastValueCache.getInstance().get("root.vehicle.d0", "s0")
+                    .getTimeValuePair().getTimestamp());
+            // the fill out of the range and the one before the last point
+            checkQuery("select s0 from root.vehicle.d0 where time = 150 fill(int32[previous, 10ms])", "150,null");
+            checkQuery("select s0 from root.vehicle.d0 where time = 60 fill(int32[previous, 10ms])", "60,60");
+
+            // the cached last point is updated by the insertion
+            execute("insert into root.vehicle.d0(timestamp,s0) values(120,1000)");
+            Assert.assertEquals(120, LastValueCache.getInstance().get("root.vehicle.d0", "s0")
+                    .getTimeValuePair().getTimestamp());
+            checkLatestValues("1000,120,50.0", "150,1000");
+            // an overflow insertion before the last point
+            execute("insert into root.vehicle.d0(timestamp,s0) values(110,2000)");
+            checkLatestValues("1000,120,50.0", "150,1000");
+
+            // the cached last point is dropped by the update
+            execute("UPDATE root.vehicle.d0 SET s0 = 7 WHERE time >= 115 and time <= 120");
+            Assert.assertNull(LastValueCache.getInstance().get("root.vehicle.d0", "s0"));
+            checkLatestValues("7,120,50.0", "150,7");
+
+            // the cached last point is dropped by the deletion
+            execute("DELETE FROM root.vehicle.d0.s0 WHERE time < 200");
+            Assert.assertNull(LastValueCache.getInstance().get("root.vehicle.d0", "s0"));
+            checkLatestValues(null, null);
+        }
+    }
+
+    private void execute(String sql) throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        try (Connection connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * Check the latest values with the cache, and the same ones read from the data without the cache.
+     *
+     * @param lastAnswer  last(s0),max_time(s0),last(s1), or null if it is only compared
+     * @param fillAnswer  the previous fill of s0 at 150, or null if it is only compared
+     */
+    private void checkLatestValues(String lastAnswer, String fillAnswer) throws ClassNotFoundException, SQLException {
+        String lastSql = "select last(s0),max_time(s0),last(s1) from root.vehicle.d0";
+        String fillSql = "select s0 from root.vehicle.d0 where time = 150 fill(int32[previous])";
+        conf.enableLastValueCache = false;
+        String lastRead = query(lastSql);
+        String fillRead = query(fillSql);
+        conf.enableLastValueCache = true;
+        // twice, the first one reads the last points and the second one gets them from the cache
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(lastRead, query(lastSql));
+            Assert.assertEquals(fillRead, query(fillSql));
+        }
+        if (lastAnswer != null) {
+            Assert.assertEquals(lastAnswer, lastRead);
+            Assert.assertEquals(fillAnswer, fillRead);
+        }
+    }
+
+    private void checkQuery(String sql, String answer) throws ClassNotFoundException, SQLException {
+        Assert.assertEquals(answer, query(sql));
+    }
+
+    private String query(String sql) throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            Statement statement = connection.createStatement();
+            Assert.assertTrue(statement.execute(sql));
+            ResultSet resultSet = statement.getResultSet();
+            String ans = null;
+            int cnt = 0;
+            while (resultSet.next()) {
+                if (sql.contains("fill")) {
+                    ans = resultSet.getString(TIMESTAMP_STR) + "," + resultSet.getString(d0s0);
+                } else {
+                    ans = resultSet.getString(last(d0s0)) + "," + resultSet.getString(max_time(d0s0)) + ","
+                            + resultSet.getString(last(d0s1));
+                }
+                cnt++;
+            }
+            Assert.assertEquals(1, cnt);
+            statement.close();
+            return ans;
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+            return null;
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+}
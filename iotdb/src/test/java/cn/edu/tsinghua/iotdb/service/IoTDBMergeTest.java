@@ -0,0 +1,152 @@
+package cn.edu.tsinghua.iotdb.service;
+
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
+import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.jdbc.TsfileJDBCConfig;
+import cn.edu.tsinghua.iotdb.utils.EnvironmentUtils;
+
+/**
+ * Merge overflow data which changes only some series of a tsfile, the other
+ * series are copied to the merged tsfile without decoding them.
+ */
+public class IoTDBMergeTest {
+
+    private static final String TIMESTAMP_STR = "Time";
+    private final String d0s0 = "root.vehicle.d0.s0";
+    private final String d0s1 = "root.vehicle.d0.s1";
+    private final String d1s0 = "root.vehicle.d1.s0";
+
+    private static String[] create_sql = new String[]{
+            "SET STORAGE GROUP TO root.vehicle",
+            "CREATE TIMESERIES root.vehicle.d0.s0 WITH DATATYPE=INT32, ENCODING=RLE",
+            "CREATE TIMESERIES root.vehicle.d0.s1 WITH DATATYPE=INT64, ENCODING=RLE",
+            "CREATE TIMESERIES root.vehicle.d1.s0 WITH DATATYPE=INT32, ENCODING=RLE",
+    };
+
+    private IoTDB deamon;
+
+    private boolean testFlag = TestUtils.testFlag;
+    private TsfileDBConfig conf = TsfileDBDescriptor.getInstance().getConfig();
+    private long overflowFileSizeThreshold;
+
+    @Before
+    public void setUp() throws Exception {
+        if (testFlag) {
+            // merge the overflow data however small it is
+            overflowFileSizeThreshold = conf.overflowFileSizeThreshold;
+            conf.overflowFileSizeThreshold = 0;
+            EnvironmentUtils.closeStatMonitor();
+            EnvironmentUtils.closeMemControl();
+            deamon = IoTDB.getInstance();
+            deamon.active();
+            EnvironmentUtils.envSetUp();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (testFlag) {
+            deamon.stop();
+            Thread.sleep(5000);
+            EnvironmentUtils.cleanEnv();
+            conf.overflowFileSizeThreshold = overflowFileSizeThreshold;
+        }
+    }
+
+    @Test
+    public void test() throws ClassNotFoundException, SQLException, InterruptedException {
+        if (testFlag) {
+            Thread.sleep(5000);
+            insertSQL();
+            selectTest();
+        }
+    }
+
+    private void insertSQL() throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            Statement statement = connection.createStatement();
+            for (String sql : create_sql) {
+                statement.execute(sql);
+            }
+            for (int time = 1; time <= 1000; time++) {
+                statement.execute(String.format("insert into root.vehicle.d0(timestamp,s0,s1) values(%s,%s,%s)",
+                        time, time, time * 10));
+                statement.execute(String.format("insert into root.vehicle.d1(timestamp,s0) values(%s,%s)",
+                        time, time));
+            }
+            statement.execute("flush");
+            // overflow data of d0.s0 only
+            for (int time = 1; time <= 100; time++) {
+                statement.execute(String.format("insert into root.vehicle.d0(timestamp,s0) values(%s,%s)",
+                        time, -time));
+            }
+            statement.execute("merge");
+            // wait for the end of merge
+            Thread.sleep(3000);
+            statement.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private void selectTest() throws ClassNotFoundException, SQLException {
+        Class.forName(TsfileJDBCConfig.JDBC_DRIVER_NAME);
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection("jdbc:tsfile://127.0.0.1:6667/", "root", "root");
+            Statement statement = connection.createStatement();
+            boolean hasResultSet = statement.execute("select s0,s1 from root.vehicle.d0");
+            Assert.assertTrue(hasResultSet);
+            ResultSet resultSet = statement.getResultSet();
+            int cnt = 0;
+            while (resultSet.next()) {
+                long time = resultSet.getLong(TIMESTAMP_STR);
+                long s0 = time <= 100 ? -time : time;
+                Assert.assertEquals(time + "," + s0 + "," + time * 10,
+                        time + "," + resultSet.getString(d0s0) + "," + resultSet.getString(d0s1));
+                cnt++;
+            }
+            Assert.assertEquals(1000, cnt);
+
+            hasResultSet = statement.execute("select s0 from root.vehicle.d1");
+            Assert.assertTrue(hasResultSet);
+            resultSet = statement.getResultSet();
+            cnt = 0;
+            while (resultSet.next()) {
+                long time = resultSet.getLong(TIMESTAMP_STR);
+                Assert.assertEquals(time + "," + time, time + "," + resultSet.getString(d1s0));
+                cnt++;
+            }
+            Assert.assertEquals(1000, cnt);
+            statement.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+}
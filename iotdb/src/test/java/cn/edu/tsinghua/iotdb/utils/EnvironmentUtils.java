@@ -6,10 +6,13 @@ import cn.edu.tsinghua.iotdb.auth.authorizer.LocalFileAuthorizer;
 import cn.edu.tsinghua.iotdb.conf.directories.Directories;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.engine.cache.LastValueCache;
 import cn.edu.tsinghua.iotdb.engine.cache.RowGroupBlockMetaDataCache;
+import cn.edu.tsinghua.iotdb.engine.cache.SeriesChunkCache;
 import cn.edu.tsinghua.iotdb.engine.cache.TsFileMetaDataCache;
 import cn.edu.tsinghua.iotdb.engine.filenode.FileNodeManager;
 import cn.edu.tsinghua.iotdb.engine.memcontrol.BasicMemController;
+import cn.edu.tsinghua.iotdb.engine.rollup.RollupManager;
 import cn.edu.tsinghua.iotdb.exception.FileNodeManagerException;
 import cn.edu.tsinghua.iotdb.exception.StartupException;
 import cn.edu.tsinghua.iotdb.metadata.MManager;
@@ -58,6 +61,9 @@ public class EnvironmentUtils {
 		// clean cache
 		TsFileMetaDataCache.getInstance().clear();
 		RowGroupBlockMetaDataCache.getInstance().clear();
+		SeriesChunkCache.getInstance().clear();
+		RollupManager.getInstance().clear();
+		LastValueCache.getInstance().clear();
 		// close metadata
 		MManager.getInstance().clear();
 		MManager.getInstance().flushObjectToFile();
@@ -0,0 +1,69 @@
+package cn.edu.tsinghua.iotdb.utils;
+
+import cn.edu.tsinghua.tsfile.common.utils.Binary;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TVListTest {
+
+    @Test
+    public void testPutAndGet() {
+        int count = TVList.ARRAY_SIZE * 3 + 7;
+        TVList longList = TVList.newList(TSDataType.INT64);
+        TVList intList = TVList.newList(TSDataType.INT32);
+        TVList floatList = TVList.newList(TSDataType.FLOAT);
+        TVList doubleList = TVList.newList(TSDataType.DOUBLE);
+        TVList booleanList = TVList.newList(TSDataType.BOOLEAN);
+        TVList binaryList = TVList.newList(TSDataType.TEXT);
+        for (int i = 0; i < count; i++) {
+            longList.putLong(i, i * 10L);
+            intList.putInt(i, i);
+            floatList.putFloat(i, i + 0.5f);
+            doubleList.putDouble(i, i + 0.25);
+            booleanList.putBoolean(i, i % 2 == 0);
+            binaryList.putBinary(i, new Binary("v" + i));
+        }
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(i, longList.getTime(i));
+            Assert.assertEquals(i * 10L, longList.getLong(i));
+            Assert.assertEquals(i, intList.getInt(i));
+            Assert.assertEquals(i + 0.5f, floatList.getFloat(i), 0);
+            Assert.assertEquals(i + 0.25, doubleList.getDouble(i), 0);
+            Assert.assertEquals(i % 2 == 0, booleanList.getBoolean(i));
+            Assert.assertEquals("v" + i, binaryList.getBinary(i).getStringValue());
+        }
+        long[] timestamps = intList.getTimestamps();
+        int[] values = (int[]) intList.getValues();
+        Assert.assertEquals(count, timestamps.length);
+        Assert.assertEquals(count, values.length);
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(i, timestamps[i]);
+            Assert.assertEquals(i, values[i]);
+        }
+    }
+
+    @Test
+    public void testClearAndReuse() {
+        TVList list = TVList.newList(TSDataType.INT64);
+        for (int i = 0; i < TVList.ARRAY_SIZE * 2; i++) {
+            list.putLong(i, i);
+        }
+        list.clear();
+        Assert.assertEquals(0, list.size());
+        for (int i = 0; i < 10; i++) {
+            list.putLong(100 + i, -i);
+        }
+        Assert.assertEquals(10, list.size());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(100 + i, list.getTime(i));
+            Assert.assertEquals(-i, list.getLong(i));
+        }
+        try {
+            list.getLong(10);
+            Assert.fail();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package cn.edu.tsinghua.iotdb.writelog;
 
+import cn.edu.tsinghua.iotdb.conf.TsFileDBConstant;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
-import cn.edu.tsinghua.iotdb.exception.MetadataArgsErrorException;
 import cn.edu.tsinghua.iotdb.exception.PathErrorException;
-import cn.edu.tsinghua.iotdb.exception.RecoverException;
 import cn.edu.tsinghua.iotdb.metadata.MManager;
+import cn.edu.tsinghua.iotdb.service.Monitor;
 import cn.edu.tsinghua.iotdb.writelog.manager.MultiFileLogNodeManager;
 import cn.edu.tsinghua.iotdb.writelog.manager.WriteLogNodeManager;
 import cn.edu.tsinghua.iotdb.writelog.node.WriteLogNode;
@@ -22,8 +22,12 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 
+import javax.management.ObjectName;
+
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
 
 public class WriteLogNodeManagerTest {
@@ -78,7 +82,7 @@ public class WriteLogNodeManagerTest {
     }
 
     @Test
-    public void testRecoverAll() throws IOException, RecoverException, MetadataArgsErrorException {
+    public void testRecoverAll() throws Exception {
         // this test create 5 log nodes and recover them
         File tempRestore = File.createTempFile("managerTest", "restore");
         File tempProcessorStore = File.createTempFile("managerTest", "processorStore");
@@ -108,6 +112,21 @@ public class WriteLogNodeManagerTest {
             logNode.forceSync();
             logNode.close();
         }
+        long startTime = System.currentTimeMillis();
         manager.recover();
+        long elapsedTime = System.currentTimeMillis() - startTime;
+
+        // the time of the recovery is reported by the monitor through JMX
+        long recoverTime = ((MultiFileLogNodeManager) manager).getLastRecoverTimeInMs();
+        assertTrue(recoverTime >= 0 && recoverTime <= elapsedTime);
+        Monitor.INSTANCE.start();
+        try {
+            ObjectName monitorName = new ObjectName(String.format("%s:%s=%s", TsFileDBConstant.IOTDB_PACKAGE,
+                    TsFileDBConstant.JMX_TYPE, Monitor.INSTANCE.getID().getJmxName()));
+            assertEquals(recoverTime, ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(monitorName, "LastWalRecoverTimeInMs"));
+        } finally {
+            Monitor.INSTANCE.stop();
+        }
     }
 }
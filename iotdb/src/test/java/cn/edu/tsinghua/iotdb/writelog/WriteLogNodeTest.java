@@ -2,8 +2,13 @@ package cn.edu.tsinghua.iotdb.writelog;
 
 import cn.edu.tsinghua.iotdb.conf.TsfileDBConfig;
 import cn.edu.tsinghua.iotdb.conf.TsfileDBDescriptor;
+import cn.edu.tsinghua.iotdb.writelog.LogPosition;
+import cn.edu.tsinghua.iotdb.writelog.io.MMapLogReader;
+import cn.edu.tsinghua.iotdb.writelog.io.MMapLogWriter;
+import cn.edu.tsinghua.iotdb.writelog.io.RAFLogReader;
 import cn.edu.tsinghua.iotdb.writelog.transfer.PhysicalPlanLogTransfer;
 import cn.edu.tsinghua.iotdb.writelog.node.ExclusiveWriteLogNode;
+import cn.edu.tsinghua.iotdb.writelog.node.LogDurability;
 import cn.edu.tsinghua.iotdb.writelog.node.WriteLogNode;
 import cn.edu.tsinghua.iotdb.qp.physical.crud.DeletePlan;
 import cn.edu.tsinghua.iotdb.qp.physical.crud.InsertPlan;
@@ -17,7 +22,9 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.zip.CRC32;
 
 import static junit.framework.TestCase.assertEquals;
@@ -28,10 +35,16 @@ public class WriteLogNodeTest {
     private TsfileDBConfig config = TsfileDBDescriptor.getInstance().getConfig();
 
     private boolean enableWal;
+    private boolean enableGroupCommit;
+    private boolean groupCommitSync;
+    private boolean enableWalSegment;
 
     @Before
     public void setUp() throws Exception {
         enableWal = config.enableWal;
+        enableGroupCommit = config.enableWalGroupCommit;
+        groupCommitSync = config.walGroupCommitSync;
+        enableWalSegment = config.enableWalSegment;
         config.enableWal = true;
         EnvironmentUtils.envSetUp();
     }
@@ -40,6 +53,9 @@ public class WriteLogNodeTest {
     public void tearDown() throws Exception {
         EnvironmentUtils.cleanEnv();
         config.enableWal = enableWal;
+        config.enableWalGroupCommit = enableGroupCommit;
+        config.walGroupCommitSync = groupCommitSync;
+        config.enableWalSegment = enableWalSegment;
     }
 
     @Test
@@ -155,6 +171,54 @@ public class WriteLogNodeTest {
         tempRestore.getParentFile().delete();
     }
 
+    @Test
+    public void testNotifyFlushTwice() throws IOException {
+        // this test starts a second flush before the first one ends, the old file should keep the logs of both
+        // flushes until the second one ends
+        File tempRestore = new File("testtemp", "restore");
+        File tempProcessorStore = new File("testtemp", "processorStore");
+        tempRestore.getParentFile().mkdirs();
+        tempRestore.createNewFile();
+        tempProcessorStore.createNewFile();
+
+        WriteLogNode logNode = new ExclusiveWriteLogNode("root.logTestDevice", tempRestore.getPath(), tempProcessorStore.getPath());
+
+        InsertPlan bwInsertPlan = new InsertPlan(1, "root.logTestDevice", 100, Arrays.asList("s1", "s2", "s3", "s4"),
+                Arrays.asList("1.0", "15", "str", "false"));
+        DeletePlan deletePlan = new DeletePlan(50,  new Path("root.logTestDevice.s1"));
+
+        File walFile = new File(config.walFolder + File.separator + "root.logTestDevice" + File.separator + "wal");
+        File oldWalFile = new File(config.walFolder + File.separator + "root.logTestDevice" + File.separator + "wal-old");
+
+        logNode.write(bwInsertPlan);
+        logNode.notifyStartFlush();
+        long firstSize = oldWalFile.length();
+        assertTrue(firstSize > 0);
+
+        logNode.write(deletePlan);
+        logNode.notifyStartFlush();
+        assertTrue(oldWalFile.length() > firstSize);
+        assertTrue(!walFile.exists());
+
+        logNode.notifyEndFlush(null);
+        assertTrue(oldWalFile.exists());
+        RAFLogReader reader = new RAFLogReader(oldWalFile);
+        assertTrue(reader.hasNext());
+        assertTrue(reader.next() instanceof InsertPlan);
+        assertTrue(reader.hasNext());
+        assertTrue(reader.next() instanceof DeletePlan);
+        assertTrue(!reader.hasNext());
+        reader.close();
+
+        logNode.notifyEndFlush(null);
+        assertTrue(!oldWalFile.exists());
+
+        logNode.delete();
+        tempRestore.delete();
+        tempProcessorStore.delete();
+        tempRestore.getParentFile().delete();
+    }
+
     @Test
     public void testSyncThreshold() throws IOException {
         // this test checks that if more logs than threshold are written, a sync will be triggered.
@@ -251,4 +315,212 @@ public class WriteLogNodeTest {
         tempProcessorStore.delete();
         tempRestore.getParentFile().delete();
     }
+
+    @Test
+    public void testGroupCommit() throws IOException {
+        // this test enables group commit and writes logs into two nodes concurrently,
+        // the logs should be durable as soon as write() returns
+        config.enableWalGroupCommit = true;
+        config.walGroupCommitSync = true;
+        File tempRestore = new File("testtemp", "restore");
+        File tempProcessorStore = new File("testtemp", "processorStore");
+        tempRestore.getParentFile().mkdirs();
+        tempRestore.createNewFile();
+        tempProcessorStore.createNewFile();
+
+        WriteLogNode logNode1 = new ExclusiveWriteLogNode("root.logTestDevice1", tempRestore.getPath(), tempProcessorStore.getPath());
+        WriteLogNode logNode2 = new ExclusiveWriteLogNode("root.logTestDevice2", tempRestore.getPath(), tempProcessorStore.getPath());
+
+        Thread[] writers = new Thread[4];
+        IOException[] exceptions = new IOException[writers.length];
+        for (int i = 0; i < writers.length; i++) {
+            final int index = i;
+            final WriteLogNode node = i % 2 == 0 ? logNode1 : logNode2;
+            writers[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 10; j++) {
+                        node.write(new InsertPlan(1, "root.logTestDevice", j, Arrays.asList("s1", "s2"),
+                                Arrays.asList("1.0", "15")));
+                    }
+                } catch (IOException e) {
+                    exceptions[index] = e;
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }
+        for (IOException exception : exceptions) {
+            if (exception != null)
+                throw exception;
+        }
+
+        for (WriteLogNode node : Arrays.asList(logNode1, logNode2)) {
+            File walFile = new File(node.getLogDirectory() + File.separator + "wal");
+            assertTrue(walFile.exists());
+            RAFLogReader reader = new RAFLogReader(walFile);
+            int cnt = 0;
+            while (reader.hasNext()) {
+                reader.next();
+                cnt++;
+            }
+            reader.close();
+            assertEquals(20, cnt);
+        }
+
+        logNode1.delete();
+        logNode2.delete();
+        tempRestore.delete();
+        tempProcessorStore.delete();
+        tempRestore.getParentFile().delete();
+    }
+
+    @Test
+    public void testWriteWithoutWait() throws IOException {
+        // this test writes a batch of logs without waiting under group commit, the logs should be durable
+        // once the returned handle is waited on
+        config.enableWalGroupCommit = true;
+        config.walGroupCommitSync = true;
+        File tempRestore = new File("testtemp", "restore");
+        File tempProcessorStore = new File("testtemp", "processorStore");
+        tempRestore.getParentFile().mkdirs();
+        tempRestore.createNewFile();
+        tempProcessorStore.createNewFile();
+
+        WriteLogNode logNode = new ExclusiveWriteLogNode("root.logTestDevice", tempRestore.getPath(), tempProcessorStore.getPath());
+        List<InsertPlan> plans = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            plans.add(new InsertPlan(1, "root.logTestDevice", i, Arrays.asList("s1", "s2"),
+                    Arrays.asList("1.0", "15")));
+        }
+        LogDurability durability = logNode.writeWithoutWait(plans);
+        durability.await();
+
+        File walFile = new File(logNode.getLogDirectory() + File.separator + "wal");
+        RAFLogReader reader = new RAFLogReader(walFile);
+        int cnt = 0;
+        while (reader.hasNext()) {
+            InsertPlan plan = (InsertPlan) reader.next();
+            assertEquals(cnt, plan.getTime());
+            cnt++;
+        }
+        reader.close();
+        assertEquals(10, cnt);
+
+        logNode.delete();
+        tempRestore.delete();
+        tempProcessorStore.delete();
+        tempRestore.getParentFile().delete();
+    }
+
+    @Test
+    public void testSmallLogBuffer() throws IOException {
+        // this test uses a log buffer smaller than a few logs, so the buffer is written out many times
+        // and some logs are even larger than the whole buffer
+        int walBufferSize = config.walBufferSize;
+        config.walBufferSize = 64;
+        File tempRestore = new File("testtemp", "restore");
+        File tempProcessorStore = new File("testtemp", "processorStore");
+        tempRestore.getParentFile().mkdirs();
+        tempRestore.createNewFile();
+        tempProcessorStore.createNewFile();
+
+        WriteLogNode logNode = new ExclusiveWriteLogNode("root.logTestDevice", tempRestore.getPath(), tempProcessorStore.getPath());
+        for (int i = 0; i < 50; i++) {
+            String value = i % 5 == 0 ? "a long string value which does not fit in the log buffer" : "v" + i;
+            logNode.write(new InsertPlan(1, "root.logTestDevice", i, Arrays.asList("s1", "s2"),
+                    Arrays.asList(value, "\u6e29\u5ea6")));
+        }
+        logNode.forceSync();
+
+        File walFile = new File(logNode.getLogDirectory() + File.separator + "wal");
+        RAFLogReader reader = new RAFLogReader(walFile);
+        int cnt = 0;
+        while (reader.hasNext()) {
+            InsertPlan plan = (InsertPlan) reader.next();
+            assertEquals(cnt, plan.getTime());
+            assertEquals(Arrays.asList(cnt % 5 == 0 ? "a long string value which does not fit in the log buffer" : "v" + cnt,
+                    "\u6e29\u5ea6"), plan.getValues());
+            cnt++;
+        }
+        reader.close();
+        assertEquals(50, cnt);
+
+        logNode.delete();
+        tempRestore.delete();
+        tempProcessorStore.delete();
+        tempRestore.getParentFile().delete();
+        config.walBufferSize = walBufferSize;
+    }
+
+    @Test
+    public void testSegmentNotifyFlush() throws IOException {
+        // this test writes logs into segments, notifyStartFlush() keeps writing into the current segment and
+        // notifyEndFlush() saves the checkpoint after the flushed logs and deletes the segments before it
+        config.enableWalSegment = true;
+        File tempRestore = new File("testtemp", "restore");
+        File tempProcessorStore = new File("testtemp", "processorStore");
+        tempRestore.getParentFile().mkdirs();
+        tempRestore.createNewFile();
+        tempProcessorStore.createNewFile();
+
+        WriteLogNode logNode = new ExclusiveWriteLogNode("root.logTestDevice", tempRestore.getPath(), tempProcessorStore.getPath());
+
+        InsertPlan bwInsertPlan = new InsertPlan(1, "root.logTestDevice", 100, Arrays.asList("s1", "s2", "s3", "s4"),
+                Arrays.asList("1.0", "15", "str", "false"));
+        UpdatePlan updatePlan = new UpdatePlan(0, 100, "2.0", new Path("root.logTestDevice.s1"));
+        DeletePlan deletePlan = new DeletePlan(50,  new Path("root.logTestDevice.s1"));
+
+        logNode.write(bwInsertPlan);
+        logNode.write(updatePlan);
+        logNode.forceSync();
+
+        File firstSegment = new File(logNode.getLogDirectory(), MMapLogWriter.SEGMENT_PREFIX + 0);
+        assertTrue(firstSegment.exists());
+        assertEquals(config.walSegmentSize, firstSegment.length());
+
+        logNode.notifyStartFlush();
+        logNode.write(deletePlan);
+        logNode.forceSync();
+        File secondSegment = new File(logNode.getLogDirectory(), MMapLogWriter.SEGMENT_PREFIX + 1);
+        assertTrue(!secondSegment.exists());
+
+        logNode.notifyEndFlush(null);
+        assertTrue(firstSegment.exists());
+        LogPosition checkpoint = MMapLogWriter.readCheckpoint(new File(logNode.getLogDirectory()));
+        assertEquals(firstSegment.getName(), checkpoint.logPath);
+        assertTrue(checkpoint.startPos > 0);
+
+        // only the log written after the flush started is read from the checkpoint
+        MMapLogReader reader = new MMapLogReader();
+        reader.open(firstSegment, checkpoint.startPos);
+        assertTrue(reader.hasNext());
+        DeletePlan deletePlan2 = (DeletePlan) reader.next();
+        assertEquals(deletePlan.getDeleteTime(), deletePlan2.getDeleteTime());
+        assertTrue(!reader.hasNext());
+        reader.close();
+
+        // the writer rolls to a new segment once the current one is closed, the next flush discards the first one
+        logNode.close();
+        logNode.write(bwInsertPlan);
+        logNode.notifyStartFlush();
+        logNode.notifyEndFlush(null);
+        assertTrue(!firstSegment.exists());
+        assertTrue(secondSegment.exists());
+        checkpoint = MMapLogWriter.readCheckpoint(new File(logNode.getLogDirectory()));
+        assertEquals(secondSegment.getName(), checkpoint.logPath);
+        reader.open(secondSegment, checkpoint.startPos);
+        assertTrue(!reader.hasNext());
+        reader.close();
+
+        logNode.delete();
+        tempRestore.delete();
+        tempProcessorStore.delete();
+        tempRestore.getParentFile().delete();
+    }
 }
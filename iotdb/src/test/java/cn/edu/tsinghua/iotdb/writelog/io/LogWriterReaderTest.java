@@ -18,6 +18,7 @@ import static org.hamcrest.CoreMatchers.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -62,4 +63,18 @@ public class LogWriterReaderTest {
             new File(filePath).delete();
         }
     }
+
+    @Test
+    public void testEncodeToBuffer() throws IOException {
+        plans.add(new InsertPlan(1, "root.d1", 10L, Arrays.asList("s1", "s2"), Arrays.asList("\u6e29\u5ea6", "\ud83d\ude00")));
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (PhysicalPlan plan : plans) {
+            buffer.clear();
+            PhysicalPlanLogTransfer.operatorToLog(plan, buffer);
+            buffer.flip();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            assertArrayEquals(PhysicalPlanLogTransfer.operatorToLog(plan), bytes);
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package cn.edu.tsinghua.iotdb.writelog.io;
+
+import cn.edu.tsinghua.iotdb.qp.physical.PhysicalPlan;
+import cn.edu.tsinghua.iotdb.qp.physical.crud.DeletePlan;
+import cn.edu.tsinghua.iotdb.qp.physical.crud.InsertPlan;
+import cn.edu.tsinghua.iotdb.qp.physical.crud.UpdatePlan;
+import cn.edu.tsinghua.iotdb.writelog.transfer.PhysicalPlanLogTransfer;
+import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MMapLogWriterReaderTest {
+    private List<byte[]> logs = new ArrayList<>();
+    private static String dirPath = "mmaplogtest";
+
+    @Before
+    public void prepare() throws IOException {
+        FileUtils.deleteDirectory(new File(dirPath));
+        List<PhysicalPlan> plans = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            plans.add(new InsertPlan(1, "root.d1", i, Arrays.asList("s1", "s2"), Arrays.asList("1", "2")));
+        }
+        plans.add(new UpdatePlan(8L, 11L, "3", new Path("root.d1.s1")));
+        plans.add(new DeletePlan(10L, new Path("root.d1.s1")));
+        for (PhysicalPlan plan : plans) {
+            logs.add(PhysicalPlanLogTransfer.operatorToLog(plan));
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(dirPath));
+    }
+
+    @Test
+    public void testSegmentRollover() throws IOException {
+        // segments are so small that only a few logs fit in one, and every close starts a new segment
+        MMapLogWriter writer = new MMapLogWriter(dirPath, 128);
+        writer.write(logs.subList(0, 6));
+        writer.close();
+        writer.write(logs.subList(6, logs.size()));
+        writer.close();
+
+        List<File> segments = MMapLogWriter.listSegments(new File(dirPath));
+        assertTrue(segments.size() > 2);
+        for (int i = 0; i < segments.size(); i++) {
+            assertEquals(i, MMapLogWriter.getSegmentIndex(segments.get(i)));
+            assertTrue(segments.get(i).length() >= 128);
+        }
+
+        List<byte[]> res = new ArrayList<>();
+        MMapLogReader reader = new MMapLogReader();
+        for (File segment : segments) {
+            reader.open(segment);
+            while (reader.hasNext()) {
+                res.add(PhysicalPlanLogTransfer.operatorToLog(reader.next()));
+            }
+            reader.close();
+        }
+        assertEquals(logs.size(), res.size());
+        for (int i = 0; i < logs.size(); i++) {
+            assertArrayEquals(logs.get(i), res.get(i));
+        }
+    }
+
+    @Test
+    public void testReadAppendedFile() throws IOException {
+        // the reader also reads files written by LogWriter, and stops at an incomplete log
+        new File(dirPath).mkdirs();
+        File logFile = new File(dirPath, "wal");
+        LogWriter writer = new LogWriter(logFile.getPath());
+        writer.write(logs);
+        writer.close();
+        FileUtils.writeByteArrayToFile(logFile, new byte[]{0, 0, 1}, true);
+
+        MMapLogReader reader = new MMapLogReader(logFile);
+        int cnt = 0;
+        while (reader.hasNext()) {
+            assertArrayEquals(logs.get(cnt), PhysicalPlanLogTransfer.operatorToLog(reader.next()));
+            cnt++;
+        }
+        reader.close();
+        assertEquals(logs.size(), cnt);
+    }
+}
@@ -0,0 +1,130 @@
+package cn.edu.tsinghua.iotdb.jdbc;
+
+import cn.edu.tsinghua.service.rpc.thrift.TSColumnarDataSet;
+import cn.edu.tsinghua.tsfile.common.exception.UnSupportedDataTypeException;
+import cn.edu.tsinghua.tsfile.common.utils.Binary;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A forward-only cursor over a {@link TSColumnarDataSet}. Values are decoded from the packed column buffers
+ * only when they are read, and the read position of a column is moved forward only when the column is accessed,
+ * so columns which are never read cost nothing.
+ */
+public class TsfileColumnarDataSet {
+
+    private int rowCount;
+    private ByteBuffer timestamps;
+    private TSDataType[] dataTypes;
+    private ByteBuffer[] bitmaps;
+    private ByteBuffer[] values;
+    /**
+     * positions[i] is the offset in values[i] of the first value of a row not before positionRows[i].
+     */
+    private int[] positions;
+    private int[] positionRows;
+    private int row = -1;
+
+    public TsfileColumnarDataSet(TSColumnarDataSet dataSet) {
+        rowCount = dataSet.getRowCount();
+        timestamps = ByteBuffer.wrap(dataSet.getTimestamps());
+        List<String> types = dataSet.getDataTypes();
+        int columnCount = types.size();
+        dataTypes = new TSDataType[columnCount];
+        bitmaps = new ByteBuffer[columnCount];
+        values = new ByteBuffer[columnCount];
+        positions = new int[columnCount];
+        positionRows = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            dataTypes[i] = types.get(i).isEmpty() ? null : TSDataType.valueOf(types.get(i));
+            bitmaps[i] = dataSet.getBitmaps().get(i);
+            values[i] = dataSet.getValues().get(i);
+            positions[i] = values[i].position();
+        }
+    }
+
+    public boolean hasNext() {
+        return row + 1 < rowCount;
+    }
+
+    public void next() {
+        row++;
+    }
+
+    public int getColumnCount() {
+        return dataTypes.length;
+    }
+
+    public long getTimestamp() {
+        return timestamps.getLong(row * 8);
+    }
+
+    /**
+     * @param column index of the column, starting from 0.
+     * @return string of the value in current row, null if the row has no value in this column.
+     */
+    public String getString(int column) {
+        if (!hasValue(column, row)) {
+            return null;
+        }
+        ByteBuffer buffer = values[column];
+        int position = locate(column);
+        switch (dataTypes[column]) {
+            case BOOLEAN:
+                return String.valueOf(buffer.get(position) != 0);
+            case INT32:
+                return String.valueOf(buffer.getInt(position));
+            case INT64:
+                return String.valueOf(buffer.getLong(position));
+            case FLOAT:
+                return String.valueOf(buffer.getFloat(position));
+            case DOUBLE:
+                return String.valueOf(buffer.getDouble(position));
+            case TEXT:
+                byte[] bytes = new byte[buffer.getInt(position)];
+                ByteBuffer text = buffer.duplicate();
+                text.position(position + 4);
+                text.get(bytes);
+                return new Binary(bytes).getStringValue();
+            default:
+                throw new UnSupportedDataTypeException(String.format("data type %s is not supported when convert data at client", dataTypes[column]));
+        }
+    }
+
+    private boolean hasValue(int column, int row) {
+        ByteBuffer bitmap = bitmaps[column];
+        return (bitmap.get(bitmap.position() + row / 8) & (1 << (row % 8))) != 0;
+    }
+
+    /*
+    Move the read position of the column to current row, skipping the values of the rows in between.
+     */
+    private int locate(int column) {
+        while (positionRows[column] < row) {
+            if (hasValue(column, positionRows[column])) {
+                positions[column] += getPackedSize(column, positions[column]);
+            }
+            positionRows[column]++;
+        }
+        return positions[column];
+    }
+
+    private int getPackedSize(int column, int position) {
+        switch (dataTypes[column]) {
+            case BOOLEAN:
+                return 1;
+            case INT32:
+            case FLOAT:
+                return 4;
+            case INT64:
+            case DOUBLE:
+                return 8;
+            case TEXT:
+                return 4 + values[column].getInt(position);
+            default:
+                throw new UnSupportedDataTypeException(String.format("data type %s is not supported when convert data at client", dataTypes[column]));
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.apache.thrift.transport.TTransportException;
 import org.joda.time.DateTimeZone;
 
 import cn.edu.tsinghua.service.rpc.thrift.ServerProperties;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.service.rpc.thrift.TSCloseSessionReq;
 import cn.edu.tsinghua.service.rpc.thrift.TSGetTimeZoneResp;
 import cn.edu.tsinghua.service.rpc.thrift.TSIService;
@@ -456,6 +457,18 @@ public class TsfileConnection implements Connection {
     	return resp.getTimeZone();
     }
     
+    /**
+     * Insert rows of one device without SQL, see {@link TsfileStatement#insertBatch}.
+     *
+     * @return Statement.SUCCESS_NO_INFO or Statement.EXECUTE_FAILED of each row
+     */
+    public int[] insertBatch(String deltaObjectId, List<String> measurements, long[] timestamps,
+	    TSDataType[] dataTypes, Object[] columns) throws SQLException {
+	try (TsfileStatement statement = (TsfileStatement) createStatement()) {
+	    return statement.insertBatch(deltaObjectId, measurements, timestamps, dataTypes, columns);
+	}
+    }
+
     public ServerProperties getServerProperties() throws TException {
     		return client.getProperties();
     }
@@ -465,6 +478,10 @@ public class TsfileConnection implements Connection {
 		new Class[] { TSIService.Iface.class }, new SynchronizedHandler(client));
     }
 
+    public boolean isColumnarFetch() {
+	return params != null && params.isColumnarFetch();
+    }
+
     public TSProtocolVersion getProtocol() {
 	return protocol;
     }
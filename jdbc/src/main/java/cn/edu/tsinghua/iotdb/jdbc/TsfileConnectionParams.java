@@ -7,6 +7,7 @@ public class TsfileConnectionParams {
     private String seriesName = TsfileJDBCConfig.DEFAULT_SERIES_NAME;
     private String username = TsfileJDBCConfig.DEFAULT_USER;
     private String password = TsfileJDBCConfig.DEFALUT_PASSWORD;
+    private boolean columnarFetch = false;
     
     public TsfileConnectionParams(String url){
     	this.jdbcUriString = url;
@@ -48,6 +49,12 @@ public class TsfileConnectionParams {
 	public void setPassword(String password) {
 		this.password = password;
 	}
+	public boolean isColumnarFetch() {
+		return columnarFetch;
+	}
+	public void setColumnarFetch(boolean columnarFetch) {
+		this.columnarFetch = columnarFetch;
+	}
 
 
 }
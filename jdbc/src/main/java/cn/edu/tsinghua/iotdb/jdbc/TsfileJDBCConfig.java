@@ -22,6 +22,11 @@ public class TsfileJDBCConfig {
 	
 	public static final String AUTH_PASSWORD = "password";
 	public static final String DEFALUT_PASSWORD = "password";
+
+	/**
+	 * Connection property, when set true, query results are fetched in columnar binary form.
+	 */
+	public static final String COLUMNAR_FETCH = "columnar_fetch";
 	
 	public static final int RETRY_NUM = 3;
 	public static final long RETRY_INTERVAL = 1000;
@@ -2,6 +2,8 @@ package cn.edu.tsinghua.iotdb.jdbc;
 
 import cn.edu.tsinghua.service.rpc.thrift.TSCloseOperationReq;
 import cn.edu.tsinghua.service.rpc.thrift.TSCloseOperationResp;
+import cn.edu.tsinghua.service.rpc.thrift.TSFetchColumnarResultsReq;
+import cn.edu.tsinghua.service.rpc.thrift.TSFetchColumnarResultsResp;
 import cn.edu.tsinghua.service.rpc.thrift.TSFetchResultsReq;
 import cn.edu.tsinghua.service.rpc.thrift.TSFetchResultsResp;
 import cn.edu.tsinghua.service.rpc.thrift.TSIService;
@@ -22,6 +24,7 @@ import java.net.URL;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.Clob;
+import java.sql.Connection;
 import java.sql.Date;
 import java.sql.NClob;
 import java.sql.Ref;
@@ -51,6 +54,11 @@ public class TsfileQueryResultSet implements ResultSet {
 	private Map<String, Integer> columnInfoMap;
 	private RowRecord record;
 	private Iterator<RowRecord> recordItr;
+	/**
+	 * Whether results are fetched in columnar form, then the current row is in columnarDataSet instead of record.
+	 */
+	private boolean columnarFetch = false;
+	private TsfileColumnarDataSet columnarDataSet;
 	private int rowsFetched = 0;
 	private int maxRows; // defined in TsfileStatement
 	private int fetchSize;
@@ -94,6 +102,8 @@ public class TsfileQueryResultSet implements ResultSet {
 		this.sql = sql;
 		this.operationType = aggregations;
 		this.columnTypeList = columnTypeList;
+		Connection connection = statement.getConnection();
+		this.columnarFetch = connection instanceof TsfileConnection && ((TsfileConnection) connection).isColumnarFetch();
 
 		this.columnInfoList = new ArrayList<>();
 		this.columnInfoList.add(TIMESTAMP_STR);
@@ -659,6 +669,9 @@ public class TsfileQueryResultSet implements ResultSet {
 
 	// the next record rule without constraints
 	private boolean nextWithoutConstraints() throws SQLException {
+		if (columnarFetch) {
+			return nextColumnarWithoutConstraints();
+		}
 		if ((recordItr == null || !recordItr.hasNext()) && !emptyResultSet) {
 			TSFetchResultsReq req = new TSFetchResultsReq(sql, fetchSize);
 
@@ -685,6 +698,34 @@ public class TsfileQueryResultSet implements ResultSet {
 		return true;
 	}
 
+	// the next record rule without constraints, results are fetched in columnar form and decoded lazily
+	private boolean nextColumnarWithoutConstraints() throws SQLException {
+		if ((columnarDataSet == null || !columnarDataSet.hasNext()) && !emptyResultSet) {
+			// the rows of the last fetch are all read, they must not be read as the current row any more
+			columnarDataSet = null;
+			TSFetchColumnarResultsReq req = new TSFetchColumnarResultsReq(sql, fetchSize);
+
+			try {
+				TSFetchColumnarResultsResp resp = client.fetchColumnarResults(req);
+				Utils.verifySuccess(resp.getStatus());
+				if (!resp.hasResultSet) {
+					emptyResultSet = true;
+				} else {
+					columnarDataSet = new TsfileColumnarDataSet(resp.getDataSet());
+				}
+			} catch (TException e) {
+				throw new SQLException("Cannot fetch result from server, because of network connection");
+			}
+
+		}
+		if (emptyResultSet) {
+			return false;
+		}
+
+		columnarDataSet.next();
+		return true;
+	}
+
 	@Override
 	// the next record rule considering both the maxRows constraint and the LIMIT&OFFSET constraint
 	public boolean next() throws SQLException {
@@ -1179,7 +1220,7 @@ public class TsfileQueryResultSet implements ResultSet {
 	}
 
 	private void checkRecord() throws SQLException {
-		if (record == null) {
+		if (columnarFetch ? columnarDataSet == null : record == null) {
 			throw new SQLException("No record remains");
 		}
 	}
@@ -1196,6 +1237,13 @@ public class TsfileQueryResultSet implements ResultSet {
 
 	private String getValueByName(String columnName) throws SQLException {
 		checkRecord();
+		if (columnarDataSet != null) {
+			if (columnName.equals(TIMESTAMP_STR)) {
+				return String.valueOf(columnarDataSet.getTimestamp());
+			}
+			int column = columnInfoMap.get(columnName) - 2;
+			return column < columnarDataSet.getColumnCount() ? columnarDataSet.getString(column) : null;
+		}
 		if (columnName.equals(TIMESTAMP_STR)) {
 			return String.valueOf(record.getTimestamp());
 		}
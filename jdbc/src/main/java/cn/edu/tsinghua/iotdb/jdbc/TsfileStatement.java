@@ -2,6 +2,7 @@ package cn.edu.tsinghua.iotdb.jdbc;
 
 import org.apache.thrift.TException;
 
+import cn.edu.tsinghua.service.rpc.thrift.TSBatchInsertionReq;
 import cn.edu.tsinghua.service.rpc.thrift.TSCancelOperationReq;
 import cn.edu.tsinghua.service.rpc.thrift.TSCancelOperationResp;
 import cn.edu.tsinghua.service.rpc.thrift.TSCloseOperationReq;
@@ -16,7 +17,9 @@ import cn.edu.tsinghua.service.rpc.thrift.TSIService;
 import cn.edu.tsinghua.service.rpc.thrift.TSOperationHandle;
 import cn.edu.tsinghua.service.rpc.thrift.TS_SessionHandle;
 import cn.edu.tsinghua.service.rpc.thrift.TS_StatusCode;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 
+import java.nio.ByteBuffer;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -255,6 +258,65 @@ public class TsfileStatement implements Statement {
 		isCancelled = false;
 		TSExecuteBatchStatementReq execReq = new TSExecuteBatchStatementReq(sessionHandle, batchSQLList);
 		TSExecuteBatchStatementResp execResp = client.executeBatchStatement(execReq);
+		return getBatchResult(execResp);
+	}
+
+	/**
+	 * Insert rows of one device without SQL, the server neither parses nor plans the insertion.
+	 *
+	 * @param deltaObjectId the device, e.g. root.vehicle.d0
+	 * @param measurements measurements of the device, which must have been created
+	 * @param timestamps timestamp of each row
+	 * @param dataTypes data type of each measurement, the same as the data type in the schema
+	 * @param columns values of each measurement, a boolean[], int[], long[], float[], double[] or String[]
+	 *                according to its data type, and having at least as many values as timestamps
+	 * @return Statement.SUCCESS_NO_INFO or Statement.EXECUTE_FAILED of each row
+	 */
+	public int[] insertBatch(String deltaObjectId, List<String> measurements, long[] timestamps,
+			TSDataType[] dataTypes, Object[] columns) throws SQLException {
+		checkConnection("insertBatch");
+		if (dataTypes.length != measurements.size() || columns.length != measurements.size()) {
+			throw new SQLException(String.format("%d measurements have %d data types and %d columns",
+					measurements.size(), dataTypes.length, columns.length));
+		}
+		isClosed = false;
+		try {
+			return insertBatchColumns(deltaObjectId, measurements, timestamps, dataTypes, columns);
+		} catch (TException e) {
+			boolean flag = connection.reconnect();
+			reInit();
+			if (flag) {
+				try {
+					return insertBatchColumns(deltaObjectId, measurements, timestamps, dataTypes, columns);
+				} catch (TException e2) {
+					throw new SQLException("Fail to insert batch after reconnecting. please check server status");
+				}
+			} else {
+				throw new SQLException(
+						"Fail to reconnect to server when inserting batch. please check server status");
+			}
+		}
+	}
+
+	private int[] insertBatchColumns(String deltaObjectId, List<String> measurements, long[] timestamps,
+			TSDataType[] dataTypes, Object[] columns) throws TException, SQLException {
+		isCancelled = false;
+		int rowCount = timestamps.length;
+		ByteBuffer timeBuffer = ByteBuffer.allocate(rowCount * 8);
+		timeBuffer.asLongBuffer().put(timestamps);
+		List<String> types = new ArrayList<>(dataTypes.length);
+		List<ByteBuffer> values = new ArrayList<>(columns.length);
+		for (int i = 0; i < columns.length; i++) {
+			types.add(dataTypes[i].toString());
+			values.add(Utils.packColumn(dataTypes[i], columns[i], rowCount));
+		}
+		TSBatchInsertionReq insertReq = new TSBatchInsertionReq(sessionHandle, deltaObjectId, measurements, rowCount,
+				timeBuffer, types, values);
+		TSExecuteBatchStatementResp execResp = client.insertBatch(insertReq);
+		return getBatchResult(execResp);
+	}
+
+	private int[] getBatchResult(TSExecuteBatchStatementResp execResp) throws BatchUpdateException {
 		if(execResp.getStatus().statusCode == TS_StatusCode.SUCCESS_STATUS){
 			if (execResp.getResult() == null) {
 				return new int[0];
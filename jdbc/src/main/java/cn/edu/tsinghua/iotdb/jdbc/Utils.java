@@ -12,6 +12,7 @@ import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.RowRecord;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -52,6 +53,9 @@ public class Utils {
         if (info.containsKey(TsfileJDBCConfig.AUTH_PASSWORD)) {
             params.setPassword(info.getProperty(TsfileJDBCConfig.AUTH_PASSWORD));
         }
+        if (info.containsKey(TsfileJDBCConfig.COLUMNAR_FETCH)) {
+            params.setColumnarFetch(Boolean.parseBoolean(info.getProperty(TsfileJDBCConfig.COLUMNAR_FETCH)));
+        }
 
         return params;
     }
@@ -103,4 +107,57 @@ public class Utils {
     		}
     		return records;
     }
+
+    /**
+     * Pack the first rowCount values of a column for TSIService.insertBatch. The column is a boolean[], int[],
+     * long[], float[], double[] or String[] according to the data type.
+     */
+    public static ByteBuffer packColumn(TSDataType dataType, Object column, int rowCount) {
+        ByteBuffer buffer;
+        switch (dataType) {
+            case BOOLEAN:
+                boolean[] booleans = (boolean[]) column;
+                buffer = ByteBuffer.allocate(rowCount);
+                for (int i = 0; i < rowCount; i++) {
+                    buffer.put(booleans[i] ? (byte) 1 : (byte) 0);
+                }
+                break;
+            case INT32:
+                buffer = ByteBuffer.allocate(rowCount * 4);
+                buffer.asIntBuffer().put((int[]) column, 0, rowCount);
+                break;
+            case INT64:
+                buffer = ByteBuffer.allocate(rowCount * 8);
+                buffer.asLongBuffer().put((long[]) column, 0, rowCount);
+                break;
+            case FLOAT:
+                buffer = ByteBuffer.allocate(rowCount * 4);
+                buffer.asFloatBuffer().put((float[]) column, 0, rowCount);
+                break;
+            case DOUBLE:
+                buffer = ByteBuffer.allocate(rowCount * 8);
+                buffer.asDoubleBuffer().put((double[]) column, 0, rowCount);
+                break;
+            case TEXT:
+                String[] strings = (String[]) column;
+                byte[][] bytes = new byte[rowCount][];
+                int size = 0;
+                for (int i = 0; i < rowCount; i++) {
+                    bytes[i] = new Binary(strings[i]).values;
+                    size += 4 + bytes[i].length;
+                }
+                buffer = ByteBuffer.allocate(size);
+                for (int i = 0; i < rowCount; i++) {
+                    buffer.putInt(bytes[i].length);
+                    buffer.put(bytes[i]);
+                }
+                break;
+            default:
+                throw new UnSupportedDataTypeException(String.format("data type %s is not supported when convert data at client", dataType));
+        }
+        // the typed views above do not move the position of the buffer
+        buffer.position(buffer.capacity());
+        buffer.flip();
+        return buffer;
+    }
 }
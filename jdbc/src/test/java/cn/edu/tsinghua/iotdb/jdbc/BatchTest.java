@@ -1,29 +1,36 @@
 package cn.edu.tsinghua.iotdb.jdbc;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
+import java.nio.ByteBuffer;
 import java.sql.BatchUpdateException;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.thrift.TException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import cn.edu.tsinghua.service.rpc.thrift.TSBatchInsertionReq;
 import cn.edu.tsinghua.service.rpc.thrift.TSExecuteBatchStatementReq;
 import cn.edu.tsinghua.service.rpc.thrift.TSExecuteBatchStatementResp;
 import cn.edu.tsinghua.service.rpc.thrift.TSIService;
 import cn.edu.tsinghua.service.rpc.thrift.TS_SessionHandle;
 import cn.edu.tsinghua.service.rpc.thrift.TS_Status;
 import cn.edu.tsinghua.service.rpc.thrift.TS_StatusCode;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 
 
 public class BatchTest {
@@ -116,4 +123,35 @@ public class BatchTest {
 		}
 		fail();
 	}
+
+	@Test
+	public void testInsertBatch() throws SQLException, TException {
+		TsfileStatement statement = (TsfileStatement) connection.createStatement();
+		resp = new TSExecuteBatchStatementResp(Status_SUCCESS);
+		resp.setResult(Arrays.asList(Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO));
+		ArgumentCaptor<TSBatchInsertionReq> captor = ArgumentCaptor.forClass(TSBatchInsertionReq.class);
+		when(client.insertBatch(captor.capture())).thenReturn(resp);
+		int[] result = statement.insertBatch("root.vehicle.d0", Arrays.asList("s0", "s1"), new long[]{1, 2},
+				new TSDataType[]{TSDataType.INT64, TSDataType.TEXT},
+				new Object[]{new long[]{10, 20}, new String[]{"a", "bc"}});
+		assertArrayEquals(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO}, result);
+
+		TSBatchInsertionReq req = captor.getValue();
+		assertEquals("root.vehicle.d0", req.getDeltaObjectId());
+		assertEquals(2, req.getRowCount());
+		assertEquals(Arrays.asList("INT64", "TEXT"), req.getDataTypes());
+		ByteBuffer timestamps = ByteBuffer.wrap(req.getTimestamps());
+		assertEquals(1, timestamps.getLong());
+		assertEquals(2, timestamps.getLong());
+		ByteBuffer longs = req.getValues().get(0);
+		assertEquals(10, longs.getLong());
+		assertEquals(20, longs.getLong());
+		ByteBuffer texts = req.getValues().get(1);
+		assertEquals(1, texts.getInt());
+		assertEquals('a', texts.get());
+		assertEquals(2, texts.getInt());
+		assertEquals('b', texts.get());
+		assertEquals('c', texts.get());
+		assertFalse(texts.hasRemaining());
+	}
 }
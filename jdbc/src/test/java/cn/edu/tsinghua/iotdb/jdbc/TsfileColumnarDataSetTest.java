@@ -0,0 +1,62 @@
+package cn.edu.tsinghua.iotdb.jdbc;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import cn.edu.tsinghua.service.rpc.thrift.TSColumnarDataSet;
+
+public class TsfileColumnarDataSetTest {
+
+	@Test
+	public void testDecode() {
+		// 10 rows, column 0 is INT32 and has values in even rows, column 1 is TEXT and has values in all rows,
+		// column 2 has no value at all
+		int rowCount = 10;
+		ByteBuffer timestamps = ByteBuffer.allocate(rowCount * 8);
+		ByteBuffer intBitmap = ByteBuffer.allocate(2);
+		ByteBuffer intValues = ByteBuffer.allocate(5 * 4);
+		ByteBuffer textBitmap = ByteBuffer.allocate(2);
+		ByteBuffer textValues = ByteBuffer.allocate(1024);
+		for (int i = 0; i < rowCount; i++) {
+			timestamps.putLong(100 + i);
+			if (i % 2 == 0) {
+				intBitmap.put(i / 8, (byte) (intBitmap.get(i / 8) | (1 << (i % 8))));
+				intValues.putInt(i * 10);
+			}
+			textBitmap.put(i / 8, (byte) (textBitmap.get(i / 8) | (1 << (i % 8))));
+			byte[] text = ("text" + i).getBytes();
+			textValues.putInt(text.length);
+			textValues.put(text);
+		}
+		timestamps.flip();
+		intValues.flip();
+		textValues.flip();
+		TSColumnarDataSet dataSet = new TSColumnarDataSet(rowCount, timestamps, Arrays.asList("INT32", "TEXT", ""),
+				Arrays.asList(intBitmap, textBitmap, ByteBuffer.allocate(2)),
+				Arrays.asList(intValues, textValues, ByteBuffer.allocate(0)));
+
+		TsfileColumnarDataSet columnarDataSet = new TsfileColumnarDataSet(dataSet);
+		assertEquals(3, columnarDataSet.getColumnCount());
+		int row = 0;
+		while (columnarDataSet.hasNext()) {
+			columnarDataSet.next();
+			assertEquals(100 + row, columnarDataSet.getTimestamp());
+			if (row % 2 == 0) {
+				assertEquals(String.valueOf(row * 10), columnarDataSet.getString(0));
+			} else {
+				assertNull(columnarDataSet.getString(0));
+			}
+			// the text column is skipped in some rows and read again later
+			if (row % 3 == 0) {
+				assertEquals("text" + row, columnarDataSet.getString(1));
+			}
+			assertNull(columnarDataSet.getString(2));
+			row++;
+		}
+		assertEquals(rowCount, row);
+	}
+}
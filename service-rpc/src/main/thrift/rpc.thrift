@@ -130,6 +130,27 @@ struct TSExecuteBatchStatementReq{
 }
 
 
+// InsertBatch()
+//
+// Insert a batch of rows of one device without parsing any SQL. The values of each measurement are packed
+// into one binary buffer in the same way as TSColumnarDataSet, and every row has a value of every measurement.
+struct TSBatchInsertionReq{
+  // The session to execute the insertion against
+  1: required TS_SessionHandle sessionHandle
+  2: required string deltaObjectId
+  3: required list<string> measurements
+  // number of rows in this batch
+  4: required i32 rowCount
+  // timestamps of the rows, 8 bytes per row
+  5: required binary timestamps
+  // data type of each measurement, it must be the same as the data type in the schema
+  6: required list<string> dataTypes
+  // values of each measurement, BOOLEAN takes 1 byte, INT32 and FLOAT take 4 bytes, INT64 and DOUBLE
+  // take 8 bytes, TEXT is its length in 4 bytes followed by its bytes
+  7: required list<binary> values
+}
+
+
 struct TSGetOperationStatusReq {
   // Session to run this request against
   1: required TSOperationHandle operationHandle
@@ -195,6 +216,33 @@ struct TSFetchResultsResp{
 	3: optional TSQueryDataSet queryDataSet
 }
 
+// Columnar form of a batch of query results, the values of each column are packed into one binary buffer
+// instead of one TSDataValue per cell. All numbers are big endian.
+struct TSColumnarDataSet{
+	// number of rows in this batch
+	1: required i32 rowCount
+	// timestamps of the rows, 8 bytes per row
+	2: required binary timestamps
+	// data type of each column, empty if the column has no value in this batch
+	3: required list<string> dataTypes
+	// null bitmap of each column, bit (i % 8) of byte (i / 8) is set if row i has a value
+	4: required list<binary> bitmaps
+	// values of each column, only the rows having a value are packed. BOOLEAN takes 1 byte, INT32 and FLOAT
+	// take 4 bytes, INT64 and DOUBLE take 8 bytes, TEXT is its length in 4 bytes followed by its bytes
+	5: required list<binary> values
+}
+
+struct TSFetchColumnarResultsReq{
+	1: required string statement
+	2: required i32 fetch_size
+}
+
+struct TSFetchColumnarResultsResp{
+	1: required TS_Status status
+	2: required bool hasResultSet
+	3: optional TSColumnarDataSet dataSet
+}
+
 struct TSFetchMetadataResp{
 		1: required TS_Status status
 		2: optional string metadataInJson
@@ -243,12 +291,16 @@ service TSIService {
 
 	TSExecuteBatchStatementResp executeBatchStatement(1:TSExecuteBatchStatementReq req);
 
+	TSExecuteBatchStatementResp insertBatch(1:TSBatchInsertionReq req);
+
 	TSExecuteStatementResp executeQueryStatement(1:TSExecuteStatementReq req);
 
 	TSExecuteStatementResp executeUpdateStatement(1:TSExecuteStatementReq req);
 
 	TSFetchResultsResp fetchResults(1:TSFetchResultsReq req)
 
+	TSFetchColumnarResultsResp fetchColumnarResults(1:TSFetchColumnarResultsReq req)
+
 	TSFetchMetadataResp fetchMetadata(1:TSFetchMetadataReq req)
 
 	TSCancelOperationResp cancelOperation(1:TSCancelOperationReq req);
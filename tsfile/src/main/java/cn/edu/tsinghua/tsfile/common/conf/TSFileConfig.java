@@ -95,10 +95,15 @@ public class TSFileConfig {
 
     // Compression configuration
     /**
-     * Data compression method, TsFile supports UNCOMPRESSED or SNAPPY.
+     * Data compression method, TsFile supports UNCOMPRESSED, SNAPPY, LZ4 or GZIP.
      * Default value is UNCOMPRESSED which means no compression
      */
     public String compressor = "UNCOMPRESSED";
+    /**
+     * Compression level of GZIP, from 1 (fastest) to 9 (smallest). Default value is -1 which means the default
+     * level of the compressor
+     */
+    public int compressionLevel = -1;
 
     // Don't change the following configuration
 
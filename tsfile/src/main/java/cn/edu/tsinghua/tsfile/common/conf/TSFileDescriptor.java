@@ -98,6 +98,7 @@ public class TSFileDescriptor {
 			conf.timeSeriesEncoder = properties.getProperty("time_series_encoder", conf.timeSeriesEncoder);
 			conf.valueEncoder = properties.getProperty("value_encoder", conf.valueEncoder);
 			conf.compressor = properties.getProperty("compressor", conf.compressor);
+			conf.compressionLevel = Integer.parseInt(properties.getProperty("compression_level", conf.compressionLevel + ""));
 		} catch (IOException e) {
 			LOGGER.warn("Cannot load config file because {}, use default configuration", e.getMessage());
 		} catch (Exception e) {
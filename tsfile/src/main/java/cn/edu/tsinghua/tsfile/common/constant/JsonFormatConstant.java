@@ -17,6 +17,7 @@ public class JsonFormatConstant {
     public static final String ENUM_VALUES_SEPARATOR = ",";
     public static final String MAX_POINT_NUMBER = "max_point_number";
     public static final String COMPRESS_TYPE = "compressor";
+    public static final String COMPRESSION_LEVEL = "compression_level";
     public static final String FreqType = "freq_type";
     public static final String TSRECORD_SEPARATOR = ",";
     public static final String MAX_STRING_LENGTH = "max_string_length";
@@ -0,0 +1,65 @@
+package cn.edu.tsinghua.tsfile.common.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An InputStream reading the bytes between the position and the limit of a ByteBuffer, e.g. a series chunk in a
+ * memory-mapped file. Besides reading bytes, the following bytes can be taken as a slice of the buffer without
+ * copying by {@link #slice(int)}.
+ */
+public class ByteBufferInputStream extends InputStream {
+
+    private ByteBuffer buffer;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int length = Math.min(len, buffer.remaining());
+        buffer.get(b, off, length);
+        return length;
+    }
+
+    @Override
+    public long skip(long n) {
+        if (n <= 0) {
+            return 0;
+        }
+        int skipped = (int) Math.min(n, buffer.remaining());
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    /**
+     * @return the following length bytes as a new buffer sharing the content of this one, and skip them.
+     */
+    public ByteBuffer slice(int length) throws IOException {
+        if (length > buffer.remaining()) {
+            throw new IOException("Expect " + length + " bytes but only " + buffer.remaining() + " bytes remain");
+        }
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+}
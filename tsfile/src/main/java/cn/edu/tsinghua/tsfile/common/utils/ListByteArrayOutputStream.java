@@ -2,6 +2,7 @@ package cn.edu.tsinghua.tsfile.common.utils;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -46,6 +47,17 @@ public class ListByteArrayOutputStream {
             baos.writeTo(out);
     }
 
+    /**
+     * Writes the complete contents in <code>list</code> to the buffer from its position, which must have enough
+     * bytes remaining.
+     *
+     * @param buffer the buffer to write the data.
+     */
+    public void writeAllTo(ByteBuffer buffer) {
+        for (PublicBAOS baos : list)
+            buffer.put(baos.getBuf(), 0, baos.size());
+    }
+
     /**
      * get the total size of this class
      *
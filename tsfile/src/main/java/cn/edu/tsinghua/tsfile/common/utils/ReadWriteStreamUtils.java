@@ -3,6 +3,7 @@ package cn.edu.tsinghua.tsfile.common.utils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /***
@@ -79,6 +80,23 @@ public class ReadWriteStreamUtils {
         return value | (b << i);
     }
 
+    /**
+     * read an unsigned var int in buffer and transform it to int format
+     *
+     * @param buffer buffer to read an unsigned var int, its position is moved after the var int
+     * @return integer value
+     */
+    public static int readUnsignedVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int i = 0;
+        int b;
+        while (((b = buffer.get() & 0xFF) & 0x80) != 0) {
+            value |= (b & 0x7F) << i;
+            i += 7;
+        }
+        return value | (b << i);
+    }
+
     /**
      * write a value to stream using unsigned var int format. for example, int
      * 123456789 has its binary format 111010-1101111-0011010-0010101, function
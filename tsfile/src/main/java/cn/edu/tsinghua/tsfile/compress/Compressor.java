@@ -9,16 +9,30 @@ import org.slf4j.LoggerFactory;
 import org.xerial.snappy.Snappy;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
 /**
  * compress data according to type in schema
  */
 public abstract class Compressor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Compressor.class);
+
+    /**
+     * level of the codecs which support it, e.g. GZIP, which uses the default level of the codec
+     */
+    public static final int DEFAULT_LEVEL = -1;
+
     public static Compressor getCompressor(String name) {
         return getCompressor(CompressionTypeName.valueOf(name));
     }
 
     public static Compressor getCompressor(CompressionTypeName name) {
+        return getCompressor(name, DEFAULT_LEVEL);
+    }
+
+    public static Compressor getCompressor(CompressionTypeName name, int level) {
         if (name == null) {
             throw new CompressionTypeNotSupportedException("NULL");
         }
@@ -27,12 +41,51 @@ public abstract class Compressor {
                 return new NoCompressor();
             case SNAPPY:
                 return new SnappyCompressor();
+            case GZIP:
+                return new GZIPCompressor(level);
+            case LZ4:
+                return new LZ4Compressor();
             default:
                 throw new CompressionTypeNotSupportedException(name.toString());
         }
     }
 
-    public abstract ListByteArrayOutputStream compress(ListByteArrayOutputStream ListByteArray);
+    /**
+     * Compress all the bytes of the given streams. {@link #compress(ByteBuffer, ByteBuffer)} avoids the copies
+     * and allocations of this method by reusing the buffers of the caller.
+     */
+    public ListByteArrayOutputStream compress(ListByteArrayOutputStream listByteArray) {
+        if (listByteArray == null) {
+            return null;
+        }
+        PublicBAOS out = new PublicBAOS();
+        try {
+            ByteBuffer uncompressed = ByteBuffer.allocate(listByteArray.size());
+            listByteArray.writeAllTo(uncompressed);
+            uncompressed.flip();
+            ByteBuffer compressed = ByteBuffer.allocate(maxCompressedLength(listByteArray.size()));
+            int compressedLength = compress(uncompressed, compressed);
+            out.write(compressed.array(), 0, compressedLength);
+        } catch (IOException e) {
+            LOGGER.error("tsfile-compression {}: errors occurs when compress input byte, ListByteArray is {}",
+                    getCodecName(), listByteArray, e);
+        }
+        return ListByteArrayOutputStream.from(out);
+    }
+
+    /**
+     * @return the max length of the compressed bytes of uncompressedLength bytes
+     */
+    public abstract int maxCompressedLength(int uncompressedLength);
+
+    /**
+     * Compress the bytes between the position and the limit of uncompressed into compressed from its position,
+     * which must have at least {@link #maxCompressedLength(int)} bytes remaining. The positions of both buffers
+     * are not changed.
+     *
+     * @return the length of the compressed bytes
+     */
+    public abstract int compress(ByteBuffer uncompressed, ByteBuffer compressed) throws IOException;
 
     public abstract CompressionTypeName getCodecName();
 
@@ -48,6 +101,18 @@ public abstract class Compressor {
             return ListByteArray;
         }
 
+        @Override
+        public int maxCompressedLength(int uncompressedLength) {
+            return uncompressedLength;
+        }
+
+        @Override
+        public int compress(ByteBuffer uncompressed, ByteBuffer compressed) {
+            ByteBuffer out = compressed.duplicate();
+            out.put(uncompressed.duplicate());
+            return uncompressed.remaining();
+        }
+
         @Override
         public CompressionTypeName getCodecName() {
             return CompressionTypeName.UNCOMPRESSED;
@@ -55,22 +120,27 @@ public abstract class Compressor {
     }
 
     static public class SnappyCompressor extends Compressor {
-        private static final Logger LOGGER = LoggerFactory.getLogger(SnappyCompressor.class);
 
         @Override
-        public ListByteArrayOutputStream compress(ListByteArrayOutputStream listByteArray) {
-            if (listByteArray == null) {
-                return null;
+        public int maxCompressedLength(int uncompressedLength) {
+            return Snappy.maxCompressedLength(uncompressedLength);
+        }
+
+        @Override
+        public int compress(ByteBuffer uncompressed, ByteBuffer compressed) throws IOException {
+            if (uncompressed.isDirect() && compressed.isDirect()) {
+                ByteBuffer out = compressed.duplicate();
+                return Snappy.compress(uncompressed.duplicate(), out);
             }
-            PublicBAOS out = new PublicBAOS();
-            try {
-                out.write(Snappy.compress(listByteArray.toByteArray()));
-            } catch (IOException e) {
-                LOGGER.error(
-                        "tsfile-compression SnappyCompressor: errors occurs when compress input byte, ListByteArray is {}, ByteArrayOutputStream is {}",
-                        listByteArray, out, e);
+            ByteBuffer in = toHeapBuffer(uncompressed);
+            if (compressed.hasArray()) {
+                return Snappy.compress(in.array(), in.arrayOffset() + in.position(), in.remaining(),
+                        compressed.array(), compressed.arrayOffset() + compressed.position());
             }
-            return ListByteArrayOutputStream.from(out);
+            byte[] out = new byte[maxCompressedLength(in.remaining())];
+            int length = Snappy.compress(in.array(), in.arrayOffset() + in.position(), in.remaining(), out, 0);
+            compressed.duplicate().put(out, 0, length);
+            return length;
         }
 
         @Override
@@ -78,4 +148,132 @@ public abstract class Compressor {
             return CompressionTypeName.SNAPPY;
         }
     }
+
+    /**
+     * Compress data in the gzip format (RFC 1952) by {@link Deflater}. A higher level gives smaller data in more
+     * time, which fits the data that is rarely read.
+     */
+    static public class GZIPCompressor extends Compressor {
+        static final int HEADER_LENGTH = 10;
+        static final int TRAILER_LENGTH = 8;
+        private static final byte[] HEADER = new byte[]{
+                0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+        private int level;
+
+        public GZIPCompressor(int level) {
+            this.level = level == DEFAULT_LEVEL ? Deflater.DEFAULT_COMPRESSION : level;
+            if (this.level != Deflater.DEFAULT_COMPRESSION
+                    && (this.level < Deflater.BEST_SPEED || this.level > Deflater.BEST_COMPRESSION)) {
+                throw new IllegalArgumentException("Level of GZIP should be in [1, 9], but was " + level);
+            }
+        }
+
+        @Override
+        public int maxCompressedLength(int uncompressedLength) {
+            // the bound of deflate in stored blocks, see deflateBound() of zlib
+            return uncompressedLength + ((uncompressedLength + 7) >> 3) + ((uncompressedLength + 63) >> 6) + 5
+                    + HEADER_LENGTH + TRAILER_LENGTH;
+        }
+
+        @Override
+        public int compress(ByteBuffer uncompressed, ByteBuffer compressed) throws IOException {
+            ByteBuffer in = toHeapBuffer(uncompressed);
+            byte[] input = in.array();
+            int inputOffset = in.arrayOffset() + in.position();
+            int inputLength = in.remaining();
+            ByteBuffer out = compressed.duplicate();
+            out.put(HEADER);
+            Deflater deflater = new Deflater(level, true);
+            try {
+                deflater.setInput(input, inputOffset, inputLength);
+                deflater.finish();
+                byte[] chunk = out.hasArray() ? null : new byte[4096];
+                while (!deflater.finished()) {
+                    if (out.hasArray()) {
+                        int length = deflater.deflate(out.array(), out.arrayOffset() + out.position(), out.remaining());
+                        out.position(out.position() + length);
+                        if (length == 0 && !out.hasRemaining()) {
+                            throw new IOException("Not enough space for the compressed bytes");
+                        }
+                    } else {
+                        out.put(chunk, 0, deflater.deflate(chunk));
+                    }
+                }
+            } finally {
+                deflater.end();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(input, inputOffset, inputLength);
+            putIntLE(out, (int) crc.getValue());
+            putIntLE(out, inputLength);
+            return out.position() - compressed.position();
+        }
+
+        private static void putIntLE(ByteBuffer buffer, int value) {
+            buffer.put((byte) value);
+            buffer.put((byte) (value >>> 8));
+            buffer.put((byte) (value >>> 16));
+            buffer.put((byte) (value >>> 24));
+        }
+
+        @Override
+        public CompressionTypeName getCodecName() {
+            return CompressionTypeName.GZIP;
+        }
+    }
+
+    /**
+     * Compress data in the LZ4 block format, with the length of the uncompressed data in the first 4 bytes. It is
+     * faster than SNAPPY in both ways for a similar ratio, which fits the data that is frequently read.
+     */
+    static public class LZ4Compressor extends Compressor {
+        private static final ThreadLocal<int[]> hashTable = new ThreadLocal<>();
+
+        @Override
+        public int maxCompressedLength(int uncompressedLength) {
+            return LZ4.maxCompressedLength(uncompressedLength) + 4;
+        }
+
+        @Override
+        public int compress(ByteBuffer uncompressed, ByteBuffer compressed) throws IOException {
+            ByteBuffer in = toHeapBuffer(uncompressed);
+            int[] table = hashTable.get();
+            if (table == null) {
+                table = LZ4.newHashTable();
+                hashTable.set(table);
+            }
+            ByteBuffer out = compressed.hasArray() ? compressed
+                    : ByteBuffer.allocate(maxCompressedLength(in.remaining()));
+            byte[] dest = out.array();
+            int destOffset = out.arrayOffset() + out.position();
+            dest[destOffset] = (byte) (in.remaining() >>> 24);
+            dest[destOffset + 1] = (byte) (in.remaining() >>> 16);
+            dest[destOffset + 2] = (byte) (in.remaining() >>> 8);
+            dest[destOffset + 3] = (byte) in.remaining();
+            int length = 4 + LZ4.compress(in.array(), in.arrayOffset() + in.position(), in.remaining(),
+                    dest, destOffset + 4, table);
+            if (out != compressed) {
+                compressed.duplicate().put(dest, 0, length);
+            }
+            return length;
+        }
+
+        @Override
+        public CompressionTypeName getCodecName() {
+            return CompressionTypeName.LZ4;
+        }
+    }
+
+    /**
+     * @return the given buffer if it has an accessible array, otherwise a copy of its remaining bytes.
+     */
+    static ByteBuffer toHeapBuffer(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return buffer;
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return ByteBuffer.wrap(bytes);
+    }
 }
@@ -0,0 +1,187 @@
+package cn.edu.tsinghua.tsfile.compress;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The LZ4 block format, see https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md. The block is a list of
+ * sequences, each one has a token, some literals copied as they are and a match copied from the bytes before it.
+ * The compressor finds the matches greedily with a hash table of 4-byte sequences, which is fast rather than
+ * small.
+ */
+class LZ4 {
+
+    private static final int MIN_MATCH = 4;
+    /**
+     * the last match must start at least 12 bytes before the end of the block
+     */
+    private static final int MF_LIMIT = 12;
+    /**
+     * the last 5 bytes are always literals
+     */
+    private static final int LAST_LITERALS = 5;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int HASH_LOG = 12;
+    private static final int RUN_MASK = 15;
+
+    private LZ4() {
+    }
+
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * @param hashTable an array of 1 << 12 ints, which is reused between the calls
+     * @return the length of the compressed block
+     */
+    static int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int[] hashTable) {
+        int srcEnd = srcOff + srcLen;
+        int matchLimit = srcEnd - LAST_LITERALS;
+        int mfLimit = srcEnd - MF_LIMIT;
+        int d = destOff;
+        int anchor = srcOff;
+
+        if (srcLen >= MF_LIMIT + 1) {
+            Arrays.fill(hashTable, -1);
+            int s = srcOff;
+            while (s < mfLimit) {
+                int sequence = readInt(src, s);
+                int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = s;
+                if (ref < 0 || s - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    s++;
+                    continue;
+                }
+                // extend the match backwards and forwards
+                while (s > anchor && ref > srcOff && src[s - 1] == src[ref - 1]) {
+                    s--;
+                    ref--;
+                }
+                int matchLen = MIN_MATCH;
+                while (s + matchLen < matchLimit && src[s + matchLen] == src[ref + matchLen]) {
+                    matchLen++;
+                }
+                d = writeSequence(src, anchor, s - anchor, s - ref, matchLen, dest, d);
+                s += matchLen;
+                anchor = s;
+                if (s < mfLimit) {
+                    hashTable[hash(readInt(src, s - 2))] = s - 2;
+                }
+            }
+        }
+        // the last literals
+        int literalLen = srcEnd - anchor;
+        d = writeLength(dest, d, literalLen, 0);
+        System.arraycopy(src, anchor, dest, d, literalLen);
+        return d + literalLen - destOff;
+    }
+
+    private static int writeSequence(byte[] src, int literalOff, int literalLen, int offset, int matchLen,
+                                     byte[] dest, int d) {
+        d = writeLength(dest, d, literalLen, matchLen - MIN_MATCH);
+        System.arraycopy(src, literalOff, dest, d, literalLen);
+        d += literalLen;
+        dest[d++] = (byte) offset;
+        dest[d++] = (byte) (offset >>> 8);
+        int extraMatchLen = matchLen - MIN_MATCH;
+        if (extraMatchLen >= RUN_MASK) {
+            d = writeExtraLength(dest, d, extraMatchLen - RUN_MASK);
+        }
+        return d;
+    }
+
+    /**
+     * Write the token with the literal length and the match length, and the extra bytes of the literal length.
+     */
+    private static int writeLength(byte[] dest, int d, int literalLen, int extraMatchLen) {
+        int token = (Math.min(literalLen, RUN_MASK) << 4) | Math.min(extraMatchLen, RUN_MASK);
+        dest[d++] = (byte) token;
+        if (literalLen >= RUN_MASK) {
+            d = writeExtraLength(dest, d, literalLen - RUN_MASK);
+        }
+        return d;
+    }
+
+    private static int writeExtraLength(byte[] dest, int d, int length) {
+        while (length >= 255) {
+            dest[d++] = (byte) 255;
+            length -= 255;
+        }
+        dest[d++] = (byte) length;
+        return d;
+    }
+
+    /**
+     * @return the length of the decompressed bytes
+     */
+    static int decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen)
+            throws IOException {
+        int srcEnd = srcOff + srcLen;
+        int destEnd = destOff + destLen;
+        int s = srcOff;
+        int d = destOff;
+        try {
+            while (s < srcEnd) {
+                int token = src[s++] & 0xFF;
+                int literalLen = token >>> 4;
+                if (literalLen == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[s++] & 0xFF;
+                        literalLen += b;
+                    } while (b == 255);
+                }
+                if (d + literalLen > destEnd || s + literalLen > srcEnd) {
+                    throw new IOException("Malformed LZ4 block, literals out of bound");
+                }
+                System.arraycopy(src, s, dest, d, literalLen);
+                s += literalLen;
+                d += literalLen;
+                if (s == srcEnd) {
+                    break;
+                }
+                int offset = (src[s++] & 0xFF) | ((src[s++] & 0xFF) << 8);
+                int matchLen = token & RUN_MASK;
+                if (matchLen == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[s++] & 0xFF;
+                        matchLen += b;
+                    } while (b == 255);
+                }
+                matchLen += MIN_MATCH;
+                int ref = d - offset;
+                if (offset == 0 || ref < destOff || d + matchLen > destEnd) {
+                    throw new IOException("Malformed LZ4 block, match out of bound");
+                }
+                if (offset >= matchLen) {
+                    System.arraycopy(dest, ref, dest, d, matchLen);
+                    d += matchLen;
+                } else {
+                    // overlapping match, which repeats the last offset bytes
+                    for (int i = 0; i < matchLen; i++) {
+                        dest[d++] = dest[ref++];
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Malformed LZ4 block", e);
+        }
+        return d - destOff;
+    }
+
+    private static int readInt(byte[] bytes, int off) {
+        return (bytes[off] & 0xFF) | ((bytes[off + 1] & 0xFF) << 8) | ((bytes[off + 2] & 0xFF) << 16)
+                | ((bytes[off + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    static int[] newHashTable() {
+        return new int[1 << HASH_LOG];
+    }
+}
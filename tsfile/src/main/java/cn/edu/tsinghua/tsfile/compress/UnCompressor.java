@@ -7,11 +7,21 @@ import org.slf4j.LoggerFactory;
 import org.xerial.snappy.Snappy;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 /**
  * uncompress data according to type in metadata
  */
 public abstract class UnCompressor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnCompressor.class);
+    private static final int MIN_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> uncompressedHeapBuffer = new ThreadLocal<>();
+    private static final ThreadLocal<ByteBuffer> uncompressedDirectBuffer = new ThreadLocal<>();
+
     public static UnCompressor getUnCompressor(CompressionTypeName name) {
         if (name == null) {
             throw new CompressionTypeNotSupportedException("NULL");
@@ -21,15 +31,74 @@ public abstract class UnCompressor {
                 return new NoUnCompressor();
             case SNAPPY:
                 return new SnappyUnCompressor();
+            case GZIP:
+                return new GZIPUnCompressor();
+            case LZ4:
+                return new LZ4UnCompressor();
             default:
                 throw new CompressionTypeNotSupportedException(name.toString());
         }
     }
 
-    public abstract byte[] uncompress(byte[] byteArray);
+    public byte[] uncompress(byte[] byteArray) {
+        if (byteArray == null) {
+            return null;
+        }
+        try {
+            ByteBuffer compressed = ByteBuffer.wrap(byteArray);
+            byte[] uncompressed = new byte[getUncompressedLength(compressed)];
+            uncompress(compressed, ByteBuffer.wrap(uncompressed));
+            return uncompressed;
+        } catch (IOException e) {
+            LOGGER.error("tsfile-compression {}: errors occurs when uncompress input byte, bytes is {}",
+                    getCodecName(), byteArray, e);
+        }
+        return null;
+    }
+
+    /**
+     * Uncompress the bytes between the position and the limit of the given buffer. The result may share the
+     * content of the given buffer or of a buffer pooled per thread, so it must be consumed before the next call
+     * in the same thread.
+     */
+    public ByteBuffer uncompress(ByteBuffer compressed) throws IOException {
+        ByteBuffer buffer = getPooledBuffer(getUncompressedLength(compressed), false);
+        uncompress(compressed, buffer);
+        return buffer;
+    }
+
+    /**
+     * @return the length of the uncompressed bytes of the bytes between the position and the limit of compressed
+     */
+    public abstract int getUncompressedLength(ByteBuffer compressed) throws IOException;
+
+    /**
+     * Uncompress the bytes between the position and the limit of compressed into uncompressed from its position,
+     * which must have at least {@link #getUncompressedLength(ByteBuffer)} bytes remaining. The position of
+     * compressed is not changed, and the limit of uncompressed is set to the end of the uncompressed bytes.
+     *
+     * @return the length of the uncompressed bytes
+     */
+    public abstract int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException;
 
     public abstract CompressionTypeName getCodecName();
 
+    /**
+     * @return a buffer pooled per thread with at least length bytes, its position is 0 and its limit is length.
+     */
+    static ByteBuffer getPooledBuffer(int length, boolean direct) {
+        ThreadLocal<ByteBuffer> pool = direct ? uncompressedDirectBuffer : uncompressedHeapBuffer;
+        ByteBuffer buffer = pool.get();
+        if (buffer == null || buffer.capacity() < length) {
+            int capacity = Math.max(length, MIN_BUFFER_SIZE);
+            buffer = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+            pool.set(buffer);
+        }
+        buffer.clear();
+        buffer.limit(length);
+        return buffer;
+    }
+
     static public class NoUnCompressor extends UnCompressor {
 
         @Override
@@ -37,6 +106,25 @@ public abstract class UnCompressor {
             return byteArray;
         }
 
+        @Override
+        public ByteBuffer uncompress(ByteBuffer compressed) {
+            return compressed;
+        }
+
+        @Override
+        public int getUncompressedLength(ByteBuffer compressed) {
+            return compressed.remaining();
+        }
+
+        @Override
+        public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) {
+            int length = compressed.remaining();
+            ByteBuffer out = uncompressed.duplicate();
+            out.put(compressed.duplicate());
+            uncompressed.limit(uncompressed.position() + length);
+            return length;
+        }
+
         @Override
         public CompressionTypeName getCodecName() {
             return CompressionTypeName.UNCOMPRESSED;
@@ -62,9 +150,158 @@ public abstract class UnCompressor {
             return null;
         }
 
+        @Override
+        public ByteBuffer uncompress(ByteBuffer compressed) throws IOException {
+            // snappy reads from and writes to direct buffers without copying them to the heap
+            ByteBuffer buffer = getPooledBuffer(getUncompressedLength(compressed), compressed.isDirect());
+            uncompress(compressed, buffer);
+            return buffer;
+        }
+
+        @Override
+        public int getUncompressedLength(ByteBuffer compressed) throws IOException {
+            if (compressed.isDirect()) {
+                return Snappy.uncompressedLength(compressed);
+            }
+            ByteBuffer in = Compressor.toHeapBuffer(compressed);
+            return Snappy.uncompressedLength(in.array(), in.arrayOffset() + in.position(), in.remaining());
+        }
+
+        @Override
+        public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+            if (compressed.isDirect() && uncompressed.isDirect()) {
+                return Snappy.uncompress(compressed, uncompressed);
+            }
+            ByteBuffer in = Compressor.toHeapBuffer(compressed);
+            int length;
+            if (uncompressed.hasArray()) {
+                length = Snappy.uncompress(in.array(), in.arrayOffset() + in.position(), in.remaining(),
+                        uncompressed.array(), uncompressed.arrayOffset() + uncompressed.position());
+            } else {
+                byte[] out = new byte[getUncompressedLength(in)];
+                length = Snappy.uncompress(in.array(), in.arrayOffset() + in.position(), in.remaining(), out, 0);
+                uncompressed.duplicate().put(out, 0, length);
+            }
+            uncompressed.limit(uncompressed.position() + length);
+            return length;
+        }
+
         @Override
         public CompressionTypeName getCodecName() {
             return CompressionTypeName.SNAPPY;
         }
     }
+
+    static public class GZIPUnCompressor extends UnCompressor {
+        private static final int FHCRC = 2;
+        private static final int FEXTRA = 4;
+        private static final int FNAME = 8;
+        private static final int FCOMMENT = 16;
+
+        @Override
+        public int getUncompressedLength(ByteBuffer compressed) throws IOException {
+            if (compressed.remaining() < Compressor.GZIPCompressor.HEADER_LENGTH
+                    + Compressor.GZIPCompressor.TRAILER_LENGTH) {
+                throw new IOException("Malformed GZIP data, too short");
+            }
+            // ISIZE in the trailer
+            return getIntLE(compressed, compressed.limit() - 4);
+        }
+
+        @Override
+        public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+            ByteBuffer in = Compressor.toHeapBuffer(compressed);
+            int start = in.arrayOffset() + in.position();
+            int end = in.arrayOffset() + in.limit() - Compressor.GZIPCompressor.TRAILER_LENGTH;
+            int length = getUncompressedLength(in);
+            ByteBuffer out = uncompressed.hasArray() ? uncompressed : ByteBuffer.allocate(length);
+            Inflater inflater = new Inflater(true);
+            try {
+                int dataOffset = skipHeader(in.array(), start);
+                inflater.setInput(in.array(), dataOffset, end - dataOffset);
+                int inflated = inflater.inflate(out.array(), out.arrayOffset() + out.position(), length);
+                if (inflated != length || !inflater.finished()) {
+                    throw new IOException("Malformed GZIP data, expect " + length + " bytes but got " + inflated);
+                }
+                CRC32 crc = new CRC32();
+                crc.update(out.array(), out.arrayOffset() + out.position(), length);
+                if ((int) crc.getValue() != getIntLE(in, in.limit() - 8)) {
+                    throw new IOException("Malformed GZIP data, CRC does not match");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Malformed GZIP data", e);
+            } finally {
+                inflater.end();
+            }
+            if (out != uncompressed) {
+                uncompressed.duplicate().put(out.array(), 0, length);
+            }
+            uncompressed.limit(uncompressed.position() + length);
+            return length;
+        }
+
+        private static int skipHeader(byte[] bytes, int offset) throws IOException {
+            if ((bytes[offset] & 0xFF) != 0x1f || (bytes[offset + 1] & 0xFF) != 0x8b) {
+                throw new IOException("Malformed GZIP data, wrong magic number");
+            }
+            int flags = bytes[offset + 3] & 0xFF;
+            int position = offset + Compressor.GZIPCompressor.HEADER_LENGTH;
+            if ((flags & FEXTRA) != 0) {
+                position += 2 + ((bytes[position] & 0xFF) | ((bytes[position + 1] & 0xFF) << 8));
+            }
+            if ((flags & FNAME) != 0) {
+                while (bytes[position++] != 0) ;
+            }
+            if ((flags & FCOMMENT) != 0) {
+                while (bytes[position++] != 0) ;
+            }
+            if ((flags & FHCRC) != 0) {
+                position += 2;
+            }
+            return position;
+        }
+
+        private static int getIntLE(ByteBuffer buffer, int index) {
+            return (buffer.get(index) & 0xFF) | ((buffer.get(index + 1) & 0xFF) << 8)
+                    | ((buffer.get(index + 2) & 0xFF) << 16) | ((buffer.get(index + 3) & 0xFF) << 24);
+        }
+
+        @Override
+        public CompressionTypeName getCodecName() {
+            return CompressionTypeName.GZIP;
+        }
+    }
+
+    static public class LZ4UnCompressor extends UnCompressor {
+
+        @Override
+        public int getUncompressedLength(ByteBuffer compressed) throws IOException {
+            if (compressed.remaining() < 4) {
+                throw new IOException("Malformed LZ4 data, too short");
+            }
+            return compressed.getInt(compressed.position());
+        }
+
+        @Override
+        public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+            ByteBuffer in = Compressor.toHeapBuffer(compressed);
+            int length = getUncompressedLength(in);
+            ByteBuffer out = uncompressed.hasArray() ? uncompressed : ByteBuffer.allocate(length);
+            int uncompressedLength = LZ4.decompress(in.array(), in.arrayOffset() + in.position() + 4,
+                    in.remaining() - 4, out.array(), out.arrayOffset() + out.position(), length);
+            if (uncompressedLength != length) {
+                throw new IOException("Malformed LZ4 data, expect " + length + " bytes but got " + uncompressedLength);
+            }
+            if (out != uncompressed) {
+                uncompressed.duplicate().put(out.array(), 0, length);
+            }
+            uncompressed.limit(uncompressed.position() + length);
+            return length;
+        }
+
+        @Override
+        public CompressionTypeName getCodecName() {
+            return CompressionTypeName.LZ4;
+        }
+    }
 }
@@ -2,6 +2,7 @@ package cn.edu.tsinghua.tsfile.encoding.decoder;
 
 import cn.edu.tsinghua.tsfile.common.exception.TSFileDecodingException;
 import cn.edu.tsinghua.tsfile.common.utils.Binary;
+import cn.edu.tsinghua.tsfile.common.utils.ByteBufferInputStream;
 import cn.edu.tsinghua.tsfile.encoding.common.EndianType;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSEncoding;
@@ -10,6 +11,7 @@ import cn.edu.tsinghua.tsfile.format.Encoding;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 
 /**
  * @author Zhang Jinrui
@@ -80,5 +82,91 @@ public abstract class Decoder {
         throw new TSFileDecodingException("Method readBigDecimal is not supproted by Decoder");
     }
 
+    /**
+     * Decode at most length values into values[offset ...], the batch methods below decode a whole page into
+     * primitive arrays. Subclasses which decode values in packs override them to copy a pack at once.
+     *
+     * @return number of decoded values, less than length only if the stream is exhausted
+     */
+    public int readLongs(InputStream in, long[] values, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length && hasNext(in)) {
+            values[offset + count++] = readLong(in);
+        }
+        return count;
+    }
+
+    public int readInts(InputStream in, int[] values, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length && hasNext(in)) {
+            values[offset + count++] = readInt(in);
+        }
+        return count;
+    }
+
+    public int readFloats(InputStream in, float[] values, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length && hasNext(in)) {
+            values[offset + count++] = readFloat(in);
+        }
+        return count;
+    }
+
+    public int readDoubles(InputStream in, double[] values, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length && hasNext(in)) {
+            values[offset + count++] = readDouble(in);
+        }
+        return count;
+    }
+
+    public int readBooleans(InputStream in, boolean[] values, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length && hasNext(in)) {
+            values[offset + count++] = readBoolean(in);
+        }
+        return count;
+    }
+
+    public int readBinaries(InputStream in, Binary[] values, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length && hasNext(in)) {
+            values[offset + count++] = readBinary(in);
+        }
+        return count;
+    }
+
+    /**
+     * Decode at most length values from the position of the buffer, e.g. an uncompressed page or a page in a
+     * memory-mapped file, and move the position after them. The decoding state is shared with the methods reading
+     * an InputStream, so a buffer can also be read through a {@link ByteBufferInputStream} over it. Subclasses
+     * override them to read the buffer directly instead of byte by byte through the stream.
+     *
+     * @return number of decoded values, less than length only if the buffer is exhausted
+     */
+    public int readLongs(ByteBuffer buffer, long[] values, int offset, int length) throws IOException {
+        return readLongs(new ByteBufferInputStream(buffer), values, offset, length);
+    }
+
+    public int readInts(ByteBuffer buffer, int[] values, int offset, int length) throws IOException {
+        return readInts(new ByteBufferInputStream(buffer), values, offset, length);
+    }
+
+    public int readFloats(ByteBuffer buffer, float[] values, int offset, int length) throws IOException {
+        return readFloats(new ByteBufferInputStream(buffer), values, offset, length);
+    }
+
+    public int readDoubles(ByteBuffer buffer, double[] values, int offset, int length) throws IOException {
+        return readDoubles(new ByteBufferInputStream(buffer), values, offset, length);
+    }
+
+    public int readBooleans(ByteBuffer buffer, boolean[] values, int offset, int length) throws IOException {
+        return readBooleans(new ByteBufferInputStream(buffer), values, offset, length);
+    }
+
+    public int readBinaries(ByteBuffer buffer, Binary[] values, int offset, int length) throws IOException {
+        return readBinaries(new ByteBufferInputStream(buffer), values, offset, length);
+    }
+
     public abstract boolean hasNext(InputStream in) throws IOException;
 }
@@ -8,6 +8,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * This class is a decoder for decoding the byte array that encoded by
@@ -66,6 +68,35 @@ public abstract class DeltaBinaryDecoder extends Decoder {
         return (nextReadIndex < readIntTotalCount) || in.available() > 0;
     }
 
+    /**
+     * Copy the packed deltas of the current pack from the buffer into {@code deltaBuf}, which is reused by the
+     * following packs instead of being allocated for each.
+     */
+    protected void readDeltaBuf(ByteBuffer buffer) throws IOException {
+        encodingLength = ceil(packNum * packWidth);
+        if (encodingLength > buffer.remaining()) {
+            throw new IOException("Expect a pack of " + encodingLength + " bytes but only " + buffer.remaining()
+                    + " bytes remain");
+        }
+        if (deltaBuf == null || deltaBuf.length < encodingLength) {
+            deltaBuf = new byte[encodingLength];
+        }
+        buffer.get(deltaBuf, 0, encodingLength);
+    }
+
+    /**
+     * The headers of the packs are big endian as read by {@link BytesUtils#readInt}.
+     */
+    protected static int getInt(ByteBuffer buffer) {
+        int value = buffer.getInt();
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+    protected static long getLong(ByteBuffer buffer) {
+        long value = buffer.getLong();
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
 
     public static class IntDeltaDecoder extends DeltaBinaryDecoder {
         private int firstValue;
@@ -134,6 +165,58 @@ public abstract class DeltaBinaryDecoder extends Decoder {
             }
         }
 
+        @Override
+        public int readInts(InputStream in, int[] values, int offset, int length) throws IOException {
+            int count = 0;
+            while (count < length) {
+                if (nextReadIndex < readIntTotalCount) {
+                    int n = Math.min(length - count, readIntTotalCount - nextReadIndex);
+                    System.arraycopy(data, nextReadIndex, values, offset + count, n);
+                    nextReadIndex += n;
+                    count += n;
+                } else if (in.available() > 0) {
+                    values[offset + count++] = loadIntBatch(in);
+                } else {
+                    break;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public int readInts(ByteBuffer buffer, int[] values, int offset, int length) throws IOException {
+            int count = 0;
+            while (count < length) {
+                if (nextReadIndex < readIntTotalCount) {
+                    int n = Math.min(length - count, readIntTotalCount - nextReadIndex);
+                    System.arraycopy(data, nextReadIndex, values, offset + count, n);
+                    nextReadIndex += n;
+                    count += n;
+                } else if (buffer.hasRemaining()) {
+                    values[offset + count++] = loadIntBatch(buffer);
+                } else {
+                    break;
+                }
+            }
+            return count;
+        }
+
+        private int loadIntBatch(ByteBuffer buffer) throws IOException {
+            packNum = getInt(buffer);
+            packWidth = getInt(buffer);
+            count++;
+            minDeltaBase = getInt(buffer);
+            firstValue = getInt(buffer);
+            readDeltaBuf(buffer);
+            allocateDataArray();
+
+            previous = firstValue;
+            readIntTotalCount = packNum;
+            nextReadIndex = 0;
+            readPack();
+            return firstValue;
+        }
+
         @Override
         protected void readHeader(InputStream in) throws IOException {
             minDeltaBase = BytesUtils.readInt(in);
@@ -142,7 +225,10 @@ public abstract class DeltaBinaryDecoder extends Decoder {
 
         @Override
         protected void allocateDataArray() {
-            data = new int[packNum];
+            // the array of the last pack is reused, only the first packNum values are read
+            if (data == null || data.length < packNum) {
+                data = new int[packNum];
+            }
         }
 
         @Override
@@ -220,6 +306,58 @@ public abstract class DeltaBinaryDecoder extends Decoder {
             }
         }
 
+        @Override
+        public int readLongs(InputStream in, long[] values, int offset, int length) throws IOException {
+            int count = 0;
+            while (count < length) {
+                if (nextReadIndex < readIntTotalCount) {
+                    int n = Math.min(length - count, readIntTotalCount - nextReadIndex);
+                    System.arraycopy(data, nextReadIndex, values, offset + count, n);
+                    nextReadIndex += n;
+                    count += n;
+                } else if (in.available() > 0) {
+                    values[offset + count++] = loadIntBatch(in);
+                } else {
+                    break;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public int readLongs(ByteBuffer buffer, long[] values, int offset, int length) throws IOException {
+            int count = 0;
+            while (count < length) {
+                if (nextReadIndex < readIntTotalCount) {
+                    int n = Math.min(length - count, readIntTotalCount - nextReadIndex);
+                    System.arraycopy(data, nextReadIndex, values, offset + count, n);
+                    nextReadIndex += n;
+                    count += n;
+                } else if (buffer.hasRemaining()) {
+                    values[offset + count++] = loadIntBatch(buffer);
+                } else {
+                    break;
+                }
+            }
+            return count;
+        }
+
+        private long loadIntBatch(ByteBuffer buffer) throws IOException {
+            packNum = getInt(buffer);
+            packWidth = getInt(buffer);
+            count++;
+            minDeltaBase = getLong(buffer);
+            firstValue = getLong(buffer);
+            readDeltaBuf(buffer);
+            allocateDataArray();
+
+            previous = firstValue;
+            readIntTotalCount = packNum;
+            nextReadIndex = 0;
+            readPack();
+            return firstValue;
+        }
+
         @Override
         protected void readHeader(InputStream in) throws IOException {
             minDeltaBase = BytesUtils.readLong(in);
@@ -228,7 +366,10 @@ public abstract class DeltaBinaryDecoder extends Decoder {
 
         @Override
         protected void allocateDataArray() {
-            data = new long[packNum];
+            // the array of the last pack is reused, only the first packNum values are read
+            if (data == null || data.length < packNum) {
+                data = new long[packNum];
+            }
         }
 
         @Override
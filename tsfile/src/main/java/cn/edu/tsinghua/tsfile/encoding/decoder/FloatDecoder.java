@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Decoder for float or double value using rle or two diff. For
@@ -19,6 +20,7 @@ import java.io.InputStream;
  */
 public class FloatDecoder extends Decoder {
     private static final Logger LOGGER = LoggerFactory.getLogger(FloatDecoder.class);
+    private static final int SCALE_BATCH_SIZE = 1024;
     private Decoder decoder;
 
     /**
@@ -32,6 +34,12 @@ public class FloatDecoder extends Decoder {
      */
     private boolean isMaxPointNumberRead;
 
+    /**
+     * the integers decoded in batches before they are scaled, reused by the batches of the page
+     */
+    private int[] intValues;
+    private long[] longValues;
+
     public FloatDecoder(TSEncoding encodingType, TSDataType dataType) {
         super(encodingType);
         if (encodingType == TSEncoding.RLE) {
@@ -95,6 +103,54 @@ public class FloatDecoder extends Decoder {
         }
     }
 
+    @Override
+    public int readFloats(ByteBuffer buffer, float[] values, int offset, int length) throws IOException {
+        readMaxPointValue(buffer);
+        if (intValues == null) {
+            intValues = new int[SCALE_BATCH_SIZE];
+        }
+        int count = 0;
+        while (count < length) {
+            int n = decoder.readInts(buffer, intValues, 0, Math.min(length - count, SCALE_BATCH_SIZE));
+            for (int i = 0; i < n; i++) {
+                values[offset + count + i] = (float) (intValues[i] / maxPointValue);
+            }
+            count += n;
+            if (n == 0) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int readDoubles(ByteBuffer buffer, double[] values, int offset, int length) throws IOException {
+        readMaxPointValue(buffer);
+        if (longValues == null) {
+            longValues = new long[SCALE_BATCH_SIZE];
+        }
+        int count = 0;
+        while (count < length) {
+            int n = decoder.readLongs(buffer, longValues, 0, Math.min(length - count, SCALE_BATCH_SIZE));
+            for (int i = 0; i < n; i++) {
+                values[offset + count + i] = longValues[i] / maxPointValue;
+            }
+            count += n;
+            if (n == 0) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private void readMaxPointValue(ByteBuffer buffer) {
+        if (!isMaxPointNumberRead && buffer.hasRemaining()) {
+            int maxPointNumber = ReadWriteStreamUtils.readUnsignedVarInt(buffer);
+            maxPointValue = maxPointNumber <= 0 ? 1 : Math.pow(10, maxPointNumber);
+            isMaxPointNumberRead = true;
+        }
+    }
+
     @Override
     public boolean hasNext(InputStream in) throws IOException {
         if (decoder == null) {
@@ -9,6 +9,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * Decoder for int value using rle or bit-packing
@@ -84,6 +86,42 @@ public class IntRleDecoder extends RleDecoder {
         return result;
     }
 
+    /**
+     * Copy the values of a package at once, a repeated value is filled and bit-packed values are copied.
+     */
+    @Override
+    public int readInts(ByteBuffer buffer, int[] values, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length) {
+            if (!isLengthAndBitWidthReaded) {
+                if (!buffer.hasRemaining()) {
+                    break;
+                }
+                readLengthAndBitWidth(buffer);
+            }
+            if (currentCount == 0) {
+                readNext();
+            }
+            int n = Math.min(length - count, currentCount);
+            switch (mode) {
+                case RLE:
+                    Arrays.fill(values, offset + count, offset + count + n, currentValue);
+                    break;
+                case BIT_PACKED:
+                    System.arraycopy(currentBuffer, bitPackingNum - currentCount, values, offset + count, n);
+                    break;
+                default:
+                    throw new TSFileDecodingException(String.format("tsfile-encoding IntRleDecoder: not a valid mode %s", mode));
+            }
+            currentCount -= n;
+            count += n;
+            if (!hasNextPackage()) {
+                isLengthAndBitWidthReaded = false;
+            }
+        }
+        return count;
+    }
+
     @Override
     protected void initPacker() {
         packer = new IntPacker(bitWidth);
@@ -9,6 +9,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * Decoder for long value using rle or bit-packing
@@ -79,6 +81,42 @@ public class LongRleDecoder extends RleDecoder {
         return result;
     }
 
+    /**
+     * Copy the values of a package at once, a repeated value is filled and bit-packed values are copied.
+     */
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] values, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length) {
+            if (!isLengthAndBitWidthReaded) {
+                if (!buffer.hasRemaining()) {
+                    break;
+                }
+                readLengthAndBitWidth(buffer);
+            }
+            if (currentCount == 0) {
+                readNext();
+            }
+            int n = Math.min(length - count, currentCount);
+            switch (mode) {
+                case RLE:
+                    Arrays.fill(values, offset + count, offset + count + n, currentValue);
+                    break;
+                case BIT_PACKED:
+                    System.arraycopy(currentBuffer, bitPackingNum - currentCount, values, offset + count, n);
+                    break;
+                default:
+                    throw new TSFileDecodingException(String.format("tsfile-encoding LongRleDecoder: not a valid mode %s", mode));
+            }
+            currentCount -= n;
+            count += n;
+            if (!hasNextPackage()) {
+                isLengthAndBitWidthReaded = false;
+            }
+        }
+        return count;
+    }
+
     @Override
     protected void initPacker() {
         packer = new LongPacker(bitWidth);
@@ -10,6 +10,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * @author Zhang Jinrui
@@ -114,6 +116,90 @@ public class PlainDecoder extends Decoder {
         return new Binary(buf);
     }
 
+    /**
+     * The values of the same width are copied in bulk from a little endian view of the buffer.
+     */
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] values, int offset, int length) throws IOException {
+        if (endianType != EndianType.LITTLE_ENDIAN) {
+            return super.readLongs(buffer, values, offset, length);
+        }
+        int count = Math.min(length, buffer.remaining() / 8);
+        littleEndian(buffer).asLongBuffer().get(values, offset, count);
+        buffer.position(buffer.position() + count * 8);
+        return count;
+    }
+
+    @Override
+    public int readInts(ByteBuffer buffer, int[] values, int offset, int length) throws IOException {
+        if (endianType != EndianType.LITTLE_ENDIAN) {
+            return super.readInts(buffer, values, offset, length);
+        }
+        int count = Math.min(length, buffer.remaining() / 4);
+        littleEndian(buffer).asIntBuffer().get(values, offset, count);
+        buffer.position(buffer.position() + count * 4);
+        return count;
+    }
+
+    @Override
+    public int readFloats(ByteBuffer buffer, float[] values, int offset, int length) throws IOException {
+        if (endianType != EndianType.LITTLE_ENDIAN) {
+            return super.readFloats(buffer, values, offset, length);
+        }
+        int count = Math.min(length, buffer.remaining() / 4);
+        littleEndian(buffer).asFloatBuffer().get(values, offset, count);
+        buffer.position(buffer.position() + count * 4);
+        return count;
+    }
+
+    @Override
+    public int readDoubles(ByteBuffer buffer, double[] values, int offset, int length) throws IOException {
+        if (endianType != EndianType.LITTLE_ENDIAN) {
+            return super.readDoubles(buffer, values, offset, length);
+        }
+        int count = Math.min(length, buffer.remaining() / 8);
+        littleEndian(buffer).asDoubleBuffer().get(values, offset, count);
+        buffer.position(buffer.position() + count * 8);
+        return count;
+    }
+
+    @Override
+    public int readBooleans(ByteBuffer buffer, boolean[] values, int offset, int length) throws IOException {
+        int count = Math.min(length, buffer.remaining());
+        for (int i = 0; i < count; i++) {
+            values[offset + i] = buffer.get() != 0;
+        }
+        return count;
+    }
+
+    @Override
+    public int readBinaries(ByteBuffer buffer, Binary[] values, int offset, int length) throws IOException {
+        if (endianType != EndianType.LITTLE_ENDIAN) {
+            return super.readBinaries(buffer, values, offset, length);
+        }
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int count = 0;
+            while (count < length && buffer.remaining() >= 4) {
+                byte[] bytes = new byte[buffer.getInt()];
+                if (bytes.length > buffer.remaining()) {
+                    throw new IOException("Expect a binary of " + bytes.length + " bytes but only "
+                            + buffer.remaining() + " bytes remain");
+                }
+                buffer.get(bytes);
+                values[offset + count++] = new Binary(bytes);
+            }
+            return count;
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    private ByteBuffer littleEndian(ByteBuffer buffer) {
+        return buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
     @Override
     public boolean hasNext(InputStream in) throws IOException {
         return in.available() > 0;
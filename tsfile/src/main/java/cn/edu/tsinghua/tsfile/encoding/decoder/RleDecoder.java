@@ -12,6 +12,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 
 /**
  * Abstract class for all rle decoder. Decoding values according to
@@ -128,6 +129,32 @@ public abstract class RleDecoder extends Decoder {
         // long et = System.currentTimeMillis();
     }
 
+    /**
+     * read length and bit width of current package from a buffer, the package is read from the backing array of
+     * the buffer without being copied if it has one
+     *
+     * @param buffer ByteBuffer
+     * @throws IOException cannot read length and bit-width
+     */
+    protected void readLengthAndBitWidth(ByteBuffer buffer) throws IOException {
+        length = ReadWriteStreamUtils.readUnsignedVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new IOException("Expect a package of " + length + " bytes but only " + buffer.remaining()
+                    + " bytes remain");
+        }
+        if (buffer.hasArray()) {
+            byteCache = new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] tmp = new byte[length];
+            buffer.get(tmp);
+            byteCache = new ByteArrayInputStream(tmp);
+        }
+        isLengthAndBitWidthReaded = true;
+        bitWidth = byteCache.read();
+        initPacker();
+    }
+
     /**
      * Check whether there is number left for reading
      *
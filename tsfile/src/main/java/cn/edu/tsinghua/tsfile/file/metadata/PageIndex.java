@@ -0,0 +1,118 @@
+package cn.edu.tsinghua.tsfile.file.metadata;
+
+import cn.edu.tsinghua.tsfile.file.metadata.converter.IConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The offsets and the time ranges of the pages in a time series chunk, in the order of the pages. For more
+ * information, see PageIndex in cn.edu.thu.tsfile.format package
+ */
+public class PageIndex implements IConverter<cn.edu.tsinghua.tsfile.format.PageIndex> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] offsets;
+    private long[] minTimestamps;
+    private long[] maxTimestamps;
+    private int size;
+
+    public PageIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PageIndex(int capacity) {
+        capacity = Math.max(capacity, 1);
+        offsets = new long[capacity];
+        minTimestamps = new long[capacity];
+        maxTimestamps = new long[capacity];
+    }
+
+    /**
+     * @param offset byte offset from the beginning of the time series chunk to the header of the page
+     */
+    public void addPage(long offset, long minTimestamp, long maxTimestamp) {
+        if (size == offsets.length) {
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            minTimestamps = Arrays.copyOf(minTimestamps, capacity);
+            maxTimestamps = Arrays.copyOf(maxTimestamps, capacity);
+        }
+        offsets[size] = offset;
+        minTimestamps[size] = minTimestamp;
+        maxTimestamps[size] = maxTimestamp;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getOffset(int page) {
+        return offsets[page];
+    }
+
+    public long getMinTimestamp(int page) {
+        return minTimestamps[page];
+    }
+
+    public long getMaxTimestamp(int page) {
+        return maxTimestamps[page];
+    }
+
+    /**
+     * @return the first page from fromPage whose max timestamp is not less than the given timestamp, or
+     * {@link #size()} if there is no such page. The max timestamps of the pages must be ascending.
+     */
+    public int searchPage(long timestamp, int fromPage) {
+        int low = fromPage;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (maxTimestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public cn.edu.tsinghua.tsfile.format.PageIndex convertToThrift() {
+        List<Long> offsetList = new ArrayList<>(size);
+        List<Long> minTimestampList = new ArrayList<>(size);
+        List<Long> maxTimestampList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            offsetList.add(offsets[i]);
+            minTimestampList.add(minTimestamps[i]);
+            maxTimestampList.add(maxTimestamps[i]);
+        }
+        return new cn.edu.tsinghua.tsfile.format.PageIndex(offsetList, minTimestampList, maxTimestampList);
+    }
+
+    @Override
+    public void convertToTSF(cn.edu.tsinghua.tsfile.format.PageIndex pageIndexInThrift) {
+        List<Long> offsetList = pageIndexInThrift.getOffsets();
+        List<Long> minTimestampList = pageIndexInThrift.getMin_timestamps();
+        List<Long> maxTimestampList = pageIndexInThrift.getMax_timestamps();
+        size = offsetList.size();
+        offsets = new long[Math.max(size, 1)];
+        minTimestamps = new long[Math.max(size, 1)];
+        maxTimestamps = new long[Math.max(size, 1)];
+        for (int i = 0; i < size; i++) {
+            offsets[i] = offsetList.get(i);
+            minTimestamps[i] = minTimestampList.get(i);
+            maxTimestamps[i] = maxTimestampList.get(i);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PageIndex offsets %s, minTimestamps %s, maxTimestamps %s",
+                Arrays.toString(Arrays.copyOf(offsets, size)), Arrays.toString(Arrays.copyOf(minTimestamps, size)),
+                Arrays.toString(Arrays.copyOf(maxTimestamps, size)));
+    }
+}
@@ -53,6 +53,11 @@ public class TimeSeriesChunkMetaData
     private TInTimeSeriesChunkMetaData tInTimeSeriesChunkMetaData;
     private VInTimeSeriesChunkMetaData vInTimeSeriesChunkMetaData;
 
+    /**
+     * Optional index of the pages by time, null for the chunks written without it.
+     */
+    private PageIndex pageIndex;
+
     /**
      * The maximum time of the tombstones that take effect on this chunk. Only data with larger timestamps than this
      * should be exposed to user.
@@ -94,6 +99,9 @@ public class TimeSeriesChunkMetaData
             if (vInTimeSeriesChunkMetaData != null) {
                 metadataInThrift.setValue_tsc(vInTimeSeriesChunkMetaData.convertToThrift());
             }
+            if (pageIndex != null) {
+                metadataInThrift.setPage_index(pageIndex.convertToThrift());
+            }
             return metadataInThrift;
         } catch (Exception e) {
             if (LOGGER.isErrorEnabled())
@@ -124,6 +132,12 @@ public class TimeSeriesChunkMetaData
                 }
                 vInTimeSeriesChunkMetaData.convertToTSF(metadataInThrift.getValue_tsc());
             }
+            if (metadataInThrift.getPage_index() == null) {
+                pageIndex = null;
+            } else {
+                pageIndex = new PageIndex();
+                pageIndex.convertToTSF(metadataInThrift.getPage_index());
+            }
         } catch (Exception e) {
             if (LOGGER.isErrorEnabled())
                 LOGGER.error(
@@ -235,6 +249,14 @@ public class TimeSeriesChunkMetaData
         this.vInTimeSeriesChunkMetaData = vInTimeSeriesChunkMetaData;
     }
 
+    public PageIndex getPageIndex() {
+        return pageIndex;
+    }
+
+    public void setPageIndex(PageIndex pageIndex) {
+        this.pageIndex = pageIndex;
+    }
+
     public long getMaxTombstoneTime() {
         return maxTombstoneTime;
     }
@@ -10,7 +10,8 @@ public enum CompressionTypeName {
     LZO(CompressionType.LZO, ".lzo"),
     SDT(CompressionType.SDT, ".sdt"),
     PAA(CompressionType.PAA, ".paa"),
-    PLA(CompressionType.PLA, ".pla");
+    PLA(CompressionType.PLA, ".pla"),
+    LZ4(CompressionType.LZ4, ".lz4");
 
     private final CompressionType tsfileCompressionType;
     private final String extension;
@@ -38,6 +39,8 @@ public enum CompressionTypeName {
                 return PAA;
             case "PLA":
                 return PLA;
+            case "LZ4":
+                return LZ4;
             default:
                 throw new CompressionTypeNotSupportedException(name);
         }
@@ -50,4 +53,4 @@ public enum CompressionTypeName {
     public String getExtension() {
         return extension;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package cn.edu.tsinghua.tsfile.timeseries.read;
+
+import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileReader;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * File-read interface for a local file which is not modified any more, e.g. a sealed TsFile. The file is mapped
+ * into memory in segments of at most 1GB, so the series chunks can be read from the mapped buffers by
+ * {@link #getBuffer(long, int)} without being copied to the heap. The mappings are released when the buffers are
+ * garbage collected, or explicitly by the owner of the reader through {@link #getMappedBuffers()}.
+ * <p>
+ * The mapping can be shared by several readers with their own positions through {@link #duplicate()}.
+ */
+public class TsRandomAccessMMapFileReader implements ITsRandomAccessFileReader {
+
+    private static final int SEGMENT_SIZE = 1 << 30;
+
+    private RandomAccessFile raf;
+    private MappedByteBuffer[] segments;
+    private long length;
+    private long position;
+
+    public TsRandomAccessMMapFileReader(String filePath) throws IOException {
+        this(new RandomAccessFile(filePath, "r"));
+    }
+
+    public TsRandomAccessMMapFileReader(RandomAccessFile raf) throws IOException {
+        this.raf = raf;
+        this.length = raf.length();
+        int segmentNum = (int) ((length + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        this.segments = new MappedByteBuffer[segmentNum];
+        FileChannel channel = raf.getChannel();
+        for (int i = 0; i < segmentNum; i++) {
+            long offset = (long) i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, length - offset));
+        }
+    }
+
+    private TsRandomAccessMMapFileReader(MappedByteBuffer[] segments, long length) {
+        this.segments = segments;
+        this.length = length;
+    }
+
+    /**
+     * @return a reader of the same mapping with its own position, whose {@link #close()} doesn't close the file
+     */
+    public TsRandomAccessMMapFileReader duplicate() {
+        return new TsRandomAccessMMapFileReader(segments, length);
+    }
+
+    /**
+     * @return the mapped segments of the file, which must not be read any more after they are unmapped
+     */
+    public MappedByteBuffer[] getMappedBuffers() {
+        return segments;
+    }
+
+    @Override
+    public void seek(long offset) throws IOException {
+        this.position = offset;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position >= length) {
+            return -1;
+        }
+        int b = segments[(int) (position / SEGMENT_SIZE)].get((int) (position % SEGMENT_SIZE)) & 0xFF;
+        position++;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (position >= length) {
+            return -1;
+        }
+        int total = (int) Math.min(len, length - position);
+        int read = 0;
+        while (read < total) {
+            ByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)].duplicate();
+            segment.position((int) (position % SEGMENT_SIZE));
+            int get = Math.min(total - read, segment.remaining());
+            segment.get(b, off + read, get);
+            read += get;
+            position += get;
+        }
+        return total;
+    }
+
+    /**
+     * @return the bytes [offset, offset + len) of the file. It is a slice of the mapped buffer if the bytes are in
+     * one segment, otherwise a copy of them.
+     */
+    public ByteBuffer getBuffer(long offset, int len) throws IOException {
+        if (offset + len > length) {
+            throw new IOException("Expect bytes [" + offset + ", " + (offset + len) + ") but the length of file is "
+                    + length);
+        }
+        int segmentIndex = (int) (offset / SEGMENT_SIZE);
+        int offsetInSegment = (int) (offset % SEGMENT_SIZE);
+        if (offsetInSegment + len <= segments[segmentIndex].capacity()) {
+            ByteBuffer buffer = segments[segmentIndex].duplicate();
+            buffer.position(offsetInSegment);
+            buffer.limit(offsetInSegment + len);
+            return buffer.slice();
+        }
+        byte[] bytes = new byte[len];
+        seek(offset);
+        read(bytes, 0, len);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    @Override
+    public long length() throws IOException {
+        return length;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        int ch1 = read();
+        int ch2 = read();
+        int ch3 = read();
+        int ch4 = read();
+        if ((ch1 | ch2 | ch3 | ch4) < 0) {
+            throw new IOException("Reach the end of file when reading an int");
+        }
+        return (ch1 << 24) + (ch2 << 16) + (ch3 << 8) + ch4;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (raf != null) {
+            raf.close();
+        }
+    }
+}
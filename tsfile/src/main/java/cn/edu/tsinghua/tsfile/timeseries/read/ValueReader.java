@@ -137,8 +137,11 @@ public class ValueReader {
         byte[] buf = new byte[length];
         int readSize = 0;
 
-        raf.seek(fileOffset);
-        readSize = raf.read(buf, 0, length);
+        // the reader of a file may be shared by the value readers of several series
+        synchronized (raf) {
+            raf.seek(fileOffset);
+            readSize = raf.read(buf, 0, length);
+        }
         if (readSize != length) {
             throw new IOException("Expect byte size : " + length + ". Read size : " + readSize);
         }
@@ -151,8 +154,10 @@ public class ValueReader {
         int length = (int) (this.totalSize - (pageOffset - fileOffset));
         byte[] buf = new byte[length];
         int readSize = 0;
-        raf.seek(pageOffset);
-        readSize = raf.read(buf, 0, length);
+        synchronized (raf) {
+            raf.seek(pageOffset);
+            readSize = raf.read(buf, 0, length);
+        }
         if (readSize != length) {
             throw new IOException("Expect byte size : " + length + ". Read size : " + readSize);
         }
@@ -1,5 +1,6 @@
 package cn.edu.tsinghua.tsfile.timeseries.readV2.common;
 
+import cn.edu.tsinghua.tsfile.file.metadata.PageIndex;
 import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
@@ -22,6 +23,7 @@ public class EncodedSeriesChunkDescriptor implements SeriesChunkDescriptor {
     private long countOfPoints;
     private List<String> enumValueList;
     private long maxTombstoneTime;
+    private PageIndex pageIndex;
 
     public EncodedSeriesChunkDescriptor(long offsetInFile, long lengthOfBytes, CompressionTypeName compressionTypeName,
                                         TSDataType dataType, TsDigest valueDigest, long minTimestamp, long maxTimestamp, long countOfPoints) {
@@ -132,4 +134,15 @@ public class EncodedSeriesChunkDescriptor implements SeriesChunkDescriptor {
     public void setMaxTombstoneTime(long maxTombstoneTime) {
         this.maxTombstoneTime = maxTombstoneTime;
     }
+
+    /**
+     * @return the index of the pages of this chunk by time, or null if the chunk is written without it.
+     */
+    public PageIndex getPageIndex() {
+        return pageIndex;
+    }
+
+    public void setPageIndex(PageIndex pageIndex) {
+        this.pageIndex = pageIndex;
+    }
 }
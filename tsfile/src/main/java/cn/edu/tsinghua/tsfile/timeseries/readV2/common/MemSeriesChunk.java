@@ -1,15 +1,15 @@
 package cn.edu.tsinghua.tsfile.timeseries.readV2.common;
 
-import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 
 /**
  * Created by zhangjinrui on 2017/12/25.
  */
 public class MemSeriesChunk implements SeriesChunk{
     private EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor;
-    private ByteArrayInputStream seriesChunkBodyStream;
+    private InputStream seriesChunkBodyStream;
 
-    public MemSeriesChunk(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor, ByteArrayInputStream seriesChunkBodyStream) {
+    public MemSeriesChunk(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor, InputStream seriesChunkBodyStream) {
         this.encodedSeriesChunkDescriptor = encodedSeriesChunkDescriptor;
         this.seriesChunkBodyStream = seriesChunkBodyStream;
     }
@@ -18,7 +18,7 @@ public class MemSeriesChunk implements SeriesChunk{
         return encodedSeriesChunkDescriptor;
     }
 
-    public ByteArrayInputStream getSeriesChunkBodyStream() {
+    public InputStream getSeriesChunkBodyStream() {
         return seriesChunkBodyStream;
     }
 }
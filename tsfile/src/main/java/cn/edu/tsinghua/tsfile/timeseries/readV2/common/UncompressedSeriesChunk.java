@@ -0,0 +1,120 @@
+package cn.edu.tsinghua.tsfile.timeseries.readV2.common;
+
+import cn.edu.tsinghua.tsfile.common.utils.ByteBufferInputStream;
+import cn.edu.tsinghua.tsfile.compress.UnCompressor;
+import cn.edu.tsinghua.tsfile.file.metadata.PageIndex;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
+import cn.edu.tsinghua.tsfile.file.utils.ReadWriteThriftFormatUtils;
+import cn.edu.tsinghua.tsfile.format.PageHeader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The pages of a series chunk with their bodies uncompressed, so that the chunk can be kept in memory and read many
+ * times without uncompressing it again. The page headers are rewritten with the uncompressed page sizes, and the
+ * page index, if any, with the offsets of the pages in the uncompressed chunk.
+ * <p>
+ * The content is never modified, so it can be read by several readers at the same time through
+ * {@link #getMemSeriesChunk(EncodedSeriesChunkDescriptor)}.
+ */
+public class UncompressedSeriesChunk {
+
+    private final byte[] content;
+    private final PageIndex pageIndex;
+
+    private UncompressedSeriesChunk(byte[] content, PageIndex pageIndex) {
+        this.content = content;
+        this.pageIndex = pageIndex;
+    }
+
+    /**
+     * Uncompress all the pages of the series chunk described by the descriptor.
+     *
+     * @param seriesChunkBodyStream the stream of the pages of the series chunk, which is consumed
+     */
+    public static UncompressedSeriesChunk uncompress(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor,
+                                                     InputStream seriesChunkBodyStream) throws IOException {
+        UnCompressor unCompressor = UnCompressor.getUnCompressor(encodedSeriesChunkDescriptor.getCompressionTypeName());
+        PageIndex compressedPageIndex = encodedSeriesChunkDescriptor.getPageIndex();
+        PageIndex pageIndex = compressedPageIndex == null ? null : new PageIndex(compressedPageIndex.size());
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) encodedSeriesChunkDescriptor.getLengthOfBytes());
+        int page = 0;
+        while (seriesChunkBodyStream.available() > 0) {
+            PageHeader pageHeader = ReadWriteThriftFormatUtils.readPageHeader(seriesChunkBodyStream);
+            byte[] pageBody = unCompressor.uncompress(readPageBody(seriesChunkBodyStream,
+                    pageHeader.getCompressed_page_size()));
+            if (pageBody == null) {
+                throw new IOException("Cannot uncompress page " + page + " of " + encodedSeriesChunkDescriptor);
+            }
+            if (pageIndex != null && page >= compressedPageIndex.size()) {
+                // the index doesn't match the pages, so the pages are read without it
+                pageIndex = null;
+            }
+            if (pageIndex != null) {
+                pageIndex.addPage(out.size(), compressedPageIndex.getMinTimestamp(page),
+                        compressedPageIndex.getMaxTimestamp(page));
+            }
+            pageHeader.setCompressed_page_size(pageBody.length);
+            ReadWriteThriftFormatUtils.writePageHeader(pageHeader, out);
+            out.write(pageBody);
+            page++;
+        }
+        return new UncompressedSeriesChunk(out.toByteArray(), pageIndex);
+    }
+
+    private static byte[] readPageBody(InputStream seriesChunkBodyStream, int length) throws IOException {
+        byte[] pageBody = new byte[length];
+        if (seriesChunkBodyStream instanceof ByteBufferInputStream) {
+            ((ByteBufferInputStream) seriesChunkBodyStream).slice(length).get(pageBody);
+            return pageBody;
+        }
+        int readLength = 0;
+        while (readLength < length) {
+            int read = seriesChunkBodyStream.read(pageBody, readLength, length - readLength);
+            if (read < 0) {
+                throw new IOException("Unexpected end of series chunk, expect " + length + " bytes of page but got "
+                        + readLength);
+            }
+            readLength += read;
+        }
+        return pageBody;
+    }
+
+    /**
+     * @param encodedSeriesChunkDescriptor the descriptor of the compressed series chunk
+     * @return a series chunk reading this uncompressed one, whose descriptor is the given one with no compression
+     * and the page index of this chunk
+     */
+    public MemSeriesChunk getMemSeriesChunk(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor) {
+        EncodedSeriesChunkDescriptor descriptor = new EncodedSeriesChunkDescriptor(
+                encodedSeriesChunkDescriptor.getFilePath(), encodedSeriesChunkDescriptor.getOffsetInFile(),
+                encodedSeriesChunkDescriptor.getLengthOfBytes(), CompressionTypeName.UNCOMPRESSED,
+                encodedSeriesChunkDescriptor.getDataType(), encodedSeriesChunkDescriptor.getValueDigest(),
+                encodedSeriesChunkDescriptor.getMinTimestamp(), encodedSeriesChunkDescriptor.getMaxTimestamp(),
+                encodedSeriesChunkDescriptor.getCountOfPoints(), encodedSeriesChunkDescriptor.getEnumValueList());
+        descriptor.setMaxTombstoneTime(encodedSeriesChunkDescriptor.getMaxTombstoneTime());
+        descriptor.setPageIndex(pageIndex);
+        return new MemSeriesChunk(descriptor, new ByteBufferInputStream(ByteBuffer.wrap(content)));
+    }
+
+    /**
+     * @return the length in bytes of the uncompressed pages
+     */
+    public int getLength() {
+        return content.length;
+    }
+
+    /**
+     * @return the estimated size in bytes of this chunk on heap
+     */
+    public long getSizeInBytes() {
+        long size = 16 + 16 + content.length;
+        if (pageIndex != null) {
+            size += 16 + 3 * (16 + 8L * pageIndex.size());
+        }
+        return size;
+    }
+}
@@ -108,6 +108,7 @@ public class MetadataQuerierByFileImpl implements MetadataQuerier {
                 timeSeriesChunkMetaData.getTInTimeSeriesChunkMetaData().getEndTime(),
                 timeSeriesChunkMetaData.getNumRows(),
                 timeSeriesChunkMetaData.getVInTimeSeriesChunkMetaData().getEnumValues());
+        encodedSeriesChunkDescriptor.setPageIndex(timeSeriesChunkMetaData.getPageIndex());
         return encodedSeriesChunkDescriptor;
     }
 
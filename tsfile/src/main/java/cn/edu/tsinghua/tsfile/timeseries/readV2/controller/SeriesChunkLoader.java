@@ -1,7 +1,7 @@
 package cn.edu.tsinghua.tsfile.timeseries.readV2.controller;
 
-import cn.edu.tsinghua.tsfile.timeseries.readV2.common.SeriesChunk;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.common.MemSeriesChunk;
 
 import java.io.IOException;
 
@@ -9,5 +9,10 @@ import java.io.IOException;
  * Created by zhangjinrui on 2017/12/26.
  */
 public interface SeriesChunkLoader {
-    SeriesChunk getMemSeriesChunk(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor) throws IOException;
+
+    /**
+     * @return the series chunk, whose descriptor should be used to read it instead of the given one, since the
+     * loader may return the chunk in another form, e.g. uncompressed.
+     */
+    MemSeriesChunk getMemSeriesChunk(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor) throws IOException;
 }
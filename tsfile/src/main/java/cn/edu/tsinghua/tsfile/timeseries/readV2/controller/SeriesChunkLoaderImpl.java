@@ -1,13 +1,16 @@
 package cn.edu.tsinghua.tsfile.timeseries.readV2.controller;
 
 import cn.edu.tsinghua.tsfile.common.exception.cache.CacheException;
+import cn.edu.tsinghua.tsfile.common.utils.ByteBufferInputStream;
 import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileReader;
+import cn.edu.tsinghua.tsfile.timeseries.read.TsRandomAccessMMapFileReader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.MemSeriesChunk;
 import cn.edu.tsinghua.tsfile.timeseries.utils.cache.LRUCache;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Created by zhangjinrui on 2017/12/25.
@@ -41,6 +44,12 @@ public class SeriesChunkLoaderImpl implements SeriesChunkLoader {
     }
 
     public MemSeriesChunk getMemSeriesChunk(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor) throws IOException {
+        if (randomAccessFileReader instanceof TsRandomAccessMMapFileReader) {
+            // the chunk is read from the mapped file directly, so it is neither copied nor cached
+            ByteBuffer seriesChunkBuffer = ((TsRandomAccessMMapFileReader) randomAccessFileReader).getBuffer(
+                    encodedSeriesChunkDescriptor.getOffsetInFile(), (int) encodedSeriesChunkDescriptor.getLengthOfBytes());
+            return new MemSeriesChunk(encodedSeriesChunkDescriptor, new ByteBufferInputStream(seriesChunkBuffer));
+        }
         try {
             return new MemSeriesChunk(encodedSeriesChunkDescriptor, new ByteArrayInputStream(seriesChunkBytesCache.get(encodedSeriesChunkDescriptor)));
         } catch (CacheException e) {
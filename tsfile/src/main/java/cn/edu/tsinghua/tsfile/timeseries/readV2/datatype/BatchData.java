@@ -0,0 +1,296 @@
+package cn.edu.tsinghua.tsfile.timeseries.readV2.datatype;
+
+import cn.edu.tsinghua.tsfile.common.exception.UnSupportedDataTypeException;
+import cn.edu.tsinghua.tsfile.common.utils.Binary;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType.*;
+
+import java.util.Arrays;
+
+/**
+ * A batch of points of one series kept in primitive arrays, one array for the timestamps and one array of the
+ * data type of the series for the values. It is read by a cursor, the getters read the point at the cursor.
+ * ENUMS values are kept as int.
+ */
+public class BatchData {
+
+    private static final int DEFAULT_CAPACITY = 128;
+
+    private TSDataType dataType;
+    private int length;
+    private int index;
+
+    private long[] timestamps;
+    private boolean[] booleans;
+    private int[] ints;
+    private long[] longs;
+    private float[] floats;
+    private double[] doubles;
+    private Binary[] binaries;
+
+    public BatchData(TSDataType dataType) {
+        this(dataType, DEFAULT_CAPACITY);
+    }
+
+    public BatchData(TSDataType dataType, int capacity) {
+        this.dataType = dataType;
+        capacity = Math.max(capacity, 1);
+        timestamps = new long[capacity];
+        switch (dataType) {
+            case BOOLEAN:
+                booleans = new boolean[capacity];
+                break;
+            case INT32:
+            case ENUMS:
+                ints = new int[capacity];
+                break;
+            case INT64:
+                longs = new long[capacity];
+                break;
+            case FLOAT:
+                floats = new float[capacity];
+                break;
+            case DOUBLE:
+                doubles = new double[capacity];
+                break;
+            case TEXT:
+                binaries = new Binary[capacity];
+                break;
+            default:
+                throw new UnSupportedDataTypeException("Unsupported data type :" + dataType);
+        }
+    }
+
+    public TSDataType getDataType() {
+        return dataType;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean hasNext() {
+        return index < length;
+    }
+
+    public void next() {
+        index++;
+    }
+
+    /**
+     * Move the cursor forward to the first point whose time is not less than the given time, or to the end if
+     * there is no such point, by binary search from the cursor. The timestamps must be ascending.
+     */
+    public void skipTo(long time) {
+        int low = index;
+        int high = length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        index = low;
+    }
+
+    public long currentTime() {
+        return timestamps[index];
+    }
+
+    public boolean getBoolean() {
+        return booleans[index];
+    }
+
+    public int getInt() {
+        return ints[index];
+    }
+
+    public long getLong() {
+        return longs[index];
+    }
+
+    public float getFloat() {
+        return floats[index];
+    }
+
+    public double getDouble() {
+        return doubles[index];
+    }
+
+    public Binary getBinary() {
+        return binaries[index];
+    }
+
+    /**
+     * @return a new TimeValuePair of the point at the cursor, for the readers which return points one by one.
+     */
+    public TimeValuePair currentTimeValuePair() {
+        return new TimeValuePair(timestamps[index], currentValue());
+    }
+
+    public TsPrimitiveType currentValue() {
+        switch (dataType) {
+            case BOOLEAN:
+                return new TsBoolean(booleans[index]);
+            case INT32:
+            case ENUMS:
+                return new TsInt(ints[index]);
+            case INT64:
+                return new TsLong(longs[index]);
+            case FLOAT:
+                return new TsFloat(floats[index]);
+            case DOUBLE:
+                return new TsDouble(doubles[index]);
+            case TEXT:
+                return new TsBinary(binaries[index]);
+            default:
+                throw new UnSupportedDataTypeException("Unsupported data type :" + dataType);
+        }
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public boolean[] getBooleans() {
+        return booleans;
+    }
+
+    public int[] getInts() {
+        return ints;
+    }
+
+    public long[] getLongs() {
+        return longs;
+    }
+
+    public float[] getFloats() {
+        return floats;
+    }
+
+    public double[] getDoubles() {
+        return doubles;
+    }
+
+    public Binary[] getBinaries() {
+        return binaries;
+    }
+
+    /**
+     * Make sure that the arrays can hold at least capacity points, the arrays returned by the getters before
+     * may be replaced.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= timestamps.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, timestamps.length * 2);
+        timestamps = Arrays.copyOf(timestamps, newCapacity);
+        switch (dataType) {
+            case BOOLEAN:
+                booleans = Arrays.copyOf(booleans, newCapacity);
+                break;
+            case INT32:
+            case ENUMS:
+                ints = Arrays.copyOf(ints, newCapacity);
+                break;
+            case INT64:
+                longs = Arrays.copyOf(longs, newCapacity);
+                break;
+            case FLOAT:
+                floats = Arrays.copyOf(floats, newCapacity);
+                break;
+            case DOUBLE:
+                doubles = Arrays.copyOf(doubles, newCapacity);
+                break;
+            case TEXT:
+                binaries = Arrays.copyOf(binaries, newCapacity);
+                break;
+            default:
+                throw new UnSupportedDataTypeException("Unsupported data type :" + dataType);
+        }
+    }
+
+    public int capacity() {
+        return timestamps.length;
+    }
+
+    /**
+     * Set the number of valid points after the arrays are filled, and move the cursor to the first point.
+     */
+    public void setLength(int length) {
+        this.length = length;
+        this.index = 0;
+    }
+
+    /**
+     * Append a point after the valid points, used to collect the points of the readers which return them one by
+     * one. The cursor is not moved.
+     */
+    public void putTimeValuePair(TimeValuePair timeValuePair) {
+        ensureCapacity(length + 1);
+        timestamps[length] = timeValuePair.getTimestamp();
+        TsPrimitiveType value = timeValuePair.getValue();
+        switch (dataType) {
+            case BOOLEAN:
+                booleans[length] = value.getBoolean();
+                break;
+            case INT32:
+            case ENUMS:
+                ints[length] = value.getInt();
+                break;
+            case INT64:
+                longs[length] = value.getLong();
+                break;
+            case FLOAT:
+                floats[length] = value.getFloat();
+                break;
+            case DOUBLE:
+                doubles[length] = value.getDouble();
+                break;
+            case TEXT:
+                binaries[length] = value.getBinary();
+                break;
+            default:
+                throw new UnSupportedDataTypeException("Unsupported data type :" + dataType);
+        }
+        length++;
+    }
+
+    /**
+     * Copy the point at the cursor to the given position, which is used to remove points in place when filtering.
+     * The position must not be after the cursor.
+     */
+    public void moveCurrentTo(int position) {
+        if (position == index) {
+            return;
+        }
+        timestamps[position] = timestamps[index];
+        switch (dataType) {
+            case BOOLEAN:
+                booleans[position] = booleans[index];
+                break;
+            case INT32:
+            case ENUMS:
+                ints[position] = ints[index];
+                break;
+            case INT64:
+                longs[position] = longs[index];
+                break;
+            case FLOAT:
+                floats[position] = floats[index];
+                break;
+            case DOUBLE:
+                doubles[position] = doubles[index];
+                break;
+            case TEXT:
+                binaries[position] = binaries[index];
+                break;
+            default:
+                throw new UnSupportedDataTypeException("Unsupported data type :" + dataType);
+        }
+    }
+
+}
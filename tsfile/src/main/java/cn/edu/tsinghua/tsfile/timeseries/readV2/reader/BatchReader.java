@@ -0,0 +1,20 @@
+package cn.edu.tsinghua.tsfile.timeseries.readV2.reader;
+
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
+
+import java.io.IOException;
+
+/**
+ * A reader which returns points in batches of primitive arrays instead of one TimeValuePair per point. A reader
+ * implementing both this interface and {@link TimeValuePairReader} should be consumed by only one of them.
+ */
+public interface BatchReader {
+
+    boolean hasNextBatch() throws IOException;
+
+    /**
+     * @return a batch with at least one point. It may be reused by the following call, so its data must be
+     * consumed before calling this method again.
+     */
+    BatchData nextBatch() throws IOException;
+}
@@ -1,28 +1,38 @@
 package cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl;
 
 import cn.edu.tsinghua.tsfile.common.exception.UnSupportedDataTypeException;
+import cn.edu.tsinghua.tsfile.common.utils.ByteBufferInputStream;
 import cn.edu.tsinghua.tsfile.common.utils.ReadWriteStreamUtils;
 import cn.edu.tsinghua.tsfile.encoding.decoder.Decoder;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType.*;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.BatchReader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.TimeValuePairReader;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * @author Jinrui Zhang
  */
-public class PageReader implements TimeValuePairReader {
+public class PageReader implements TimeValuePairReader, BatchReader {
 
     private TSDataType dataType;
     private Decoder valueDecoder;
     private Decoder timeDecoder;
     private InputStream timestampInputStream;
     private InputStream valueInputStream;
+    /**
+     * The encoded timestamps and values if the page is read from a buffer, which are decoded in batches from the
+     * buffers directly. The input streams above read the same buffers for the point methods.
+     */
+    private ByteBuffer timestampBuffer;
+    private ByteBuffer valueBuffer;
     private boolean hasOneCachedTimeValuePair;
     private TimeValuePair cachedTimeValuePair;
 
@@ -34,6 +44,33 @@ public class PageReader implements TimeValuePairReader {
         splitInputStreamToTimeStampAndValue(pageContent);
     }
 
+    /**
+     * Read the page directly from an uncompressed page body, the timestamps and the values are read from the
+     * buffer without being copied.
+     */
+    public PageReader(ByteBuffer pageContent, TSDataType dataType, Decoder valueDecoder, Decoder timeDecoder) throws IOException {
+        this.dataType = dataType;
+        this.valueDecoder = valueDecoder;
+        this.timeDecoder = timeDecoder;
+        hasOneCachedTimeValuePair = false;
+        splitBufferToTimeStampAndValue(pageContent);
+    }
+
+    private void splitBufferToTimeStampAndValue(ByteBuffer pageContent) throws IOException {
+        ByteBuffer buffer = pageContent.duplicate();
+        int timeInputStreamLength = ReadWriteStreamUtils.readUnsignedVarInt(buffer);
+        if (timeInputStreamLength > buffer.remaining()) {
+            throw new IOException("Error when read bytes of encoded timestamps. " +
+                    "Expect byte size : " + timeInputStreamLength + ". Remaining size : " + buffer.remaining());
+        }
+        this.timestampBuffer = buffer.slice();
+        this.timestampBuffer.limit(timeInputStreamLength);
+        buffer.position(buffer.position() + timeInputStreamLength);
+        this.valueBuffer = buffer.slice();
+        this.timestampInputStream = new ByteBufferInputStream(timestampBuffer);
+        this.valueInputStream = new ByteBufferInputStream(valueBuffer);
+    }
+
     private void splitInputStreamToTimeStampAndValue(InputStream pageContent) throws IOException {
         int timeInputStreamLength = ReadWriteStreamUtils.readUnsignedVarInt(pageContent);
         byte[] buf = new byte[timeInputStreamLength];
@@ -75,6 +112,98 @@ public class PageReader implements TimeValuePairReader {
         this.cachedTimeValuePair = new TimeValuePair(timestamp, value);
     }
 
+    @Override
+    public boolean hasNextBatch() throws IOException {
+        return hasNext();
+    }
+
+    /**
+     * Decode all the remaining points of the page into a new batch.
+     */
+    @Override
+    public BatchData nextBatch() throws IOException {
+        BatchData batchData = new BatchData(dataType);
+        readBatch(batchData);
+        return batchData;
+    }
+
+    /**
+     * Decode all the remaining points of the page into the given batch, which is reset first.
+     */
+    public void readBatch(BatchData batchData) throws IOException {
+        batchData.setLength(0);
+        if (hasOneCachedTimeValuePair) {
+            hasOneCachedTimeValuePair = false;
+            batchData.putTimeValuePair(cachedTimeValuePair);
+        }
+        int size = batchData.length();
+        while (true) {
+            if (size == batchData.capacity()) {
+                batchData.ensureCapacity(size + 1);
+            }
+            int count = readTimestamps(batchData, size, batchData.capacity() - size);
+            if (count == 0) {
+                break;
+            }
+            int valueCount = readValues(batchData, size, count);
+            if (valueCount != count) {
+                throw new IOException("Expect " + count + " values in current page, but only " + valueCount + " are read");
+            }
+            size += count;
+        }
+        batchData.setLength(size);
+    }
+
+    private int readTimestamps(BatchData batchData, int offset, int length) throws IOException {
+        if (timestampBuffer != null) {
+            return timeDecoder.readLongs(timestampBuffer, batchData.getTimestamps(), offset, length);
+        }
+        return timeDecoder.readLongs(timestampInputStream, batchData.getTimestamps(), offset, length);
+    }
+
+    private int readValues(BatchData batchData, int offset, int length) throws IOException {
+        if (valueBuffer != null) {
+            return readValuesFromBuffer(batchData, offset, length);
+        }
+        switch (dataType) {
+            case BOOLEAN:
+                return valueDecoder.readBooleans(valueInputStream, batchData.getBooleans(), offset, length);
+            case INT32:
+            case ENUMS:
+                return valueDecoder.readInts(valueInputStream, batchData.getInts(), offset, length);
+            case INT64:
+                return valueDecoder.readLongs(valueInputStream, batchData.getLongs(), offset, length);
+            case FLOAT:
+                return valueDecoder.readFloats(valueInputStream, batchData.getFloats(), offset, length);
+            case DOUBLE:
+                return valueDecoder.readDoubles(valueInputStream, batchData.getDoubles(), offset, length);
+            case TEXT:
+                return valueDecoder.readBinaries(valueInputStream, batchData.getBinaries(), offset, length);
+            default:
+                throw new UnSupportedDataTypeException("Unsupported data type :" + dataType);
+        }
+    }
+
+    private int readValuesFromBuffer(BatchData batchData, int offset, int length) throws IOException {
+        switch (dataType) {
+            case BOOLEAN:
+                return valueDecoder.readBooleans(valueBuffer, batchData.getBooleans(), offset, length);
+            case INT32:
+            case ENUMS:
+                return valueDecoder.readInts(valueBuffer, batchData.getInts(), offset, length);
+            case INT64:
+                return valueDecoder.readLongs(valueBuffer, batchData.getLongs(), offset, length);
+            case FLOAT:
+                return valueDecoder.readFloats(valueBuffer, batchData.getFloats(), offset, length);
+            case DOUBLE:
+                return valueDecoder.readDoubles(valueBuffer, batchData.getDoubles(), offset, length);
+            case TEXT:
+                return valueDecoder.readBinaries(valueBuffer, batchData.getBinaries(), offset, length);
+            default:
+                throw new UnSupportedDataTypeException("Unsupported data type :" + dataType);
+        }
+    }
+
     @Override
     public void skipCurrentTimeValuePair() throws IOException {
         next();
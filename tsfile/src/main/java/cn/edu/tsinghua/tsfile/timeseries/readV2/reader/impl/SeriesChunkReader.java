@@ -1,41 +1,59 @@
 package cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl;
 
+import cn.edu.tsinghua.tsfile.common.utils.ByteBufferInputStream;
 import cn.edu.tsinghua.tsfile.compress.UnCompressor;
 import cn.edu.tsinghua.tsfile.encoding.decoder.Decoder;
+import cn.edu.tsinghua.tsfile.file.metadata.PageIndex;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.file.utils.ReadWriteThriftFormatUtils;
 import cn.edu.tsinghua.tsfile.format.Encoding;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.BatchReader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.TimeValuePairReader;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * @author Jinrui Zhang
+ * <p>
+ * Every satisfied page is decoded at once into a {@link BatchData}, whose points are checked on the primitive
+ * arrays. The satisfied points are either returned as a batch after removing the others in place, or returned as
+ * TimeValuePairs one by one.
  */
-public abstract class SeriesChunkReader implements TimeValuePairReader {
+public abstract class SeriesChunkReader implements TimeValuePairReader, BatchReader {
 
     protected TSDataType dataType;
     private InputStream seriesChunkInputStream;
 
-    private boolean pageReaderInitialized;
     private PageReader pageReader;
+    protected BatchData pageData;
     private UnCompressor unCompressor;
     private Encoding defaultTimestampEncoding;
     protected boolean hasCachedTimeValuePair;
     protected TimeValuePair cachedTimeValuePair;
+    private boolean hasCachedBatchData;
     private long maxTombstoneTime;
+    /**
+     * Index of the pages of the chunk by time, which lets the reader skip pages without reading their headers.
+     * Null if the chunk is written without it.
+     */
+    private PageIndex pageIndex;
+    /**
+     * the page whose header is at the current position of the stream, only used with the page index
+     */
+    private int nextPage;
 
 
     public SeriesChunkReader(InputStream seriesChunkInputStream, TSDataType dataType, CompressionTypeName compressionTypeName) {
         this.seriesChunkInputStream = seriesChunkInputStream;
         this.dataType = dataType;
         this.unCompressor = UnCompressor.getUnCompressor(compressionTypeName);
-        this.pageReaderInitialized = false;
+        this.pageData = new BatchData(dataType);
         defaultTimestampEncoding = Encoding.TS_2DIFF;
     }
 
@@ -46,23 +64,17 @@ public abstract class SeriesChunkReader implements TimeValuePairReader {
         }
         //Judge whether next satisfied page exists
         while (true) {
-            if (!pageReaderInitialized) {
-                boolean hasMoreSatisfiedPage = constructPageReaderIfNextSatisfiedPageExists();
-                if (!hasMoreSatisfiedPage) {
-                    return false;
-                }
-                pageReaderInitialized = true;
-            }
-
-            while (pageReader.hasNext()) {
-                TimeValuePair timeValuePair = pageReader.next();
-                if (timeValuePairSatisfied(timeValuePair) && timeValuePair.getTimestamp() > maxTombstoneTime) {
+            for (; pageData.hasNext(); pageData.next()) {
+                if (pointSatisfied(pageData) && pageData.currentTime() > maxTombstoneTime) {
                     this.hasCachedTimeValuePair = true;
-                    this.cachedTimeValuePair = timeValuePair;
+                    this.cachedTimeValuePair = pageData.currentTimeValuePair();
+                    pageData.next();
                     return true;
                 }
             }
-            pageReaderInitialized = false;
+            if (!readNextSatisfiedPage()) {
+                return false;
+            }
         }
     }
 
@@ -75,10 +87,66 @@ public abstract class SeriesChunkReader implements TimeValuePairReader {
         throw new IOException("No more timeValuePair in current MemSeriesChunk");
     }
 
+    @Override
+    public boolean hasNextBatch() throws IOException {
+        if (hasCachedBatchData) {
+            return true;
+        }
+        // the points of the current page after the cursor are returned first
+        do {
+            int size = 0;
+            for (; pageData.hasNext(); pageData.next()) {
+                if (pointSatisfied(pageData) && pageData.currentTime() > maxTombstoneTime) {
+                    pageData.moveCurrentTo(size++);
+                }
+            }
+            pageData.setLength(size);
+            if (size > 0) {
+                hasCachedBatchData = true;
+                return true;
+            }
+        } while (readNextSatisfiedPage());
+        return false;
+    }
+
+    /**
+     * @return the satisfied points of the next page. The batch is reused by the next page.
+     */
+    @Override
+    public BatchData nextBatch() throws IOException {
+        if (hasNextBatch()) {
+            hasCachedBatchData = false;
+            return pageData;
+        }
+        throw new IOException("No more batch in current MemSeriesChunk");
+    }
+
+    /**
+     * Whether the point at the cursor of the batch satisfies this reader. Subclasses may override it to check the
+     * point without creating a TimeValuePair.
+     */
+    protected boolean pointSatisfied(BatchData batchData) {
+        return timeValuePairSatisfied(batchData.currentTimeValuePair());
+    }
+
+    /**
+     * Decode the next satisfied page into the batch of this reader.
+     *
+     * @return false if there is no satisfied page left
+     */
+    protected boolean readNextSatisfiedPage() throws IOException {
+        if (!constructPageReaderIfNextSatisfiedPageExists()) {
+            return false;
+        }
+        pageReader.readBatch(pageData);
+        return true;
+    }
+
     private boolean constructPageReaderIfNextSatisfiedPageExists() throws IOException {
         boolean gotNextPageReader = false;
-        while (hasNextPageInStream() && !gotNextPageReader) {
+        while (!gotNextPageReader && skipPagesByIndex() && hasNextPageInStream()) {
             PageHeader pageHeader = getNextPageHeader();
+            nextPage++;
             if (pageSatisfied(pageHeader)) {
                 Decoder valueDecoder = Decoder.getDecoderByType(pageHeader.getData_page_header().getEncoding(), dataType);
                 //TODO: How to get defaultTimeDecoder by TSConfig rather than hard code here ?
@@ -102,6 +170,39 @@ public abstract class SeriesChunkReader implements TimeValuePairReader {
 
     public abstract boolean pageSatisfied(PageHeader pageHeader);
 
+    /**
+     * Skip the pages which have no satisfied point according to the page index, if the chunk has one.
+     *
+     * @return false if there is no page left
+     */
+    private boolean skipPagesByIndex() throws IOException {
+        if (pageIndex == null) {
+            return true;
+        }
+        if (nextPage >= pageIndex.size()) {
+            return false;
+        }
+        int page = nextSatisfiedPage(pageIndex, nextPage);
+        if (page >= pageIndex.size()) {
+            nextPage = page;
+            return false;
+        }
+        if (page > nextPage) {
+            skipBytesInStreamByLength(pageIndex.getOffset(page) - pageIndex.getOffset(nextPage));
+            nextPage = page;
+        }
+        return true;
+    }
+
+    /**
+     * @return the first page from fromPage which may have satisfied points according to the page index, or
+     * {@link PageIndex#size()} if there is no such page. Subclasses may override it to skip pages by their time
+     * ranges, the pages returned are still checked by {@link #pageSatisfied(PageHeader)}.
+     */
+    protected int nextSatisfiedPage(PageIndex pageIndex, int fromPage) {
+        return fromPage;
+    }
+
     public abstract boolean timeValuePairSatisfied(TimeValuePair timeValuePair);
 
     private void skipBytesInStreamByLength(long length) throws IOException {
@@ -110,13 +211,19 @@ public abstract class SeriesChunkReader implements TimeValuePairReader {
 
     private PageReader constructPageReaderForNextPage(int compressedPageBodyLength, Decoder valueDecoder, Decoder timeDecoder)
             throws IOException {
+        if (seriesChunkInputStream instanceof ByteBufferInputStream) {
+            // the page is decoded from the (memory-mapped) buffer of the series chunk, or from the pooled buffer
+            // it is uncompressed into, rather than from copies of it
+            ByteBuffer compressedPageBody = ((ByteBufferInputStream) seriesChunkInputStream).slice(compressedPageBodyLength);
+            return new PageReader(unCompressor.uncompress(compressedPageBody), dataType, valueDecoder, timeDecoder);
+        }
         byte[] compressedPageBody = new byte[compressedPageBodyLength];
         int readLength = seriesChunkInputStream.read(compressedPageBody, 0, compressedPageBodyLength);
         if (readLength != compressedPageBodyLength) {
             throw new IOException("unexpected byte read length when read compressedPageBody. Expected:"
                     + compressedPageBody + ". Actual:" + readLength);
         }
-        PageReader pageReader = new PageReader(new ByteArrayInputStream(unCompressor.uncompress(compressedPageBody)),
+        PageReader pageReader = new PageReader(ByteBuffer.wrap(unCompressor.uncompress(compressedPageBody)),
                 dataType, valueDecoder, timeDecoder);
         return pageReader;
     }
@@ -135,6 +242,10 @@ public abstract class SeriesChunkReader implements TimeValuePairReader {
 
     }
 
+    public void setPageIndex(PageIndex pageIndex) {
+        this.pageIndex = pageIndex;
+    }
+
     public void setMaxTombstoneTime(long maxTombStoneTime) {
         this.maxTombstoneTime = maxTombStoneTime;
     }
@@ -1,8 +1,10 @@
 package cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl;
 
+import cn.edu.tsinghua.tsfile.file.metadata.PageIndex;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.SeriesReaderByTimeStamp;
@@ -12,6 +14,9 @@ import java.io.InputStream;
 
 /**
  * Created by zhangjinrui on 2017/12/26.
+ * <p>
+ * The timestamps are looked up by skipping the pages before them through the page index of the chunk, and by
+ * binary search in the decoded page, rather than by reading every point before them.
  */
 public class SeriesChunkReaderByTimestampImpl extends SeriesChunkReader implements SeriesReaderByTimeStamp{
 
@@ -32,11 +37,21 @@ public class SeriesChunkReaderByTimestampImpl extends SeriesChunkReader implemen
         return true;
     }
 
+    @Override
+    protected int nextSatisfiedPage(PageIndex pageIndex, int fromPage) {
+        return pageIndex.searchPage(Math.max(currentTimestamp, getMaxTombstoneTime()), fromPage);
+    }
+
     @Override
     public boolean timeValuePairSatisfied(TimeValuePair timeValuePair) {
         return timeValuePair.getTimestamp() >= currentTimestamp && timeValuePair.getTimestamp() > getMaxTombstoneTime();
     }
     
+    @Override
+    protected boolean pointSatisfied(BatchData batchData) {
+        return batchData.currentTime() >= currentTimestamp && batchData.currentTime() > getMaxTombstoneTime();
+    }
+
     public void setCurrentTimestamp(long currentTimestamp) {
         this.currentTimestamp = currentTimestamp;
         if(hasCachedTimeValuePair && cachedTimeValuePair.getTimestamp() < currentTimestamp){
@@ -47,20 +62,27 @@ public class SeriesChunkReaderByTimestampImpl extends SeriesChunkReader implemen
     @Override
     public TsPrimitiveType getValueInTimestamp(long timestamp) throws IOException {
         setCurrentTimestamp(timestamp);
-        if(hasCachedTimeValuePair && cachedTimeValuePair.getTimestamp() == timestamp){
-            hasCachedTimeValuePair = false;
-            return cachedTimeValuePair.getValue();
-        }
-        while (hasNext()){
-            cachedTimeValuePair = next();
+        if(hasCachedTimeValuePair){
+            // the cached point is not before the timestamp
             if(cachedTimeValuePair.getTimestamp() == timestamp){
+                hasCachedTimeValuePair = false;
                 return cachedTimeValuePair.getValue();
             }
-            else if(cachedTimeValuePair.getTimestamp() > timestamp){
-                hasCachedTimeValuePair = true;
+            return null;
+        }
+        while (true) {
+            pageData.skipTo(timestamp);
+            if (pageData.hasNext()) {
+                if (pageData.currentTime() == timestamp && timestamp > getMaxTombstoneTime()) {
+                    TsPrimitiveType value = pageData.currentValue();
+                    pageData.next();
+                    return value;
+                }
+                return null;
+            }
+            if (!readNextSatisfiedPage()) {
                 return null;
             }
         }
-        return null;
     }
 }
@@ -3,6 +3,7 @@ package cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.format.PageHeader;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
 
 import java.io.InputStream;
@@ -25,4 +26,9 @@ public class SeriesChunkReaderWithoutFilterImpl extends SeriesChunkReader {
     public boolean timeValuePairSatisfied(TimeValuePair timeValuePair) {
         return timeValuePair.getTimestamp() > getMaxTombstoneTime();
     }
+
+    @Override
+    protected boolean pointSatisfied(BatchData batchData) {
+        return batchData.currentTime() > getMaxTombstoneTime();
+    }
 }
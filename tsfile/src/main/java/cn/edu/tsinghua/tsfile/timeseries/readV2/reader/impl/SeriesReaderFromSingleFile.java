@@ -6,6 +6,7 @@ import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescrip
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.MetadataQuerierByFileImpl;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoaderImpl;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.SeriesReader;
 
@@ -81,6 +82,39 @@ public abstract class SeriesReaderFromSingleFile implements SeriesReader {
         return seriesChunkReader.next();
     }
 
+    /**
+     * The batches of the sequential readers, which read the satisfied series chunks page by page.
+     */
+    protected boolean hasNextSeriesChunkBatch() throws IOException {
+        if (seriesChunkReaderInitialized && seriesChunkReader.hasNextBatch()) {
+            return true;
+        }
+        while ((currentReadSeriesChunkIndex + 1) < encodedSeriesChunkDescriptorList.size()) {
+            if (!seriesChunkReaderInitialized) {
+                EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor = encodedSeriesChunkDescriptorList.get(++currentReadSeriesChunkIndex);
+                if (seriesChunkSatisfied(encodedSeriesChunkDescriptor)) {
+                    initSeriesChunkReader(encodedSeriesChunkDescriptor);
+                    seriesChunkReaderInitialized = true;
+                } else {
+                    continue;
+                }
+            }
+            if (seriesChunkReader.hasNextBatch()) {
+                return true;
+            } else {
+                seriesChunkReaderInitialized = false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the satisfied points of the next page, the batch is reused by the following pages of the chunk.
+     */
+    protected BatchData nextSeriesChunkBatch() throws IOException {
+        return seriesChunkReader.nextBatch();
+    }
+
     @Override
     public void skipCurrentTimeValuePair() throws IOException {
         next();
@@ -3,7 +3,7 @@ package cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl;
 import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileReader;
 import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
-import cn.edu.tsinghua.tsfile.timeseries.readV2.common.SeriesChunk;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.common.MemSeriesChunk;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TsPrimitiveType;
@@ -49,25 +49,32 @@ public class SeriesReaderFromSingleFileByTimestampImpl extends SeriesReaderFromS
             if(seriesChunkReader.hasNext()){
                 return true;
             }
+            seriesChunkReaderInitialized = false;
         }
-        while (nextSeriesChunkIndex < encodedSeriesChunkDescriptorList.size()) {
-            if (!seriesChunkReaderInitialized) {
-                EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor = encodedSeriesChunkDescriptorList.get(nextSeriesChunkIndex);
-                //maxTime >= currentTime
-                if (seriesChunkSatisfied(encodedSeriesChunkDescriptor)) {
-                    initSeriesChunkReader(encodedSeriesChunkDescriptor);
-                    ((SeriesChunkReaderByTimestampImpl) seriesChunkReader).setCurrentTimestamp(currentTimestamp);
-                    seriesChunkReaderInitialized = true;
-                    nextSeriesChunkIndex++;
-                } else {
-                    //maxTime < currentTime, skip this seriesChunk
-                    continue;
-                }
-            }
+        while (initNextSatisfiedSeriesChunkReader()) {
             if (seriesChunkReader.hasNext()) {
                 return true;
-            } else {
-                seriesChunkReaderInitialized = false;
+            }
+            seriesChunkReaderInitialized = false;
+        }
+        return false;
+    }
+
+    /**
+     * Initialize the reader of the next series chunk whose max timestamp is not less than the current timestamp,
+     * the series chunks before it are skipped.
+     *
+     * @return false if there is no such series chunk
+     */
+    private boolean initNextSatisfiedSeriesChunkReader() throws IOException {
+        while (nextSeriesChunkIndex < encodedSeriesChunkDescriptorList.size()) {
+            EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor = encodedSeriesChunkDescriptorList.get(nextSeriesChunkIndex++);
+            //maxTime >= currentTime
+            if (seriesChunkSatisfied(encodedSeriesChunkDescriptor)) {
+                initSeriesChunkReader(encodedSeriesChunkDescriptor);
+                ((SeriesChunkReaderByTimestampImpl) seriesChunkReader).setCurrentTimestamp(currentTimestamp);
+                seriesChunkReaderInitialized = true;
+                return true;
             }
         }
         return false;
@@ -98,25 +105,31 @@ public class SeriesReaderFromSingleFileByTimestampImpl extends SeriesReaderFromS
                 return null;
             }
         }
-        if(hasNext()){
-            cachedTimeValuePair = next();
-            if (cachedTimeValuePair.getTimestamp() == timestamp) {
-                return cachedTimeValuePair.getValue();
-            } else if (cachedTimeValuePair.getTimestamp() > timestamp) {
-                hasCacheLastTimeValuePair = true;
+        if (!seriesChunkReaderInitialized && !initNextSatisfiedSeriesChunkReader()) {
+            return null;
+        }
+        while (true) {
+            SeriesChunkReaderByTimestampImpl seriesChunkReaderByTimestamp = (SeriesChunkReaderByTimestampImpl) seriesChunkReader;
+            TsPrimitiveType value = seriesChunkReaderByTimestamp.getValueInTimestamp(timestamp);
+            //the following series chunks have no point at the timestamp if this one has points after it
+            if (value != null || seriesChunkReaderByTimestamp.hasNext()) {
+                return value;
+            }
+            seriesChunkReaderInitialized = false;
+            if (!initNextSatisfiedSeriesChunkReader()) {
                 return null;
             }
         }
-        return null;
     }
 
     @Override
     protected void initSeriesChunkReader(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor) throws IOException {
-        SeriesChunk memSeriesChunk = seriesChunkLoader.getMemSeriesChunk(encodedSeriesChunkDescriptor);
+        MemSeriesChunk memSeriesChunk = seriesChunkLoader.getMemSeriesChunk(encodedSeriesChunkDescriptor);
         this.seriesChunkReader = new SeriesChunkReaderByTimestampImpl(memSeriesChunk.getSeriesChunkBodyStream()
-                , encodedSeriesChunkDescriptor.getDataType(),
-                encodedSeriesChunkDescriptor.getCompressionTypeName());
+                , memSeriesChunk.getEncodedSeriesChunkDescriptor().getDataType(),
+                memSeriesChunk.getEncodedSeriesChunkDescriptor().getCompressionTypeName());
         this.seriesChunkReader.setMaxTombstoneTime(encodedSeriesChunkDescriptor.getMaxTombstoneTime());
+        this.seriesChunkReader.setPageIndex(memSeriesChunk.getEncodedSeriesChunkDescriptor().getPageIndex());
     }
 
     @Override
@@ -9,6 +9,8 @@ import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.SeriesChunk;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoader;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.BatchReader;
 
 import java.io.IOException;
 import java.util.List;
@@ -16,7 +18,7 @@ import java.util.List;
 /**
  * Created by zhangjinrui on 2017/12/25.
  */
-public class SeriesReaderFromSingleFileWithFilterImpl extends SeriesReaderFromSingleFile {
+public class SeriesReaderFromSingleFileWithFilterImpl extends SeriesReaderFromSingleFile implements BatchReader {
 
     private Filter<?> filter;
     private DigestFilterVisitor digestFilterVisitor;
@@ -62,4 +64,14 @@ public class SeriesReaderFromSingleFileWithFilterImpl extends SeriesReaderFromSi
                 encodedSeriesChunkDescriptor.getDataType());
         return digestFilterVisitor.satisfy(timeDigest, valueDigest, filter);
     }
+
+    @Override
+    public boolean hasNextBatch() throws IOException {
+        return hasNextSeriesChunkBatch();
+    }
+
+    @Override
+    public BatchData nextBatch() throws IOException {
+        return nextSeriesChunkBatch();
+    }
 }
@@ -5,6 +5,8 @@ import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.SeriesChunk;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoader;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.BatchReader;
 
 import java.io.IOException;
 import java.util.List;
@@ -12,7 +14,7 @@ import java.util.List;
 /**
  * Created by zhangjinrui on 2017/12/25.
  */
-public class SeriesReaderFromSingleFileWithoutFilterImpl extends SeriesReaderFromSingleFile {
+public class SeriesReaderFromSingleFileWithoutFilterImpl extends SeriesReaderFromSingleFile implements BatchReader {
 
     public SeriesReaderFromSingleFileWithoutFilterImpl(SeriesChunkLoader seriesChunkLoader, List<EncodedSeriesChunkDescriptor> encodedSeriesChunkDescriptorList) {
         super(seriesChunkLoader, encodedSeriesChunkDescriptorList);
@@ -39,4 +41,14 @@ public class SeriesReaderFromSingleFileWithoutFilterImpl extends SeriesReaderFro
     protected boolean seriesChunkSatisfied(EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor) {
         return true;
     }
+
+    @Override
+    public boolean hasNextBatch() throws IOException {
+        return hasNextSeriesChunkBatch();
+    }
+
+    @Override
+    public BatchData nextBatch() throws IOException {
+        return nextSeriesChunkBatch();
+    }
 }
@@ -5,6 +5,7 @@ import cn.edu.tsinghua.tsfile.common.conf.TSFileDescriptor;
 import cn.edu.tsinghua.tsfile.common.constant.JsonFormatConstant;
 import cn.edu.tsinghua.tsfile.common.exception.UnSupportedDataTypeException;
 import cn.edu.tsinghua.tsfile.compress.Compressor;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
 import cn.edu.tsinghua.tsfile.encoding.encoder.Encoder;
 import cn.edu.tsinghua.tsfile.file.metadata.VInTimeSeriesChunkMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
@@ -59,12 +60,16 @@ public class MeasurementDescriptor implements Comparable<MeasurementDescriptor>
     // initialize TSEncoding. e.g. set max error for PLA and SDT
     encodingConverter = TSEncodingConverter.getConverter(encoding);
     encodingConverter.initFromProps(measurementId, props);
+    // the compressor and its level can be chosen for each measurement
+    String compressorName = TSFileDescriptor.getInstance().getConfig().compressor;
+    int compressionLevel = TSFileDescriptor.getInstance().getConfig().compressionLevel;
     if (props != null && props.containsKey(JsonFormatConstant.COMPRESS_TYPE)) {
-      this.compressor = Compressor.getCompressor(props.get(JsonFormatConstant.COMPRESS_TYPE));
-    } else {
-      this.compressor = Compressor
-          .getCompressor(TSFileDescriptor.getInstance().getConfig().compressor);
+      compressorName = props.get(JsonFormatConstant.COMPRESS_TYPE);
     }
+    if (props != null && props.containsKey(JsonFormatConstant.COMPRESSION_LEVEL)) {
+      compressionLevel = Integer.parseInt(props.get(JsonFormatConstant.COMPRESSION_LEVEL).trim());
+    }
+    this.compressor = Compressor.getCompressor(CompressionTypeName.fromConf(compressorName), compressionLevel);
   }
 
   public String getMeasurementId() {
@@ -19,9 +19,11 @@ import cn.edu.tsinghua.tsfile.common.utils.BytesUtils;
 import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileWriter;
 import cn.edu.tsinghua.tsfile.common.utils.ListByteArrayOutputStream;
 import cn.edu.tsinghua.tsfile.common.utils.TsRandomAccessFileWriter;
+import cn.edu.tsinghua.tsfile.file.metadata.PageIndex;
 import cn.edu.tsinghua.tsfile.file.metadata.RowGroupMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.TInTimeSeriesChunkMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkMetaData;
+import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkProperties;
 import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesMetadata;
 import cn.edu.tsinghua.tsfile.file.metadata.TsDeltaObject;
 import cn.edu.tsinghua.tsfile.file.metadata.TsDigest;
@@ -194,13 +196,50 @@ public class TsFileIOWriter {
 	}
 
 	public void endSeries(long size, long totalValueCount) {
+		endSeries(size, totalValueCount, null);
+	}
+
+	/**
+	 * @param pageIndex
+	 *            - index of the pages of the series by time, or null if the series is written without it
+	 */
+	public void endSeries(long size, long totalValueCount, PageIndex pageIndex) {
 		LOG.debug("end series:{},totalvalue:{}", currentChunkMetaData, totalValueCount);
 		currentChunkMetaData.setTotalByteSize(size);
+		currentChunkMetaData.setPageIndex(pageIndex);
 		currentChunkMetaData.setNumRows(totalValueCount);
 		currentRowGroupMetaData.addTimeSeriesChunkMetaData(currentChunkMetaData);
 		currentChunkMetaData = null;
 	}
 
+	/**
+	 * append a series chunk of another tsfile to the current row group without
+	 * decoding it. The pages are written as they are, so the metadata of the
+	 * chunk is copied except its offset in the file.
+	 *
+	 * @param chunkMetaData
+	 *            - metadata of the series chunk in the source file
+	 * @param chunkBytes
+	 *            - the pages of the series chunk
+	 * @throws IOException
+	 *             if I/O error occurs
+	 */
+	public void appendSeriesChunk(TimeSeriesChunkMetaData chunkMetaData, byte[] chunkBytes) throws IOException {
+		LOG.debug("append series chunk:{}", chunkMetaData);
+		TimeSeriesChunkProperties properties = chunkMetaData.getProperties();
+		TimeSeriesChunkMetaData appendedChunkMetaData = new TimeSeriesChunkMetaData(properties.getMeasurementUID(),
+				properties.getTsChunkType(), out.getPos(), properties.getCompression());
+		appendedChunkMetaData.setTInTimeSeriesChunkMetaData(chunkMetaData.getTInTimeSeriesChunkMetaData());
+		appendedChunkMetaData.setVInTimeSeriesChunkMetaData(chunkMetaData.getVInTimeSeriesChunkMetaData());
+		// the offsets in the page index are relative to the chunk
+		appendedChunkMetaData.setPageIndex(chunkMetaData.getPageIndex());
+		appendedChunkMetaData.setMaxTombstoneTime(chunkMetaData.getMaxTombstoneTime());
+		appendedChunkMetaData.setNumRows(chunkMetaData.getNumRows());
+		appendedChunkMetaData.setTotalByteSize(chunkBytes.length);
+		out.write(chunkBytes);
+		currentRowGroupMetaData.addTimeSeriesChunkMetaData(appendedChunkMetaData);
+	}
+
 	public void endRowGroup(long memSize) {
 		currentRowGroupMetaData.setTotalByteSize(memSize);
 		rowGroupMetaDatas.add(currentRowGroupMetaData);
@@ -4,6 +4,7 @@ import cn.edu.tsinghua.tsfile.common.utils.ListByteArrayOutputStream;
 import cn.edu.tsinghua.tsfile.common.utils.Pair;
 import cn.edu.tsinghua.tsfile.common.utils.PublicBAOS;
 import cn.edu.tsinghua.tsfile.compress.Compressor;
+import cn.edu.tsinghua.tsfile.file.metadata.PageIndex;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
 import cn.edu.tsinghua.tsfile.file.metadata.statistics.Statistics;
 import cn.edu.tsinghua.tsfile.file.utils.ReadWriteThriftFormatUtils;
@@ -15,6 +16,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -25,9 +27,15 @@ import java.util.List;
  */
 public class PageWriterImpl implements IPageWriter {
     private static Logger LOG = LoggerFactory.getLogger(PageWriterImpl.class);
+    private static final ThreadLocal<ByteBuffer> uncompressedBuffer = new ThreadLocal<>();
+    private static final ThreadLocal<ByteBuffer> compressedBuffer = new ThreadLocal<>();
     private final Compressor compressor;
     private final MeasurementDescriptor desc;
     private ListByteArrayOutputStream buf;
+    /**
+     * the offsets and the time ranges of the pages in buf, written to the metadata of the series chunk
+     */
+    private PageIndex pageIndex;
     private long totalValueCount;
     private long maxTimestamp;
     private long minTimestamp = -1;
@@ -36,6 +44,7 @@ public class PageWriterImpl implements IPageWriter {
         this.desc = desc;
         this.compressor = desc.getCompressor();
         this.buf = new ListByteArrayOutputStream();
+        this.pageIndex = new PageIndex();
     }
 
     @Override
@@ -49,8 +58,13 @@ public class PageWriterImpl implements IPageWriter {
         }
         this.maxTimestamp = maxTimestamp;
         int uncompressedSize = listByteArray.size();
-        ListByteArrayOutputStream compressedBytes = compressor.compress(listByteArray);
-        int compressedSize = compressedBytes.size();
+        // null if the page is not compressed
+        ByteBuffer compressedPage = null;
+        int compressedSize = uncompressedSize;
+        if (compressor.getCodecName() != CompressionTypeName.UNCOMPRESSED) {
+            compressedPage = compressPage(listByteArray);
+            compressedSize = compressedPage.remaining();
+        }
         PublicBAOS tempOutputStream = new PublicBAOS(estimateMaxPageHeaderSize() + compressedSize);
         // write the page header to IOWriter
         try {
@@ -63,7 +77,11 @@ public class PageWriterImpl implements IPageWriter {
         }
         this.totalValueCount += valueCount;
         try {
-            compressedBytes.writeAllTo(tempOutputStream);
+            if (compressedPage == null) {
+                listByteArray.writeAllTo(tempOutputStream);
+            } else {
+                tempOutputStream.write(compressedPage.array(), compressedPage.position(), compressedSize);
+            }
         } catch (IOException e) {
             /*
 			 * In our method, this line is to flush listByteArray to buf, both
@@ -74,11 +92,44 @@ public class PageWriterImpl implements IPageWriter {
 			 */
             throw new PageException("meet IO Exception in buffer append,but we cannot understand it:" + e.getMessage());
         }
+        pageIndex.addPage(buf.size(), minTimestamp, maxTimestamp);
         buf.append(tempOutputStream);
         LOG.debug("page {}:write page from seriesWriter, valueCount:{}, stats:{},size:{}", desc, valueCount, statistics,
                 estimateMaxPageMemSize());
     }
 
+    /**
+     * Compress the page through the buffers pooled per thread, instead of flattening the page into a new array
+     * and compressing it into another new array. The result is copied to the buffer of this writer before
+     * writePage returns, so the pooled buffers can be reused by the next page.
+     */
+    private ByteBuffer compressPage(ListByteArrayOutputStream listByteArray) throws PageException {
+        ByteBuffer uncompressed = getPooledBuffer(uncompressedBuffer, listByteArray.size());
+        listByteArray.writeAllTo(uncompressed);
+        uncompressed.flip();
+        ByteBuffer compressed = getPooledBuffer(compressedBuffer, compressor.maxCompressedLength(listByteArray.size()));
+        int compressedSize;
+        try {
+            compressedSize = compressor.compress(uncompressed, compressed);
+        } catch (IOException e) {
+            resetTimeStamp();
+            throw new PageException("meet IO Exception in compressing page, ignore this page, error message:"
+                    + e.getMessage());
+        }
+        compressed.limit(compressedSize);
+        return compressed;
+    }
+
+    private static ByteBuffer getPooledBuffer(ThreadLocal<ByteBuffer> pool, int capacity) {
+        ByteBuffer buffer = pool.get();
+        if (buffer == null || buffer.capacity() < capacity) {
+            buffer = ByteBuffer.allocate(capacity);
+            pool.set(buffer);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
     private void resetTimeStamp() {
         if (totalValueCount == 0)
             minTimestamp = -1;
@@ -94,7 +145,7 @@ public class PageWriterImpl implements IPageWriter {
         writer.writeBytesToStream(buf);
         LOG.debug("write series to file finished:{}", desc);
         long size = writer.getPos() - totalByteSize;
-        writer.endSeries(size, totalValueCount);
+        writer.endSeries(size, totalValueCount, pageIndex);
         LOG.debug("page {}:write page to fileWriter,type:{},maxTime:{},minTime:{},nowPos:{},stats:{}",
                 desc.getMeasurementId(), desc.getType(), maxTimestamp, minTimestamp, writer.getPos(), statistics);
     }
@@ -103,6 +154,7 @@ public class PageWriterImpl implements IPageWriter {
     public void reset() {
         minTimestamp = -1;
         buf.reset();
+        pageIndex = new PageIndex();
         totalValueCount = 0;
     }
 
@@ -150,6 +150,7 @@ enum CompressionType {
   SDT = 4;
   PAA = 5;
   PLA = 6;
+  LZ4 = 7;
 }
 
 enum PageType {
@@ -257,6 +258,19 @@ enum TimeSeriesChunkType {
   VALUE = 1;
 }
 
+/**
+ * Index of the pages in a time series chunk by time. The i-th element of every list belongs to the i-th page,
+ * so that a reader looking for a timestamp can skip to the page without reading the headers before it.
+ */
+struct PageIndex {
+  /** Byte offset from the beginning of the time series chunk to the header of each page **/
+  1: required list<i64> offsets;
+
+  2: required list<i64> min_timestamps;
+
+  3: required list<i64> max_timestamps;
+}
+
 /**
  * Description for time series chunk metadata
  */
@@ -301,6 +315,8 @@ struct TimeSeriesChunkMetaData {
   14: optional TimeInTimeSeriesChunkMetaData time_tsc;
 
   15: optional ValueInTimeSeriesChunkMetaData value_tsc;
+
+  16: optional PageIndex page_index;
 }
 
 struct RowGroupMetaData {
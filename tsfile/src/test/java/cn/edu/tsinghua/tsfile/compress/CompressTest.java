@@ -9,8 +9,15 @@ import org.junit.Before;
 import org.junit.Test;
 import org.xerial.snappy.Snappy;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
 
+import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -63,4 +70,99 @@ public class CompressTest {
 		assertEquals(inputString, result);
 	}
 
+	@Test
+	public void gzipCompressorTest() throws IOException {
+		for (int level : new int[]{Compressor.DEFAULT_LEVEL, 1, 9}) {
+			PublicBAOS out = new PublicBAOS();
+			out.write(inputString.getBytes("UTF-8"));
+			Compressor compressor = Compressor.getCompressor(CompressionTypeName.GZIP, level);
+			UnCompressor unCompressor = UnCompressor.getUnCompressor(CompressionTypeName.GZIP);
+			ListByteArrayOutputStream compressed = compressor.compress(ListByteArrayOutputStream.from(out));
+			byte[] uncompressed = unCompressor.uncompress(compressed.toByteArray());
+			assertEquals(inputString, new String(uncompressed, "UTF-8"));
+
+			// the output is a standard gzip stream
+			GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()));
+			byte[] read = new byte[inputString.length()];
+			int length = 0;
+			while (length < read.length) {
+				length += gzipInputStream.read(read, length, read.length - length);
+			}
+			assertEquals(inputString, new String(read, "UTF-8"));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void gzipIllegalLevelTest() {
+		Compressor.getCompressor(CompressionTypeName.GZIP, 10);
+	}
+
+	@Test
+	public void lz4CompressorTest() throws IOException {
+		PublicBAOS out = new PublicBAOS();
+		out.write(inputString.getBytes("UTF-8"));
+		Compressor compressor = Compressor.getCompressor(CompressionTypeName.LZ4);
+		UnCompressor unCompressor = UnCompressor.getUnCompressor(CompressionTypeName.LZ4);
+		ListByteArrayOutputStream compressed = compressor.compress(ListByteArrayOutputStream.from(out));
+		byte[] uncompressed = unCompressor.uncompress(compressed.toByteArray());
+		assertEquals(inputString, new String(uncompressed, "UTF-8"));
+	}
+
+	@Test
+	public void byteBufferTest() throws IOException {
+		Random random = new Random(1);
+		byte[] randomBytes = new byte[100000];
+		random.nextBytes(randomBytes);
+		byte[] repetitiveBytes = new byte[100000];
+		for (int i = 0; i < repetitiveBytes.length; i++) {
+			repetitiveBytes[i] = (byte) (i % 100 < 50 ? i / 1000 : random.nextInt(4));
+		}
+		for (CompressionTypeName name : new CompressionTypeName[]{CompressionTypeName.UNCOMPRESSED,
+				CompressionTypeName.SNAPPY, CompressionTypeName.GZIP, CompressionTypeName.LZ4}) {
+			for (byte[] bytes : new byte[][]{new byte[0], new byte[5], randomBytes, repetitiveBytes}) {
+				checkByteBuffer(name, bytes, false);
+				checkByteBuffer(name, bytes, true);
+			}
+		}
+	}
+
+	private void checkByteBuffer(CompressionTypeName name, byte[] bytes, boolean direct) throws IOException {
+		if (name == CompressionTypeName.SNAPPY && bytes.length == 0) {
+			return;
+		}
+		Compressor compressor = Compressor.getCompressor(name);
+		UnCompressor unCompressor = UnCompressor.getUnCompressor(name);
+		int offset = 3;
+		ByteBuffer uncompressed = allocate(bytes.length + offset, direct);
+		uncompressed.position(offset);
+		uncompressed.put(bytes);
+		uncompressed.position(offset);
+
+		ByteBuffer compressed = allocate(compressor.maxCompressedLength(bytes.length) + offset, direct);
+		compressed.position(offset);
+		int compressedLength = compressor.compress(uncompressed, compressed);
+		assertEquals(offset, uncompressed.position());
+		assertEquals(offset, compressed.position());
+		compressed.limit(offset + compressedLength);
+
+		assertEquals(bytes.length, unCompressor.getUncompressedLength(compressed));
+		ByteBuffer result = allocate(bytes.length + offset, direct);
+		result.position(offset);
+		assertEquals(bytes.length, unCompressor.uncompress(compressed, result));
+		assertEquals(offset + bytes.length, result.limit());
+		assertArrayEquals(name.toString(), bytes, toArray(result));
+
+		// the buffer pooled by the uncompressor
+		assertArrayEquals(name.toString(), bytes, toArray(unCompressor.uncompress(compressed)));
+	}
+
+	private static ByteBuffer allocate(int capacity, boolean direct) {
+		return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+	}
+
+	private static byte[] toArray(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return bytes;
+	}
 }
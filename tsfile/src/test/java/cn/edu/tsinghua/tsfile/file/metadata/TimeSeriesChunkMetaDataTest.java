@@ -17,6 +17,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 import cn.edu.tsinghua.tsfile.format.TimeInTimeSeriesChunkMetaData;
 import cn.edu.tsinghua.tsfile.format.TimeSeriesChunkType;
 import cn.edu.tsinghua.tsfile.format.ValueInTimeSeriesChunkMetaData;
@@ -129,4 +132,34 @@ public class TimeSeriesChunkMetaDataTest {
       }
     }
   }
+
+  @Test
+  public void testPageIndex() {
+    TimeSeriesChunkMetaData metaData = new TimeSeriesChunkMetaData(MEASUREMENT_UID, TSChunkType.VALUE,
+        FILE_OFFSET, CompressionTypeName.UNCOMPRESSED);
+    PageIndex pageIndex = new PageIndex(1);
+    for (int i = 0; i < 100; i++) {
+      pageIndex.addPage(i * 1000L, i * 100L, i * 100L + 99);
+    }
+    metaData.setPageIndex(pageIndex);
+    cn.edu.tsinghua.tsfile.format.TimeSeriesChunkMetaData metaDataInThrift = metaData.convertToThrift();
+    Utils.isTimeSeriesChunkMetaDataEqual(metaData, metaDataInThrift);
+
+    TimeSeriesChunkMetaData convertedMetaData = new TimeSeriesChunkMetaData();
+    convertedMetaData.convertToTSF(metaDataInThrift);
+    Utils.isTimeSeriesChunkMetaDataEqual(convertedMetaData, metaDataInThrift);
+    PageIndex convertedPageIndex = convertedMetaData.getPageIndex();
+    assertEquals(100, convertedPageIndex.size());
+
+    assertEquals(0, convertedPageIndex.searchPage(-1, 0));
+    assertEquals(0, convertedPageIndex.searchPage(99, 0));
+    assertEquals(1, convertedPageIndex.searchPage(100, 0));
+    assertEquals(50, convertedPageIndex.searchPage(5050, 0));
+    assertEquals(60, convertedPageIndex.searchPage(5050, 60));
+    assertEquals(100, convertedPageIndex.searchPage(10000, 0));
+
+    metaData.setPageIndex(null);
+    convertedMetaData.convertToTSF(metaData.convertToThrift());
+    assertNull(convertedMetaData.getPageIndex());
+  }
 }
@@ -8,6 +8,7 @@ import java.util.Map;
 
 import cn.edu.tsinghua.tsfile.file.metadata.TsFileMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.TsRowGroupBlockMetaData;
+import cn.edu.tsinghua.tsfile.file.metadata.PageIndex;
 import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesChunkMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.VInTimeSeriesChunkMetaData;
 import cn.edu.tsinghua.tsfile.file.metadata.TInTimeSeriesChunkMetaData;
@@ -202,6 +203,20 @@ public class Utils {
 					timeSeriesChunkMetaDataInThrift.getTime_tsc());
 			Utils.isVSeriesChunkMetadataEqual(timeSeriesChunkMetaDataInTSF.getVInTimeSeriesChunkMetaData(),
 					timeSeriesChunkMetaDataInThrift.getValue_tsc());
+			Utils.isPageIndexEqual(timeSeriesChunkMetaDataInTSF.getPageIndex(),
+					timeSeriesChunkMetaDataInThrift.getPage_index());
+		}
+	}
+
+	public static void isPageIndexEqual(PageIndex pageIndexInTSF,
+			cn.edu.tsinghua.tsfile.format.PageIndex pageIndexInThrift) {
+		if (Utils.isTwoObjectsNotNULL(pageIndexInTSF, pageIndexInThrift, "PageIndex")) {
+			assertTrue(pageIndexInTSF.size() == pageIndexInThrift.getOffsets().size());
+			for (int i = 0; i < pageIndexInTSF.size(); i++) {
+				assertTrue(pageIndexInTSF.getOffset(i) == pageIndexInThrift.getOffsets().get(i));
+				assertTrue(pageIndexInTSF.getMinTimestamp(i) == pageIndexInThrift.getMin_timestamps().get(i));
+				assertTrue(pageIndexInTSF.getMaxTimestamp(i) == pageIndexInThrift.getMax_timestamps().get(i));
+			}
 		}
 	}
 
@@ -0,0 +1,104 @@
+package cn.edu.tsinghua.tsfile.timeseries.read;
+
+import cn.edu.tsinghua.tsfile.common.conf.TSFileDescriptor;
+import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileReader;
+import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.TsFileGeneratorForTest;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.SeriesReader;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl.SeriesReaderFromSingleFileWithoutFilterImpl;
+import cn.edu.tsinghua.tsfile.timeseries.write.exception.WriteProcessException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class TsRandomAccessMMapFileReaderTest {
+
+    private static final String FILE_PATH = TsFileGeneratorForTest.outputDataFile;
+    private String compressor = TSFileDescriptor.getInstance().getConfig().compressor;
+
+    @After
+    public void after() {
+        TSFileDescriptor.getInstance().getConfig().compressor = compressor;
+        TsFileGeneratorForTest.after();
+    }
+
+    @Test
+    public void readBytesTest() throws IOException, InterruptedException, WriteProcessException {
+        TsFileGeneratorForTest.generateFile(1000, 10 * 1024 * 1024, 100);
+        ITsRandomAccessFileReader localReader = new TsRandomAccessLocalFileReader(FILE_PATH);
+        TsRandomAccessMMapFileReader mmapReader = new TsRandomAccessMMapFileReader(FILE_PATH);
+        try {
+            Assert.assertEquals(localReader.length(), mmapReader.length());
+            localReader.seek(localReader.length() - 4);
+            mmapReader.seek(mmapReader.length() - 4);
+            Assert.assertEquals(localReader.readInt(), mmapReader.readInt());
+            Assert.assertEquals(-1, mmapReader.read());
+
+            byte[] expected = new byte[100];
+            byte[] actual = new byte[100];
+            localReader.seek(10);
+            mmapReader.seek(10);
+            Assert.assertEquals(localReader.read(expected, 0, 100), mmapReader.read(actual, 0, 100));
+            Assert.assertArrayEquals(expected, actual);
+            Assert.assertEquals(expected[0] & 0xFF, mmapReader.getBuffer(10, 100).get() & 0xFF);
+            ByteBuffer buffer = mmapReader.getBuffer(10, 100);
+            Assert.assertEquals(100, buffer.remaining());
+            buffer.get(actual);
+            Assert.assertArrayEquals(expected, actual);
+        } finally {
+            localReader.close();
+            mmapReader.close();
+        }
+    }
+
+    @Test
+    public void readUncompressedSeriesTest() throws IOException, InterruptedException, WriteProcessException {
+        TSFileDescriptor.getInstance().getConfig().compressor = "UNCOMPRESSED";
+        readSeries();
+    }
+
+    @Test
+    public void readSnappySeriesTest() throws IOException, InterruptedException, WriteProcessException {
+        TSFileDescriptor.getInstance().getConfig().compressor = "SNAPPY";
+        readSeries();
+    }
+
+    @Test
+    public void readGZIPSeriesTest() throws IOException, InterruptedException, WriteProcessException {
+        TSFileDescriptor.getInstance().getConfig().compressor = "GZIP";
+        readSeries();
+    }
+
+    @Test
+    public void readLZ4SeriesTest() throws IOException, InterruptedException, WriteProcessException {
+        TSFileDescriptor.getInstance().getConfig().compressor = "LZ4";
+        readSeries();
+    }
+
+    private void readSeries() throws IOException, InterruptedException, WriteProcessException {
+        TsFileGeneratorForTest.generateFile(100000, 10 * 1024 * 1024, 10000);
+        for (String series : new String[]{"d1.s1", "d1.s2", "d1.s4", "d2.s1"}) {
+            ITsRandomAccessFileReader localReader = new TsRandomAccessLocalFileReader(FILE_PATH);
+            ITsRandomAccessFileReader mmapReader = new TsRandomAccessMMapFileReader(FILE_PATH);
+            SeriesReader expectedReader = new SeriesReaderFromSingleFileWithoutFilterImpl(localReader, new Path(series));
+            SeriesReader actualReader = new SeriesReaderFromSingleFileWithoutFilterImpl(mmapReader, new Path(series));
+            int count = 0;
+            while (expectedReader.hasNext()) {
+                Assert.assertTrue(actualReader.hasNext());
+                TimeValuePair expected = expectedReader.next();
+                TimeValuePair actual = actualReader.next();
+                Assert.assertEquals(expected.getTimestamp(), actual.getTimestamp());
+                Assert.assertEquals(expected.getValue(), actual.getValue());
+                count++;
+            }
+            Assert.assertFalse(actualReader.hasNext());
+            Assert.assertTrue(count > 0);
+            expectedReader.close();
+            actualReader.close();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import cn.edu.tsinghua.tsfile.encoding.common.EndianType;
 import cn.edu.tsinghua.tsfile.encoding.decoder.*;
 import cn.edu.tsinghua.tsfile.encoding.encoder.*;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.TSEncoding;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl.PageReader;
 import cn.edu.tsinghua.tsfile.timeseries.write.series.ValueWriter;
@@ -14,6 +16,7 @@ import org.junit.Test;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Created by zhangjinrui on 2017/12/21.
@@ -26,6 +29,7 @@ public class PageReaderTest {
     public void testLong() {
 
         LoopWriteReadTest test = new LoopWriteReadTest("Test INT64", new LongRleEncoder(EndianType.BIG_ENDIAN),
+                new LongRleDecoder(EndianType.BIG_ENDIAN),
                 new LongRleDecoder(EndianType.BIG_ENDIAN), TSDataType.INT64, POINTS_COUNT_IN_ONE_PAGE) {
             @Override
             public Object generateValueByIndex(int i) {
@@ -38,6 +42,7 @@ public class PageReaderTest {
     @Test
     public void testBoolean() {
         LoopWriteReadTest test = new LoopWriteReadTest("Test Boolean", new IntRleEncoder(EndianType.BIG_ENDIAN),
+                new IntRleDecoder(EndianType.BIG_ENDIAN),
                 new IntRleDecoder(EndianType.BIG_ENDIAN), TSDataType.BOOLEAN, POINTS_COUNT_IN_ONE_PAGE) {
             @Override
             public Object generateValueByIndex(int i) {
@@ -50,6 +55,7 @@ public class PageReaderTest {
     @Test
     public void testInt() {
         LoopWriteReadTest test = new LoopWriteReadTest("Test INT32", new IntRleEncoder(EndianType.BIG_ENDIAN),
+                new IntRleDecoder(EndianType.BIG_ENDIAN),
                 new IntRleDecoder(EndianType.BIG_ENDIAN), TSDataType.INT32, POINTS_COUNT_IN_ONE_PAGE) {
             @Override
             public Object generateValueByIndex(int i) {
@@ -62,6 +68,7 @@ public class PageReaderTest {
     @Test
     public void testFloat() {
         LoopWriteReadTest test = new LoopWriteReadTest("Test FLOAT", new SinglePrecisionEncoder(),
+                new SinglePrecisionDecoder(),
                 new SinglePrecisionDecoder(), TSDataType.FLOAT, POINTS_COUNT_IN_ONE_PAGE) {
             @Override
             public Object generateValueByIndex(int i) {
@@ -71,6 +78,7 @@ public class PageReaderTest {
         test.test();
 
         LoopWriteReadTest test2 = new LoopWriteReadTest("Test FLOAT", new SinglePrecisionEncoder(),
+                new SinglePrecisionDecoder(),
                 new SinglePrecisionDecoder(), TSDataType.FLOAT, POINTS_COUNT_IN_ONE_PAGE) {
             @Override
             public Object generateValueByIndex(int i) {
@@ -83,6 +91,7 @@ public class PageReaderTest {
     @Test
     public void testDouble() {
         LoopWriteReadTest test = new LoopWriteReadTest("Test Double", new DoublePrecisionEncoder(),
+                new DoublePrecisionDecoder(),
                 new DoublePrecisionDecoder(), TSDataType.DOUBLE, POINTS_COUNT_IN_ONE_PAGE) {
             @Override
             public Object generateValueByIndex(int i) {
@@ -92,6 +101,7 @@ public class PageReaderTest {
         test.test();
 
         LoopWriteReadTest test2 = new LoopWriteReadTest("Test Double", new DoublePrecisionEncoder(),
+                new DoublePrecisionDecoder(),
                 new DoublePrecisionDecoder(), TSDataType.DOUBLE, POINTS_COUNT_IN_ONE_PAGE) {
             @Override
             public Object generateValueByIndex(int i) {
@@ -105,7 +115,7 @@ public class PageReaderTest {
     public void testBinary() {
         LoopWriteReadTest test = new LoopWriteReadTest("Test Double",
                 new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.TEXT, 1000),
-                new PlainDecoder(EndianType.LITTLE_ENDIAN),
+                new PlainDecoder(EndianType.LITTLE_ENDIAN), new PlainDecoder(EndianType.LITTLE_ENDIAN),
                 TSDataType.TEXT,
                 POINTS_COUNT_IN_ONE_PAGE) {
             @Override
@@ -116,18 +126,76 @@ public class PageReaderTest {
         test.test();
     }
 
+    @Test
+    public void testIntDelta() {
+        LoopWriteReadTest test = new LoopWriteReadTest("Test INT32 TS_2DIFF", new DeltaBinaryEncoder.IntDeltaEncoder(),
+                new DeltaBinaryDecoder.IntDeltaDecoder(),
+                new DeltaBinaryDecoder.IntDeltaDecoder(), TSDataType.INT32, POINTS_COUNT_IN_ONE_PAGE) {
+            @Override
+            public Object generateValueByIndex(int i) {
+                return Integer.valueOf(i * (i % 7 - 3));
+            }
+        };
+        test.test();
+    }
+
+    @Test
+    public void testPlainLong() {
+        LoopWriteReadTest test = new LoopWriteReadTest("Test INT64 PLAIN",
+                new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.INT64, 1000),
+                new PlainDecoder(EndianType.LITTLE_ENDIAN), new PlainDecoder(EndianType.LITTLE_ENDIAN),
+                TSDataType.INT64, POINTS_COUNT_IN_ONE_PAGE) {
+            @Override
+            public Object generateValueByIndex(int i) {
+                return Long.valueOf(Long.MIN_VALUE + i);
+            }
+        };
+        test.test();
+    }
+
+    @Test
+    public void testFloatRle() {
+        LoopWriteReadTest test = new LoopWriteReadTest("Test FLOAT RLE",
+                new FloatEncoder(TSEncoding.RLE, TSDataType.FLOAT, 2),
+                new FloatDecoder(TSEncoding.RLE, TSDataType.FLOAT),
+                new FloatDecoder(TSEncoding.RLE, TSDataType.FLOAT), TSDataType.FLOAT, POINTS_COUNT_IN_ONE_PAGE) {
+            @Override
+            public Object generateValueByIndex(int i) {
+                return Float.valueOf((i % 100) / 4.0f);
+            }
+        };
+        test.test();
+    }
+
+    @Test
+    public void testDoubleDelta() {
+        LoopWriteReadTest test = new LoopWriteReadTest("Test DOUBLE TS_2DIFF",
+                new FloatEncoder(TSEncoding.TS_2DIFF, TSDataType.DOUBLE, 2),
+                new FloatDecoder(TSEncoding.TS_2DIFF, TSDataType.DOUBLE),
+                new FloatDecoder(TSEncoding.TS_2DIFF, TSDataType.DOUBLE), TSDataType.DOUBLE, POINTS_COUNT_IN_ONE_PAGE) {
+            @Override
+            public Object generateValueByIndex(int i) {
+                return Double.valueOf(i / 4.0);
+            }
+        };
+        test.test();
+    }
+
     private abstract static class LoopWriteReadTest {
         private Encoder encoder;
         private Decoder decoder;
+        private Decoder batchDecoder;
         private TSDataType dataType;
         private ValueWriter valueWriter;
         private String name;
         private int count;
 
-        public LoopWriteReadTest(String name, Encoder encoder, Decoder decoder, TSDataType dataType, int count) {
+        public LoopWriteReadTest(String name, Encoder encoder, Decoder decoder, Decoder batchDecoder, TSDataType dataType,
+                                 int count) {
             this.name = name;
             this.encoder = encoder;
             this.decoder = decoder;
+            this.batchDecoder = batchDecoder;
             this.dataType = dataType;
             this.count = count;
         }
@@ -139,7 +207,8 @@ public class PageReaderTest {
                 valueWriter.setValueEncoder(this.encoder);
                 writeData();
 
-                InputStream page = new ByteArrayInputStream(valueWriter.getBytes().toByteArray());
+                byte[] pageBytes = valueWriter.getBytes().toByteArray();
+                InputStream page = new ByteArrayInputStream(pageBytes);
                 PageReader pageReader = new PageReader(page, dataType, decoder, new DeltaBinaryDecoder.LongDeltaDecoder());
 
                 int index = 0;
@@ -154,12 +223,38 @@ public class PageReaderTest {
                 System.out.println("TestName: [" + name + "]\n\tTSDataType: " + dataType +
                         "\tRead-Count:" + count + "\tTime-used:" + (endTimestamp - startTimestamp) + "ms");
                 Assert.assertEquals(count, index);
+
+                testBatch(pageBytes);
             } catch (IOException e) {
                 e.printStackTrace();
                 Assert.fail("Fail when executing test: [" + name + "]");
             }
         }
 
+        private void testBatch(byte[] pageBytes) throws IOException {
+            // the pages of a TsFile are read from heap buffers, and the decoders also support direct ones
+            ByteBuffer page = ByteBuffer.allocateDirect(pageBytes.length);
+            page.put(pageBytes);
+            page.flip();
+            PageReader pageReader = new PageReader(page, dataType, batchDecoder, new DeltaBinaryDecoder.LongDeltaDecoder());
+
+            int index = 0;
+            long startTimestamp = System.currentTimeMillis();
+            while (pageReader.hasNextBatch()) {
+                BatchData batchData = pageReader.nextBatch();
+                while (batchData.hasNext()) {
+                    Assert.assertEquals(index, batchData.currentTime());
+                    Assert.assertEquals(generateValueByIndex(index), batchData.currentValue().getValue());
+                    batchData.next();
+                    index++;
+                }
+            }
+            long endTimestamp = System.currentTimeMillis();
+            System.out.println("TestName: [" + name + "] in batch\n\tTSDataType: " + dataType +
+                    "\tRead-Count:" + count + "\tTime-used:" + (endTimestamp - startTimestamp) + "ms");
+            Assert.assertEquals(count, index);
+        }
+
         private void writeData() throws IOException {
             for (int i = 0; i < count; i++) {
                 switch (dataType) {
@@ -4,7 +4,11 @@ import cn.edu.tsinghua.tsfile.common.conf.TSFileDescriptor;
 import cn.edu.tsinghua.tsfile.common.utils.ITsRandomAccessFileReader;
 import cn.edu.tsinghua.tsfile.timeseries.read.TsRandomAccessLocalFileReader;
 import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.common.MemSeriesChunk;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.common.UncompressedSeriesChunk;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.MetadataQuerierByFileImpl;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoaderImpl;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
@@ -77,4 +81,91 @@ public class SeriesReaderByTimestampTest {
         System.out.println("SeriesReadWithFilterTest. [Time used]: " + (endTimestamp - startTimestamp) +
                 " ms. [Read Count]: " + count);
     }
+
+    @Test
+    public void readSparseTimestampsWithPageIndex() throws IOException {
+        SeriesChunkLoaderImpl seriesChunkLoader = new SeriesChunkLoaderImpl(randomAccessFileReader);
+        List<EncodedSeriesChunkDescriptor> encodedSeriesChunkDescriptorList = metadataQuerierByFile.getSeriesChunkDescriptorList(new Path("d1.s1"));
+        for (EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor : encodedSeriesChunkDescriptorList) {
+            Assert.assertNotNull(encodedSeriesChunkDescriptor.getPageIndex());
+            Assert.assertTrue(encodedSeriesChunkDescriptor.getPageIndex().size() > 1);
+        }
+        SeriesReader seriesReader = new SeriesReaderFromSingleFileWithoutFilterImpl(seriesChunkLoader, encodedSeriesChunkDescriptorList);
+        List<TimeValuePair> timeValuePairList = new ArrayList<>();
+        int count = 0;
+        while (seriesReader.hasNext()) {
+            TimeValuePair timeValuePair = seriesReader.next();
+            if (count % 20000 == 0) {
+                timeValuePairList.add(timeValuePair);
+                timeValuePairList.add(new TimeValuePair(timeValuePair.getTimestamp() + 1, null));
+            }
+            count++;
+        }
+        timeValuePairList.add(new TimeValuePair(Long.MAX_VALUE, null));
+
+        // the series chunks without page index are read by the page headers
+        List<EncodedSeriesChunkDescriptor> descriptorListWithoutPageIndex = metadataQuerierByFile.getSeriesChunkDescriptorList(new Path("d1.s1"));
+        for (EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor : descriptorListWithoutPageIndex) {
+            encodedSeriesChunkDescriptor.setPageIndex(null);
+        }
+        SeriesReaderFromSingleFileByTimestampImpl readerWithPageIndex = new SeriesReaderFromSingleFileByTimestampImpl(seriesChunkLoader, encodedSeriesChunkDescriptorList);
+        SeriesReaderFromSingleFileByTimestampImpl readerWithoutPageIndex = new SeriesReaderFromSingleFileByTimestampImpl(seriesChunkLoader, descriptorListWithoutPageIndex);
+        for (TimeValuePair timeValuePair : timeValuePairList) {
+            Assert.assertEquals(timeValuePair.getValue(), readerWithPageIndex.getValueInTimestamp(timeValuePair.getTimestamp()));
+            Assert.assertEquals(timeValuePair.getValue(), readerWithoutPageIndex.getValueInTimestamp(timeValuePair.getTimestamp()));
+        }
+    }
+
+    @Test
+    public void readUncompressedSeriesChunks() throws IOException, InterruptedException, WriteProcessException {
+        // regenerate the file with compressed pages
+        randomAccessFileReader.close();
+        TsFileGeneratorForSeriesReaderByTimestamp.after();
+        String compressor = TSFileDescriptor.getInstance().getConfig().compressor;
+        TSFileDescriptor.getInstance().getConfig().compressor = CompressionTypeName.SNAPPY.name();
+        try {
+            TsFileGeneratorForSeriesReaderByTimestamp.generateFile(rowCount, 10 * 1024 * 1024, 10000);
+        } finally {
+            TSFileDescriptor.getInstance().getConfig().compressor = compressor;
+        }
+        randomAccessFileReader = new TsRandomAccessLocalFileReader(FILE_PATH);
+        metadataQuerierByFile = new MetadataQuerierByFileImpl(randomAccessFileReader);
+
+        SeriesChunkLoaderImpl seriesChunkLoader = new SeriesChunkLoaderImpl(randomAccessFileReader);
+        SeriesChunkLoader uncompressedSeriesChunkLoader = encodedSeriesChunkDescriptor -> {
+            UncompressedSeriesChunk uncompressedSeriesChunk = UncompressedSeriesChunk.uncompress(encodedSeriesChunkDescriptor,
+                    seriesChunkLoader.getMemSeriesChunk(encodedSeriesChunkDescriptor).getSeriesChunkBodyStream());
+            MemSeriesChunk memSeriesChunk = uncompressedSeriesChunk.getMemSeriesChunk(encodedSeriesChunkDescriptor);
+            Assert.assertEquals(CompressionTypeName.UNCOMPRESSED, memSeriesChunk.getEncodedSeriesChunkDescriptor().getCompressionTypeName());
+            Assert.assertEquals(encodedSeriesChunkDescriptor.getPageIndex().size(), memSeriesChunk.getEncodedSeriesChunkDescriptor().getPageIndex().size());
+            Assert.assertEquals(uncompressedSeriesChunk.getLength(), memSeriesChunk.getSeriesChunkBodyStream().available());
+            return memSeriesChunk;
+        };
+        List<EncodedSeriesChunkDescriptor> encodedSeriesChunkDescriptorList = metadataQuerierByFile.getSeriesChunkDescriptorList(new Path("d1.s1"));
+        for (EncodedSeriesChunkDescriptor encodedSeriesChunkDescriptor : encodedSeriesChunkDescriptorList) {
+            Assert.assertEquals(CompressionTypeName.SNAPPY, encodedSeriesChunkDescriptor.getCompressionTypeName());
+        }
+
+        SeriesReader seriesReader = new SeriesReaderFromSingleFileWithoutFilterImpl(seriesChunkLoader, encodedSeriesChunkDescriptorList);
+        SeriesReader uncompressedSeriesReader = new SeriesReaderFromSingleFileWithoutFilterImpl(uncompressedSeriesChunkLoader, encodedSeriesChunkDescriptorList);
+        List<TimeValuePair> timeValuePairList = new ArrayList<>();
+        int count = 0;
+        while (seriesReader.hasNext()) {
+            TimeValuePair timeValuePair = seriesReader.next();
+            Assert.assertTrue(uncompressedSeriesReader.hasNext());
+            Assert.assertEquals(timeValuePair, uncompressedSeriesReader.next());
+            if (count % 20000 == 0) {
+                timeValuePairList.add(timeValuePair);
+                timeValuePairList.add(new TimeValuePair(timeValuePair.getTimestamp() + 1, null));
+            }
+            count++;
+        }
+        Assert.assertFalse(uncompressedSeriesReader.hasNext());
+
+        // the pages are skipped by the page index rebuilt for the uncompressed chunks
+        SeriesReaderFromSingleFileByTimestampImpl readerByTimestamp = new SeriesReaderFromSingleFileByTimestampImpl(uncompressedSeriesChunkLoader, encodedSeriesChunkDescriptorList);
+        for (TimeValuePair timeValuePair : timeValuePairList) {
+            Assert.assertEquals(timeValuePair.getValue(), readerByTimestamp.getValueInTimestamp(timeValuePair.getTimestamp()));
+        }
+    }
 }
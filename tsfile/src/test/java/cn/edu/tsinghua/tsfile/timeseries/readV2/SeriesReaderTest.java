@@ -12,7 +12,9 @@ import cn.edu.tsinghua.tsfile.timeseries.read.support.Path;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.common.EncodedSeriesChunkDescriptor;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.MetadataQuerierByFileImpl;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.controller.SeriesChunkLoaderImpl;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.BatchData;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.datatype.TimeValuePair;
+import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.BatchReader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.SeriesReader;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl.SeriesReaderFromSingleFileWithFilterImpl;
 import cn.edu.tsinghua.tsfile.timeseries.readV2.reader.impl.SeriesReaderFromSingleFileWithoutFilterImpl;
@@ -107,4 +109,46 @@ public class SeriesReaderTest {
         System.out.println("SeriesReadWithFilterTest. [Time used]: " + (endTimestamp - startTimestamp) +
                 " ms. [Read Count]: " + count);
     }
+
+    @Test
+    public void readBatchTest() throws IOException {
+        SeriesChunkLoaderImpl seriesChunkLoader = new SeriesChunkLoaderImpl(randomAccessFileReader);
+        List<EncodedSeriesChunkDescriptor> encodedSeriesChunkDescriptorList = metadataQuerierByFile.getSeriesChunkDescriptorList(new Path("d1.s1"));
+
+        BatchReader seriesReader = new SeriesReaderFromSingleFileWithoutFilterImpl(seriesChunkLoader, encodedSeriesChunkDescriptorList);
+        long startTime = TsFileGeneratorForTest.START_TIMESTAMP;
+        int count = 0;
+        long startTimestamp = System.currentTimeMillis();
+        while (seriesReader.hasNextBatch()) {
+            BatchData batchData = seriesReader.nextBatch();
+            Assert.assertTrue(batchData.length() > 0);
+            while (batchData.hasNext()) {
+                Assert.assertEquals(startTime, batchData.currentTime());
+                batchData.next();
+                startTime++;
+                count++;
+            }
+        }
+        long endTimestamp = System.currentTimeMillis();
+        Assert.assertEquals(rowCount, count);
+        System.out.println("SeriesReadBatchTest. [Time used]: " + (endTimestamp - startTimestamp) +
+                " ms. [Read Count]: " + count);
+
+        Filter<Integer> filter = new FilterFactory().or(
+                FilterFactory.and(TimeFilter.gt(1480563570029L), TimeFilter.lt(1480563570033L)),
+                FilterFactory.and(ValueFilter.gtEq(9520331), ValueFilter.ltEq(9520361)));
+        seriesReader = new SeriesReaderFromSingleFileWithFilterImpl(seriesChunkLoader, encodedSeriesChunkDescriptorList, filter);
+        SeriesReader pointReader = new SeriesReaderFromSingleFileWithFilterImpl(seriesChunkLoader, encodedSeriesChunkDescriptorList, filter);
+        while (seriesReader.hasNextBatch()) {
+            BatchData batchData = seriesReader.nextBatch();
+            while (batchData.hasNext()) {
+                Assert.assertTrue(pointReader.hasNext());
+                TimeValuePair timeValuePair = pointReader.next();
+                Assert.assertEquals(timeValuePair.getTimestamp(), batchData.currentTime());
+                Assert.assertEquals(timeValuePair.getValue().getInt(), batchData.getInt());
+                batchData.next();
+            }
+        }
+        Assert.assertFalse(pointReader.hasNext());
+    }
 }
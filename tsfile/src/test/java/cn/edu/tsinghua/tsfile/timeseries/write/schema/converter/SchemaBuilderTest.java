@@ -2,6 +2,7 @@ package cn.edu.tsinghua.tsfile.timeseries.write.schema.converter;
 
 import cn.edu.tsinghua.tsfile.common.constant.JsonFormatConstant;
 import cn.edu.tsinghua.tsfile.file.metadata.TimeSeriesMetadata;
+import cn.edu.tsinghua.tsfile.file.metadata.enums.CompressionTypeName;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSDataType;
 import cn.edu.tsinghua.tsfile.file.metadata.enums.TSEncoding;
 import cn.edu.tsinghua.tsfile.timeseries.write.desc.MeasurementDescriptor;
@@ -75,4 +76,18 @@ public class SchemaBuilderTest {
         }
 
     }
+
+    @Test
+    public void testCompressorOfSeries() {
+        Map<String, String> props = new HashMap<>();
+        props.put(JsonFormatConstant.COMPRESS_TYPE, "GZIP");
+        props.put(JsonFormatConstant.COMPRESSION_LEVEL, "9");
+        MeasurementDescriptor gzipDescriptor = new MeasurementDescriptor("s1", TSDataType.INT64, TSEncoding.RLE, props);
+        assertEquals(CompressionTypeName.GZIP, gzipDescriptor.getCompressor().getCodecName());
+
+        props.clear();
+        props.put(JsonFormatConstant.COMPRESS_TYPE, "lz4");
+        MeasurementDescriptor lz4Descriptor = new MeasurementDescriptor("s2", TSDataType.INT64, TSEncoding.RLE, props);
+        assertEquals(CompressionTypeName.LZ4, lz4Descriptor.getCompressor().getCodecName());
+    }
 }